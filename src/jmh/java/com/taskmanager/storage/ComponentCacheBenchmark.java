@@ -0,0 +1,90 @@
+package com.taskmanager.storage;
+
+import com.taskmanager.models.IdGenerator;
+import com.taskmanager.models.Task;
+import com.taskmanager.models.TaskComponent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Confronta la cache di TaskStorage (ComponentCache) con la ConcurrentHashMap
+ * che usava prima, su letture, scritture e un carico misto da più thread.
+ * Gli ID vengono da IdGenerator, come quelli dei task nuovi; le ricerche usano
+ * copie delle stringhe, come gli ID letti da un comando o da un file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ComponentCacheBenchmark {
+    
+    @Param({"ConcurrentHashMap", "ComponentCache"})
+    public String implementation;
+    
+    @Param({"100000", "1000000"})
+    public int size;
+    
+    private Map<String, TaskComponent> cache;
+    private String[] ids;
+    private String[] lookups;
+    private TaskComponent[] tasks;
+    
+    @Setup
+    public void setUp() {
+        cache = implementation.equals("ComponentCache") ? new ComponentCache() : new ConcurrentHashMap<>();
+        IdGenerator generator = new IdGenerator(1);
+        ids = new String[size];
+        lookups = new String[size];
+        tasks = new TaskComponent[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = generator.next();
+            lookups[i] = new String(ids[i].toCharArray());
+            tasks[i] = new Task("Task " + i, "");
+            cache.put(ids[i], tasks[i]);
+        }
+    }
+    
+    @Benchmark
+    @Threads(4)
+    public TaskComponent get() {
+        return cache.get(lookups[ThreadLocalRandom.current().nextInt(size)]);
+    }
+    
+    @Benchmark
+    @Threads(4)
+    public TaskComponent put() {
+        int i = ThreadLocalRandom.current().nextInt(size);
+        return cache.put(lookups[i], tasks[i]);
+    }
+    
+    /**
+     * Nove letture ogni scrittura, il rapporto tipico della CLI
+     */
+    @Benchmark
+    @Threads(4)
+    public TaskComponent mixed() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int i = random.nextInt(size);
+        if (random.nextInt(10) == 0) {
+            return cache.compute(lookups[i], (id, current) -> tasks[i]);
+        }
+        return cache.get(lookups[i]);
+    }
+}
\ No newline at end of file
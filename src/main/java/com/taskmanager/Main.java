@@ -2,6 +2,7 @@ package com.taskmanager;
 
 import com.taskmanager.cli.TaskManagerCLI;
 import com.taskmanager.config.AppConfig;
+import com.taskmanager.models.IdGenerator;
 
 /**
  * Classe principale dell'applicazione Task Manager.
@@ -21,6 +22,7 @@ public class Main {
             // Inizializza la configurazione
             AppConfig config = AppConfig.getInstance();
             config.init();
+            IdGenerator.setDefault(new IdGenerator((int) config.getLongProperty("ids.node", 0)));
             
             // Avvia l'interfaccia CLI
             TaskManagerCLI cli = new TaskManagerCLI();
@@ -19,10 +19,12 @@ import com.taskmanager.strategy.SortByStatus;
 import com.taskmanager.strategy.SortByTitle;
 import com.taskmanager.strategy.SortStrategy;
 
+import java.util.EnumSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 /**
  * Interfaccia a linea di comando per il Task Manager.
@@ -34,6 +36,13 @@ import java.util.stream.Collectors;
  * @param running flag per controllare il loop principale
  */
 public class TaskManagerCLI {
+    /** Numero massimo di risultati mostrati da search */
+    private static final int SEARCH_LIMIT = 20;
+    /** Task mostrati da 'list' prima di chiedere se continuare */
+    private static final int LIST_PAGE_SIZE = 20;
+    /** Numero massimo di ID mostrati quando un prefisso è ambiguo */
+    private static final int AMBIGUOUS_IDS_SHOWN = 5;
+    
     private final TaskManager taskManager;
     private final Scanner scanner;
     private final SortStrategy<TaskComponent> sortStrategy;
@@ -96,7 +105,9 @@ public class TaskManagerCLI {
             case "status" -> changeTaskStatus(args);
             case "priority", "prio" -> changeTaskPriority(args);
             case "sort" -> sortTasks(args);
-            case "filter" -> filterTasksByStatus(args);
+            case "filter" -> filterTasks(args);
+            case "search", "find" -> searchTasks(args);
+            case "title" -> findTasksByTitle(args);
             case "stats" -> showStatistics();
             case "export" -> exportToLegacy();
             case "demo" -> runDemo();
@@ -115,14 +126,16 @@ public class TaskManagerCLI {
             ==========================================
             🏗️  CREAZIONE:
             add <titolo>       - Crea un nuovo task
-            urgent <titolo>    - Crea un task urgente  
+            urgent <titolo>    - Crea un task urgente
             project <titolo>   - Crea un nuovo progetto
             
             📋 VISUALIZZAZIONE:
             list, ls          - Mostra tutti i task
-            show <id>         - Mostra dettagli di un task
+            show <id>         - Mostra dettagli di un task (basta l'inizio dell'ID)
             sort [strategia]  - Ordina task (title/priority/status)
-            filter [status]   - Filtra per status
+            filter [status] [prio] - Filtra per status e priorità (più valori con la virgola)
+            search <parole>   - Cerca nel titolo e nella descrizione
+            title <testo>     - Cerca per inizio del titolo, anche con errori di battitura
             stats             - Mostra statistiche
             
             ✏️  MODIFICA:
@@ -141,8 +154,13 @@ public class TaskManagerCLI {
             project Sviluppo Website
             urgent Consegnare progetto
             status a1b2c3d4
+            show a1b
             sort priority
             filter done
+            filter todo,progress high,critical
+            filter all critical
+            search report mensile
+            title repor
             """);
     }
     
@@ -198,26 +216,41 @@ public class TaskManagerCLI {
     }
     
     /**
-     * Lista tutti i task
+     * Lista tutti i task in ordine di ID, una pagina alla volta: ogni pagina
+     * si chiede al manager dopo l'ultimo ID mostrato, senza copiare tutti i task
      */
     private void listTasks() {
-        List<Task> tasks = taskManager.getAllTasks();
+        List<Task> tasks = taskManager.page(null, LIST_PAGE_SIZE);
         
         if (tasks.isEmpty()) {
             System.out.println("📭 Nessun task presente.");
             return;
         }
         
-        System.out.println("\n📋 LISTA TASK (" + tasks.size() + " totali):");
+        int total = taskManager.countTasksByStatus().values().stream().mapToInt(Integer::intValue).sum();
+        System.out.println("\n📋 LISTA TASK (" + total + " totali):");
         System.out.println("=" .repeat(50));
         
-        TaskIterator iterator = new TaskIterator(tasks);
         int counter = 1;
-        
-        while (iterator.hasNext()) {
-            Task task = iterator.next();
-            System.out.printf("%2d. [%s] %s - %s (%s)%n", 
-                counter++, task.getId(), task.getTitle(), task.getStatus(), task.getPriority());
+        while (true) {
+            TaskIterator iterator = new TaskIterator(tasks);
+            while (iterator.hasNext()) {
+                Task task = iterator.next();
+                System.out.printf("%2d. [%s] %s - %s (%s)%n",
+                    counter++, task.getId(), task.getTitle(), task.getStatus(), task.getPriority());
+            }
+            if (tasks.size() < LIST_PAGE_SIZE) {
+                break;
+            }
+            List<Task> next = taskManager.page(tasks.get(tasks.size() - 1).getId(), LIST_PAGE_SIZE);
+            if (next.isEmpty()) {
+                break;
+            }
+            System.out.print("↩️  Invio per i successivi, 'q' per fermarsi: ");
+            if (!scanner.hasNextLine() || scanner.nextLine().trim().equalsIgnoreCase("q")) {
+                break;
+            }
+            tasks = next;
         }
         
         System.out.println("=" .repeat(50));
@@ -234,6 +267,10 @@ public class TaskManagerCLI {
             System.out.print("🔍 Inserisci l'ID del task: ");
             id = scanner.nextLine().trim();
         }
+        id = resolveId(id);
+        if (id == null) {
+            return;
+        }
         
         Task task = taskManager.findTaskById(id);
         if (task == null) {
@@ -249,6 +286,34 @@ public class TaskManagerCLI {
         System.out.println("Aggiornato: " + task.getUpdatedAt());
     }
     
+    /**
+     * Completa un ID abbreviato: basta il prefisso più corto che identifica un solo componente.
+     * Se il prefisso è ambiguo mostra gli ID possibili e restituisce null; se non trova
+     * nulla restituisce il testo com'è, così il comando segnala l'ID inesistente.
+     * 
+     * @param input l'ID o il suo prefisso
+     * @return l'ID completo, oppure null se il prefisso è ambiguo
+     */
+    private String resolveId(String input) {
+        if (input.isEmpty()) {
+            return input;
+        }
+        List<String> ids = taskManager.findIdsByPrefix(input, AMBIGUOUS_IDS_SHOWN + 1);
+        if (ids.contains(input)) {
+            return input; // ID completo, anche se è il prefisso di un altro
+        }
+        if (ids.size() == 1) {
+            return ids.get(0);
+        }
+        if (ids.size() > 1) {
+            System.out.println("⚠️  Prefisso ambiguo: " + input + " corrisponde a "
+                    + String.join(", ", ids.subList(0, Math.min(ids.size(), AMBIGUOUS_IDS_SHOWN)))
+                    + (ids.size() > AMBIGUOUS_IDS_SHOWN ? ", ..." : ""));
+            return null;
+        }
+        return input;
+    }
+    
     /**
      * Elimina un task
      * 
@@ -259,13 +324,17 @@ public class TaskManagerCLI {
             System.out.print("🗑️  Inserisci l'ID del task da eliminare: ");
             id = scanner.nextLine().trim();
         }
+        id = resolveId(id);
+        if (id == null) {
+            return;
+        }
         
         boolean deleted = taskManager.deleteTask(id);
         if (!deleted) {
             System.out.println("❌ Task non trovato o errore durante l'eliminazione: " + id);
         }
     }
-
+    
     /**
      * Crea un nuovo progetto
      * 
@@ -292,7 +361,7 @@ public class TaskManagerCLI {
             addTasksToProject(project);
         }
     }
-
+    
     /**
      * Aggiunge task a un progetto
      * 
@@ -320,7 +389,7 @@ public class TaskManagerCLI {
         
         System.out.println("📁 Progetto completato con " + project.getComponents().size() + " task");
     }
-
+    
     /**
      * Cambia lo status di un task
      * 
@@ -331,6 +400,10 @@ public class TaskManagerCLI {
             System.out.print("🔄 Inserisci l'ID del task: ");
             id = scanner.nextLine().trim();
         }
+        id = resolveId(id);
+        if (id == null) {
+            return;
+        }
         
         Task task = taskManager.findTaskById(id);
         if (task == null) {
@@ -359,12 +432,16 @@ public class TaskManagerCLI {
         
         if (newStatus != null) {
             task.setStatus(newStatus);
+            // Se lo storage segue le modifiche sul posto le salva da solo, altrimenti il task va salvato di nuovo
+            if (!taskManager.tracksChanges()) {
+                taskManager.updateTask(task);
+            }
             System.out.println("✅ Status aggiornato: " + task.getTitle() + " → " + newStatus);
         } else {
             System.out.println("❌ Scelta non valida!");
         }
     }
-
+    
     /**
      * Cambia la priorità di un task
      * 
@@ -375,6 +452,10 @@ public class TaskManagerCLI {
             System.out.print("⚡ Inserisci l'ID del task: ");
             id = scanner.nextLine().trim();
         }
+        id = resolveId(id);
+        if (id == null) {
+            return;
+        }
         
         Task task = taskManager.findTaskById(id);
         if (task == null) {
@@ -403,12 +484,15 @@ public class TaskManagerCLI {
         
         if (newPriority != null) {
             task.setPriority(newPriority);
+            if (!taskManager.tracksChanges()) {
+                taskManager.updateTask(task);
+            }
             System.out.println("✅ Priorità aggiornata: " + task.getTitle() + " → " + newPriority);
         } else {
             System.out.println("❌ Scelta non valida!");
         }
     }
-
+    
     /**
      * Ordina e mostra task con diverse strategie
      * 
@@ -451,104 +535,198 @@ public class TaskManagerCLI {
         for (int i = 0; i < sortedTasks.size(); i++) {
             TaskComponent task = sortedTasks.get(i);
             if (task instanceof Task t) {
-                System.out.printf("%2d. [%s] %s - %s (%s)%n", 
+                System.out.printf("%2d. [%s] %s - %s (%s)%n",
                     i + 1, t.getId(), t.getTitle(), t.getStatus(), t.getPriority());
             }
         }
     }
-
+    
     /**
-     * Filtra task per status
+     * Filtra task per status e, facoltativamente, per priorità.
+     * Più valori dello stesso attributo si separano con la virgola:
+     * "filter todo,progress high,critical" mostra i task da fare o in corso
+     * con priorità alta o critica.
      * 
-     * @param status lo status da filtrare (todo, progress, done, cancelled)
+     * @param args gli status e le priorità da filtrare
      */
-    private void filterTasksByStatus(String status) {
-        if (status.isEmpty()) {
+    private void filterTasks(String args) {
+        if (args.isEmpty()) {
             System.out.println("🔍 Filtra per status:");
             System.out.println("1. todo - Task da fare");
             System.out.println("2. progress - Task in corso");
             System.out.println("3. done - Task completati");
             System.out.println("4. cancelled - Task annullati");
             System.out.print("Scegli filtro: ");
-            status = scanner.nextLine().trim().toLowerCase();
+            args = scanner.nextLine().trim();
         }
         
-        TaskStatus filterStatus = switch (status) {
-            case "todo", "1" -> TaskStatus.TODO;
-            case "progress", "2" -> TaskStatus.IN_PROGRESS;
-            case "done", "3" -> TaskStatus.DONE;
-            case "cancelled", "4" -> TaskStatus.CANCELLED;
-            default -> null;
-        };
-        
-        if (filterStatus == null) {
-            System.out.println("❌ Status non valido!");
-            return;
+        String[] parts = args.toLowerCase().split("\\s+", 2);
+        Set<TaskStatus> statuses = EnumSet.noneOf(TaskStatus.class);
+        for (String value : parts[0].split(",")) {
+            if (value.equals("all") || value.equals("*")) {
+                continue; // Nessun vincolo sullo status, per filtrare solo sulla priorità
+            }
+            TaskStatus filterStatus = switch (value) {
+                case "todo", "1" -> TaskStatus.TODO;
+                case "progress", "2" -> TaskStatus.IN_PROGRESS;
+                case "done", "3" -> TaskStatus.DONE;
+                case "cancelled", "4" -> TaskStatus.CANCELLED;
+                default -> null;
+            };
+            if (filterStatus == null) {
+                System.out.println("❌ Status non valido: " + value);
+                return;
+            }
+            statuses.add(filterStatus);
+        }
+        
+        Set<TaskPriority> priorities = EnumSet.noneOf(TaskPriority.class);
+        if (parts.length > 1) {
+            for (String value : parts[1].split(",")) {
+                TaskPriority filterPriority = switch (value) {
+                    case "low", "1" -> TaskPriority.LOW;
+                    case "medium", "2" -> TaskPriority.MEDIUM;
+                    case "high", "3" -> TaskPriority.HIGH;
+                    case "critical", "4" -> TaskPriority.CRITICAL;
+                    default -> null;
+                };
+                if (filterPriority == null) {
+                    System.out.println("❌ Priorità non valida: " + value);
+                    return;
+                }
+                priorities.add(filterPriority);
+            }
         }
         
-        var filteredTasks = taskManager.getAllTasks().stream()
-                .filter(task -> task.getStatus() == filterStatus)
-                .toList();
+        String description = "Status: " + (statuses.isEmpty() ? "tutti" : statuses)
+                + (priorities.isEmpty() ? "" : ", Priorità: " + priorities);
+        var filteredTasks = taskManager.getTasks(statuses, priorities);
         
         if (filteredTasks.isEmpty()) {
-            System.out.println("📭 Nessun task con status: " + filterStatus);
+            System.out.println("📭 Nessun task con " + description);
             return;
         }
         
-        System.out.println("\n🔍 TASK FILTRATI (Status: " + filterStatus + "):");
+        System.out.println("\n🔍 TASK FILTRATI (" + description + "):");
         System.out.println("=" .repeat(50));
         
         for (int i = 0; i < filteredTasks.size(); i++) {
             Task task = filteredTasks.get(i);
-            System.out.printf("%2d. [%s] %s (%s)%n", 
+            System.out.printf("%2d. [%s] %s (%s)%n",
                 i + 1, task.getId(), task.getTitle(), task.getPriority());
         }
     }
-
+    
+    /**
+     * Cerca i task per parole del titolo e della descrizione, dal più pertinente
+     * 
+     * @param args le parole da cercare
+     */
+    private void searchTasks(String args) {
+        if (args.isEmpty()) {
+            System.out.print("🔍 Parole da cercare: ");
+            args = scanner.nextLine().trim();
+            if (args.isEmpty()) {
+                System.out.println("❌ Nessuna parola da cercare");
+                return;
+            }
+        }
+        
+        long start = System.nanoTime();
+        try {
+            List<Task> found = taskManager.searchTasks(args, SEARCH_LIMIT);
+            printSearchResults(args, found, (System.nanoTime() - start) / 1_000_000);
+        } catch (UnsupportedOperationException e) {
+            System.out.println("❌ " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Cerca i task il cui titolo ha una parola che inizia con il testo dato,
+     * tollerando errori di battitura
+     * 
+     * @param args l'inizio del titolo
+     */
+    private void findTasksByTitle(String args) {
+        if (args.isEmpty()) {
+            System.out.print("🔍 Inizio del titolo: ");
+            args = scanner.nextLine().trim();
+            if (args.isEmpty()) {
+                System.out.println("❌ Nessun testo da cercare");
+                return;
+            }
+        }
+        
+        long start = System.nanoTime();
+        try {
+            List<Task> found = taskManager.findTasksByTitle(args, SEARCH_LIMIT);
+            printSearchResults(args, found, (System.nanoTime() - start) / 1_000_000);
+        } catch (UnsupportedOperationException e) {
+            System.out.println("❌ " + e.getMessage());
+        }
+    }
+    
+    private void printSearchResults(String args, List<Task> found, long elapsedMs) {
+        if (found.isEmpty()) {
+            System.out.println("📭 Nessun task trovato per: " + args);
+            return;
+        }
+        
+        System.out.println("\n🔍 RISULTATI PER \"" + args + "\" (" + found.size() + " in " + elapsedMs + " ms):");
+        System.out.println("=" .repeat(50));
+        
+        for (int i = 0; i < found.size(); i++) {
+            Task task = found.get(i);
+            System.out.printf("%2d. [%s] %s - %s (%s)%n",
+                i + 1, task.getId(), task.getTitle(), task.getStatus(), task.getPriority());
+        }
+    }
+    
     /**
      * Mostra statistiche dei task
      */
     private void showStatistics() {
-        List<Task> allTasks = taskManager.getAllTasks();
+        // I conteggi vengono dagli indici dello storage, senza caricare la lista dei task
+        Map<TaskStatus, Integer> statusCount = taskManager.countTasksByStatus();
+        Map<TaskPriority, Integer> priorityCount = taskManager.countTasksByPriority();
+        int totalTasks = statusCount.values().stream().mapToInt(Integer::intValue).sum();
         
-        if (allTasks.isEmpty()) {
+        if (totalTasks == 0) {
             System.out.println("📊 Nessun task presente per le statistiche.");
             return;
         }
         
-        // Conta per status
-        Map<TaskStatus, Long> statusCount = allTasks.stream()
-                .collect(Collectors.groupingBy(Task::getStatus, Collectors.counting()));
-        
-        // Conta per priorità
-        Map<TaskPriority, Long> priorityCount = allTasks.stream()
-                .collect(Collectors.groupingBy(Task::getPriority, Collectors.counting()));
-        
         System.out.println("\n📊 STATISTICHE TASK:");
         System.out.println("=" .repeat(40));
-        System.out.println("Totale task: " + allTasks.size());
+        System.out.println("Totale task: " + totalTasks);
         
         System.out.println("\n📈 Per Status:");
-        statusCount.forEach((status, count) -> 
-            System.out.printf("  %s: %d%n", status, count));
+        statusCount.forEach((status, count) -> {
+            if (count > 0) {
+                System.out.printf("  %s: %d%n", status, count);
+            }
+        });
         
         System.out.println("\n⚡ Per Priorità:");
-        priorityCount.forEach((priority, count) -> 
-            System.out.printf("  %s: %d%n", priority, count));
+        priorityCount.forEach((priority, count) -> {
+            if (count > 0) {
+                System.out.printf("  %s: %d%n", priority, count);
+            }
+        });
         
         // Percentuale completamento
-        long completedTasks = statusCount.getOrDefault(TaskStatus.DONE, 0L);
-        double completionRate = (double) completedTasks / allTasks.size() * 100;
+        long completedTasks = statusCount.getOrDefault(TaskStatus.DONE, 0);
+        double completionRate = (double) completedTasks / totalTasks * 100;
         System.out.printf("\n✅ Tasso di completamento: %.1f%%%n", completionRate);
     }
-
+    
     /**
      * Esporta task in formato legacy
      */
     private void exportToLegacy() {
-        List<Task> tasks = taskManager.getAllTasks();
+        Iterator<Task> tasks = taskManager.streamTasks().iterator();
         
-        if (tasks.isEmpty()) {
+        if (!tasks.hasNext()) {
             System.out.println("📭 Nessun task da esportare.");
             return;
         }
@@ -558,12 +736,14 @@ public class TaskManagerCLI {
         System.out.println("\n📤 ESPORTAZIONE IN FORMATO LEGACY:");
         System.out.println("=" .repeat(50));
         
-        for (Task task : tasks) {
-            var legacyTask = adapter.adaptToLegacy(task);
+        int exported = 0;
+        while (tasks.hasNext()) {
+            var legacyTask = adapter.adaptToLegacy(tasks.next());
             System.out.println(legacyTask);
+            exported++;
         }
         
-        System.out.println("\n✅ Esportati " + tasks.size() + " task in formato legacy");
+        System.out.println("\n✅ Esportati " + exported + " task in formato legacy");
     }
     
     /**
@@ -615,6 +795,7 @@ public class TaskManagerCLI {
         System.out.println("👋 Grazie per aver usato Task Manager CLI!");
         System.out.println("Arrivederci! 🎓");
         running = false;
+        taskManager.close(); // Scrive su disco le modifiche ancora in coda
         scanner.close();
     }
 }
\ No newline at end of file
@@ -73,6 +73,20 @@ public class AppConfig {
         properties.setProperty("app.name", "Task Manager CLI");
         properties.setProperty("app.version", "1.0.0");
         properties.setProperty("storage.file", "tasks.json");
+        properties.setProperty("storage.engine", "auto"); // auto | text | json | log | mmap | lsm | btree
+        properties.setProperty("storage.mode", "snapshot"); // snapshot | log | mmap
+        properties.setProperty("storage.compaction.minLogBytes", "1048576");
+        properties.setProperty("storage.compaction.ratio", "1.0");
+        properties.setProperty("storage.fsync", "os"); // always | interval | os
+        properties.setProperty("storage.fsync.intervalMs", "100");
+        properties.setProperty("storage.writeBehind", "false");
+        properties.setProperty("storage.writeBehind.capacity", "10000");
+        properties.setProperty("storage.lsm.memtableEntries", "10000");
+        properties.setProperty("storage.lsm.fanout", "4");
+        properties.setProperty("storage.btree.poolPages", "1024");
+        properties.setProperty("storage.cache.maxEntries", "10000"); // 0 = nessuna cache
+        properties.setProperty("storage.bloom.fpp", "0.01");
+        properties.setProperty("ids.node", "0"); // 0-1023, diverso per ogni processo che crea task
     }
     
     /**
@@ -95,4 +109,44 @@ public class AppConfig {
     public String getProperty(String key, String defaultValue) {
         return properties.getProperty(key, defaultValue);
     }
+    
+    /**
+     * Ottiene una proprietà numerica intera con valore di default
+     * 
+     * @param key la chiave
+     * @param defaultValue valore di default se assente o non valida
+     * @return il valore della proprietà o il default
+     */
+    public long getLongProperty(String key, long defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("⚠️  Valore non valido per " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+    
+    /**
+     * Ottiene una proprietà numerica decimale con valore di default
+     * 
+     * @param key la chiave
+     * @param defaultValue valore di default se assente o non valida
+     * @return il valore della proprietà o il default
+     */
+    public double getDoubleProperty(String key, double defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("⚠️  Valore non valido per " + key + ": " + value);
+            return defaultValue;
+        }
+    }
 }
\ No newline at end of file
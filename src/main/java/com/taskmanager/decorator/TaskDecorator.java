@@ -1,5 +1,6 @@
 package com.taskmanager.decorator;
 
+import com.taskmanager.models.ChangeListener;
 import com.taskmanager.models.TaskComponent;
 import com.taskmanager.models.TaskStatus;
 import com.taskmanager.models.TaskPriority;
@@ -67,4 +68,9 @@ public abstract class TaskDecorator implements TaskComponent {
     public void setPriority(TaskPriority priority) {
         wrappedComponent.setPriority(priority);
     }
+    
+    @Override
+    public void setChangeListener(ChangeListener listener) {
+        wrappedComponent.setChangeListener(listener);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.taskmanager.models;
+
+/**
+ * Riceve le modifiche fatte sul posto a un componente, per esempio con setStatus().
+ * Lo storage che tiene in cache un componente si registra così e sa quali record
+ * riscrivere senza che chi modifica il componente debba salvarlo di nuovo.
+ */
+@FunctionalInterface
+public interface ChangeListener {
+    /**
+     * Metodo chiamato dopo ogni modifica, nel thread che l'ha fatta
+     * 
+     * @param component il componente modificato
+     */
+    void componentChanged(TaskComponent component);
+}
\ No newline at end of file
@@ -0,0 +1,258 @@
+package com.taskmanager.models;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generatore di ID a 64 bit ordinati nel tempo, nello stile di Snowflake.
+ * Un ID è composto da:
+ * <pre>
+ * 0 | millisecondi dal 2024-01-01 (41 bit) | nodo (10 bit) | sequenza (12 bit)
+ * </pre>
+ * Il bit di segno resta a zero, i 41 bit di tempo bastano fino al 2093, i 10 bit di nodo separano fino a
+ * 1024 processi che scrivono insieme e la sequenza dà 4096 ID per millisecondo.
+ * Gli ID di un generatore sono sempre crescenti: se il clock torna indietro o la
+ * sequenza del millisecondo finisce, si prosegue dal millisecondo successivo
+ * all'ultimo usato invece di aspettare. Generare un ID è un compareAndSet, senza
+ * SecureRandom e senza allocazioni oltre alla stringa.
+ * 
+ * La forma testuale è di 13 caratteri in base32 di Crockford minuscola, a
+ * lunghezza fissa: l'ordine alfabetico delle stringhe è quello numerico degli ID,
+ * quindi una scansione per intervallo di ID è una scansione per data di creazione.
+ * 
+ * @param node il numero del nodo, tra 0 e MAX_NODE
+ * @param clock l'orologio da cui leggere il tempo
+ * @param last l'ultimo ID generato
+ */
+public final class IdGenerator {
+    /** Inizio del tempo degli ID: 2024-01-01T00:00:00Z */
+    public static final long EPOCH_MILLIS = 1_704_067_200_000L;
+    public static final int MAX_NODE = (1 << 10) - 1;
+    /** Lunghezza della forma testuale */
+    public static final int STRING_LENGTH = 13;
+    
+    private static final int SEQUENCE_BITS = 12;
+    private static final int NODE_BITS = 10;
+    private static final int TIMESTAMP_SHIFT = SEQUENCE_BITS + NODE_BITS;
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+    private static final long MAX_TIMESTAMP = (1L << (63 - TIMESTAMP_SHIFT)) - 1;
+    private static final char[] ALPHABET = "0123456789abcdefghjkmnpqrstvwxyz".toCharArray();
+    private static final byte[] DECODE = new byte[128];
+    private static final byte[] DECODE_CANONICAL = new byte[128];
+    
+    private static volatile IdGenerator defaultGenerator = new IdGenerator(0);
+    
+    private final long node;
+    private final Clock clock;
+    private final AtomicLong last = new AtomicLong();
+    
+    static {
+        Arrays.fill(DECODE, (byte) -1);
+        Arrays.fill(DECODE_CANONICAL, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DECODE[ALPHABET[i]] = (byte) i;
+            DECODE[Character.toUpperCase(ALPHABET[i])] = (byte) i;
+            DECODE_CANONICAL[ALPHABET[i]] = (byte) i;
+        }
+    }
+    
+    /**
+     * Costruttore
+     * 
+     * @param node il numero del nodo, diverso per ogni processo che crea ID insieme agli altri
+     */
+    public IdGenerator(int node) {
+        this(node, Clock.systemUTC());
+    }
+    
+    /**
+     * Costruttore con un orologio dato, per i test
+     * 
+     * @param node il numero del nodo
+     * @param clock l'orologio da cui leggere il tempo
+     */
+    public IdGenerator(int node, Clock clock) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("Il nodo deve essere tra 0 e " + MAX_NODE + ": " + node);
+        }
+        this.node = node;
+        this.clock = clock;
+    }
+    
+    /**
+     * Restituisce il generatore usato da Task e Project
+     * 
+     * @return il generatore predefinito
+     */
+    public static IdGenerator getDefault() {
+        return defaultGenerator;
+    }
+    
+    /**
+     * Sostituisce il generatore predefinito, per esempio con il nodo letto dalla configurazione
+     * 
+     * @param generator il nuovo generatore
+     */
+    public static void setDefault(IdGenerator generator) {
+        if (generator == null) {
+            throw new IllegalArgumentException("Il generatore non può essere null");
+        }
+        defaultGenerator = generator;
+    }
+    
+    /**
+     * Genera un nuovo ID, maggiore di tutti quelli generati prima da questo generatore
+     * 
+     * @return l'ID
+     */
+    public long nextId() {
+        long now = Math.max(0, clock.millis() - EPOCH_MILLIS);
+        while (true) {
+            long previous = last.get();
+            long previousTime = previous >>> TIMESTAMP_SHIFT;
+            long next;
+            if (now > previousTime) {
+                next = compose(now, node, 0);
+            } else if ((previous & MAX_SEQUENCE) < MAX_SEQUENCE) {
+                next = previous + 1;
+            } else {
+                next = compose(previousTime + 1, node, 0);
+            }
+            if (last.compareAndSet(previous, next)) {
+                return next;
+            }
+        }
+    }
+    
+    /**
+     * Genera un nuovo ID nella forma testuale
+     * 
+     * @return l'ID di 13 caratteri
+     */
+    public String next() {
+        return format(nextId());
+    }
+    
+    /**
+     * Converte un ID nella forma testuale a lunghezza fissa
+     * 
+     * @param id l'ID, non negativo
+     * @return 13 caratteri in base32 di Crockford minuscola
+     */
+    public static String format(long id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("L'ID non può essere negativo");
+        }
+        char[] chars = new char[STRING_LENGTH];
+        for (int i = STRING_LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+    
+    /**
+     * Riconverte la forma testuale in ID; accetta anche le maiuscole
+     * 
+     * @param text i 13 caratteri
+     * @return l'ID
+     * @throws IllegalArgumentException se il testo non è un ID valido
+     */
+    public static long parse(String text) {
+        if (text == null || text.length() != STRING_LENGTH) {
+            throw new IllegalArgumentException("ID non valido: " + text);
+        }
+        long id = 0;
+        for (int i = 0; i < STRING_LENGTH; i++) {
+            char c = text.charAt(i);
+            int value = c < DECODE.length ? DECODE[c] : -1;
+            if (value < 0 || (i == 0 && value > 7)) { // Il primo carattere porta solo 3 bit
+                throw new IllegalArgumentException("ID non valido: " + text);
+            }
+            id = (id << 5) | value;
+        }
+        return id;
+    }
+    
+    /**
+     * Riconverte la forma testuale canonica (minuscola, come la produce format()) senza eccezioni:
+     * per ogni risultato non negativo vale format(tryParse(text)).equals(text)
+     * 
+     * @param text il testo
+     * @return l'ID, oppure -1 se il testo non è un ID canonico
+     */
+    public static long tryParse(String text) {
+        if (text == null || text.length() != STRING_LENGTH) {
+            return -1;
+        }
+        long id = 0;
+        for (int i = 0; i < STRING_LENGTH; i++) {
+            char c = text.charAt(i);
+            int value = c < DECODE_CANONICAL.length ? DECODE_CANONICAL[c] : -1;
+            if (value < 0 || (i == 0 && value > 7)) {
+                return -1;
+            }
+            id = (id << 5) | value;
+        }
+        return id;
+    }
+    
+    /**
+     * Indica se un testo è nella forma di questo generatore; gli ID dei dati
+     * più vecchi (8 caratteri esadecimali) non lo sono
+     * 
+     * @param text il testo
+     * @return true se parse() lo accetta
+     */
+    public static boolean isValid(String text) {
+        try {
+            parse(text);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Restituisce l'istante in cui è stato generato un ID
+     * 
+     * @param id l'ID
+     * @return l'istante, al millisecondo
+     */
+    public static Instant timestampOf(long id) {
+        return Instant.ofEpochMilli((id >>> TIMESTAMP_SHIFT) + EPOCH_MILLIS);
+    }
+    
+    /**
+     * Restituisce il nodo che ha generato un ID
+     * 
+     * @param id l'ID
+     * @return il numero del nodo
+     */
+    public static int nodeOf(long id) {
+        return (int) ((id >>> SEQUENCE_BITS) & MAX_NODE);
+    }
+    
+    /**
+     * Restituisce il più piccolo ID testuale generabile in un istante: gli ID creati
+     * tra from e to sono quelli tra lowerBound(from) compreso e lowerBound(to) escluso
+     * 
+     * @param instant l'istante
+     * @return l'ID testuale da usare come estremo di un intervallo
+     */
+    public static String lowerBound(Instant instant) {
+        long time = Math.min(MAX_TIMESTAMP, Math.max(0, instant.toEpochMilli() - EPOCH_MILLIS));
+        return format(compose(time, 0, 0));
+    }
+    
+    public int getNode() { return (int) node; }
+    
+    private static long compose(long time, long node, long sequence) {
+        if (time > MAX_TIMESTAMP) {
+            throw new IllegalStateException("Spazio degli ID esaurito");
+        }
+        return (time << TIMESTAMP_SHIFT) | (node << SEQUENCE_BITS) | sequence;
+    }
+}
\ No newline at end of file
@@ -13,6 +13,7 @@ import java.util.concurrent.CopyOnWriteArrayList;
  * @param createdAt data di creazione del progetto
  * @param updatedAt data dell'ultimo aggiornamento del progetto
  * @param components lista dei componenti del progetto
+ * @param changeListener chi viene avvisato delle modifiche, di solito lo storage
  */
 public class Project implements TaskComponent {
     private final String id;
@@ -21,6 +22,7 @@ public class Project implements TaskComponent {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private final List<TaskComponent> components;
+    private volatile ChangeListener changeListener;
     
     /**
      * Costruttore per creare un nuovo progetto
@@ -28,7 +30,7 @@ public class Project implements TaskComponent {
      * @param description descrizione del progetto
      */
     public Project(String title, String description) {
-        this.id = UUID.randomUUID().toString().substring(0, 8);
+        this.id = IdGenerator.getDefault().next();
         this.title = Objects.requireNonNull(title, "Il titolo non può essere null");
         this.description = description;
         this.createdAt = LocalDateTime.now();
@@ -36,6 +38,26 @@ public class Project implements TaskComponent {
         this.components = new CopyOnWriteArrayList<>();
     }
     
+    /**
+     * Costruttore per ricostruire un progetto salvato, mantenendone ID, date e componenti
+     * 
+     * @param id ID del progetto
+     * @param title titolo del progetto
+     * @param description descrizione del progetto
+     * @param createdAt data di creazione
+     * @param updatedAt data dell'ultimo aggiornamento
+     * @param components componenti già ricostruiti
+     */
+    public Project(String id, String title, String description, LocalDateTime createdAt,
+                   LocalDateTime updatedAt, List<TaskComponent> components) {
+        this.id = Objects.requireNonNull(id, "L'ID non può essere null");
+        this.title = Objects.requireNonNull(title, "Il titolo non può essere null");
+        this.description = description;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.components = new CopyOnWriteArrayList<>(components);
+    }
+    
     /**
      * Aggiunge un componente al progetto
      * 
@@ -44,7 +66,7 @@ public class Project implements TaskComponent {
     public void addComponent(TaskComponent component) {
         if (component != null && !components.contains(component)) {
             components.add(component);
-            this.updatedAt = LocalDateTime.now();
+            touch();
         }
     }
     
@@ -55,7 +77,7 @@ public class Project implements TaskComponent {
      */
     public void removeComponent(TaskComponent component) {
         if (components.remove(component)) {
-            this.updatedAt = LocalDateTime.now();
+            touch();
         }
     }
     
@@ -82,7 +104,7 @@ public class Project implements TaskComponent {
     @Override
     public void setTitle(String title) {
         this.title = Objects.requireNonNull(title, "Il titolo non può essere null");
-        this.updatedAt = LocalDateTime.now();
+        touch();
     }
     
     @Override
@@ -122,7 +144,7 @@ public class Project implements TaskComponent {
                 component.setStatus(status);
             }
         }
-        this.updatedAt = LocalDateTime.now();
+        touch();
     }
     
     @Override
@@ -144,18 +166,34 @@ public class Project implements TaskComponent {
         for (TaskComponent component : components) {
             component.setPriority(priority);
         }
-        this.updatedAt = LocalDateTime.now();
+        touch();
     }
     
     // Getters e Setters
     public String getDescription() { return description; }
     public void setDescription(String description) { 
         this.description = description; 
-        this.updatedAt = LocalDateTime.now();
+        touch();
     }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     
+    @Override
+    public void setChangeListener(ChangeListener listener) {
+        this.changeListener = listener;
+    }
+    
+    /**
+     * Aggiorna la data di modifica e avvisa il listener
+     */
+    private void touch() {
+        this.updatedAt = LocalDateTime.now();
+        ChangeListener listener = changeListener;
+        if (listener != null) {
+            listener.componentChanged(this);
+        }
+    }
+    
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -2,7 +2,7 @@ package com.taskmanager.models;
 
 import java.time.LocalDateTime;
 import java.util.Objects;
-import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
 /**
  * Classe che rappresenta un singolo Task.
@@ -14,8 +14,13 @@ import java.util.UUID;
  * @param priority priorità del task (LOW, MEDIUM, HIGH)
  * @param createdAt data di creazione del task
  * @param updatedAt data dell'ultimo aggiornamento del task
+ * @param changeListener chi viene avvisato delle modifiche, di solito lo storage
+ * @param version numero di modifiche fatte a questa istanza e alle copie da cui discende
  */
 public class Task implements TaskComponent {
+    private static final AtomicLongFieldUpdater<Task> VERSION =
+            AtomicLongFieldUpdater.newUpdater(Task.class, "version");
+    
     private final String id;
     private String title;
     private String description;
@@ -23,12 +28,14 @@ public class Task implements TaskComponent {
     private TaskPriority priority;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private volatile ChangeListener changeListener;
+    private volatile long version;
     
     /**
      * Costruttore per creare un nuovo task
      */
     public Task(String title, String description) {
-        this.id = UUID.randomUUID().toString().substring(0, 8); // ID più corto per semplicità
+        this.id = IdGenerator.getDefault().next(); // Ordinato per data di creazione
         this.title = Objects.requireNonNull(title, "Il titolo non può essere null");
         this.description = description;
         this.status = TaskStatus.TODO;
@@ -37,6 +44,31 @@ public class Task implements TaskComponent {
         this.updatedAt = LocalDateTime.now();
     }
     
+    /**
+     * Costruttore per ricostruire un task salvato, mantenendone ID, stato e date.
+     * Stato e priorità possono essere null, come dopo setStatus(null) e setPriority(null).
+     */
+    public Task(String id, String title, String description, TaskStatus status, TaskPriority priority,
+                LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this(id, title, description, status, priority, createdAt, updatedAt, 0);
+    }
+    
+    /**
+     * Costruttore per ricostruire un task salvato insieme alla sua versione,
+     * per i formati che la salvano (RecordCodec)
+     */
+    public Task(String id, String title, String description, TaskStatus status, TaskPriority priority,
+                LocalDateTime createdAt, LocalDateTime updatedAt, long version) {
+        this.id = Objects.requireNonNull(id, "L'ID non può essere null");
+        this.title = Objects.requireNonNull(title, "Il titolo non può essere null");
+        this.description = description;
+        this.status = status;
+        this.priority = priority;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.version = version;
+    }
+    
     // Implementazione di TaskComponent
     @Override
     public String getId() {
@@ -51,13 +83,13 @@ public class Task implements TaskComponent {
     @Override
     public void setTitle(String title) {
         this.title = Objects.requireNonNull(title, "Il titolo non può essere null");
-        this.updatedAt = LocalDateTime.now();
+        touch();
     }
     
     @Override
     public void display(int indentLevel) {
         String indent = "  ".repeat(indentLevel);
-        System.out.printf("%s📋 Task: %s [%s] [%s]%n", 
+        System.out.printf("%s📋 Task: %s [%s] [%s]%n",
                          indent, title, status, priority);
         if (description != null && !description.isEmpty()) {
             System.out.printf("%s   Descrizione: %s%n", indent, description);
@@ -71,26 +103,61 @@ public class Task implements TaskComponent {
     
     // Getters e Setters semplici
     public String getDescription() { return description; }
-    public void setDescription(String description) { 
-        this.description = description; 
-        this.updatedAt = LocalDateTime.now();
+    public void setDescription(String description) {
+        this.description = description;
+        touch();
     }
     
     public TaskStatus getStatus() { return status; }
-    public void setStatus(TaskStatus status) { 
-        this.status = status; 
-        this.updatedAt = LocalDateTime.now();
+    public void setStatus(TaskStatus status) {
+        this.status = status;
+        touch();
     }
     
     public TaskPriority getPriority() { return priority; }
-    public void setPriority(TaskPriority priority) { 
-        this.priority = priority; 
-        this.updatedAt = LocalDateTime.now();
+    public void setPriority(TaskPriority priority) {
+        this.priority = priority;
+        touch();
     }
     
     public LocalDateTime getCreatedAt() { return createdAt; }
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     
+    /**
+     * Restituisce la versione del task: cresce di uno a ogni modifica. Solo i formati
+     * binari (RecordCodec) la salvano; da JSON e testo un task caricato parte da zero
+     * 
+     * @return la versione
+     */
+    public long getVersion() { return version; }
+    
+    /**
+     * Crea una copia indipendente del task con la stessa versione e senza listener,
+     * da modificare e poi sostituire all'originale (vedi TaskManager.updateTask)
+     * 
+     * @return la copia
+     */
+    public Task copy() {
+        return new Task(id, title, description, status, priority, createdAt, updatedAt, version);
+    }
+    
+    @Override
+    public void setChangeListener(ChangeListener listener) {
+        this.changeListener = listener;
+    }
+    
+    /**
+     * Aggiorna la data di modifica e la versione e avvisa il listener
+     */
+    private void touch() {
+        this.updatedAt = LocalDateTime.now();
+        VERSION.incrementAndGet(this);
+        ChangeListener listener = changeListener;
+        if (listener != null) {
+            listener.componentChanged(this);
+        }
+    }
+    
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -14,4 +14,12 @@ public interface TaskComponent {
     void setStatus(TaskStatus status);
     TaskPriority getPriority();
     void setPriority(TaskPriority priority);
+    
+    /**
+     * Imposta chi viene avvisato delle modifiche al componente; ce n'è uno solo,
+     * di solito lo storage che lo tiene in cache
+     * 
+     * @param listener il listener, o null per nessuno
+     */
+    void setChangeListener(ChangeListener listener);
 }
\ No newline at end of file
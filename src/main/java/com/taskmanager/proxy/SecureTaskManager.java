@@ -1,9 +1,16 @@
 package com.taskmanager.proxy;
 
 import com.taskmanager.models.Task;
+import com.taskmanager.models.TaskPriority;
+import com.taskmanager.models.TaskStatus;
 import com.taskmanager.services.TaskManager;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  * Proxy che aggiunge controlli di sicurezza al TaskManager per controllare l'accesso.
@@ -37,6 +44,17 @@ public class SecureTaskManager implements TaskManager {
         }
     }
     
+    @Override
+    public void addTasks(Collection<? extends Task> tasks) {
+        if (isValidUser()) {
+            System.out.println("🔒 Controllo sicurezza OK per utente: " + currentUser);
+            realTaskManager.addTasks(tasks);
+        } else {
+            System.out.println("❌ Accesso negato per utente: " + currentUser);
+            throw new SecurityException("Accesso negato per utente non valido");
+        }
+    }
+    
     @Override
     public List<Task> getAllTasks() {
         if (isValidUser()) {
@@ -47,6 +65,26 @@ public class SecureTaskManager implements TaskManager {
         }
     }
     
+    @Override
+    public Stream<Task> streamTasks() {
+        if (isValidUser()) {
+            return realTaskManager.streamTasks();
+        } else {
+            System.out.println("❌ Accesso negato per visualizzare i task");
+            return Stream.empty();
+        }
+    }
+    
+    @Override
+    public List<Task> page(String afterId, int limit) {
+        if (isValidUser()) {
+            return realTaskManager.page(afterId, limit);
+        } else {
+            System.out.println("❌ Accesso negato per visualizzare i task");
+            return List.of();
+        }
+    }
+    
     @Override
     public Task findTaskById(String id) {
         if (isValidUser()) {
@@ -67,6 +105,137 @@ public class SecureTaskManager implements TaskManager {
         }
     }
     
+    @Override
+    public int deleteTasks(Collection<String> ids) {
+        if (isValidUser()) {
+            return realTaskManager.deleteTasks(ids);
+        } else {
+            System.out.println("❌ Accesso negato per eliminare task");
+            return 0;
+        }
+    }
+    
+    @Override
+    public void updateTask(Task task) {
+        if (isValidUser()) {
+            realTaskManager.updateTask(task);
+        } else {
+            System.out.println("❌ Accesso negato per modificare task");
+            throw new SecurityException("Accesso negato per utente non valido");
+        }
+    }
+    
+    @Override
+    public boolean tracksChanges() {
+        return realTaskManager.tracksChanges();
+    }
+    
+    @Override
+    public Task updateTask(String id, long expectedVersion, Consumer<? super Task> mutator) {
+        if (isValidUser()) {
+            return realTaskManager.updateTask(id, expectedVersion, mutator);
+        } else {
+            System.out.println("❌ Accesso negato per modificare task");
+            throw new SecurityException("Accesso negato per utente non valido");
+        }
+    }
+    
+    @Override
+    public int updateWhere(Predicate<? super Task> filter, Consumer<? super Task> mutator) {
+        if (isValidUser()) {
+            return realTaskManager.updateWhere(filter, mutator);
+        } else {
+            System.out.println("❌ Accesso negato per modificare task");
+            throw new SecurityException("Accesso negato per utente non valido");
+        }
+    }
+    
+    @Override
+    public List<Task> getTasksByStatus(TaskStatus status) {
+        if (isValidUser()) {
+            return realTaskManager.getTasksByStatus(status);
+        } else {
+            System.out.println("❌ Accesso negato per visualizzare i task");
+            return List.of();
+        }
+    }
+    
+    @Override
+    public List<Task> getTasksByPriority(TaskPriority priority) {
+        if (isValidUser()) {
+            return realTaskManager.getTasksByPriority(priority);
+        } else {
+            System.out.println("❌ Accesso negato per visualizzare i task");
+            return List.of();
+        }
+    }
+    
+    @Override
+    public List<Task> getTasks(Collection<TaskStatus> statuses, Collection<TaskPriority> priorities) {
+        if (isValidUser()) {
+            return realTaskManager.getTasks(statuses, priorities);
+        } else {
+            System.out.println("❌ Accesso negato per visualizzare i task");
+            return List.of();
+        }
+    }
+    
+    @Override
+    public List<String> findIdsByPrefix(String prefix, int limit) {
+        if (isValidUser()) {
+            return realTaskManager.findIdsByPrefix(prefix, limit);
+        } else {
+            System.out.println("❌ Accesso negato per visualizzare i task");
+            return List.of();
+        }
+    }
+    
+    @Override
+    public List<Task> searchTasks(String query, int limit) {
+        if (isValidUser()) {
+            return realTaskManager.searchTasks(query, limit);
+        } else {
+            System.out.println("❌ Accesso negato per cercare i task");
+            return List.of();
+        }
+    }
+    
+    @Override
+    public List<Task> findTasksByTitle(String text, int limit) {
+        if (isValidUser()) {
+            return realTaskManager.findTasksByTitle(text, limit);
+        } else {
+            System.out.println("❌ Accesso negato per cercare i task");
+            return List.of();
+        }
+    }
+    
+    @Override
+    public Map<TaskStatus, Integer> countTasksByStatus() {
+        if (isValidUser()) {
+            return realTaskManager.countTasksByStatus();
+        } else {
+            System.out.println("❌ Accesso negato per visualizzare le statistiche");
+            return Map.of();
+        }
+    }
+    
+    @Override
+    public Map<TaskPriority, Integer> countTasksByPriority() {
+        if (isValidUser()) {
+            return realTaskManager.countTasksByPriority();
+        } else {
+            System.out.println("❌ Accesso negato per visualizzare le statistiche");
+            return Map.of();
+        }
+    }
+    
+    @Override
+    public void close() {
+        // La chiusura non richiede autorizzazione: le modifiche già accettate vanno salvate
+        realTaskManager.close();
+    }
+    
     /**
      * Semplice controllo di validità utente
      * 
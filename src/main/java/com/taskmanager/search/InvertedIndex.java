@@ -0,0 +1,269 @@
+package com.taskmanager.search;
+
+import com.taskmanager.models.Task;
+import com.taskmanager.models.TaskComponent;
+import com.taskmanager.storage.ComponentIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+/**
+ * Indice invertito full-text su titolo e descrizione dei task, con ranking BM25.
+ * Ogni termine ha una lista di posting (ordinale del documento, frequenza) in
+ * ordine di ordinale; ogni task indicizzato riceve un ordinale nuovo a ogni
+ * versione, così le liste crescono solo in coda. Una query somma il punteggio
+ * BM25 dei suoi termini sui soli documenti delle loro liste e tiene i migliori
+ * risultati in uno heap, quindi costa quanto le liste lette, non quanto i task salvati.
+ * 
+ * Le eliminazioni sono pigre: il documento viene segnato come eliminato e una
+ * lista viene compattata quando più di metà dei suoi posting è morta; quando i
+ * documenti morti superano quelli vivi l'indice viene ricostruito con ordinali nuovi.
+ * I termini del titolo contano il doppio di quelli della descrizione.
+ * Tutti i metodi sono sincronizzati: le operazioni sono brevi e non fanno I/O.
+ * 
+ * @param termIds ID interno di ogni termine
+ * @param postings lista di posting per ID del termine
+ * @param ordinals ordinale attuale di ogni task indicizzato
+ * @param documents documenti per ordinale, null per quelli eliminati
+ * @param liveDocuments numero di documenti vivi
+ * @param totalLength somma delle lunghezze dei documenti vivi, per la lunghezza media
+ */
+public final class InvertedIndex implements ComponentIndex {
+    /** Saturazione della frequenza dei termini */
+    public static final double K1 = 1.2;
+    /** Peso della normalizzazione sulla lunghezza del documento */
+    public static final double B = 0.75;
+    /** Quante volte conta un termine del titolo rispetto alla descrizione */
+    public static final int TITLE_WEIGHT = 2;
+    
+    private static final int REBUILD_THRESHOLD = 1024;
+    
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final List<Postings> postings = new ArrayList<>();
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final List<Document> documents = new ArrayList<>();
+    private int liveDocuments;
+    private long totalLength;
+    
+    /**
+     * Un task indicizzato: il testo serve a saltare i salvataggi che non lo cambiano
+     * e a reindicizzare durante la ricostruzione
+     */
+    private record Document(String id, String title, String description, int length, int[] terms) {}
+    
+    /**
+     * Lista di posting di un termine, con il numero di documenti ancora vivi
+     */
+    private static final class Postings {
+        int[] documents = new int[4];
+        int[] frequencies = new int[4];
+        int size;
+        int live;
+        
+        void add(int document, int frequency) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            documents[size] = document;
+            frequencies[size] = frequency;
+            size++;
+            live++;
+        }
+    }
+    
+    /**
+     * Indicizza un task salvato, sostituendo la versione precedente. I progetti non sono indicizzati.
+     * 
+     * @param component il componente salvato
+     */
+    @Override
+    public synchronized void update(TaskComponent component) {
+        if (!(component instanceof Task task)) {
+            remove(component.getId());
+            return;
+        }
+        Integer previous = ordinals.get(task.getId());
+        if (previous != null) {
+            Document document = documents.get(previous);
+            if (Objects.equals(document.title(), task.getTitle())
+                    && Objects.equals(document.description(), task.getDescription())) {
+                return;
+            }
+            unlink(previous);
+        }
+        index(task.getId(), task.getTitle(), task.getDescription());
+        rebuildIfSparse();
+    }
+    
+    /**
+     * Toglie un task dall'indice
+     * 
+     * @param id l'ID del componente eliminato
+     */
+    @Override
+    public synchronized void remove(String id) {
+        Integer previous = ordinals.get(id);
+        if (previous != null) {
+            unlink(previous);
+            rebuildIfSparse();
+        }
+    }
+    
+    /**
+     * Svuota l'indice
+     */
+    @Override
+    public synchronized void clear() {
+        termIds.clear();
+        postings.clear();
+        ordinals.clear();
+        documents.clear();
+        liveDocuments = 0;
+        totalLength = 0;
+    }
+    
+    /**
+     * Cerca i task più pertinenti per una query. Basta uno dei termini perché
+     * un task sia trovato; i task con più termini, più rari e più frequenti salgono in classifica.
+     * 
+     * @param query il testo da cercare
+     * @param limit numero massimo di risultati
+     * @return i risultati, dal punteggio più alto al più basso
+     */
+    public synchronized List<SearchResult> search(String query, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Il numero di risultati deve essere positivo");
+        }
+        if (liveDocuments == 0) {
+            return List.of();
+        }
+        double averageLength = (double) totalLength / liveDocuments;
+        Map<Integer, Double> scores = new HashMap<>();
+        for (String term : new LinkedHashSet<>(TextAnalyzer.analyze(query))) {
+            Integer termId = termIds.get(term);
+            if (termId == null) {
+                continue;
+            }
+            Postings list = postings.get(termId);
+            double idf = Math.log(1 + (liveDocuments - list.live + 0.5) / (list.live + 0.5));
+            for (int i = 0; i < list.size; i++) {
+                Document document = documents.get(list.documents[i]);
+                if (document == null) {
+                    continue;
+                }
+                int frequency = list.frequencies[i];
+                double norm = K1 * (1 - B + B * document.length() / averageLength);
+                scores.merge(list.documents[i], idf * frequency * (K1 + 1) / (frequency + norm), Double::sum);
+            }
+        }
+        Comparator<SearchResult> ranking = Comparator.comparingDouble(SearchResult::score)
+                .thenComparing(SearchResult::id, Comparator.reverseOrder());
+        PriorityQueue<SearchResult> top = new PriorityQueue<>(ranking);
+        scores.forEach((ordinal, score) -> {
+            top.add(new SearchResult(documents.get(ordinal).id(), score));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        });
+        List<SearchResult> results = new ArrayList<>(top);
+        results.sort(ranking.reversed());
+        return results;
+    }
+    
+    public synchronized int size() { return liveDocuments; }
+    public synchronized int getTermCount() { return termIds.size(); }
+    
+    private void index(String id, String title, String description) {
+        Map<Integer, Integer> frequencies = new HashMap<>();
+        int length = 0;
+        for (String term : TextAnalyzer.analyze(title)) {
+            frequencies.merge(termId(term), TITLE_WEIGHT, Integer::sum);
+            length += TITLE_WEIGHT;
+        }
+        for (String term : TextAnalyzer.analyze(description)) {
+            frequencies.merge(termId(term), 1, Integer::sum);
+            length++;
+        }
+        int ordinal = documents.size();
+        int[] terms = new int[frequencies.size()];
+        int i = 0;
+        for (Map.Entry<Integer, Integer> entry : frequencies.entrySet()) {
+            postings.get(entry.getKey()).add(ordinal, entry.getValue());
+            terms[i++] = entry.getKey();
+        }
+        documents.add(new Document(id, title, description, length, terms));
+        ordinals.put(id, ordinal);
+        liveDocuments++;
+        totalLength += length;
+    }
+    
+    private int termId(String term) {
+        return termIds.computeIfAbsent(term, t -> {
+            postings.add(new Postings());
+            return postings.size() - 1;
+        });
+    }
+    
+    /**
+     * Segna un documento come eliminato e compatta le liste con troppi posting morti
+     */
+    private void unlink(int ordinal) {
+        Document document = documents.set(ordinal, null);
+        ordinals.remove(document.id());
+        liveDocuments--;
+        totalLength -= document.length();
+        for (int termId : document.terms()) {
+            Postings list = postings.get(termId);
+            list.live--;
+            if (list.size - list.live > list.live) {
+                compact(list);
+            }
+        }
+    }
+    
+    private void compact(Postings list) {
+        int kept = 0;
+        for (int i = 0; i < list.size; i++) {
+            if (documents.get(list.documents[i]) != null) {
+                list.documents[kept] = list.documents[i];
+                list.frequencies[kept] = list.frequencies[i];
+                kept++;
+            }
+        }
+        list.size = kept;
+        int capacity = Math.max(4, kept);
+        if (capacity < list.documents.length / 2) {
+            list.documents = Arrays.copyOf(list.documents, capacity);
+            list.frequencies = Arrays.copyOf(list.frequencies, capacity);
+        }
+    }
+    
+    /**
+     * Ricostruisce l'indice con ordinali contigui quando gli eliminati superano i vivi,
+     * così la tabella dei documenti e i termini non più usati non crescono senza limite
+     */
+    private void rebuildIfSparse() {
+        int dead = documents.size() - liveDocuments;
+        if (dead <= liveDocuments || dead <= REBUILD_THRESHOLD) {
+            return;
+        }
+        List<Document> live = new ArrayList<>(liveDocuments);
+        for (Document document : documents) {
+            if (document != null) {
+                live.add(document);
+            }
+        }
+        clear();
+        for (Document document : live) {
+            index(document.id(), document.title(), document.description());
+        }
+    }
+}
\ No newline at end of file
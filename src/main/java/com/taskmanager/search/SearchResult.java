@@ -0,0 +1,9 @@
+package com.taskmanager.search;
+
+/**
+ * Un task trovato dalla ricerca full-text
+ * 
+ * @param id l'ID del task
+ * @param score il punteggio BM25, più alto per i task più pertinenti
+ */
+public record SearchResult(String id, double score) {}
\ No newline at end of file
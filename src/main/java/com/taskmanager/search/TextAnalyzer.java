@@ -0,0 +1,101 @@
+package com.taskmanager.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Trasforma un testo nei termini dell'indice full-text.
+ * Il testo viene portato in minuscolo e privato degli accenti, diviso su tutto
+ * ciò che non è lettera o cifra (così "dell'utente" dà "dell" e "utente"),
+ * ripulito dalle parole vuote italiane e inglesi e ridotto con uno stemming leggero:
+ * cade la "s" finale dei plurali inglesi e la vocale finale delle parole italiane,
+ * in modo che "attività", "report" e "reports", "bozza" e "bozze" diano lo stesso termine.
+ * Lo stesso analizzatore va usato per i documenti e per le query.
+ */
+public final class TextAnalyzer {
+    /** Parole vuote, già in minuscolo e senza accenti come i termini */
+    private static final Set<String> STOPWORDS = Set.of(
+            // Italiano, elisioni comprese
+            "il", "lo", "la", "i", "gli", "le", "l", "un", "uno", "una",
+            "di", "del", "dello", "della", "dei", "degli", "delle", "dell",
+            "a", "al", "allo", "alla", "ai", "agli", "alle", "all",
+            "da", "dal", "dallo", "dalla", "dai", "dagli", "dalle", "dall",
+            "in", "nel", "nello", "nella", "nei", "negli", "nelle", "nell",
+            "su", "sul", "sullo", "sulla", "sui", "sugli", "sulle", "sull",
+            "con", "per", "tra", "fra", "e", "ed", "o", "od", "ma", "se", "che", "non",
+            "sono", "come", "anche", "piu", "questo", "questa", "quello", "quella",
+            // Inglese
+            "the", "an", "and", "or", "of", "to", "for", "on", "at", "by", "with",
+            "from", "is", "are", "be", "it", "its", "this", "that", "as", "not", "into");
+    
+    private TextAnalyzer() {}
+    
+    /**
+     * Estrae i termini da un testo, nell'ordine in cui compaiono
+     * 
+     * @param text il testo, può essere null
+     * @return i termini, con le ripetizioni
+     */
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        String folded = fold(text);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String token = folded.substring(start, i);
+                if (!STOPWORDS.contains(token)) {
+                    terms.add(stem(token));
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+    
+    /**
+     * Minuscolo e senza accenti: la forma NFD separa le lettere dai segni diacritici, che vengono tolti
+     */
+    static String fold(String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        boolean ascii = true;
+        for (int i = 0; i < lower.length() && ascii; i++) {
+            ascii = lower.charAt(i) < 0x80;
+        }
+        if (ascii) {
+            return lower;
+        }
+        String decomposed = Normalizer.normalize(lower, Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                folded.append(c);
+            }
+        }
+        return folded.toString();
+    }
+    
+    /**
+     * Stemming leggero, uguale per le due lingue: toglie la "s" finale (non "ss")
+     * e poi la vocale finale, lasciando sempre almeno tre caratteri
+     */
+    static String stem(String token) {
+        String stem = token;
+        if (stem.length() > 3 && stem.endsWith("s") && !stem.endsWith("ss")) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+        if (stem.length() > 4 && "aeio".indexOf(stem.charAt(stem.length() - 1)) >= 0) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+        return stem;
+    }
+}
\ No newline at end of file
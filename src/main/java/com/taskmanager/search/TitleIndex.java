@@ -0,0 +1,379 @@
+package com.taskmanager.search;
+
+import com.taskmanager.models.Task;
+import com.taskmanager.models.TaskComponent;
+import com.taskmanager.storage.ComponentIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Indice a trigrammi sui titoli dei task, per la ricerca mentre si scrive
+ * e con errori di battitura. Ogni parola del titolo, preceduta da due spazi,
+ * viene scomposta in trigrammi ("  r", " re", "rep", ...): chi scrive l'inizio
+ * di una parola ne produce un sottoinsieme, e ogni errore di battitura ne cambia
+ * al più quattro (tre per un carattere sbagliato, quattro per due caratteri scambiati).
+ * 
+ * La ricerca lavora in due fasi. Un titolo entro d errori condivide almeno
+ * |Q| - 4d trigrammi della query, quindi deve comparire in almeno una delle
+ * 4d + 1 liste più corte: solo quelle vengono lette per trovare i candidati.
+ * Ogni candidato viene poi verificato con la distanza di edit tra la query e
+ * l'inizio di una delle parole del titolo, e i migliori restano in uno heap.
+ * Le liste sono in ordine di indicizzazione, quindi la ricerca si ferma appena ha
+ * abbastanza titoli che iniziano esattamente con la query; in ogni caso i candidati
+ * verificati sono al più MAX_CANDIDATES, così anche una query di una lettera su
+ * milioni di task ha un costo fisso.
+ * 
+ * Le eliminazioni sono pigre come in InvertedIndex. Tutti i metodi sono sincronizzati.
+ * 
+ * @param postings ordinali dei titoli che contengono ogni trigramma
+ * @param ordinals ordinale attuale di ogni task indicizzato
+ * @param documents titoli per ordinale, null per quelli eliminati
+ * @param liveDocuments numero di titoli vivi
+ * @param seen per ogni ordinale, l'ultima ricerca che lo ha già verificato
+ * @param searches numero di ricerche fatte, usato come marca in seen
+ * @param rows righe riusate dal calcolo della distanza di edit
+ */
+public final class TitleIndex implements ComponentIndex {
+    /** Numero massimo di candidati verificati per ricerca */
+    public static final int MAX_CANDIDATES = 5_000;
+    
+    private static final int REBUILD_THRESHOLD = 1024;
+    
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final List<Document> documents = new ArrayList<>();
+    private int liveDocuments;
+    private int[] seen = new int[0];
+    private int[][] rows = new int[3][32];
+    private int searches;
+    
+    /**
+     * Un titolo indicizzato, con la forma normalizzata su cui si calcolano le distanze
+     */
+    private record Document(String id, String title, String normalized, long[] grams) {}
+    
+    /**
+     * Un titolo trovato
+     * 
+     * @param id l'ID del task
+     * @param distance numero di errori rispetto alla query, 0 per un prefisso esatto
+     * @param position posizione nel titolo della parola che corrisponde
+     */
+    public record Match(String id, int distance, int position) {}
+    
+    /**
+     * Un risultato con l'ordinale, che a parità di errori e posizione mette prima i titoli indicizzati prima
+     */
+    private record Ranked(Match match, int ordinal) implements Comparable<Ranked> {
+        @Override
+        public int compareTo(Ranked other) {
+            int compare = Integer.compare(match.distance(), other.match.distance());
+            if (compare == 0) {
+                compare = Integer.compare(match.position(), other.match.position());
+            }
+            return compare != 0 ? compare : Integer.compare(ordinal, other.ordinal);
+        }
+        
+        /** Nessun titolo trovato dopo può stare davanti a questo */
+        boolean isPerfect() {
+            return match.distance() == 0 && match.position() == 0;
+        }
+    }
+    
+    private static final class Postings {
+        int[] documents = new int[4];
+        int size;
+        int live;
+        
+        void add(int document) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+            }
+            documents[size++] = document;
+            live++;
+        }
+    }
+    
+    /**
+     * Indicizza il titolo di un task salvato. I progetti non sono indicizzati.
+     * 
+     * @param component il componente salvato
+     */
+    @Override
+    public synchronized void update(TaskComponent component) {
+        if (!(component instanceof Task task)) {
+            remove(component.getId());
+            return;
+        }
+        Integer previous = ordinals.get(task.getId());
+        if (previous != null) {
+            if (Objects.equals(documents.get(previous).title(), task.getTitle())) {
+                return;
+            }
+            unlink(previous);
+        }
+        index(task.getId(), task.getTitle());
+        rebuildIfSparse();
+    }
+    
+    /**
+     * Toglie un task dall'indice
+     * 
+     * @param id l'ID del componente eliminato
+     */
+    @Override
+    public synchronized void remove(String id) {
+        Integer previous = ordinals.get(id);
+        if (previous != null) {
+            unlink(previous);
+            rebuildIfSparse();
+        }
+    }
+    
+    /**
+     * Svuota l'indice
+     */
+    @Override
+    public synchronized void clear() {
+        postings.clear();
+        ordinals.clear();
+        documents.clear();
+        liveDocuments = 0;
+    }
+    
+    /**
+     * Cerca i titoli che iniziano con la query, o con una sua parola, tollerando
+     * errori di battitura: nessuno fino a 3 caratteri, uno fino a 6, due oltre.
+     * 
+     * @param query il testo scritto finora
+     * @param limit numero massimo di risultati
+     * @return i titoli trovati, dai meno errori ai più, poi per posizione della parola
+     *         e infine dal titolo indicizzato per primo
+     */
+    public synchronized List<Match> search(String query, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Il numero di risultati deve essere positivo");
+        }
+        String normalized = normalize(query);
+        if (normalized.isEmpty() || liveDocuments == 0) {
+            return List.of();
+        }
+        int maxEdits = normalized.length() <= 3 ? 0 : normalized.length() <= 6 ? 1 : 2;
+        
+        // Filtro: bastano le 4d + 1 liste più corte per non perdere nessun titolo entro d errori
+        List<Postings> lists = new ArrayList<>();
+        for (long gram : grams(normalized)) {
+            Postings list = postings.get(gram);
+            lists.add(list != null ? list : new Postings());
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        int probed = Math.min(lists.size(), 4 * maxEdits + 1);
+        if (seen.length < documents.size()) {
+            seen = new int[Math.max(documents.size(), seen.length * 2)];
+        }
+        int stamp = ++searches;
+        
+        // Verifica di ogni nuovo candidato con la distanza di edit; ci si ferma quando
+        // i risultati non possono più migliorare o i candidati sono troppi
+        PriorityQueue<Ranked> top = new PriorityQueue<>(Comparator.reverseOrder());
+        int verified = 0;
+        search:
+        for (int i = 0; i < probed; i++) {
+            Postings list = lists.get(i);
+            for (int j = 0; j < list.size; j++) {
+                int ordinal = list.documents[j];
+                Document document = documents.get(ordinal);
+                if (document == null || seen[ordinal] == stamp) {
+                    continue;
+                }
+                seen[ordinal] = stamp;
+                Match match = verify(document, normalized, maxEdits);
+                if (match != null) {
+                    top.add(new Ranked(match, ordinal));
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                }
+                if (++verified == MAX_CANDIDATES || (top.size() == limit && top.peek().isPerfect())) {
+                    break search;
+                }
+            }
+        }
+        List<Ranked> ranked = new ArrayList<>(top);
+        ranked.sort(null);
+        return ranked.stream().map(Ranked::match).toList();
+    }
+    
+    public synchronized int size() { return liveDocuments; }
+    
+    /**
+     * Distanza di edit tra la query e il miglior prefisso del titolo a partire
+     * da ogni inizio di parola; null se nessuna resta entro maxEdits
+     */
+    private Match verify(Document document, String query, int maxEdits) {
+        String title = document.normalized();
+        Match best = null;
+        for (int start = 0; start < title.length(); start++) {
+            if (start > 0 && title.charAt(start - 1) != ' ') {
+                continue;
+            }
+            int distance = prefixDistanceReusingRows(query, title, start, maxEdits);
+            if (distance <= maxEdits && (best == null || distance < best.distance())) {
+                best = new Match(document.id(), distance, start);
+                if (distance == 0) {
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+    
+    /**
+     * Minima distanza di edit tra la query e un prefisso di text a partire da start.
+     * Oltre a inserimenti, cancellazioni e sostituzioni conta come un solo errore
+     * lo scambio di due caratteri vicini (distanza di Damerau ristretta).
+     * Il minimo di una riga non diminuisce mai, quindi ci si ferma appena supera maxEdits.
+     */
+    static int prefixDistance(String query, String text, int start, int maxEdits) {
+        int columns = Math.min(text.length() - start, query.length() + maxEdits);
+        return prefixDistance(query, text, start, maxEdits,
+                new int[columns + 1], new int[columns + 1], new int[columns + 1]);
+    }
+    
+    private int prefixDistanceReusingRows(String query, String text, int start, int maxEdits) {
+        int columns = Math.min(text.length() - start, query.length() + maxEdits);
+        if (rows[0].length <= columns) {
+            rows = new int[][] {new int[columns + 1], new int[columns + 1], new int[columns + 1]};
+        }
+        return prefixDistance(query, text, start, maxEdits, rows[0], rows[1], rows[2]);
+    }
+    
+    private static int prefixDistance(String query, String text, int start, int maxEdits,
+            int[] beforePrevious, int[] previous, int[] current) {
+        int columns = Math.min(text.length() - start, query.length() + maxEdits);
+        for (int j = 0; j <= columns; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= query.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            char q = query.charAt(i - 1);
+            for (int j = 1; j <= columns; j++) {
+                char t = text.charAt(start + j - 1);
+                int cost = q == t ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && q == text.charAt(start + j - 2) && query.charAt(i - 2) == t) {
+                    current[j] = Math.min(current[j], beforePrevious[j - 2] + 1);
+                }
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxEdits) {
+                return rowMin;
+            }
+            int[] swap = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = swap;
+        }
+        int best = Integer.MAX_VALUE;
+        for (int j = 0; j <= columns; j++) {
+            best = Math.min(best, previous[j]);
+        }
+        return best;
+    }
+    
+    /**
+     * Minuscolo, senza accenti, con un solo spazio tra le parole e niente punteggiatura
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String folded = TextAnalyzer.fold(text);
+        StringBuilder normalized = new StringBuilder(folded.length());
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(c);
+            } else if (normalized.length() > 0 && normalized.charAt(normalized.length() - 1) != ' ') {
+                normalized.append(' ');
+            }
+        }
+        int end = normalized.length();
+        return end > 0 && normalized.charAt(end - 1) == ' ' ? normalized.substring(0, end - 1) : normalized.toString();
+    }
+    
+    /**
+     * Trigrammi distinti delle parole, ognuna preceduta da due spazi, codificati in un long
+     */
+    static long[] grams(String normalized) {
+        Set<Long> grams = new HashSet<>();
+        for (String word : normalized.split(" ")) {
+            String padded = "  " + word;
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams.add(((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2));
+            }
+        }
+        return grams.stream().mapToLong(Long::longValue).toArray();
+    }
+    
+    private void index(String id, String title) {
+        String normalized = normalize(title);
+        long[] grams = normalized.isEmpty() ? new long[0] : grams(normalized);
+        int ordinal = documents.size();
+        for (long gram : grams) {
+            postings.computeIfAbsent(gram, g -> new Postings()).add(ordinal);
+        }
+        documents.add(new Document(id, title, normalized, grams));
+        ordinals.put(id, ordinal);
+        liveDocuments++;
+    }
+    
+    private void unlink(int ordinal) {
+        Document document = documents.set(ordinal, null);
+        ordinals.remove(document.id());
+        liveDocuments--;
+        for (long gram : document.grams()) {
+            Postings list = postings.get(gram);
+            list.live--;
+            if (list.live == 0) {
+                postings.remove(gram);
+            } else if (list.size - list.live > list.live) {
+                int kept = 0;
+                for (int i = 0; i < list.size; i++) {
+                    if (documents.get(list.documents[i]) != null) {
+                        list.documents[kept++] = list.documents[i];
+                    }
+                }
+                list.size = kept;
+            }
+        }
+    }
+    
+    private void rebuildIfSparse() {
+        int dead = documents.size() - liveDocuments;
+        if (dead <= liveDocuments || dead <= REBUILD_THRESHOLD) {
+            return;
+        }
+        List<Document> live = new ArrayList<>(liveDocuments);
+        for (Document document : documents) {
+            if (document != null) {
+                live.add(document);
+            }
+        }
+        clear();
+        seen = new int[0];
+        for (Document document : live) {
+            index(document.id(), document.title());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,181 @@
+package com.taskmanager.services;
+
+import com.taskmanager.models.Task;
+import com.taskmanager.models.TaskPriority;
+import com.taskmanager.models.TaskStatus;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Facciata asincrona di un TaskManager: ogni chiamata restituisce subito un
+ * CompletableFuture e l'operazione, che può bloccarsi sull'I/O dello storage,
+ * gira su un altro thread.
+ * 
+ * Ogni chiamata ha il suo virtual thread: decine di migliaia di richieste in
+ * corso costano poca memoria e nessun pool grande di thread di piattaforma.
+ * Un semaforo limita quante operazioni raggiungono insieme il TaskManager; le
+ * altre aspettano parcheggiate, senza occupare un thread del sistema operativo.
+ * 
+ * @param delegate il TaskManager che esegue le operazioni
+ * @param executor un virtual thread per operazione
+ * @param permits limita le operazioni in corso sul delegate
+ * @param maxConcurrency numero massimo di operazioni insieme sul delegate
+ */
+public class AsyncTaskManager implements AutoCloseable {
+    /** Operazioni insieme sul delegate se non indicato: abbastanza per riempire i batch del log */
+    public static final int DEFAULT_MAX_CONCURRENCY = 64;
+    
+    private final TaskManager delegate;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    
+    /**
+     * Costruttore con il limite predefinito
+     * 
+     * @param delegate il TaskManager da rendere asincrono
+     */
+    public AsyncTaskManager(TaskManager delegate) {
+        this(delegate, DEFAULT_MAX_CONCURRENCY);
+    }
+    
+    /**
+     * Costruttore
+     * 
+     * @param delegate il TaskManager da rendere asincrono
+     * @param maxConcurrency numero massimo di operazioni insieme sul delegate
+     */
+    public AsyncTaskManager(TaskManager delegate, int maxConcurrency) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Il TaskManager non può essere null");
+        }
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("La concorrenza massima deve essere almeno 1: " + maxConcurrency);
+        }
+        this.delegate = delegate;
+        this.maxConcurrency = maxConcurrency;
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.permits = new Semaphore(maxConcurrency);
+    }
+    
+    public CompletableFuture<Void> addTask(Task task) {
+        return submit(() -> {
+            delegate.addTask(task);
+            return null;
+        });
+    }
+    
+    public CompletableFuture<Void> addTasks(Collection<? extends Task> tasks) {
+        return submit(() -> {
+            delegate.addTasks(tasks);
+            return null;
+        });
+    }
+    
+    public CompletableFuture<List<Task>> getAllTasks() {
+        return submit(delegate::getAllTasks);
+    }
+    
+    public CompletableFuture<List<Task>> page(String afterId, int limit) {
+        return submit(() -> delegate.page(afterId, limit));
+    }
+    
+    public CompletableFuture<Task> findTaskById(String id) {
+        return submit(() -> delegate.findTaskById(id));
+    }
+    
+    public CompletableFuture<Boolean> deleteTask(String id) {
+        return submit(() -> delegate.deleteTask(id));
+    }
+    
+    public CompletableFuture<Integer> deleteTasks(Collection<String> ids) {
+        return submit(() -> delegate.deleteTasks(ids));
+    }
+    
+    public CompletableFuture<Void> updateTask(Task task) {
+        return submit(() -> {
+            delegate.updateTask(task);
+            return null;
+        });
+    }
+    
+    /**
+     * Versione asincrona di TaskManager.updateTask con controllo della versione:
+     * un conflitto completa il future con ConcurrentModificationException
+     */
+    public CompletableFuture<Task> updateTask(String id, long expectedVersion, Consumer<? super Task> mutator) {
+        return submit(() -> delegate.updateTask(id, expectedVersion, mutator));
+    }
+    
+    public CompletableFuture<Integer> updateWhere(Predicate<? super Task> filter, Consumer<? super Task> mutator) {
+        return submit(() -> delegate.updateWhere(filter, mutator));
+    }
+    
+    public CompletableFuture<List<Task>> getTasks(Collection<TaskStatus> statuses, Collection<TaskPriority> priorities) {
+        return submit(() -> delegate.getTasks(statuses, priorities));
+    }
+    
+    public CompletableFuture<List<Task>> searchTasks(String query, int limit) {
+        return submit(() -> delegate.searchTasks(query, limit));
+    }
+    
+    public CompletableFuture<List<Task>> findTasksByTitle(String text, int limit) {
+        return submit(() -> delegate.findTasksByTitle(text, limit));
+    }
+    
+    public int getMaxConcurrency() { return maxConcurrency; }
+    
+    /**
+     * Non accetta altre operazioni, aspetta quelle in corso e chiude il delegate
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                // Le operazioni accettate vanno concluse prima di chiudere lo storage
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        delegate.close();
+    }
+    
+    /**
+     * Esegue un'operazione sull'executor, entro il limite di concorrenza.
+     * Le eccezioni dell'operazione completano il future così come sono, senza CompletionException attorno.
+     * 
+     * @param operation l'operazione sul delegate
+     * @return il future del risultato
+     */
+    private <T> CompletableFuture<T> submit(Callable<T> operation) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    permits.acquire();
+                    try {
+                        future.complete(operation.call());
+                    } finally {
+                        permits.release();
+                    }
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(new IllegalStateException("AsyncTaskManager chiuso", e));
+        }
+        return future;
+    }
+}
\ No newline at end of file
@@ -1,31 +1,60 @@
 package com.taskmanager.services;
 
 import com.taskmanager.models.Task;
-import com.taskmanager.storage.TaskStorage;
+import com.taskmanager.models.TaskPriority;
+import com.taskmanager.models.TaskStatus;
+import com.taskmanager.search.InvertedIndex;
+import com.taskmanager.search.TitleIndex;
+import com.taskmanager.storage.ComponentIndex;
+import com.taskmanager.storage.StorageEngine;
+import com.taskmanager.storage.StorageEngines;
 import com.taskmanager.observer.TaskNotifier;
 import com.taskmanager.observer.TaskObserver;
 import com.taskmanager.config.AppConfig;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  * Implementazione semplice del TaskManager.
- * Usa TaskStorage per la persistenza e TaskNotifier per le notifiche.
+ * Usa uno StorageEngine per la persistenza e TaskNotifier per le notifiche.
  * 
- * @param storage il TaskStorage per la persistenza dei task
+ * @param storage il motore di persistenza dei task
  * @param notifier il TaskNotifier per le notifiche agli observer
+ * @param searchIndex indice full-text registrato sul motore alla prima ricerca
+ * @param titleIndex indice a trigrammi dei titoli, registrato alla prima ricerca per titolo
+ * @param indexesUnsupported il motore ha già rifiutato un indice esterno: non si riprova
  */
 public class SimpleTaskManager implements TaskManager {
-    private final TaskStorage storage;
+    private final StorageEngine storage;
     private final TaskNotifier notifier;
+    private volatile InvertedIndex searchIndex;
+    private volatile TitleIndex titleIndex;
+    private volatile boolean indexesUnsupported;
     
     /**
-     * Costruttore
+     * Costruttore: il motore di persistenza è scelto con storage.engine
      */
     public SimpleTaskManager() {
-        // Usa la configurazione singleton per il nome del file
-        String fileName = AppConfig.getInstance().getProperty("storage.file", "tasks.json");
-        this.storage = new TaskStorage(fileName);
+        // Usa la configurazione singleton per il motore, il nome del file e le opzioni dello storage
+        this(StorageEngines.fromConfig(AppConfig.getInstance()));
+    }
+    
+    /**
+     * Costruttore con un motore di persistenza già creato
+     * 
+     * @param storage il motore di persistenza da usare
+     */
+    public SimpleTaskManager(StorageEngine storage) {
+        if (storage == null) {
+            throw new IllegalArgumentException("Lo storage non può essere null");
+        }
+        this.storage = storage;
         this.notifier = new TaskNotifier();
     }
     
@@ -40,11 +69,43 @@ public class SimpleTaskManager implements TaskManager {
         System.out.println("✅ Task aggiunto: " + task.getTitle());
     }
     
+    /**
+     * Aggiunge più task con un solo salvataggio e una sola notifica
+     */
+    @Override
+    public void addTasks(Collection<? extends Task> tasks) {
+        if (tasks == null) {
+            throw new IllegalArgumentException("Il task non può essere null");
+        }
+        for (Task task : tasks) {
+            if (task == null) {
+                throw new IllegalArgumentException("Il task non può essere null");
+            }
+        }
+        if (tasks.isEmpty()) {
+            return;
+        }
+        
+        storage.saveAll(tasks);
+        notifier.notifyObservers("TASKS_CREATED", "Nuovi task creati: " + tasks.size(), "SYSTEM");
+        System.out.println("✅ Task aggiunti: " + tasks.size());
+    }
+    
     @Override
     public List<Task> getAllTasks() {
         return storage.findAllTasks();
     }
     
+    @Override
+    public Stream<Task> streamTasks() {
+        return storage.streamTasks();
+    }
+    
+    @Override
+    public List<Task> page(String afterId, int limit) {
+        return storage.page(afterId, limit);
+    }
+    
     @Override
     public Task findTaskById(String id) {
         if (id == null || id.trim().isEmpty()) {
@@ -58,6 +119,138 @@ public class SimpleTaskManager implements TaskManager {
         return null;
     }
     
+    @Override
+    public void updateTask(Task task) {
+        if (task == null) {
+            throw new IllegalArgumentException("Il task non può essere null");
+        }
+        
+        storage.save(task);
+        notifier.notifyObservers("TASK_UPDATED", "Task aggiornato: " + task.getTitle(), task.getId());
+    }
+    
+    @Override
+    public boolean tracksChanges() {
+        return storage.tracksChanges();
+    }
+    
+    /**
+     * Modifica un task con il compare-and-set per ID del motore. Se il motore
+     * non tiene le versioni, gli aggiornamenti vengono serializzati sul manager.
+     */
+    @Override
+    public Task updateTask(String id, long expectedVersion, Consumer<? super Task> mutator) {
+        if (!storage.supportsVersionedUpdate()) {
+            return TaskManager.super.updateTask(id, expectedVersion, mutator);
+        }
+        Task updated = storage.update(id, expectedVersion, mutator);
+        if (updated != null) {
+            notifier.notifyObservers("TASK_UPDATED", "Task aggiornato: " + updated.getTitle(), updated.getId());
+        }
+        return updated;
+    }
+    
+    /**
+     * Modifica i task che soddisfano il filtro con un solo salvataggio e una sola notifica
+     */
+    @Override
+    public int updateWhere(Predicate<? super Task> filter, Consumer<? super Task> mutator) {
+        if (filter == null || mutator == null) {
+            throw new IllegalArgumentException("Filtro e modifica non possono essere null");
+        }
+        List<Task> updated = storage.updateWhere(filter, mutator);
+        if (!updated.isEmpty()) {
+            notifier.notifyObservers("TASKS_UPDATED", "Task aggiornati: " + updated.size(), "SYSTEM");
+        }
+        return updated.size();
+    }
+    
+    @Override
+    public List<Task> getTasksByStatus(TaskStatus status) {
+        return storage.findTasksByStatus(status);
+    }
+    
+    @Override
+    public List<Task> getTasksByPriority(TaskPriority priority) {
+        return storage.findTasksByPriority(priority);
+    }
+    
+    @Override
+    public List<Task> getTasks(Collection<TaskStatus> statuses, Collection<TaskPriority> priorities) {
+        return storage.findTasks(statuses, priorities);
+    }
+    
+    @Override
+    public Map<TaskStatus, Integer> countTasksByStatus() {
+        return storage.countTasksByStatus();
+    }
+    
+    @Override
+    public Map<TaskPriority, Integer> countTasksByPriority() {
+        return storage.countTasksByPriority();
+    }
+    
+    @Override
+    public List<String> findIdsByPrefix(String prefix, int limit) {
+        if (prefix == null) {
+            return List.of();
+        }
+        return storage.findIdsByPrefix(prefix, limit);
+    }
+    
+    /**
+     * Cerca con l'indice invertito, che il motore tiene aggiornato a ogni salvataggio.
+     * L'indice viene creato e riempito alla prima ricerca.
+     * 
+     * @throws UnsupportedOperationException se il motore non accetta indici esterni
+     */
+    @Override
+    public List<Task> searchTasks(String query, int limit) {
+        InvertedIndex index = searchIndex;
+        if (index == null) {
+            synchronized (this) {
+                if (searchIndex == null) {
+                    searchIndex = register(new InvertedIndex());
+                }
+                index = searchIndex;
+            }
+        }
+        List<Task> tasks = new ArrayList<>();
+        for (var result : index.search(query, limit)) {
+            Task task = findTaskById(result.id());
+            if (task != null) {
+                tasks.add(task);
+            }
+        }
+        return tasks;
+    }
+    
+    /**
+     * Cerca con l'indice a trigrammi dei titoli, creato alla prima ricerca
+     * 
+     * @throws UnsupportedOperationException se il motore non accetta indici esterni
+     */
+    @Override
+    public List<Task> findTasksByTitle(String text, int limit) {
+        TitleIndex index = titleIndex;
+        if (index == null) {
+            synchronized (this) {
+                if (titleIndex == null) {
+                    titleIndex = register(new TitleIndex());
+                }
+                index = titleIndex;
+            }
+        }
+        List<Task> tasks = new ArrayList<>();
+        for (var match : index.search(text, limit)) {
+            Task task = findTaskById(match.id());
+            if (task != null) {
+                tasks.add(task);
+            }
+        }
+        return tasks;
+    }
+    
     @Override
     public boolean deleteTask(String id) {
         Task task = findTaskById(id);
@@ -72,6 +265,27 @@ public class SimpleTaskManager implements TaskManager {
         return false;
     }
     
+    /**
+     * Elimina più task con una sola scrittura e una sola notifica.
+     * Come deleteTask(), gli ID che non sono di un task vengono ignorati.
+     */
+    @Override
+    public int deleteTasks(Collection<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        List<String> taskIds = ids.stream()
+                .filter(id -> findTaskById(id) != null)
+                .distinct()
+                .toList();
+        int deleted = storage.deleteAll(taskIds);
+        if (deleted > 0) {
+            notifier.notifyObservers("TASKS_DELETED", "Task eliminati: " + deleted, "SYSTEM");
+            System.out.println("🗑️  Task eliminati: " + deleted);
+        }
+        return deleted;
+    }
+    
     /**
      * Aggiunge un observer per le notifiche
      * 
@@ -87,7 +301,22 @@ public class SimpleTaskManager implements TaskManager {
      * @return numero di task
      */
     public int getTaskCount() {
-        return storage.findAllTasks().size();
+        return (int) storage.streamTasks().count();
+    }
+    
+    /**
+     * Attende che tutte le modifiche siano scritte su disco
+     */
+    public void flush() {
+        storage.flush();
+    }
+    
+    /**
+     * Scrive le modifiche in sospeso e chiude lo storage
+     */
+    @Override
+    public void close() {
+        storage.close();
     }
     
     /**
@@ -98,4 +327,26 @@ public class SimpleTaskManager implements TaskManager {
         notifier.notifyObservers("STORAGE_CLEARED", "Tutti i task sono stati eliminati", "SYSTEM");
         System.out.println("🧹 Tutti i task eliminati");
     }
+    
+    /**
+     * Registra un indice sul motore, che lo riempie e lo tiene aggiornato.
+     * Un rifiuto viene ricordato, così le ricerche successive non riprovano.
+     * Va chiamato sincronizzato sul manager.
+     * 
+     * @return l'indice registrato
+     * @throws UnsupportedOperationException se il motore non accetta indici esterni
+     */
+    private <T extends ComponentIndex> T register(T index) {
+        if (indexesUnsupported) {
+            throw new UnsupportedOperationException("Il motore " + storage.getClass().getSimpleName()
+                    + " non supporta indici esterni: ricerca non disponibile");
+        }
+        try {
+            storage.addIndex(index);
+            return index;
+        } catch (UnsupportedOperationException e) {
+            indexesUnsupported = true;
+            throw e;
+        }
+    }
 }
\ No newline at end of file
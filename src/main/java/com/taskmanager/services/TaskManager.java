@@ -1,15 +1,270 @@
 package com.taskmanager.services;
 
 import com.taskmanager.models.Task;
+import com.taskmanager.models.TaskPriority;
+import com.taskmanager.models.TaskStatus;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  * Interfaccia del servizio principale per gestire i task.
  * Definisce le operazioni base CRUD (Create, Read, Update, Delete).
  */
-public interface TaskManager {
+public interface TaskManager extends AutoCloseable {
     void addTask(Task task);
     List<Task> getAllTasks();
     Task findTaskById(String id);
     boolean deleteTask(String id);
+    
+    /**
+     * Salva di nuovo un task modificato, così storage e indici vedono i nuovi valori.
+     * Di default equivale ad addTask().
+     * 
+     * @param task il task modificato
+     */
+    default void updateTask(Task task) {
+        addTask(task);
+    }
+    
+    /**
+     * Indica se le modifiche fatte con i setter sui task restituiti vengono salvate
+     * senza chiamare updateTask(). Di default no.
+     * 
+     * @return true se lo storage segue le modifiche sul posto
+     */
+    default boolean tracksChanges() {
+        return false;
+    }
+    
+    /**
+     * Modifica un task solo se è ancora alla versione letta dal chiamante (Task.getVersion()):
+     * la modifica viene applicata a una copia, che prende il posto del task solo se nel
+     * frattempo nessun altro l'ha cambiato. Di default gli aggiornamenti sono serializzati
+     * su questo manager.
+     * 
+     * @param id ID del task
+     * @param expectedVersion la versione letta prima della modifica
+     * @param mutator la modifica da applicare
+     * @return il task aggiornato, o null se non esiste
+     * @throws ConcurrentModificationException se il task è cambiato dopo la lettura
+     */
+    default Task updateTask(String id, long expectedVersion, Consumer<? super Task> mutator) {
+        if (mutator == null) {
+            throw new IllegalArgumentException("La modifica non può essere null");
+        }
+        synchronized (this) {
+            Task current = findTaskById(id);
+            if (current == null) {
+                return null;
+            }
+            if (current.getVersion() != expectedVersion) {
+                throw new ConcurrentModificationException("Il task " + id + " è stato modificato da un'altra operazione: versione attesa "
+                        + expectedVersion + ", attuale " + current.getVersion());
+            }
+            Task updated = current.copy();
+            mutator.accept(updated);
+            updateTask(updated);
+            return updated;
+        }
+    }
+    
+    /**
+     * Aggiunge più task insieme. Di default chiama addTask() per ognuno.
+     * 
+     * @param tasks i task da aggiungere
+     */
+    default void addTasks(Collection<? extends Task> tasks) {
+        for (Task task : tasks) {
+            addTask(task);
+        }
+    }
+    
+    /**
+     * Elimina più task insieme. Di default chiama deleteTask() per ognuno.
+     * 
+     * @param ids gli ID dei task da eliminare
+     * @return numero di task eliminati
+     */
+    default int deleteTasks(Collection<String> ids) {
+        int deleted = 0;
+        for (String id : ids) {
+            if (deleteTask(id)) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+    
+    /**
+     * Modifica tutti i task che soddisfano un filtro. Ogni task viene modificato
+     * su una copia che ne prende il posto. Di default salva le copie una alla volta.
+     * 
+     * @param filter i task da modificare
+     * @param mutator la modifica da applicare
+     * @return numero di task modificati
+     */
+    default int updateWhere(Predicate<? super Task> filter, Consumer<? super Task> mutator) {
+        int updated = 0;
+        for (Task task : getAllTasks()) {
+            if (filter.test(task)) {
+                Task copy = task.copy();
+                mutator.accept(copy);
+                updateTask(copy);
+                updated++;
+            }
+        }
+        return updated;
+    }
+    
+    /**
+     * Scorre i task con uno stream, per chi ne consuma solo una parte o li
+     * aggrega senza tenerli. Di default parte da getAllTasks().
+     * 
+     * @return lo stream dei task, in un ordine qualsiasi
+     */
+    default Stream<Task> streamTasks() {
+        return getAllTasks().stream();
+    }
+    
+    /**
+     * Restituisce una pagina di task in ordine di ID: i primi limit task con ID
+     * maggiore di afterId. Per la pagina successiva si passa l'ID dell'ultimo task
+     * ricevuto. Di default ordina getAllTasks().
+     * 
+     * @param afterId l'ID dell'ultimo task della pagina precedente, null per la prima pagina
+     * @param limit numero massimo di task restituiti
+     * @return i task della pagina, vuota dopo l'ultima
+     */
+    default List<Task> page(String afterId, int limit) {
+        return streamTasks()
+                .filter(task -> afterId == null || task.getId().compareTo(afterId) > 0)
+                .sorted(Comparator.comparing(Task::getId))
+                .limit(Math.max(0, limit))
+                .toList();
+    }
+    
+    /**
+     * Restituisce i task con uno stato. Di default filtra getAllTasks().
+     * 
+     * @param status lo stato cercato
+     * @return i task con quello stato
+     */
+    default List<Task> getTasksByStatus(TaskStatus status) {
+        return getAllTasks().stream()
+                .filter(task -> task.getStatus() == status)
+                .toList();
+    }
+    
+    /**
+     * Restituisce i task con una priorità. Di default filtra getAllTasks().
+     * 
+     * @param priority la priorità cercata
+     * @return i task con quella priorità
+     */
+    default List<Task> getTasksByPriority(TaskPriority priority) {
+        return getAllTasks().stream()
+                .filter(task -> task.getPriority() == priority)
+                .toList();
+    }
+    
+    /**
+     * Restituisce i task con uno degli stati e una delle priorità indicate.
+     * Di default filtra getAllTasks().
+     * 
+     * @param statuses gli stati ammessi, null o vuoto per tutti
+     * @param priorities le priorità ammesse, null o vuoto per tutte
+     * @return i task che soddisfano il filtro
+     */
+    default List<Task> getTasks(Collection<TaskStatus> statuses, Collection<TaskPriority> priorities) {
+        return getAllTasks().stream()
+                .filter(task -> statuses == null || statuses.isEmpty() || statuses.contains(task.getStatus()))
+                .filter(task -> priorities == null || priorities.isEmpty() || priorities.contains(task.getPriority()))
+                .toList();
+    }
+    
+    /**
+     * Conta i task per stato. Di default scorre getAllTasks().
+     * 
+     * @return numero di task per ogni stato, zero compreso
+     */
+    default Map<TaskStatus, Integer> countTasksByStatus() {
+        Map<TaskStatus, Integer> counts = new EnumMap<>(TaskStatus.class);
+        for (TaskStatus status : TaskStatus.values()) {
+            counts.put(status, getTasksByStatus(status).size());
+        }
+        return counts;
+    }
+    
+    /**
+     * Conta i task per priorità. Di default scorre getAllTasks().
+     * 
+     * @return numero di task per ogni priorità, zero compreso
+     */
+    default Map<TaskPriority, Integer> countTasksByPriority() {
+        Map<TaskPriority, Integer> counts = new EnumMap<>(TaskPriority.class);
+        for (TaskPriority priority : TaskPriority.values()) {
+            counts.put(priority, getTasksByPriority(priority).size());
+        }
+        return counts;
+    }
+    
+    /**
+     * Trova gli ID che iniziano con un prefisso, in ordine alfabetico: con un solo
+     * ID il prefisso è univoco, con più di uno è ambiguo.
+     * Di default scorre getAllTasks().
+     * 
+     * @param prefix il prefisso
+     * @param limit numero massimo di ID restituiti
+     * @return gli ID trovati, al più limit
+     */
+    default List<String> findIdsByPrefix(String prefix, int limit) {
+        return getAllTasks().stream()
+                .map(Task::getId)
+                .filter(id -> id.startsWith(prefix))
+                .sorted()
+                .limit(Math.max(0, limit))
+                .toList();
+    }
+    
+    /**
+     * Cerca i task per testo nel titolo e nella descrizione, dal più pertinente.
+     * Serve un indice tenuto aggiornato dall'implementazione: di default non è supportato.
+     * 
+     * @param query le parole da cercare
+     * @param limit numero massimo di risultati
+     * @return i task trovati, in ordine di punteggio BM25
+     * @throws UnsupportedOperationException se l'implementazione non ha un indice full-text
+     */
+    default List<Task> searchTasks(String query, int limit) {
+        throw new UnsupportedOperationException("Ricerca full-text non supportata da " + getClass().getSimpleName());
+    }
+    
+    /**
+     * Cerca i task per titolo mentre si scrive: trova i titoli con una parola che
+     * inizia con il testo dato, tollerando qualche errore di battitura.
+     * Serve un indice tenuto aggiornato dall'implementazione: di default non è supportato.
+     * 
+     * @param text il testo scritto finora
+     * @param limit numero massimo di risultati
+     * @return i task trovati, dai meno errori ai più
+     * @throws UnsupportedOperationException se l'implementazione non ha un indice dei titoli
+     */
+    default List<Task> findTasksByTitle(String text, int limit) {
+        throw new UnsupportedOperationException("Ricerca per titolo non supportata da " + getClass().getSimpleName());
+    }
+    
+    /**
+     * Rilascia le risorse e porta su disco le modifiche in sospeso.
+     * Di default non fa nulla.
+     */
+    @Override
+    default void close() {
+    }
 }
\ No newline at end of file
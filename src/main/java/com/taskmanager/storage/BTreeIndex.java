@@ -0,0 +1,517 @@
+package com.taskmanager.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Indice B+tree su disco, a pagine di dimensione fissa, che associa un ID a un offset.
+ * Solo le pagine usate di recente restano in memoria, in un buffer pool LRU di
+ * dimensione fissa: la memoria occupata non dipende dal numero di chiavi, e una
+ * ricerca legge al più un numero di pagine pari all'altezza dell'albero.
+ * Le foglie sono collegate tra loro, così le scansioni per intervallo di ID
+ * scorrono le foglie in ordine senza risalire l'albero.
+ * 
+ * Le eliminazioni tolgono la chiave dalla foglia senza unire le pagine rimaste
+ * semivuote: lo spazio si recupera ricostruendo l'indice.
+ * 
+ * Layout delle pagine:
+ * <pre>
+ * pagina 0 : magic (int) | versione (short) | dimensione pagina (short) | radice (int) | pagine (int)
+ *            | chiavi (long) | byte indicizzati (long) | chiusura pulita (byte)
+ * foglia   : tipo (byte) | chiavi (short) | foglia successiva (int) | per chiave: lunghezza (short) | chiave | valore (long)
+ * interna  : tipo (byte) | chiavi (short) | primo figlio (int) | per chiave: lunghezza (short) | chiave | figlio (int)
+ * </pre>
+ * 
+ * @param channel il file dell'indice
+ * @param pool buffer pool delle pagine decodificate, in ordine di accesso
+ * @param root numero della pagina radice
+ * @param pageCount numero di pagine allocate
+ * @param count numero di chiavi nell'indice
+ */
+public class BTreeIndex implements Closeable {
+    public static final int PAGE_SIZE = 4096;
+    public static final int DEFAULT_POOL_PAGES = 1024;
+    // Garantisce almeno quattro chiavi per pagina
+    public static final int MAX_KEY_BYTES = 512;
+    
+    private static final int MAGIC = 0x544D4231; // "TMB1"
+    private static final short VERSION = 1;
+    private static final byte LEAF = 1;
+    private static final byte INTERNAL = 2;
+    private static final int NODE_HEADER = 7;
+    private static final int NO_PAGE = -1;
+    
+    private final FileChannel channel;
+    private final int poolPages;
+    private final Map<Integer, Node> pool;
+    private int root;
+    private int pageCount;
+    private long count;
+    private long indexedBytes;
+    private boolean cleanOnDisk;
+    private final boolean recovered;
+    
+    // Statistiche del buffer pool
+    private long hits;
+    private long misses;
+    private long pageReads;
+    private long pageWrites;
+    
+    /**
+     * Pagina decodificata: le chiavi sono i byte UTF-8 degli ID, in ordine senza segno
+     */
+    private static final class Node {
+        final int page;
+        final boolean leaf;
+        final List<byte[]> keys = new ArrayList<>();
+        final List<Long> values = new ArrayList<>();
+        final List<Integer> children = new ArrayList<>();
+        int next = NO_PAGE;
+        boolean dirty;
+        
+        Node(int page, boolean leaf) {
+            this.page = page;
+            this.leaf = leaf;
+        }
+        
+        int encodedSize() {
+            int size = NODE_HEADER;
+            for (byte[] key : keys) {
+                size += Short.BYTES + key.length + (leaf ? Long.BYTES : Integer.BYTES);
+            }
+            return size;
+        }
+    }
+    
+    /**
+     * Apre o crea un indice
+     * 
+     * @param path il file dell'indice
+     * @param poolPages numero massimo di pagine tenute in memoria
+     * @throws IOException se il file non è leggibile o non è un indice valido
+     */
+    public BTreeIndex(Path path, int poolPages) throws IOException {
+        if (poolPages < 4) {
+            throw new IllegalArgumentException("Il buffer pool deve contenere almeno 4 pagine");
+        }
+        this.poolPages = poolPages;
+        this.pool = new LinkedHashMap<>(16, 0.75f, true);
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean clean = false;
+        if (channel.size() >= PAGE_SIZE) {
+            ByteBuffer header = readPage(0);
+            if (header.getInt() != MAGIC || header.getShort() != VERSION || header.getShort() != (short) PAGE_SIZE) {
+                channel.close();
+                throw new IOException("Formato indice non riconosciuto: " + path);
+            }
+            root = header.getInt();
+            pageCount = header.getInt();
+            count = header.getLong();
+            indexedBytes = header.getLong();
+            clean = header.get() == 1;
+        }
+        if (!clean) {
+            // Indice nuovo o non chiuso correttamente: si riparte da un albero vuoto
+            reset();
+        }
+        this.cleanOnDisk = clean;
+        this.recovered = !clean;
+    }
+    
+    /**
+     * Cerca il valore associato a un ID
+     * 
+     * @param id l'ID da cercare
+     * @return il valore, o -1 se l'ID non è presente
+     * @throws IOException se la lettura di una pagina fallisce
+     */
+    public synchronized long get(String id) throws IOException {
+        byte[] key = toKey(id);
+        Node leaf = findLeaf(key);
+        int index = search(leaf.keys, key);
+        return index >= 0 ? leaf.values.get(index) : -1;
+    }
+    
+    /**
+     * Associa un valore a un ID, sostituendo quello precedente
+     * 
+     * @param id l'ID
+     * @param value il valore, non negativo
+     * @throws IOException se la lettura o la scrittura di una pagina fallisce
+     */
+    public synchronized void put(String id, long value) throws IOException {
+        byte[] key = toKey(id);
+        markDirtyOnDisk();
+        Split split = insert(root, key, value);
+        if (split != null) {
+            Node newRoot = allocate(false);
+            newRoot.children.add(root);
+            newRoot.keys.add(split.key);
+            newRoot.children.add(split.page);
+            root = newRoot.page;
+        }
+    }
+    
+    /**
+     * Toglie un ID dall'indice
+     * 
+     * @param id l'ID da togliere
+     * @return true se l'ID era presente
+     * @throws IOException se la lettura o la scrittura di una pagina fallisce
+     */
+    public synchronized boolean remove(String id) throws IOException {
+        byte[] key = toKey(id);
+        Node leaf = findLeaf(key);
+        int index = search(leaf.keys, key);
+        if (index < 0) {
+            return false;
+        }
+        markDirtyOnDisk();
+        leaf.keys.remove(index);
+        leaf.values.remove(index);
+        leaf.dirty = true;
+        count--;
+        return true;
+    }
+    
+    /**
+     * Scorre in ordine le chiavi comprese nell'intervallo indicato
+     * 
+     * @param fromInclusive primo ID, null per partire dall'inizio
+     * @param toExclusive ID dopo l'ultimo, null per arrivare alla fine
+     * @param visitor chi riceve ogni ID con il suo valore; restituisce false per fermare la scansione
+     * @throws IOException se la lettura di una pagina fallisce
+     */
+    public synchronized void scan(String fromInclusive, String toExclusive, Visitor visitor) throws IOException {
+        byte[] from = fromInclusive != null ? toKey(fromInclusive) : new byte[0];
+        byte[] to = toExclusive != null ? toKey(toExclusive) : null;
+        Node leaf = findLeaf(from);
+        int index = lowerBound(leaf.keys, from);
+        while (true) {
+            for (; index < leaf.keys.size(); index++) {
+                byte[] key = leaf.keys.get(index);
+                if (to != null && Arrays.compareUnsigned(key, to) >= 0) {
+                    return;
+                }
+                if (!visitor.visit(new String(key, StandardCharsets.UTF_8), leaf.values.get(index))) {
+                    return;
+                }
+            }
+            if (leaf.next == NO_PAGE) {
+                return;
+            }
+            leaf = page(leaf.next);
+            index = 0;
+        }
+    }
+    
+    /**
+     * Riceve le chiavi di una scansione
+     */
+    @FunctionalInterface
+    public interface Visitor {
+        boolean visit(String id, long value) throws IOException;
+    }
+    
+    /**
+     * Scrive le pagine modificate e l'header, e segna l'indice come chiuso correttamente
+     * 
+     * @param indexedBytes byte dei dati già riflessi nell'indice
+     * @throws IOException se la scrittura fallisce
+     */
+    public synchronized void checkpoint(long indexedBytes) throws IOException {
+        for (Node node : pool.values()) {
+            if (node.dirty) {
+                writeNode(node);
+            }
+        }
+        channel.force(false);
+        this.indexedBytes = indexedBytes;
+        writeHeader(true);
+        channel.force(false);
+        cleanOnDisk = true;
+    }
+    
+    /**
+     * Svuota l'indice
+     * 
+     * @throws IOException se la scrittura fallisce
+     */
+    public synchronized void clear() throws IOException {
+        reset();
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+    
+    public synchronized long size() { return count; }
+    public synchronized long getIndexedBytes() { return indexedBytes; }
+    public synchronized int getPageCount() { return pageCount; }
+    public synchronized long getHits() { return hits; }
+    public synchronized long getMisses() { return misses; }
+    public synchronized long getPageReads() { return pageReads; }
+    public synchronized long getPageWrites() { return pageWrites; }
+    public int getPoolPages() { return poolPages; }
+    
+    /**
+     * Indica se all'apertura l'indice è stato ricreato vuoto, perché nuovo
+     * o non chiuso correttamente, e va quindi ricostruito dai dati
+     * 
+     * @return true se l'indice va ricostruito
+     */
+    public boolean isRecovered() {
+        return recovered;
+    }
+    
+    private record Split(byte[] key, int page) {
+    }
+    
+    private Split insert(int page, byte[] key, long value) throws IOException {
+        Node node = page(page);
+        if (node.leaf) {
+            int index = search(node.keys, key);
+            if (index >= 0) {
+                node.values.set(index, value);
+            } else {
+                node.keys.add(-index - 1, key);
+                node.values.add(-index - 1, value);
+                count++;
+            }
+            node.dirty = true;
+            return node.encodedSize() > PAGE_SIZE ? splitLeaf(node) : null;
+        }
+        int child = childIndex(node.keys, key);
+        Split split = insert(node.children.get(child), key, value);
+        if (split == null) {
+            return null;
+        }
+        node = page(page); // La pagina può essere uscita dal pool durante la discesa
+        node.keys.add(child, split.key);
+        node.children.add(child + 1, split.page);
+        node.dirty = true;
+        return node.encodedSize() > PAGE_SIZE ? splitInternal(node) : null;
+    }
+    
+    private Split splitLeaf(Node node) throws IOException {
+        Node right = allocate(true);
+        int half = node.keys.size() / 2;
+        moveTail(node.keys, right.keys, half);
+        moveTail(node.values, right.values, half);
+        right.next = node.next;
+        node.next = right.page;
+        node.dirty = true;
+        return new Split(right.keys.get(0), right.page);
+    }
+    
+    private Split splitInternal(Node node) throws IOException {
+        Node right = allocate(false);
+        int half = node.keys.size() / 2;
+        // La chiave centrale sale al padre e non resta in nessuna delle due metà
+        byte[] middle = node.keys.get(half);
+        moveTail(node.keys, right.keys, half + 1);
+        node.keys.remove(half);
+        moveTail(node.children, right.children, half + 1);
+        node.dirty = true;
+        return new Split(middle, right.page);
+    }
+    
+    private static <T> void moveTail(List<T> source, List<T> target, int from) {
+        List<T> tail = source.subList(from, source.size());
+        target.addAll(tail);
+        tail.clear();
+    }
+    
+    private Node findLeaf(byte[] key) throws IOException {
+        Node node = page(root);
+        while (!node.leaf) {
+            node = page(node.children.get(childIndex(node.keys, key)));
+        }
+        return node;
+    }
+    
+    /**
+     * Il figlio i contiene le chiavi comprese tra la chiave i-1 (inclusa) e la chiave i (esclusa)
+     */
+    private static int childIndex(List<byte[]> keys, byte[] key) {
+        int index = search(keys, key);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+    
+    private static int lowerBound(List<byte[]> keys, byte[] key) {
+        int index = search(keys, key);
+        return index >= 0 ? index : -index - 1;
+    }
+    
+    private static int search(List<byte[]> keys, byte[] key) {
+        int low = 0;
+        int high = keys.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = Arrays.compareUnsigned(keys.get(mid), key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+    
+    /**
+     * Restituisce una pagina dal buffer pool, leggendola dal disco se non presente
+     */
+    private Node page(int page) throws IOException {
+        Node node = pool.get(page);
+        if (node != null) {
+            hits++;
+            return node;
+        }
+        misses++;
+        node = decode(page, readPage(page));
+        cache(node);
+        return node;
+    }
+    
+    private Node allocate(boolean leaf) throws IOException {
+        Node node = new Node(pageCount++, leaf);
+        node.dirty = true;
+        cache(node);
+        return node;
+    }
+    
+    /**
+     * Aggiunge una pagina al pool, scrivendo su disco la meno usata se il pool è pieno
+     */
+    private void cache(Node node) throws IOException {
+        pool.put(node.page, node);
+        if (pool.size() > poolPages) {
+            Iterator<Node> eldest = pool.values().iterator();
+            Node evicted = eldest.next();
+            if (evicted.dirty) {
+                writeNode(evicted);
+            }
+            eldest.remove();
+        }
+    }
+    
+    private ByteBuffer readPage(int page) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(PAGE_SIZE);
+        long position = (long) page * PAGE_SIZE;
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Pagina dell'indice mancante: " + page);
+            }
+        }
+        pageReads++;
+        return buffer.flip();
+    }
+    
+    private static Node decode(int page, ByteBuffer buffer) throws IOException {
+        byte type = buffer.get();
+        if (type != LEAF && type != INTERNAL) {
+            throw new IOException("Pagina dell'indice danneggiata: " + page);
+        }
+        Node node = new Node(page, type == LEAF);
+        int keys = buffer.getShort();
+        int link = buffer.getInt();
+        if (node.leaf) {
+            node.next = link;
+        } else {
+            node.children.add(link);
+        }
+        for (int i = 0; i < keys; i++) {
+            byte[] key = new byte[buffer.getShort()];
+            buffer.get(key);
+            node.keys.add(key);
+            if (node.leaf) {
+                node.values.add(buffer.getLong());
+            } else {
+                node.children.add(buffer.getInt());
+            }
+        }
+        return node;
+    }
+    
+    private void writeNode(Node node) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(PAGE_SIZE);
+        buffer.put(node.leaf ? LEAF : INTERNAL);
+        buffer.putShort((short) node.keys.size());
+        buffer.putInt(node.leaf ? node.next : node.children.get(0));
+        for (int i = 0; i < node.keys.size(); i++) {
+            byte[] key = node.keys.get(i);
+            buffer.putShort((short) key.length).put(key);
+            if (node.leaf) {
+                buffer.putLong(node.values.get(i));
+            } else {
+                buffer.putInt(node.children.get(i + 1));
+            }
+        }
+        buffer.clear();
+        writeFully(buffer, (long) node.page * PAGE_SIZE);
+        node.dirty = false;
+        pageWrites++;
+    }
+    
+    private void writeHeader(boolean clean) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(PAGE_SIZE);
+        header.putInt(MAGIC).putShort(VERSION).putShort((short) PAGE_SIZE)
+              .putInt(root).putInt(pageCount).putLong(count).putLong(indexedBytes)
+              .put((byte) (clean ? 1 : 0));
+        header.clear();
+        writeFully(header, 0);
+    }
+    
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+    
+    /**
+     * Alla prima modifica dopo un checkpoint segna l'indice come non chiuso correttamente,
+     * così dopo un crash verrà ricostruito
+     */
+    private void markDirtyOnDisk() throws IOException {
+        if (cleanOnDisk) {
+            writeHeader(false);
+            channel.force(false);
+            cleanOnDisk = false;
+        }
+    }
+    
+    private void reset() throws IOException {
+        pool.clear();
+        channel.truncate(PAGE_SIZE);
+        pageCount = 1;
+        count = 0;
+        indexedBytes = 0;
+        Node leaf = allocate(true);
+        root = leaf.page;
+        writeHeader(false);
+        cleanOnDisk = false;
+    }
+    
+    private static byte[] toKey(String id) {
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        if (key.length > MAX_KEY_BYTES) {
+            throw new IllegalArgumentException("ID troppo lungo per l'indice: " + id);
+        }
+        return key;
+    }
+}
\ No newline at end of file
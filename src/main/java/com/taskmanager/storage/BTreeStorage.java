@@ -0,0 +1,633 @@
+package com.taskmanager.storage;
+
+import com.taskmanager.models.Task;
+import com.taskmanager.models.TaskComponent;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Motore di persistenza per archivi che non stanno in memoria.
+ * I componenti sono scritti in coda a un file di record e un indice B+tree su disco
+ * (BTreeIndex) associa ogni ID all'offset della sua versione più recente.
+ * In memoria restano solo le pagine dell'indice nel buffer pool, quindi l'heap usato
+ * non cresce con il numero di task; findById() e findRange() costano O(log n) letture di pagina.
+ * 
+ * Il file dei record è la fonte di verità: l'indice viene salvato da flush() e close(),
+ * e se all'apertura non risulta chiuso correttamente viene ricostruito rileggendo i record.
+ * Lo spazio delle versioni sostituite o eliminate non viene recuperato: il file dei
+ * record cresce a ogni salvataggio e a ogni eliminazione, senza limite, e torna
+ * vuoto solo con clear(). Un archivio aggiornato spesso va ricaricato in un nuovo
+ * storage (findAll() e saveAll()) per riportarlo alla dimensione dei dati vivi.
+ * 
+ * Le letture prendono il lock in lettura e procedono in parallelo: i record si
+ * leggono con letture posizionali sul canale, e l'indice viene consultato solo
+ * per il tempo di trovare gli offset. Scritture, clear() e chiusura prendono il
+ * lock in scrittura.
+ * 
+ * Il record contiene la versione del task (RecordCodec): update() rilegge sotto il
+ * lock in scrittura quella salvata e la confronta con la versione attesa, quindi il
+ * controllo non tiene nulla in memoria e vale anche dopo una riapertura.
+ * 
+ * File usati:
+ * <pre>
+ * data/&lt;nome&gt;.records : per ogni modifica, lunghezza (int) e voce nel formato di LsmSegment
+ * data/&lt;nome&gt;.btree   : indice B+tree degli ID
+ * </pre>
+ * 
+ * @param fileName nome del file dati, da cui derivano i nomi dei file
+ * @param records il file dei record, aperto in lettura e scrittura
+ * @param index indice degli ID verso gli offset nel file dei record
+ * @param recordsSize posizione della prossima scrittura nel file dei record
+ * @param indexes indici esterni avvisati a ogni modifica
+ * @param lock lock in lettura per le ricerche, in scrittura per le modifiche
+ * @param flusher con FsyncPolicy.INTERVAL, forza su disco il file dei record a intervalli
+ * @param unforced ci sono record scritti dopo l'ultimo force
+ */
+public class BTreeStorage implements StorageEngine {
+    private final String fileName;
+    private final FsyncPolicy fsyncPolicy;
+    private final FileChannel records;
+    private final BTreeIndex index;
+    private volatile long recordsSize;
+    private final ComponentIndexes indexes = new ComponentIndexes();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ScheduledExecutorService flusher;
+    private volatile boolean unforced;
+    
+    /**
+     * Costruttore con opzioni di default
+     * 
+     * @param fileName nome del file dati
+     */
+    public BTreeStorage(String fileName) {
+        this(fileName, StorageOptions.defaults());
+    }
+    
+    /**
+     * Costruttore: apre record e indice, ricostruendo l'indice se necessario
+     * 
+     * @param fileName nome del file dati
+     * @param options dimensione del buffer pool e politica di fsync
+     */
+    public BTreeStorage(String fileName, StorageOptions options) {
+        this.fileName = fileName;
+        this.fsyncPolicy = options.getFsyncPolicy();
+        if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+            long interval = options.getFsyncIntervalMillis();
+            if (interval <= 0) {
+                throw new IllegalArgumentException("L'intervallo di fsync deve essere positivo");
+            }
+            this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "btree-fsync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::forceQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            this.flusher = null;
+        }
+        int dot = fileName.lastIndexOf('.');
+        String baseName = dot > 0 ? fileName.substring(0, dot) : fileName;
+        try {
+            Files.createDirectories(Paths.get("data"));
+            this.records = FileChannel.open(Paths.get("data", baseName + ".records"), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.index = new BTreeIndex(Paths.get("data", baseName + ".btree"), options.getBufferPoolPages());
+            this.recordsSize = records.size();
+            long from = index.isRecovered() ? 0 : index.getIndexedBytes();
+            if (from < recordsSize) {
+                long replayed = replay(from);
+                System.out.println("✅ Indice aggiornato: " + replayed + " record");
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Impossibile aprire lo storage " + fileName + ": " + e.getMessage(), e);
+        }
+        System.out.println("✅ Storage B+tree aperto: " + index.size() + " componenti");
+    }
+    
+    /**
+     * Salva un componente in coda al file dei record e ne aggiorna l'indice
+     * 
+     * @param component il componente da salvare
+     */
+    @Override
+    public void save(TaskComponent component) {
+        if (component == null) {
+            throw new IllegalArgumentException("Il componente non può essere null");
+        }
+        saveAll(List.of(component));
+    }
+    
+    /**
+     * Trova un componente con una ricerca nell'indice e una lettura del record
+     * 
+     * @param id l'ID da cercare
+     * @return il componente se trovato, altrimenti null
+     */
+    @Override
+    public TaskComponent findById(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            long offset = index.get(id);
+            return offset >= 0 ? read(offset) : null;
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("⚠️  Errore lettura record: " + e.getMessage());
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Elimina un componente scrivendo una tombstone
+     * 
+     * @param id ID del componente da eliminare
+     * @return true se eliminato, false se non trovato
+     */
+    @Override
+    public boolean delete(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            return false;
+        }
+        return deleteAll(List.of(id)) > 0;
+    }
+    
+    /**
+     * Salva più componenti con una sola scrittura sul file dei record
+     * 
+     * @param components i componenti da salvare
+     */
+    @Override
+    public void saveAll(Collection<? extends TaskComponent> components) {
+        if (components == null) {
+            throw new IllegalArgumentException("Il componente non può essere null");
+        }
+        List<String> ids = new ArrayList<>(components.size());
+        for (TaskComponent component : components) {
+            if (component == null) {
+                throw new IllegalArgumentException("Il componente non può essere null");
+            }
+            ids.add(component.getId());
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            long[] offsets = append(ids, new ArrayList<>(components));
+            for (int i = 0; i < offsets.length; i++) {
+                index.put(ids.get(i), offsets[i]);
+            }
+            components.forEach(indexes::updated);
+        } catch (IOException e) {
+            System.err.println("❌ Errore durante il salvataggio: " + e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Elimina più componenti con una sola scrittura sul file dei record
+     * 
+     * @param ids gli ID dei componenti da eliminare
+     * @return numero di componenti eliminati
+     */
+    @Override
+    public int deleteAll(Collection<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        lock.writeLock().lock();
+        try {
+            List<String> present = new ArrayList<>();
+            Set<String> seen = new HashSet<>();
+            for (String id : ids) {
+                if (id != null && seen.add(id) && index.get(id) >= 0) {
+                    present.add(id);
+                }
+            }
+            if (present.isEmpty()) {
+                return 0;
+            }
+            append(present, Collections.nCopies(present.size(), null));
+            for (String id : present) {
+                index.remove(id);
+                indexes.removed(id);
+            }
+            return present.size();
+        } catch (IOException e) {
+            System.err.println("❌ Errore durante il salvataggio: " + e.getMessage());
+            return 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Modifica un task con controllo ottimistico della versione: la modifica avviene su
+     * una copia fuori dal lock, che viene scritta solo se sotto il lock in scrittura
+     * il task esiste ancora alla versione attesa
+     * 
+     * @param id ID del task
+     * @param expectedVersion la versione letta prima della modifica
+     * @param mutator la modifica, applicata a una copia del task
+     * @return il task aggiornato, o null se non esiste
+     * @throws ConcurrentModificationException se il task è cambiato o è stato eliminato dopo la lettura
+     */
+    @Override
+    public Task update(String id, long expectedVersion, Consumer<? super Task> mutator) {
+        if (mutator == null) {
+            throw new IllegalArgumentException("La modifica non può essere null");
+        }
+        if (!(findById(id) instanceof Task current)) {
+            return null;
+        }
+        if (current.getVersion() != expectedVersion) {
+            throw versionConflict(id, expectedVersion, current.getVersion());
+        }
+        Task updated = current.copy();
+        mutator.accept(updated);
+        if (updated.getVersion() == expectedVersion) {
+            return current; // Nessun setter chiamato, non c'è niente da scrivere
+        }
+        lock.writeLock().lock();
+        try {
+            long offset = index.get(id);
+            if (offset < 0 || !(read(offset) instanceof Task stored)) {
+                throw new ConcurrentModificationException("Il task " + id + " è stato eliminato da un'altra operazione");
+            }
+            if (stored.getVersion() != expectedVersion) {
+                throw versionConflict(id, expectedVersion, stored.getVersion());
+            }
+            saveAll(List.of(updated));
+        } catch (IOException e) {
+            System.err.println("⚠️  Errore lettura record: " + e.getMessage());
+            return null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return updated;
+    }
+    
+    /**
+     * Le versioni sono salvate nei record
+     * 
+     * @return sempre true
+     */
+    @Override
+    public boolean supportsVersionedUpdate() {
+        return true;
+    }
+    
+    /**
+     * Restituisce tutti i componenti in ordine di ID
+     * 
+     * @return lista di tutti i componenti
+     */
+    @Override
+    public List<TaskComponent> findAll() {
+        return findRange(null, null);
+    }
+    
+    /**
+     * Restituisce, in ordine di ID, i componenti con ID nell'intervallo indicato.
+     * Gli offset si raccolgono prima dall'indice, così i record si leggono
+     * fuori dal suo monitor
+     * 
+     * @param fromInclusive primo ID, null per partire dall'inizio
+     * @param toExclusive ID dopo l'ultimo, null per arrivare alla fine
+     * @return i componenti trovati
+     */
+    public List<TaskComponent> findRange(String fromInclusive, String toExclusive) {
+        List<TaskComponent> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            List<Long> offsets = new ArrayList<>();
+            index.scan(fromInclusive, toExclusive, (id, offset) -> offsets.add(offset));
+            for (long offset : offsets) {
+                result.add(read(offset));
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("⚠️  Errore lettura record: " + e.getMessage());
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+    
+    /**
+     * Restituisce una pagina di task scorrendo l'indice da afterId in poi:
+     * si leggono solo i record della pagina, più i progetti incontrati.
+     * L'indice viene scorso a blocchi di offset, letti poi fuori dal suo monitor
+     * 
+     * @param afterId l'ID dell'ultimo task della pagina precedente, null per la prima pagina
+     * @param limit numero massimo di task restituiti
+     * @return i task della pagina, in ordine di ID
+     */
+    @Override
+    public List<Task> page(String afterId, int limit) {
+        List<Task> result = new ArrayList<>();
+        if (limit <= 0) {
+            return result;
+        }
+        lock.readLock().lock();
+        try {
+            String from = afterId;
+            while (result.size() < limit) {
+                String skip = from;
+                int wanted = limit - result.size();
+                List<String> ids = new ArrayList<>(wanted);
+                List<Long> offsets = new ArrayList<>(wanted);
+                index.scan(from, null, (id, offset) -> {
+                    if (!id.equals(skip)) {
+                        ids.add(id);
+                        offsets.add(offset);
+                    }
+                    return ids.size() < wanted;
+                });
+                for (long offset : offsets) {
+                    if (read(offset) instanceof Task task) {
+                        result.add(task);
+                    }
+                }
+                if (ids.size() < wanted) {
+                    break;
+                }
+                from = ids.get(ids.size() - 1);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("⚠️  Errore lettura record: " + e.getMessage());
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+    
+    /**
+     * Trova gli ID con un prefisso scorrendo l'indice dal prefisso in poi,
+     * senza leggere i record: gli ID con lo stesso prefisso sono contigui nelle foglie
+     * 
+     * @param prefix il prefisso
+     * @param limit numero massimo di ID restituiti
+     * @return gli ID trovati, in ordine
+     */
+    @Override
+    public List<String> findIdsByPrefix(String prefix, int limit) {
+        List<String> result = new ArrayList<>();
+        if (limit <= 0) {
+            return result;
+        }
+        lock.readLock().lock();
+        try {
+            index.scan(prefix, null, (id, offset) -> {
+                if (!id.startsWith(prefix)) {
+                    return false;
+                }
+                result.add(id);
+                return result.size() < limit;
+            });
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("⚠️  Errore lettura indice: " + e.getMessage());
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+    
+    /**
+     * Restituisce il numero di componenti
+     * 
+     * @return numero di componenti nell'indice
+     */
+    @Override
+    public int size() {
+        return (int) index.size();
+    }
+    
+    /**
+     * Elimina tutti i componenti, svuotando record e indice
+     */
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            records.truncate(0);
+            recordsSize = 0;
+            index.clear();
+            indexes.cleared();
+        } catch (IOException e) {
+            System.err.println("⚠️  Errore durante lo svuotamento: " + e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Registra un indice esterno e gli passa tutti i componenti con una scansione completa
+     * 
+     * @param componentIndex l'indice da tenere aggiornato
+     */
+    @Override
+    public void addIndex(ComponentIndex componentIndex) {
+        lock.writeLock().lock();
+        try {
+            indexes.add(componentIndex);
+            findAll().forEach(componentIndex::update);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Porta su disco i record e le pagine modificate dell'indice
+     */
+    @Override
+    public void flush() {
+        lock.writeLock().lock();
+        try {
+            records.force(false);
+            index.checkpoint(recordsSize);
+        } catch (IOException e) {
+            System.err.println("❌ Errore durante la scrittura dell'indice: " + e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Stampa statistiche dello storage
+     */
+    @Override
+    public void printStats() {
+        System.out.println("📊 STATISTICHE B+TREE STORAGE:");
+        System.out.println("  Totale componenti: " + size());
+        System.out.println("  File: " + fileName);
+        System.out.println("  Dimensione record: " + recordsSize + " byte");
+        System.out.println("  Pagine indice: " + index.getPageCount() + " da " + BTreeIndex.PAGE_SIZE + " byte");
+        System.out.println("  Buffer pool: " + index.getPoolPages() + " pagine (" + index.getHits() + " hit, "
+                + index.getMisses() + " miss)");
+        System.out.println("  Pagine lette: " + index.getPageReads() + ", scritte: " + index.getPageWrites());
+    }
+    
+    /**
+     * Salva l'indice e chiude i file
+     */
+    @Override
+    public void close() {
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        lock.writeLock().lock();
+        try {
+            if (!records.isOpen()) {
+                return;
+            }
+            flush();
+            index.close();
+            records.close();
+        } catch (IOException e) {
+            System.err.println("⚠️  Errore chiusura dello storage: " + e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Scrive le voci in coda al file dei record con una sola write
+     * 
+     * @param ids gli ID delle voci
+     * @param components i componenti, null per le tombstone
+     * @return l'offset di ogni voce
+     * @throws IOException se la scrittura fallisce
+     */
+    private long[] append(List<String> ids, List<TaskComponent> components) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128 * ids.size());
+        DataOutputStream out = new DataOutputStream(bytes);
+        ByteArrayOutputStream entry = new ByteArrayOutputStream(128);
+        long[] offsets = new long[ids.size()];
+        for (int i = 0; i < ids.size(); i++) {
+            entry.reset();
+            LsmSegment.writeEntry(new DataOutputStream(entry), ids.get(i), components.get(i));
+            offsets[i] = recordsSize + out.size();
+            out.writeInt(entry.size());
+            entry.writeTo(out);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        long position = recordsSize;
+        while (buffer.hasRemaining()) {
+            position += records.write(buffer, position);
+        }
+        if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+            records.force(false);
+        } else {
+            unforced = true;
+        }
+        recordsSize = position;
+        return offsets;
+    }
+    
+    /**
+     * Forza su disco i record scritti dall'ultimo force, per la politica INTERVAL.
+     * Il force non richiede il lock: porta su disco quanto già scritto nel canale.
+     */
+    private void forceQuietly() {
+        if (!unforced || !records.isOpen()) {
+            return;
+        }
+        unforced = false;
+        try {
+            records.force(false);
+        } catch (IOException e) {
+            unforced = true;
+            System.err.println("❌ Errore fsync dei record: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Legge e decodifica il record all'offset indicato
+     */
+    private TaskComponent read(long offset) throws IOException {
+        ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+        readFully(length, offset);
+        ByteBuffer entry = ByteBuffer.allocate(length.flip().getInt());
+        readFully(entry, offset + Integer.BYTES);
+        return LsmSegment.readEntry(entry.flip(), this::findById).component();
+    }
+    
+    private static ConcurrentModificationException versionConflict(String id, long expectedVersion, long version) {
+        return new ConcurrentModificationException("Il task " + id + " è stato modificato da un'altra operazione: versione attesa "
+                + expectedVersion + ", attuale " + version);
+    }
+    
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (records.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Record troncato all'offset " + position);
+            }
+        }
+    }
+    
+    /**
+     * Applica all'indice i record scritti dopo l'ultimo salvataggio dell'indice.
+     * Un record incompleto in coda (scrittura interrotta) viene troncato.
+     * 
+     * @param from posizione da cui rileggere
+     * @return numero di record applicati
+     * @throws IOException se la lettura fallisce
+     */
+    private long replay(long from) throws IOException {
+        long position = from;
+        long count = 0;
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Channels.newInputStream(records.position(from)), 64 * 1024));
+        try {
+            while (position < recordsSize) {
+                int length = in.readInt();
+                byte[] bytes = new byte[length];
+                in.readFully(bytes);
+                ByteBuffer entry = ByteBuffer.wrap(bytes);
+                String id = LsmSegment.entryId(entry);
+                if (LsmSegment.isTombstoneEntry(entry)) {
+                    index.remove(id);
+                } else {
+                    index.put(id, position);
+                }
+                position += Integer.BYTES + length;
+                count++;
+            }
+        } catch (EOFException | NegativeArraySizeException e) {
+            System.err.println("⚠️  Record incompleto all'offset " + position + ", troncato");
+            records.truncate(position);
+            recordsSize = position;
+        }
+        index.checkpoint(recordsSize);
+        return count;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,187 @@
+package com.taskmanager.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Filtro di Bloom sugli ID di un file dati.
+ * mightContain() risponde false solo se l'ID non è sicuramente presente, quindi
+ * una ricerca di un ID inesistente si ferma senza leggere il file; i falsi positivi
+ * capitano con la probabilità scelta alla creazione.
+ * Le posizioni dei bit si ottengono con il double hashing di Kirsch-Mitzenmacher
+ * a partire da un unico hash a 64 bit della chiave.
+ * 
+ * Layout del file:
+ * <pre>
+ * magic (int) | versione (short) | numero di hash (short) | numero di bit (long) | bit (long[])
+ * </pre>
+ * 
+ * @param bits il vettore di bit
+ * @param bitCount numero di bit usati
+ * @param hashCount numero di posizioni calcolate per ogni chiave
+ */
+public final class BloomFilter {
+    public static final double DEFAULT_FPP = 0.01;
+    public static final String EXTENSION = ".bloom";
+    
+    private static final int MAGIC = 0x544D4246; // "TMBF"
+    private static final short VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashCount;
+    
+    private BloomFilter(long[] bits, int hashCount) {
+        this.bits = bits;
+        this.bitCount = (long) bits.length * Long.SIZE;
+        this.hashCount = hashCount;
+    }
+    
+    /**
+     * Crea un filtro vuoto dimensionato per il numero di chiavi e la probabilità di falsi positivi
+     * 
+     * @param expectedKeys numero di chiavi previsto
+     * @param falsePositiveRate probabilità di falso positivo, tra 0 e 1 esclusi
+     * @return il filtro vuoto
+     */
+    public static BloomFilter create(long expectedKeys, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("La probabilità di falsi positivi deve essere tra 0 e 1");
+        }
+        long keys = Math.max(1, expectedKeys);
+        // m = -n ln p / (ln 2)^2, k = m/n ln 2
+        long bitCount = Math.max(Long.SIZE, (long) Math.ceil(-keys * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+        int words = (int) Math.min((bitCount + Long.SIZE - 1) / Long.SIZE, Integer.MAX_VALUE - 8);
+        int hashCount = (int) Math.max(1, Math.min(30, Math.round((double) words * Long.SIZE / keys * Math.log(2))));
+        return new BloomFilter(new long[words], hashCount);
+    }
+    
+    /**
+     * Aggiunge una chiave al filtro
+     * 
+     * @param key la chiave in UTF-8
+     */
+    public void add(byte[] key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+    
+    /**
+     * Indica se la chiave potrebbe essere stata aggiunta
+     * 
+     * @param key la chiave in UTF-8
+     * @return false se la chiave non è sicuramente presente
+     */
+    public boolean mightContain(byte[] key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    public void add(String id) { add(id.getBytes(StandardCharsets.UTF_8)); }
+    public boolean mightContain(String id) { return mightContain(id.getBytes(StandardCharsets.UTF_8)); }
+    public long getBitCount() { return bitCount; }
+    public int getHashCount() { return hashCount; }
+    
+    /**
+     * Scrive il filtro su un file temporaneo e lo sostituisce al file indicato
+     * 
+     * @param path il file di destinazione
+     * @throws IOException se la scrittura fallisce
+     */
+    public void write(Path path) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + bits.length * Long.BYTES);
+        buffer.putInt(MAGIC).putShort(VERSION).putShort((short) hashCount).putLong(bitCount);
+        buffer.asLongBuffer().put(bits);
+        buffer.clear();
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        LogCompactor.moveAtomically(tmp, path);
+    }
+    
+    /**
+     * Legge un filtro scritto da write()
+     * 
+     * @param path il file da leggere
+     * @return il filtro
+     * @throws IOException se il file non è leggibile o non è un filtro valido
+     */
+    public static BloomFilter read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE || (size - HEADER_BYTES) % Long.BYTES != 0) {
+                throw new IOException("Filtro di Bloom danneggiato: " + path);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException("Filtro di Bloom troncato: " + path);
+                }
+            }
+            buffer.flip();
+            if (buffer.getInt() != MAGIC || buffer.getShort() != VERSION) {
+                throw new IOException("Formato filtro di Bloom non riconosciuto: " + path);
+            }
+            int hashCount = buffer.getShort();
+            long bitCount = buffer.getLong();
+            long[] bits = new long[(int) ((size - HEADER_BYTES) / Long.BYTES)];
+            if (bitCount != (long) bits.length * Long.SIZE || hashCount <= 0) {
+                throw new IOException("Filtro di Bloom danneggiato: " + path);
+            }
+            buffer.asLongBuffer().get(bits);
+            return new BloomFilter(bits, hashCount);
+        }
+    }
+    
+    /**
+     * Restituisce il file del filtro che accompagna un file dati: stesso nome, estensione .bloom
+     * 
+     * @param dataFile il file dati
+     * @return il percorso del filtro
+     */
+    public static Path fileFor(Path dataFile) {
+        String name = dataFile.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dataFile.resolveSibling((dot > 0 ? name.substring(0, dot) : name) + EXTENSION);
+    }
+    
+    /**
+     * Hash a 64 bit della chiave: FNV-1a seguito dal finalizzatore di MurmurHash3
+     */
+    private static long hash(byte[] key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,251 @@
+package com.taskmanager.storage;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache a dimensione limitata con politica W-TinyLFU.
+ * Le nuove voci entrano in una piccola finestra LRU; quando ne escono competono
+ * con la vittima della cache principale (LRU segmentata: probation e protected)
+ * e restano solo se il loro uso stimato è maggiore. La frequenza d'uso è stimata
+ * con un count-min sketch di contatori a 4 bit che vengono dimezzati periodicamente,
+ * così una scansione di voci usate una volta sola non svuota la cache delle voci più richieste.
+ * 
+ * Tutti i metodi sono sincronizzati: le operazioni sono brevi e non fanno I/O.
+ * 
+ * @param maximumSize numero massimo di voci
+ * @param window finestra LRU delle voci nuove (circa 1% della cache)
+ * @param probation voci della cache principale usate una volta
+ * @param protectedSegment voci della cache principale usate più volte (circa 80%)
+ * @param sketch stima della frequenza d'uso delle chiavi
+ */
+public class BoundedCache<K, V> {
+    private final int maximumSize;
+    private final int windowMax;
+    private final int protectedMax;
+    private final LinkedHashMap<K, V> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, V> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, V> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch sketch;
+    
+    // Statistiche
+    private long hits;
+    private long misses;
+    private long evictions;
+    
+    /**
+     * Costruttore
+     * 
+     * @param maximumSize numero massimo di voci, almeno 1
+     */
+    public BoundedCache(int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("La dimensione della cache deve essere positiva");
+        }
+        this.maximumSize = maximumSize;
+        this.windowMax = Math.max(1, maximumSize / 100);
+        this.protectedMax = (int) ((maximumSize - windowMax) * 0.8);
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+    
+    /**
+     * Restituisce il valore associato alla chiave
+     * 
+     * @param key la chiave
+     * @return il valore, o null se non in cache
+     */
+    public synchronized V get(K key) {
+        sketch.increment(key);
+        V value = window.get(key);
+        if (value == null) {
+            value = protectedSegment.get(key);
+        }
+        if (value == null) {
+            value = probation.remove(key);
+            if (value != null) {
+                // Secondo uso: la voce passa nel segmento protetto
+                protectedSegment.put(key, value);
+                if (protectedSegment.size() > protectedMax) {
+                    Iterator<Map.Entry<K, V>> eldest = protectedSegment.entrySet().iterator();
+                    Map.Entry<K, V> demoted = eldest.next();
+                    eldest.remove();
+                    probation.put(demoted.getKey(), demoted.getValue());
+                }
+            }
+        }
+        if (value != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return value;
+    }
+    
+    /**
+     * Inserisce o sostituisce una voce. Se la cache è piena una voce viene scartata,
+     * eventualmente quella appena inserita.
+     * 
+     * @param key la chiave
+     * @param value il valore
+     */
+    public synchronized void put(K key, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("Chiave e valore non possono essere null");
+        }
+        sketch.increment(key);
+        if (window.containsKey(key)) {
+            window.put(key, value);
+            return;
+        }
+        if (protectedSegment.containsKey(key)) {
+            protectedSegment.put(key, value);
+            return;
+        }
+        if (probation.containsKey(key)) {
+            probation.put(key, value);
+            return;
+        }
+        window.put(key, value);
+        if (window.size() > windowMax) {
+            Iterator<Map.Entry<K, V>> eldest = window.entrySet().iterator();
+            Map.Entry<K, V> candidate = eldest.next();
+            eldest.remove();
+            admit(candidate.getKey(), candidate.getValue());
+        }
+    }
+    
+    /**
+     * Decide se la voce uscita dalla finestra entra nella cache principale
+     */
+    private void admit(K key, V value) {
+        if (probation.size() + protectedSegment.size() < maximumSize - windowMax) {
+            probation.put(key, value);
+            return;
+        }
+        LinkedHashMap<K, V> victims = probation.isEmpty() ? protectedSegment : probation;
+        if (victims.isEmpty()) {
+            evictions++;
+            return;
+        }
+        Iterator<Map.Entry<K, V>> eldest = victims.entrySet().iterator();
+        Map.Entry<K, V> victim = eldest.next();
+        if (sketch.frequency(key) > sketch.frequency(victim.getKey())) {
+            eldest.remove();
+            probation.put(key, value);
+        }
+        evictions++;
+    }
+    
+    /**
+     * Toglie una voce dalla cache
+     * 
+     * @param key la chiave
+     */
+    public synchronized void invalidate(K key) {
+        if (window.remove(key) == null && probation.remove(key) == null) {
+            protectedSegment.remove(key);
+        }
+    }
+    
+    /**
+     * Svuota la cache, mantenendo statistiche e frequenze
+     */
+    public synchronized void invalidateAll() {
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+    }
+    
+    public synchronized int size() { return window.size() + probation.size() + protectedSegment.size(); }
+    public int getMaximumSize() { return maximumSize; }
+    public synchronized long getHits() { return hits; }
+    public synchronized long getMisses() { return misses; }
+    public synchronized long getEvictions() { return evictions; }
+    
+    /**
+     * Restituisce la percentuale di letture servite dalla cache
+     * 
+     * @return hit rate tra 0 e 100
+     */
+    public synchronized double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : hits * 100.0 / requests;
+    }
+    
+    /**
+     * Count-min sketch con 4 righe di contatori a 4 bit, 16 contatori per long.
+     * Dopo un numero di incrementi pari a 10 volte la dimensione della cache
+     * tutti i contatori vengono dimezzati, così la stima segue i cambi di carico.
+     */
+    private static final class FrequencySketch {
+        private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+        };
+        private static final long RESET_MASK = 0x7777777777777777L;
+        
+        private final long[] table;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+        
+        FrequencySketch(int maximumSize) {
+            int length = Integer.highestOneBit(Math.max(1, maximumSize - 1)) << 1;
+            this.table = new long[Math.max(8, Math.min(length, 1 << 24))];
+            this.mask = table.length - 1;
+            this.sampleSize = (int) Math.min(10L * maximumSize, Integer.MAX_VALUE);
+        }
+        
+        int frequency(Object key) {
+            int hash = spread(key.hashCode());
+            int frequency = Integer.MAX_VALUE;
+            for (int row = 0; row < SEEDS.length; row++) {
+                frequency = Math.min(frequency, counter(hash, row));
+            }
+            return frequency;
+        }
+        
+        void increment(Object key) {
+            int hash = spread(key.hashCode());
+            boolean added = false;
+            for (int row = 0; row < SEEDS.length; row++) {
+                int index = indexOf(hash, row);
+                int shift = offsetOf(hash, row);
+                if (((table[index] >>> shift) & 0xF) < 15) {
+                    table[index] += 1L << shift;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                reset();
+            }
+        }
+        
+        private int counter(int hash, int row) {
+            return (int) ((table[indexOf(hash, row)] >>> offsetOf(hash, row)) & 0xF);
+        }
+        
+        private int indexOf(int hash, int row) {
+            long h = (hash + SEEDS[row]) * SEEDS[row];
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+        
+        private static int offsetOf(int hash, int row) {
+            // Ogni riga usa un contatore diverso dei 16 contenuti nel long
+            return (((hash >>> (row << 3)) & 3) << 2 | row) << 2;
+        }
+        
+        private void reset() {
+            for (int i = 0; i < table.length; i++) {
+                table[i] = (table[i] >>> 1) & RESET_MASK;
+            }
+            additions /= 2;
+        }
+        
+        private static int spread(int hash) {
+            hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+            hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+            return (hash >>> 16) ^ hash;
+        }
+    }
+}
\ No newline at end of file
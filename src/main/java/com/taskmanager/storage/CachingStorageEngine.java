@@ -0,0 +1,249 @@
+package com.taskmanager.storage;
+
+import com.taskmanager.models.Task;
+import com.taskmanager.models.TaskComponent;
+import com.taskmanager.models.TaskPriority;
+import com.taskmanager.models.TaskStatus;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Cache limitata davanti a un motore che tiene i dati su disco.
+ * Le letture per ID passano prima da una BoundedCache, così i task più usati
+ * restano in memoria mentre l'heap occupato resta fisso; le scritture vanno al
+ * motore e tolgono la voce dalla cache, che verrà ricaricata alla lettura successiva.
+ * 
+ * Una lettura mancata mette in cache il valore letto solo se nel frattempo
+ * non è avvenuta alcuna scrittura, così una lettura lenta non può reinserire
+ * una versione già sostituita o eliminata.
+ * 
+ * @param delegate il motore che tiene i dati
+ * @param cache i componenti letti di recente
+ * @param writes numero di scritture avvenute, usato per scartare letture superate
+ */
+public class CachingStorageEngine implements StorageEngine {
+    private final StorageEngine delegate;
+    private final BoundedCache<String, TaskComponent> cache;
+    private final Object writeLock = new Object();
+    private long writes;
+    
+    /**
+     * Costruttore
+     * 
+     * @param delegate il motore da mettere dietro la cache
+     * @param maximumSize numero massimo di componenti in cache
+     */
+    public CachingStorageEngine(StorageEngine delegate, int maximumSize) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Il motore non può essere null");
+        }
+        this.delegate = delegate;
+        this.cache = new BoundedCache<>(maximumSize);
+    }
+    
+    @Override
+    public void save(TaskComponent component) {
+        delegate.save(component);
+        invalidate(component.getId());
+    }
+    
+    @Override
+    public TaskComponent findById(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            return null;
+        }
+        TaskComponent component = cache.get(id);
+        if (component != null) {
+            return component;
+        }
+        long stamp;
+        synchronized (writeLock) {
+            stamp = writes;
+        }
+        component = delegate.findById(id);
+        if (component != null) {
+            synchronized (writeLock) {
+                if (writes == stamp) {
+                    cache.put(id, component);
+                }
+            }
+        }
+        return component;
+    }
+    
+    @Override
+    public Task update(String id, long expectedVersion, Consumer<? super Task> mutator) {
+        Task updated = delegate.update(id, expectedVersion, mutator);
+        invalidate(id);
+        return updated;
+    }
+    
+    @Override
+    public boolean supportsVersionedUpdate() {
+        return delegate.supportsVersionedUpdate();
+    }
+    
+    @Override
+    public boolean tracksChanges() {
+        return delegate.tracksChanges();
+    }
+    
+    @Override
+    public List<Task> updateWhere(Predicate<? super Task> filter, Consumer<? super Task> mutator) {
+        List<Task> updated = delegate.updateWhere(filter, mutator);
+        synchronized (writeLock) {
+            writes++;
+            for (Task task : updated) {
+                cache.invalidate(task.getId());
+            }
+        }
+        return updated;
+    }
+    
+    @Override
+    public boolean delete(String id) {
+        boolean deleted = delegate.delete(id);
+        invalidate(id);
+        return deleted;
+    }
+    
+    @Override
+    public void saveAll(Collection<? extends TaskComponent> components) {
+        delegate.saveAll(components);
+        synchronized (writeLock) {
+            writes++;
+            for (TaskComponent component : components) {
+                cache.invalidate(component.getId());
+            }
+        }
+    }
+    
+    @Override
+    public int deleteAll(Collection<String> ids) {
+        int deleted = delegate.deleteAll(ids);
+        synchronized (writeLock) {
+            writes++;
+            for (String id : ids) {
+                if (id != null) {
+                    cache.invalidate(id);
+                }
+            }
+        }
+        return deleted;
+    }
+    
+    @Override
+    public List<TaskComponent> findAll() {
+        return delegate.findAll();
+    }
+    
+    @Override
+    public Stream<Task> streamTasks() {
+        return delegate.streamTasks();
+    }
+    
+    @Override
+    public List<Task> page(String afterId, int limit) {
+        return delegate.page(afterId, limit);
+    }
+    
+    @Override
+    public List<Task> findTasksByStatus(TaskStatus status) {
+        return delegate.findTasksByStatus(status);
+    }
+    
+    @Override
+    public List<Task> findTasksByPriority(TaskPriority priority) {
+        return delegate.findTasksByPriority(priority);
+    }
+    
+    @Override
+    public List<Task> findTasks(Collection<TaskStatus> statuses, Collection<TaskPriority> priorities) {
+        return delegate.findTasks(statuses, priorities);
+    }
+    
+    @Override
+    public Map<TaskStatus, Integer> countTasksByStatus() {
+        return delegate.countTasksByStatus();
+    }
+    
+    @Override
+    public Map<TaskPriority, Integer> countTasksByPriority() {
+        return delegate.countTasksByPriority();
+    }
+    
+    @Override
+    public List<String> findIdsByPrefix(String prefix, int limit) {
+        return delegate.findIdsByPrefix(prefix, limit);
+    }
+    
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+    
+    @Override
+    public void clear() {
+        delegate.clear();
+        synchronized (writeLock) {
+            writes++;
+            cache.invalidateAll();
+        }
+    }
+    
+    @Override
+    public void addIndex(ComponentIndex index) {
+        delegate.addIndex(index);
+    }
+    
+    @Override
+    public void flush() {
+        delegate.flush();
+    }
+    
+    /**
+     * Stampa le statistiche del motore e della cache
+     */
+    @Override
+    public void printStats() {
+        delegate.printStats();
+        System.out.println("  Cache: " + cache.size() + "/" + cache.getMaximumSize() + " componenti (W-TinyLFU)");
+        System.out.println("  Cache hit: " + cache.getHits() + ", miss: " + cache.getMisses()
+                + String.format(" (%.1f%%)", cache.getHitRate()) + ", evizioni: " + cache.getEvictions());
+    }
+    
+    @Override
+    public void close() {
+        delegate.close();
+    }
+    
+    /**
+     * Restituisce il motore dietro la cache
+     * 
+     * @return il motore che tiene i dati
+     */
+    public StorageEngine getDelegate() {
+        return delegate;
+    }
+    
+    /**
+     * Restituisce la cache, per le statistiche
+     * 
+     * @return la cache dei componenti
+     */
+    public BoundedCache<String, TaskComponent> getCache() {
+        return cache;
+    }
+    
+    private void invalidate(String id) {
+        synchronized (writeLock) {
+            writes++;
+            cache.invalidate(id);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,159 @@
+package com.taskmanager.storage;
+
+import com.taskmanager.models.IdGenerator;
+import com.taskmanager.models.TaskComponent;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Cache dei componenti di TaskStorage, vista come una mappa da ID a componente.
+ * Gli ID nella forma di IdGenerator vengono convertiti nel loro long e stanno in
+ * una LongComponentMap, senza una String e un nodo per ogni voce; gli ID dei dati
+ * più vecchi (8 caratteri esadecimali) restano in una ConcurrentHashMap.
+ * La conversione è canonica, quindi l'ID di ogni componente si ricostruisce dal long.
+ * 
+ * get, put, remove e i metodi compute sono atomici per ID come in una
+ * ConcurrentHashMap; values(), keySet() ed entrySet() sono copie, non viste.
+ * 
+ * @param numeric i componenti con ID generati da IdGenerator
+ * @param legacy i componenti con ID in altri formati
+ */
+final class ComponentCache extends AbstractMap<String, TaskComponent> {
+    private final LongComponentMap numeric = new LongComponentMap();
+    private final Map<String, TaskComponent> legacy = new ConcurrentHashMap<>();
+    
+    @Override
+    public TaskComponent get(Object key) {
+        if (!(key instanceof String id)) {
+            return null;
+        }
+        long numericId = IdGenerator.tryParse(id);
+        return numericId >= 0 ? numeric.get(numericId) : legacy.get(id);
+    }
+    
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+    
+    @Override
+    public TaskComponent put(String id, TaskComponent value) {
+        long numericId = IdGenerator.tryParse(id);
+        return numericId >= 0 ? numeric.put(numericId, value) : legacy.put(id, value);
+    }
+    
+    @Override
+    public TaskComponent remove(Object key) {
+        if (!(key instanceof String id)) {
+            return null;
+        }
+        long numericId = IdGenerator.tryParse(id);
+        return numericId >= 0 ? numeric.remove(numericId) : legacy.remove(id);
+    }
+    
+    @Override
+    public TaskComponent compute(String id,
+            BiFunction<? super String, ? super TaskComponent, ? extends TaskComponent> remapping) {
+        long numericId = IdGenerator.tryParse(id);
+        if (numericId < 0) {
+            return legacy.compute(id, remapping);
+        }
+        return numeric.compute(numericId, (key, current) -> remapping.apply(id, current));
+    }
+    
+    @Override
+    public TaskComponent computeIfAbsent(String id, Function<? super String, ? extends TaskComponent> mapping) {
+        long numericId = IdGenerator.tryParse(id);
+        if (numericId < 0) {
+            return legacy.computeIfAbsent(id, mapping);
+        }
+        return numeric.compute(numericId, (key, current) -> current != null ? current : mapping.apply(id));
+    }
+    
+    @Override
+    public TaskComponent computeIfPresent(String id,
+            BiFunction<? super String, ? super TaskComponent, ? extends TaskComponent> remapping) {
+        long numericId = IdGenerator.tryParse(id);
+        if (numericId < 0) {
+            return legacy.computeIfPresent(id, remapping);
+        }
+        return numeric.compute(numericId, (key, current) -> current != null ? remapping.apply(id, current) : null);
+    }
+    
+    @Override
+    public void forEach(BiConsumer<? super String, ? super TaskComponent> action) {
+        numeric.forEach((key, value) -> action.accept(IdGenerator.format(key), value));
+        legacy.forEach(action);
+    }
+    
+    @Override
+    public Collection<TaskComponent> values() {
+        List<TaskComponent> values = numeric.values();
+        values.addAll(legacy.values());
+        return values;
+    }
+    
+    /**
+     * Scorre i componenti senza copiarli tutti prima: la parte a chiavi long
+     * un segmento alla volta, la ConcurrentHashMap direttamente
+     * 
+     * @return lo stream dei componenti
+     */
+    Stream<TaskComponent> streamValues() {
+        return Stream.concat(StreamSupport.stream(numeric.spliterator(), false), legacy.values().stream());
+    }
+    
+    @Override
+    public Set<String> keySet() {
+        List<String> ids = new ArrayList<>(size());
+        forEach((id, value) -> ids.add(id));
+        return Set.copyOf(ids);
+    }
+    
+    @Override
+    public Set<Entry<String, TaskComponent>> entrySet() {
+        List<Entry<String, TaskComponent>> entries = new ArrayList<>(size());
+        forEach((id, value) -> entries.add(new SimpleImmutableEntry<>(id, value)));
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, TaskComponent>> iterator() {
+                return Collections.unmodifiableList(entries).iterator();
+            }
+            
+            @Override
+            public int size() {
+                return entries.size();
+            }
+        };
+    }
+    
+    @Override
+    public void clear() {
+        numeric.clear();
+        legacy.clear();
+    }
+    
+    @Override
+    public int size() {
+        return numeric.size() + legacy.size();
+    }
+    
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+}
\ No newline at end of file
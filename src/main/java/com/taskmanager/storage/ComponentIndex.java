@@ -0,0 +1,31 @@
+package com.taskmanager.storage;
+
+import com.taskmanager.models.TaskComponent;
+
+/**
+ * Indice esterno aggiornato da un motore di persistenza a ogni modifica.
+ * Il motore chiama i metodi dopo aver applicato la modifica, uno alla volta
+ * per lo stesso ID, quindi l'indice vede le versioni nell'ordine in cui sono state salvate.
+ * Le implementazioni devono essere thread-safe: ID diversi possono arrivare da thread diversi.
+ */
+public interface ComponentIndex {
+    
+    /**
+     * Registra un componente salvato, nuovo o sostituito
+     * 
+     * @param component il componente salvato
+     */
+    void update(TaskComponent component);
+    
+    /**
+     * Toglie un componente eliminato
+     * 
+     * @param id l'ID del componente
+     */
+    void remove(String id);
+    
+    /**
+     * Svuota l'indice, dopo clear() del motore
+     */
+    void clear();
+}
\ No newline at end of file
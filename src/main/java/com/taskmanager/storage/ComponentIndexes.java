@@ -0,0 +1,41 @@
+package com.taskmanager.storage;
+
+import com.taskmanager.models.TaskComponent;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Gli indici registrati su un motore, avvisati a ogni modifica.
+ * Le registrazioni sono rare e le modifiche frequenti, quindi la lista è copy-on-write.
+ * 
+ * @param indexes gli indici registrati
+ */
+final class ComponentIndexes {
+    private final List<ComponentIndex> indexes = new CopyOnWriteArrayList<>();
+    
+    void add(ComponentIndex index) {
+        if (index == null) {
+            throw new IllegalArgumentException("L'indice non può essere null");
+        }
+        indexes.add(index);
+    }
+    
+    void updated(TaskComponent component) {
+        for (ComponentIndex index : indexes) {
+            index.update(component);
+        }
+    }
+    
+    void removed(String id) {
+        for (ComponentIndex index : indexes) {
+            index.remove(id);
+        }
+    }
+    
+    void cleared() {
+        for (ComponentIndex index : indexes) {
+            index.clear();
+        }
+    }
+}
\ No newline at end of file
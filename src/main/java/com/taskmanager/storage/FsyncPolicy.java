@@ -0,0 +1,42 @@
+package com.taskmanager.storage;
+
+/**
+ * Politica di sincronizzazione su disco del log.
+ * 
+ * @param ALWAYS ogni commit attende write + force (massima durabilità)
+ * @param INTERVAL i record vengono scritti e forzati su disco ogni N millisecondi
+ * @param OS ogni commit scrive nel page cache, il flush su disco è lasciato al sistema operativo
+ * @param configName nome usato nella proprietà storage.fsync
+ */
+public enum FsyncPolicy {
+    ALWAYS("always"),
+    INTERVAL("interval"),
+    OS("os");
+    
+    private final String configName;
+    
+    FsyncPolicy(String configName) {
+        this.configName = configName;
+    }
+    
+    public String getConfigName() {
+        return configName;
+    }
+    
+    /**
+     * Converte il valore della configurazione nella politica corrispondente
+     * 
+     * @param value valore della proprietà storage.fsync
+     * @return la politica, OS se il valore non è riconosciuto
+     */
+    public static FsyncPolicy fromConfig(String value) {
+        if (value != null) {
+            for (FsyncPolicy policy : values()) {
+                if (policy.configName.equalsIgnoreCase(value.trim())) {
+                    return policy;
+                }
+            }
+        }
+        return OS;
+    }
+}
\ No newline at end of file
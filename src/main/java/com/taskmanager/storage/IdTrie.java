@@ -0,0 +1,305 @@
+package com.taskmanager.storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Radix trie degli ID, per risolvere un prefisso senza scorrere tutti i componenti.
+ * Ogni arco porta una stringa invece di un carattere, così una catena di nodi
+ * con un solo figlio diventa un unico nodo: con ID casuali di 8 caratteri i nodi
+ * sono circa il doppio degli ID, non otto volte tanti. Ogni nodo conta gli ID
+ * sotto di sé, quindi sapere quanti ID hanno un prefisso costa quanto il prefisso,
+ * e trovarne i primi k costa in più solo quanto i k ID trovati.
+ * 
+ * Tutti i metodi sono sincronizzati: le operazioni sono brevi e non fanno I/O.
+ * 
+ * @param root il nodo della stringa vuota
+ */
+final class IdTrie {
+    private static final Node[] NO_CHILDREN = new Node[0];
+    
+    private Node root = new Node("");
+    
+    /**
+     * Un nodo: l'etichetta dell'arco che vi entra, i figli in ordine del primo carattere
+     * e il numero di ID nel sottoalbero
+     */
+    private static final class Node {
+        String label;
+        Node[] children = NO_CHILDREN;
+        boolean terminal;
+        int count;
+        
+        Node(String label) {
+            this.label = label;
+        }
+        
+        int find(char first) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char c = children[mid].label.charAt(0);
+                if (c < first) {
+                    low = mid + 1;
+                } else if (c > first) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -low - 1;
+        }
+        
+        void insertChild(int index, Node child) {
+            Node[] grown = Arrays.copyOf(children, children.length + 1);
+            System.arraycopy(grown, index, grown, index + 1, children.length - index);
+            grown[index] = child;
+            children = grown;
+        }
+        
+        void removeChild(int index) {
+            Node[] shrunk = new Node[children.length - 1];
+            System.arraycopy(children, 0, shrunk, 0, index);
+            System.arraycopy(children, index + 1, shrunk, index, children.length - index - 1);
+            children = shrunk.length == 0 ? NO_CHILDREN : shrunk;
+        }
+    }
+    
+    /**
+     * Aggiunge un ID
+     * 
+     * @param id l'ID
+     * @return true se l'ID non c'era
+     */
+    synchronized boolean add(String id) {
+        if (contains(id)) {
+            return false;
+        }
+        Node node = root;
+        int offset = 0;
+        while (true) {
+            node.count++;
+            if (offset == id.length()) {
+                node.terminal = true;
+                return true;
+            }
+            int index = node.find(id.charAt(offset));
+            if (index < 0) {
+                Node leaf = new Node(id.substring(offset));
+                leaf.terminal = true;
+                leaf.count = 1;
+                node.insertChild(-index - 1, leaf);
+                return true;
+            }
+            Node child = node.children[index];
+            int common = commonPrefix(child.label, id, offset);
+            if (common < child.label.length()) {
+                // L'ID si stacca a metà dell'arco: l'arco viene spezzato con un nodo intermedio
+                Node middle = new Node(child.label.substring(0, common));
+                middle.count = child.count;
+                child.label = child.label.substring(common);
+                middle.children = new Node[] {child};
+                node.children[index] = middle;
+                child = middle;
+            }
+            node = child;
+            offset += common;
+        }
+    }
+    
+    /**
+     * Toglie un ID e riunisce i nodi rimasti con un solo figlio
+     * 
+     * @param id l'ID
+     * @return true se l'ID c'era
+     */
+    synchronized boolean remove(String id) {
+        if (!contains(id)) {
+            return false;
+        }
+        List<Node> path = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>();
+        Node node = root;
+        int offset = 0;
+        while (offset < id.length()) {
+            int index = node.find(id.charAt(offset));
+            path.add(node);
+            indexes.add(index);
+            node.count--;
+            node = node.children[index];
+            offset += node.label.length();
+        }
+        node.count--;
+        node.terminal = false;
+        for (int i = path.size() - 1; i >= 0 && node != root; i--) {
+            Node parent = path.get(i);
+            if (node.count == 0) {
+                parent.removeChild(indexes.get(i));
+            } else if (!node.terminal && node.children.length == 1) {
+                Node only = node.children[0];
+                only.label = node.label + only.label;
+                parent.children[indexes.get(i)] = only;
+            }
+            node = parent;
+        }
+        return true;
+    }
+    
+    /**
+     * Indica se un ID è presente
+     * 
+     * @param id l'ID
+     * @return true se presente
+     */
+    synchronized boolean contains(String id) {
+        Node node = root;
+        int offset = 0;
+        while (offset < id.length()) {
+            int index = node.find(id.charAt(offset));
+            if (index < 0) {
+                return false;
+            }
+            node = node.children[index];
+            if (!id.startsWith(node.label, offset)) {
+                return false;
+            }
+            offset += node.label.length();
+        }
+        return node.terminal;
+    }
+    
+    /**
+     * Conta gli ID che iniziano con un prefisso
+     * 
+     * @param prefix il prefisso
+     * @return il numero di ID
+     */
+    synchronized int countByPrefix(String prefix) {
+        Node node = descend(prefix, new StringBuilder());
+        return node != null ? node.count : 0;
+    }
+    
+    /**
+     * Trova gli ID che iniziano con un prefisso, in ordine alfabetico
+     * 
+     * @param prefix il prefisso
+     * @param limit numero massimo di ID restituiti
+     * @return gli ID trovati, al più limit
+     */
+    synchronized List<String> findByPrefix(String prefix, int limit) {
+        List<String> found = new ArrayList<>();
+        StringBuilder path = new StringBuilder();
+        Node node = descend(prefix, path);
+        if (node != null && limit > 0) {
+            collect(node, path, found, limit);
+        }
+        return found;
+    }
+    
+    /**
+     * Trova in ordine alfabetico gli ID che vengono dopo un ID dato, per scorrere
+     * tutti gli ID a pagine: i sottoalberi tutti minori di afterId si saltano
+     * senza visitarli, quindi una pagina costa quanto afterId più gli ID trovati.
+     * Non è necessario che afterId sia presente.
+     * 
+     * @param afterId l'ultimo ID della pagina precedente, null per partire dal primo
+     * @param limit numero massimo di ID restituiti
+     * @return gli ID maggiori di afterId, al più limit
+     */
+    synchronized List<String> findAfter(String afterId, int limit) {
+        List<String> found = new ArrayList<>();
+        if (limit > 0) {
+            if (afterId == null) {
+                collect(root, new StringBuilder(), found, limit);
+            } else {
+                collectAfter(root, new StringBuilder(), afterId, found, limit);
+            }
+        }
+        return found;
+    }
+    
+    /**
+     * Svuota il trie
+     */
+    synchronized void clear() {
+        root = new Node("");
+    }
+    
+    synchronized int size() { return root.count; }
+    
+    /**
+     * Scende fino al nodo più alto il cui percorso inizia con il prefisso
+     * 
+     * @param path riceve la stringa del percorso fino al nodo compreso
+     * @return il nodo, oppure null se nessun ID ha il prefisso
+     */
+    private Node descend(String prefix, StringBuilder path) {
+        Node node = root;
+        int offset = 0;
+        while (offset < prefix.length()) {
+            int index = node.find(prefix.charAt(offset));
+            if (index < 0) {
+                return null;
+            }
+            node = node.children[index];
+            int common = commonPrefix(node.label, prefix, offset);
+            if (offset + common < prefix.length() && common < node.label.length()) {
+                return null;
+            }
+            path.append(node.label);
+            offset += node.label.length();
+        }
+        return node;
+    }
+    
+    private static void collect(Node node, StringBuilder path, List<String> found, int limit) {
+        if (node.terminal) {
+            found.add(path.toString());
+        }
+        for (Node child : node.children) {
+            if (found.size() == limit) {
+                return;
+            }
+            int length = path.length();
+            path.append(child.label);
+            collect(child, path, found, limit);
+            path.setLength(length);
+        }
+    }
+    
+    /**
+     * Visita un nodo il cui percorso è un prefisso di afterId: il nodo stesso non è
+     * maggiore di afterId, dei figli si scende in quello che continua afterId e si
+     * raccolgono per intero quelli che vengono dopo
+     */
+    private static void collectAfter(Node node, StringBuilder path, String afterId, List<String> found, int limit) {
+        for (Node child : node.children) {
+            if (found.size() == limit) {
+                return;
+            }
+            int length = path.length();
+            path.append(child.label);
+            String childPath = path.toString();
+            if (afterId.startsWith(childPath)) {
+                collectAfter(child, path, afterId, found, limit);
+            } else if (childPath.compareTo(afterId) > 0) {
+                collect(child, path, found, limit);
+            }
+            path.setLength(length);
+        }
+    }
+    
+    /**
+     * Lunghezza del prefisso comune tra l'etichetta e la chiave a partire da offset
+     */
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,242 @@
+package com.taskmanager.storage;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.taskmanager.models.Project;
+import com.taskmanager.models.Task;
+import com.taskmanager.models.TaskComponent;
+import com.taskmanager.models.TaskPriority;
+import com.taskmanager.models.TaskStatus;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * File dati in formato JSON, letto e scritto in streaming con JsonParser e JsonGenerator,
+ * senza costruire il documento in memoria. La lettura tiene un componente alla volta;
+ * la scrittura prima ordina i componenti (i progetti dopo i loro componenti), con
+ * memoria proporzionale al numero di componenti per gli ID e l'ordine, non ai loro dati.
+ * Il file viene scritto su un file temporaneo, forzato su disco e poi rinominato
+ * al posto del vecchio, quindi un'interruzione lascia il file precedente intatto.
+ * 
+ * Il formato è un oggetto con la versione e l'array dei componenti:
+ * <pre>
+ * { "format" : 1,
+ *   "components" : [ { "id" : "...", "title" : "...", "description" : null, "status" : "TODO",
+ *       "priority" : "MEDIUM", "createdAt" : "2025-06-28T10:16:25.298455", "updatedAt" : "...", "leaf" : true } ] }
+ * </pre>
+ * I progetti hanno "leaf" a false e l'elenco degli ID dei loro componenti in "components".
+ * Si leggono anche i file delle versioni precedenti, con il solo array dei componenti.
+ */
+public final class JsonTaskFile {
+    /** Versione del formato scritta nel campo "format" */
+    public static final int FORMAT_VERSION = 1;
+    
+    private static final JsonFactory FACTORY = new JsonFactory();
+    
+    private JsonTaskFile() {
+    }
+    
+    /**
+     * Scrive i componenti sul file, i componenti di un progetto prima del progetto
+     * 
+     * @param path il file da scrivere
+     * @param components i componenti da salvare
+     * @throws IOException se la scrittura fallisce
+     */
+    public static void write(Path path, Collection<TaskComponent> components) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        // Un file temporaneo per ogni scrittura, così due scritture non si troncano a vicenda
+        Path tmp = Files.createTempFile(directory, path.getFileName() + ".", ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE);
+                 JsonGenerator generator = FACTORY.createGenerator(Channels.newOutputStream(channel), JsonEncoding.UTF8)) {
+                generator.useDefaultPrettyPrinter();
+                generator.writeStartObject();
+                generator.writeNumberField("format", FORMAT_VERSION);
+                generator.writeArrayFieldStart("components");
+                for (TaskComponent component : RecordCodec.dependencyOrder(components)) {
+                    writeComponent(generator, component);
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+                generator.flush();
+                // Il file deve essere su disco prima che la rename lo renda visibile
+                channel.force(true);
+            }
+            LogCompactor.moveAtomically(tmp, path);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+    
+    /**
+     * Indica se un file è stato scritto con il formato corrente, leggendo solo l'inizio
+     * 
+     * @param path il file
+     * @return true se il file inizia con il campo "format" della versione corrente
+     */
+    public static boolean isCurrentFormat(Path path) {
+        try (JsonParser parser = FACTORY.createParser(path.toFile())) {
+            return parser.nextToken() == JsonToken.START_OBJECT
+                    && parser.nextToken() == JsonToken.FIELD_NAME
+                    && "format".equals(parser.currentName())
+                    && parser.nextToken() == JsonToken.VALUE_NUMBER_INT
+                    && parser.getIntValue() == FORMAT_VERSION;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Legge i componenti dal file uno alla volta
+     * 
+     * @param path il file da leggere
+     * @param resolver risolve i componenti dei progetti già letti
+     * @param consumer chi riceve i componenti letti
+     * @return numero di componenti letti
+     * @throws IOException se il file non è leggibile o non è nel formato dei task
+     */
+    public static long read(Path path, Function<String, TaskComponent> resolver,
+                            Consumer<TaskComponent> consumer) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(path.toFile())) {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                return 0; // File vuoto
+            }
+            if (token == JsonToken.START_ARRAY) {
+                return readComponents(parser, resolver, consumer); // Formato precedente
+            }
+            if (token != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Il file deve contenere un oggetto con i componenti");
+            }
+            long count = 0;
+            int format = -1;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (field.equals("format")) {
+                    format = parser.getIntValue();
+                    if (format > FORMAT_VERSION) {
+                        throw new JsonParseException(parser, "Versione del formato non supportata: " + format);
+                    }
+                } else if (field.equals("components") && value == JsonToken.START_ARRAY) {
+                    count = readComponents(parser, resolver, consumer);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (format < 0) {
+                throw new JsonParseException(parser, "Il file non contiene il campo format");
+            }
+            return count;
+        }
+    }
+    
+    /**
+     * Legge gli oggetti di un array a partire dal suo START_ARRAY
+     */
+    private static long readComponents(JsonParser parser, Function<String, TaskComponent> resolver,
+                                       Consumer<TaskComponent> consumer) throws IOException {
+        long count = 0;
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            consumer.accept(readComponent(parser, resolver));
+            count++;
+        }
+        return count;
+    }
+    
+    private static void writeComponent(JsonGenerator generator, TaskComponent component) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("id", component.getId());
+        generator.writeStringField("title", component.getTitle());
+        if (component instanceof Task task) {
+            generator.writeStringField("description", task.getDescription());
+            generator.writeStringField("status", task.getStatus().name());
+            generator.writeStringField("priority", task.getPriority().name());
+            writeTime(generator, "createdAt", task.getCreatedAt());
+            writeTime(generator, "updatedAt", task.getUpdatedAt());
+            generator.writeBooleanField("leaf", true);
+        } else if (component instanceof Project project) {
+            generator.writeStringField("description", project.getDescription());
+            writeTime(generator, "createdAt", project.getCreatedAt());
+            writeTime(generator, "updatedAt", project.getUpdatedAt());
+            generator.writeBooleanField("leaf", false);
+            generator.writeArrayFieldStart("components");
+            for (TaskComponent child : project.getComponents()) {
+                generator.writeString(child.getId());
+            }
+            generator.writeEndArray();
+        }
+        generator.writeEndObject();
+    }
+    
+    private static void writeTime(JsonGenerator generator, String field, LocalDateTime time) throws IOException {
+        generator.writeStringField(field, time != null ? time.toString() : null);
+    }
+    
+    /**
+     * Legge un oggetto a partire dal suo START_OBJECT, ignorando i campi sconosciuti
+     */
+    private static TaskComponent readComponent(JsonParser parser, Function<String, TaskComponent> resolver)
+            throws IOException {
+        String id = null;
+        String title = null;
+        String description = null;
+        TaskStatus status = TaskStatus.TODO;
+        TaskPriority priority = TaskPriority.MEDIUM;
+        LocalDateTime createdAt = null;
+        LocalDateTime updatedAt = null;
+        boolean leaf = true;
+        List<TaskComponent> components = new ArrayList<>();
+        
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "id" -> id = parser.getValueAsString();
+                case "title" -> title = parser.getValueAsString();
+                case "description" -> description = parser.getValueAsString();
+                case "status" -> status = TaskStatus.valueOf(parser.getText());
+                case "priority" -> priority = TaskPriority.valueOf(parser.getText());
+                case "createdAt" -> createdAt = readTime(parser, value);
+                case "updatedAt" -> updatedAt = readTime(parser, value);
+                case "leaf" -> leaf = parser.getBooleanValue();
+                case "components" -> {
+                    while (parser.nextToken() == JsonToken.VALUE_STRING) {
+                        // I componenti non più presenti vengono scartati
+                        TaskComponent child = resolver.apply(parser.getText());
+                        if (child != null) {
+                            components.add(child);
+                        }
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        if (id == null || title == null) {
+            throw new JsonParseException(parser, "Componente senza id o titolo");
+        }
+        return leaf
+                ? new Task(id, title, description, status, priority, createdAt, updatedAt)
+                : new Project(id, title, description, createdAt, updatedAt, components);
+    }
+    
+    private static LocalDateTime readTime(JsonParser parser, JsonToken value) throws IOException {
+        return value == JsonToken.VALUE_NULL ? null : LocalDateTime.parse(parser.getText());
+    }
+}
\ No newline at end of file
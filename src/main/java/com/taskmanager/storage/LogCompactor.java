@@ -0,0 +1,218 @@
+package com.taskmanager.storage;
+
+import com.taskmanager.models.TaskComponent;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Compattazione in background del log append-only.
+ * Taglia il log, scrive uno snapshot della cache su un file temporaneo, lo sostituisce
+ * al file dati con una rename atomica e scarta il log già incluso nello snapshot.
+ * Tutto avviene sul thread del compattatore: chi salva si limita ad avviarlo e
+ * resta bloccato solo se scrive proprio durante lo scambio del file di log.
+ * 
+ * Lo snapshot legge la cache dopo il taglio, senza copiarla sotto lock: può quindi
+ * contenere modifiche arrivate dopo il taglio, ma queste sono anche nel nuovo log
+ * e rieseguirle sopra lo snapshot porta allo stesso stato.
+ * 
+ * @param log il log da compattare
+ * @param snapshotFile il file dati che contiene lo snapshot
+ * @param snapshotWriter chi sa scrivere i componenti su file
+ * @param minLogBytes dimensione minima del log prima di compattare
+ * @param ratio rapporto minimo tra dimensione del log e dello snapshot
+ */
+public class LogCompactor implements AutoCloseable {
+    
+    /**
+     * Scrive un insieme di componenti su file
+     */
+    @FunctionalInterface
+    public interface SnapshotWriter {
+        void write(Path target, Collection<TaskComponent> components) throws IOException;
+    }
+    
+    public static final long DEFAULT_MIN_LOG_BYTES = 1024 * 1024;
+    public static final double DEFAULT_RATIO = 1.0;
+    
+    private final TaskLog log;
+    private final Path snapshotFile;
+    private final SnapshotWriter snapshotWriter;
+    private final ExecutorService executor;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    
+    private volatile long minLogBytes = DEFAULT_MIN_LOG_BYTES;
+    private volatile double ratio = DEFAULT_RATIO;
+    
+    // Statistiche
+    private volatile long compactionCount;
+    private volatile long lastDurationMillis;
+    private volatile long totalBytesReclaimed;
+    
+    /**
+     * Costruttore
+     * 
+     * @param log il log da compattare
+     * @param snapshotFile il file dati
+     * @param snapshotWriter la funzione che scrive lo snapshot
+     */
+    public LogCompactor(TaskLog log, Path snapshotFile, SnapshotWriter snapshotWriter) {
+        this.log = log;
+        this.snapshotFile = snapshotFile;
+        this.snapshotWriter = snapshotWriter;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "storage-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Imposta le soglie che fanno partire la compattazione automatica
+     * 
+     * @param minLogBytes dimensione minima del log in byte
+     * @param ratio rapporto minimo log/snapshot
+     */
+    public void setThresholds(long minLogBytes, double ratio) {
+        if (minLogBytes < 0 || ratio < 0) {
+            throw new IllegalArgumentException("Le soglie di compattazione non possono essere negative");
+        }
+        this.minLogBytes = minLogBytes;
+        this.ratio = ratio;
+    }
+    
+    /**
+     * Avvia la compattazione se il log ha superato entrambe le soglie
+     * 
+     * @param cache la cache da cui prendere lo snapshot
+     */
+    public void maybeCompact(Map<String, TaskComponent> cache) {
+        long logBytes = log.sizeInBytes();
+        if (logBytes >= minLogBytes && logBytes >= ratio * snapshotSize() && !running.get()) {
+            compact(cache);
+        }
+    }
+    
+    /**
+     * Avvia una compattazione in background
+     * 
+     * @param cache la cache da cui prendere lo snapshot, letta dal thread del compattatore
+     * @return future completato a fine compattazione (subito se ne era già in corso una)
+     */
+    public Future<?> compact(Map<String, TaskComponent> cache) {
+        if (!running.compareAndSet(false, true)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        
+        try {
+            return executor.submit(() -> rotateAndWrite(cache));
+        } catch (RejectedExecutionException e) {
+            running.set(false);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+    
+    /**
+     * Taglia il log e scrive lo snapshot della cache
+     * 
+     * @param cache la cache da cui prendere lo snapshot
+     */
+    private void rotateAndWrite(Map<String, TaskComponent> cache) {
+        long logBytes = log.sizeInBytes();
+        try {
+            log.rotate(archivedLog());
+        } catch (IOException e) {
+            running.set(false);
+            System.err.println("⚠️  Errore rotazione log: " + e.getMessage());
+            return;
+        }
+        writeSnapshot(cache.values(), logBytes);
+    }
+    
+    /**
+     * Scrive lo snapshot, lo rende visibile in modo atomico e scarta il log archiviato
+     * 
+     * @param snapshot i componenti da scrivere
+     * @param logBytes dimensione del log incluso nello snapshot
+     */
+    private void writeSnapshot(Collection<TaskComponent> snapshot, long logBytes) {
+        long start = System.nanoTime();
+        Path tmp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try {
+            long before = logBytes + snapshotSize();
+            snapshotWriter.write(tmp, snapshot);
+            // Lo snapshot deve essere su disco prima che la rename lo renda visibile
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            moveAtomically(tmp, snapshotFile);
+            Files.deleteIfExists(archivedLog());
+            
+            compactionCount++;
+            totalBytesReclaimed += Math.max(0, before - snapshotSize());
+            lastDurationMillis = (System.nanoTime() - start) / 1_000_000;
+        } catch (IOException e) {
+            // Il log archiviato resta su disco e verrà rieseguito al prossimo avvio
+            System.err.println("⚠️  Errore durante la compattazione: " + e.getMessage());
+        } finally {
+            running.set(false);
+        }
+    }
+    
+    /**
+     * Sposta un file con rename atomica, se il file system la supporta
+     * 
+     * @param source file sorgente
+     * @param target file destinazione
+     * @throws IOException se lo spostamento fallisce
+     */
+    static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+    
+    /**
+     * Restituisce il percorso del log archiviato durante la compattazione
+     * 
+     * @return percorso del log archiviato
+     */
+    public Path archivedLog() {
+        return log.getPath().resolveSibling(log.getPath().getFileName() + ".old");
+    }
+    
+    private long snapshotSize() {
+        try {
+            return Files.exists(snapshotFile) ? Files.size(snapshotFile) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+    
+    public boolean isRunning() { return running.get(); }
+    public long getCompactionCount() { return compactionCount; }
+    public long getLastDurationMillis() { return lastDurationMillis; }
+    public long getTotalBytesReclaimed() { return totalBytesReclaimed; }
+    public long getMinLogBytes() { return minLogBytes; }
+    public double getRatio() { return ratio; }
+    
+    /**
+     * Attende la fine della compattazione in corso e ferma il thread
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,386 @@
+package com.taskmanager.storage;
+
+import com.taskmanager.models.TaskComponent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Mappa concorrente da chiavi long a componenti, a indirizzamento aperto.
+ * Le chiavi stanno in un long[] e i valori in un array parallelo, senza oggetti
+ * per le voci né chiavi boxed: una voce occupa 12 byte più lo spazio libero
+ * della tabella (load factor 0.75), contro i circa 90 byte di una voce di una
+ * ConcurrentHashMap con chiave String di 13 caratteri.
+ * 
+ * La mappa è divisa in segmenti con uno StampedLock ciascuno. Le scritture
+ * bloccano un segmento; le letture provano prima senza lock (lettura ottimistica
+ * validata dallo stamp) e ripiegano sul lock in lettura solo se nel frattempo
+ * il segmento è cambiato. Le collisioni si risolvono con scansione lineare e le
+ * eliminazioni spostano indietro le voci successive, così non servono lapidi.
+ * Uno slot è libero quando il suo valore è null, quindi ogni long è una chiave valida.
+ * 
+ * @param segments i segmenti, scelti con i bit alti dell'hash della chiave
+ */
+final class LongComponentMap {
+    private static final int SEGMENT_BITS = 6;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+    private static final int INITIAL_CAPACITY = 16;
+    
+    private final Segment[] segments = new Segment[SEGMENTS];
+    
+    /**
+     * Calcola il nuovo valore di una chiave a partire da quello attuale
+     */
+    @FunctionalInterface
+    interface Remapping {
+        /**
+         * @param key la chiave
+         * @param current il valore attuale, null se assente
+         * @return il nuovo valore, null per togliere la chiave
+         */
+        TaskComponent apply(long key, TaskComponent current);
+    }
+    
+    /**
+     * Riceve le voci di una scansione
+     */
+    @FunctionalInterface
+    interface Visitor {
+        void visit(long key, TaskComponent value);
+    }
+    
+    /**
+     * Chiavi e valori di un segmento, sostituiti insieme quando la tabella cresce
+     */
+    private record Table(long[] keys, TaskComponent[] values) {
+        Table(int capacity) {
+            this(new long[capacity], new TaskComponent[capacity]);
+        }
+    }
+    
+    private static final class Segment extends StampedLock {
+        private static final long serialVersionUID = 1L;
+        
+        volatile Table table = new Table(INITIAL_CAPACITY);
+        volatile int size;
+    }
+    
+    LongComponentMap() {
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+    
+    /**
+     * Restituisce il valore di una chiave
+     * 
+     * @param key la chiave
+     * @return il valore, o null se assente
+     */
+    TaskComponent get(long key) {
+        long hash = hash(key);
+        Segment segment = segments[(int) (hash >>> (64 - SEGMENT_BITS))];
+        long stamp = segment.tryOptimisticRead();
+        if (stamp != 0) {
+            TaskComponent value = find(segment.table, key, hash);
+            if (segment.validate(stamp)) {
+                return value;
+            }
+        }
+        stamp = segment.readLock();
+        try {
+            return find(segment.table, key, hash);
+        } finally {
+            segment.unlockRead(stamp);
+        }
+    }
+    
+    /**
+     * Aggiorna una chiave in modo atomico. La funzione viene chiamata con il
+     * segmento bloccato, quindi deve essere breve e non deve usare la mappa.
+     * 
+     * @param key la chiave
+     * @param remapping calcola il nuovo valore da quello attuale
+     * @return il nuovo valore, o null se la chiave è stata tolta o non aggiunta
+     */
+    TaskComponent compute(long key, Remapping remapping) {
+        long hash = hash(key);
+        Segment segment = segments[(int) (hash >>> (64 - SEGMENT_BITS))];
+        long stamp = segment.writeLock();
+        try {
+            Table table = segment.table;
+            int mask = table.keys().length - 1;
+            int slot = (int) hash & mask;
+            while (table.values()[slot] != null && table.keys()[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            TaskComponent current = table.values()[slot];
+            TaskComponent updated = remapping.apply(key, current);
+            if (updated == null) {
+                if (current != null) {
+                    delete(table, slot);
+                    segment.size--;
+                }
+            } else if (current != null) {
+                table.values()[slot] = updated;
+            } else {
+                table.keys()[slot] = key;
+                table.values()[slot] = updated;
+                segment.size++;
+                if (segment.size > table.keys().length * 3 / 4) {
+                    segment.table = resize(table);
+                }
+            }
+            return updated;
+        } finally {
+            segment.unlockWrite(stamp);
+        }
+    }
+    
+    /**
+     * Mette un valore per una chiave
+     * 
+     * @return il valore precedente, o null
+     */
+    TaskComponent put(long key, TaskComponent value) {
+        TaskComponent[] previous = new TaskComponent[1];
+        compute(key, (k, current) -> {
+            previous[0] = current;
+            return value;
+        });
+        return previous[0];
+    }
+    
+    /**
+     * Toglie una chiave
+     * 
+     * @return il valore tolto, o null
+     */
+    TaskComponent remove(long key) {
+        TaskComponent[] previous = new TaskComponent[1];
+        compute(key, (k, current) -> {
+            previous[0] = current;
+            return null;
+        });
+        return previous[0];
+    }
+    
+    /**
+     * Passa tutte le voci al visitor, un segmento alla volta con il lock in lettura.
+     * Le modifiche concorrenti a segmenti non ancora visitati possono essere viste o no.
+     * 
+     * @param visitor chi riceve le voci
+     */
+    void forEach(Visitor visitor) {
+        for (Segment segment : segments) {
+            long stamp = segment.readLock();
+            try {
+                Table table = segment.table;
+                for (int i = 0; i < table.values().length; i++) {
+                    if (table.values()[i] != null) {
+                        visitor.visit(table.keys()[i], table.values()[i]);
+                    }
+                }
+            } finally {
+                segment.unlockRead(stamp);
+            }
+        }
+    }
+    
+    /**
+     * Copia i valori in una lista
+     * 
+     * @return i valori presenti
+     */
+    List<TaskComponent> values() {
+        List<TaskComponent> values = new ArrayList<>(size());
+        forEach((key, value) -> values.add(value));
+        return values;
+    }
+    
+    /**
+     * Restituisce uno spliterator sui valori che copia un segmento alla volta, quando
+     * ci arriva: chi si ferma dopo pochi valori non paga la copia di tutta la mappa.
+     * Si divide per segmenti, quindi va bene anche per gli stream paralleli.
+     * Come forEach(), vede o no le modifiche ai segmenti non ancora copiati.
+     * 
+     * @return lo spliterator
+     */
+    Spliterator<TaskComponent> spliterator() {
+        return new SegmentSpliterator(0, SEGMENTS, size());
+    }
+    
+    /**
+     * Svuota la mappa, un segmento alla volta
+     */
+    void clear() {
+        for (Segment segment : segments) {
+            long stamp = segment.writeLock();
+            try {
+                segment.table = new Table(INITIAL_CAPACITY);
+                segment.size = 0;
+            } finally {
+                segment.unlockWrite(stamp);
+            }
+        }
+    }
+    
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+    
+    /**
+     * Spliterator su un intervallo di segmenti, con la copia del segmento corrente
+     */
+    private final class SegmentSpliterator implements Spliterator<TaskComponent> {
+        private int next;
+        private final int end;
+        private long estimate;
+        private TaskComponent[] buffer = new TaskComponent[0];
+        private int position;
+        
+        SegmentSpliterator(int from, int to, long estimate) {
+            this.next = from;
+            this.end = to;
+            this.estimate = estimate;
+        }
+        
+        @Override
+        public boolean tryAdvance(Consumer<? super TaskComponent> action) {
+            while (position == buffer.length) {
+                if (next == end) {
+                    return false;
+                }
+                buffer = copy(segments[next++]);
+                position = 0;
+            }
+            action.accept(buffer[position++]);
+            return true;
+        }
+        
+        @Override
+        public Spliterator<TaskComponent> trySplit() {
+            int remaining = end - next;
+            if (remaining < 2) {
+                return null;
+            }
+            int middle = next + remaining / 2;
+            long half = estimate / 2;
+            Spliterator<TaskComponent> prefix = new SegmentSpliterator(next, middle, half);
+            next = middle;
+            estimate -= half;
+            return prefix;
+        }
+        
+        @Override
+        public long estimateSize() {
+            return estimate;
+        }
+        
+        @Override
+        public int characteristics() {
+            return NONNULL | CONCURRENT;
+        }
+        
+        private TaskComponent[] copy(Segment segment) {
+            long stamp = segment.readLock();
+            try {
+                TaskComponent[] values = new TaskComponent[segment.size];
+                int count = 0;
+                for (TaskComponent value : segment.table.values()) {
+                    if (value != null) {
+                        values[count++] = value;
+                    }
+                }
+                return count == values.length ? values : Arrays.copyOf(values, count);
+            } finally {
+                segment.unlockRead(stamp);
+            }
+        }
+    }
+    
+    /**
+     * Cerca una chiave. Durante una lettura ottimistica la tabella può cambiare
+     * sotto i piedi: il numero di passi è limitato e il risultato viene scartato se lo stamp non è valido.
+     */
+    private static TaskComponent find(Table table, long key, long hash) {
+        long[] keys = table.keys();
+        TaskComponent[] values = table.values();
+        int mask = keys.length - 1;
+        int slot = (int) hash & mask;
+        for (int probes = 0; probes < keys.length; probes++) {
+            TaskComponent value = values[slot];
+            if (value == null) {
+                return null;
+            }
+            if (keys[slot] == key) {
+                return value;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+    
+    /**
+     * Toglie la voce di uno slot e riporta indietro le voci successive dello stesso
+     * gruppo che erano state spostate in avanti dalle collisioni
+     */
+    private static void delete(Table table, int slot) {
+        long[] keys = table.keys();
+        TaskComponent[] values = table.values();
+        int mask = keys.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (values[next] != null) {
+            int home = (int) hash(keys[next]) & mask;
+            // La voce può riempire il buco se il suo slot naturale non sta tra il buco e la sua posizione
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[hole] = null;
+        keys[hole] = 0;
+    }
+    
+    private static Table resize(Table table) {
+        Table grown = new Table(table.keys().length * 2);
+        int mask = grown.keys().length - 1;
+        for (int i = 0; i < table.values().length; i++) {
+            TaskComponent value = table.values()[i];
+            if (value != null) {
+                long key = table.keys()[i];
+                int slot = (int) hash(key) & mask;
+                while (grown.values()[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                grown.keys()[slot] = key;
+                grown.values()[slot] = value;
+            }
+        }
+        return grown;
+    }
+    
+    /**
+     * Mescola i bit della chiave: gli ID ordinati nel tempo differiscono soprattutto
+     * nei bit bassi della sequenza, e i segmenti usano i bit alti
+     */
+    private static long hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.taskmanager.storage;
+
+import com.taskmanager.models.TaskComponent;
+
+/**
+ * Voce della memtable o di un segmento LSM
+ * 
+ * @param id ID del componente
+ * @param component il componente, null se la voce registra un'eliminazione (tombstone)
+ */
+record LsmEntry(String id, TaskComponent component) {
+    
+    boolean isTombstone() {
+        return component == null;
+    }
+}
\ No newline at end of file
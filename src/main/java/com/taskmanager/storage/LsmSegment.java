@@ -0,0 +1,476 @@
+package com.taskmanager.storage;
+
+import com.taskmanager.models.TaskComponent;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+/**
+ * Segmento immutabile dello storage LSM: le voci sono ordinate per ID e ogni
+ * voce è un componente oppure una tombstone che ne registra l'eliminazione.
+ * Il file viene letto tramite memory mapping; indexOf() fa una ricerca binaria
+ * sulla tabella degli offset e decodifica solo la voce trovata.
+ * 
+ * Layout del file:
+ * <pre>
+ * header : magic (int) | versione (short) | riservato (short) | numero voci (int) | offset tabella (long)
+ * voci   : tipo (byte, 0 = tombstone, 1 = componente) | ID (int lunghezza + UTF-8) | record di RecordCodec se componente
+ * tabella: offset di ogni voce (long), nell'ordine delle voci
+ * </pre>
+ * Accanto a ogni segment-N.seg c'è segment-N.bloom, un filtro di Bloom sugli ID
+ * delle voci (tombstone comprese): mightContain() permette di saltare il segmento
+ * senza leggerlo quando l'ID non c'è.
+ * 
+ * @param path il file del segmento
+ * @param buffer il contenuto del file mappato in memoria
+ * @param count numero di voci
+ * @param tableOffset posizione della tabella degli offset
+ * @param bloom filtro sugli ID delle voci
+ */
+final class LsmSegment {
+    /**
+     * Ordine degli ID in memtable e segmenti: per code point, che coincide
+     * con l'ordine dei byte UTF-8 confrontati sui file
+     */
+    static final Comparator<String> ID_ORDER = LsmSegment::compareIds;
+    
+    private static final int MAGIC = 0x544D4C31; // "TML1"
+    private static final short VERSION = 1;
+    private static final int HEADER_BYTES = 20;
+    private static final byte TOMBSTONE = 0;
+    private static final byte COMPONENT = 1;
+    
+    private final Path path;
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int tableOffset;
+    private final BloomFilter bloom;
+    
+    /**
+     * Scorre voci ordinate per ID; next() va chiamato prima della prima voce
+     */
+    interface Cursor {
+        boolean next() throws IOException;
+        
+        String id();
+        
+        boolean isTombstone();
+        
+        TaskComponent component(Function<String, TaskComponent> resolver) throws IOException;
+        
+        /**
+         * Scrive la voce corrente nel formato del segmento
+         */
+        void writeTo(DataOutput out) throws IOException;
+    }
+    
+    private LsmSegment(Path path, ByteBuffer buffer, int count, int tableOffset, BloomFilter bloom) {
+        this.path = path;
+        this.buffer = buffer;
+        this.count = count;
+        this.tableOffset = tableOffset;
+        this.bloom = bloom;
+    }
+    
+    /**
+     * Mappa in memoria un segmento esistente, controllando header e tabella,
+     * e legge il suo filtro di Bloom. Se il filtro manca o è danneggiato
+     * viene ricostruito dagli ID del segmento e riscritto.
+     * 
+     * @param path il file da aprire
+     * @param falsePositiveRate probabilità di falsi positivi di un filtro da ricostruire
+     * @return il segmento mappato
+     * @throws IOException se il file non è un segmento valido
+     */
+    static LsmSegment open(Path path, double falsePositiveRate) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                throw new IOException("Segmento troppo corto: " + path);
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Segmento troppo grande per essere mappato: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("Formato segmento non riconosciuto: " + path);
+            }
+            if (buffer.getShort(4) != VERSION) {
+                throw new IOException("Versione segmento non supportata: " + buffer.getShort(4));
+            }
+            int count = buffer.getInt(8);
+            long tableOffset = buffer.getLong(12);
+            if (count < 0 || tableOffset < HEADER_BYTES || tableOffset + (long) count * Long.BYTES != size) {
+                throw new IOException("Tabella del segmento danneggiata: " + path);
+            }
+            return new LsmSegment(path, buffer, count, (int) tableOffset,
+                    loadFilter(path, buffer, count, (int) tableOffset, falsePositiveRate));
+        }
+    }
+    
+    /**
+     * Unisce più sorgenti ordinate in un nuovo segmento. A parità di ID vince la sorgente più recente.
+     * 
+     * @param path il file da scrivere
+     * @param newestFirst le sorgenti, dalla più recente alla più vecchia
+     * @param dropTombstones true se non esistono voci più vecchie da nascondere
+     * @param falsePositiveRate probabilità di falsi positivi del filtro sugli ID
+     * @return il segmento scritto, già mappato
+     * @throws IOException se la scrittura fallisce
+     */
+    static LsmSegment write(Path path, List<Cursor> newestFirst, boolean dropTombstones,
+            double falsePositiveRate) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        List<Long> offsets = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.position(HEADER_BYTES);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            Cursor merged = merge(newestFirst);
+            while (merged.next()) {
+                if (dropTombstones && merged.isTombstone()) {
+                    continue;
+                }
+                offsets.add(HEADER_BYTES + (long) out.size());
+                merged.writeTo(out);
+            }
+            long tableOffset = HEADER_BYTES + (long) out.size();
+            for (long offset : offsets) {
+                out.writeLong(offset);
+            }
+            out.flush();
+            
+            ByteBuffer head = ByteBuffer.allocate(HEADER_BYTES);
+            head.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putInt(offsets.size()).putLong(tableOffset);
+            head.flip();
+            channel.position(0);
+            while (head.hasRemaining()) {
+                channel.write(head);
+            }
+            channel.force(true);
+        }
+        LogCompactor.moveAtomically(tmp, path);
+        // Il filtro viene costruito dal segmento appena scritto, quando il numero di voci è noto
+        return open(path, falsePositiveRate);
+    }
+    
+    /**
+     * Scrive una voce nel formato del segmento (usato anche dal write-ahead log)
+     * 
+     * @param out destinazione dei byte
+     * @param id ID della voce
+     * @param component il componente, null per una tombstone
+     * @throws IOException se la scrittura fallisce
+     */
+    static void writeEntry(DataOutput out, String id, TaskComponent component) throws IOException {
+        out.writeByte(component != null ? COMPONENT : TOMBSTONE);
+        byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        if (component != null) {
+            RecordCodec.encode(component, out);
+        }
+    }
+    
+    /**
+     * Legge una voce scritta da writeEntry()
+     * 
+     * @param in buffer posizionato all'inizio della voce
+     * @param resolver risolve i componenti dei progetti
+     * @return la voce letta
+     * @throws IOException se la voce è danneggiata
+     */
+    static LsmEntry readEntry(ByteBuffer in, Function<String, TaskComponent> resolver) throws IOException {
+        byte type = in.get();
+        byte[] id = new byte[in.getInt()];
+        in.get(id);
+        if (type == TOMBSTONE) {
+            return new LsmEntry(new String(id, StandardCharsets.UTF_8), null);
+        }
+        if (type != COMPONENT) {
+            throw new IOException("Tipo di voce sconosciuto: " + type);
+        }
+        TaskComponent component = RecordCodec.decode(in, resolver);
+        return new LsmEntry(component.getId(), component);
+    }
+    
+    /**
+     * Legge l'ID di una voce senza decodificare il record
+     *
+     * @param entry buffer posizionato all'inizio della voce, la posizione non cambia
+     * @return l'ID della voce
+     */
+    static String entryId(ByteBuffer entry) {
+        int start = entry.position();
+        byte[] id = new byte[entry.getInt(start + 1)];
+        entry.get(start + 1 + Integer.BYTES, id);
+        return new String(id, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Indica se una voce è una tombstone, senza decodificarla
+     *
+     * @param entry buffer posizionato all'inizio della voce, la posizione non cambia
+     * @return true se la voce registra un'eliminazione
+     */
+    static boolean isTombstoneEntry(ByteBuffer entry) {
+        return entry.get(entry.position()) == TOMBSTONE;
+    }
+
+    /**
+     * Cerca una voce con una ricerca binaria sulla tabella degli offset
+     * 
+     * @param key l'ID in UTF-8
+     * @return indice della voce, o -1 se l'ID non è nel segmento
+     */
+    int indexOf(byte[] key) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareId(offsetOf(mid), key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Indica se la voce registra un'eliminazione
+     * 
+     * @param index indice restituito da indexOf()
+     * @return true se è una tombstone
+     */
+    boolean isTombstone(int index) {
+        return buffer.get(offsetOf(index)) == TOMBSTONE;
+    }
+    
+    /**
+     * Decodifica la voce indicata
+     * 
+     * @param index indice restituito da indexOf()
+     * @param resolver risolve i componenti dei progetti
+     * @return il componente, null se la voce è una tombstone
+     * @throws IOException se la voce è danneggiata
+     */
+    TaskComponent decode(int index, Function<String, TaskComponent> resolver) throws IOException {
+        // Ogni lettura usa la propria vista del buffer: le ricerche possono essere concorrenti
+        ByteBuffer entry = buffer.duplicate();
+        entry.position(offsetOf(index));
+        return readEntry(entry, resolver).component();
+    }
+    
+    /**
+     * Restituisce un cursore sulle voci del segmento, in ordine di ID
+     * 
+     * @return un nuovo cursore
+     */
+    Cursor cursor() {
+        return new Cursor() {
+            private int index = -1;
+            private String id;
+            
+            @Override
+            public boolean next() {
+                if (++index >= count) {
+                    return false;
+                }
+                int offset = offsetOf(index);
+                int length = buffer.getInt(offset + 1);
+                byte[] bytes = new byte[length];
+                buffer.get(offset + 1 + Integer.BYTES, bytes);
+                id = new String(bytes, StandardCharsets.UTF_8);
+                return true;
+            }
+            
+            @Override
+            public String id() { return id; }
+            @Override
+            public boolean isTombstone() { return LsmSegment.this.isTombstone(index); }
+            
+            @Override
+            public TaskComponent component(Function<String, TaskComponent> resolver) throws IOException {
+                return decode(index, resolver);
+            }
+            
+            @Override
+            public void writeTo(DataOutput out) throws IOException {
+                // La voce si copia così com'è, senza decodificarla
+                int start = offsetOf(index);
+                int end = index + 1 < count ? offsetOf(index + 1) : tableOffset;
+                byte[] bytes = new byte[end - start];
+                buffer.get(start, bytes);
+                out.write(bytes);
+            }
+        };
+    }
+    
+    /**
+     * Unisce più cursori ordinati in uno solo: per ogni ID restituisce solo la voce
+     * della sorgente più recente, tombstone comprese
+     * 
+     * @param newestFirst i cursori, dal più recente al più vecchio
+     * @return il cursore unito
+     * @throws IOException se una sorgente non è leggibile
+     */
+    static Cursor merge(List<Cursor> newestFirst) throws IOException {
+        if (newestFirst.size() == 1) {
+            return newestFirst.get(0);
+        }
+        // A parità di ID esce prima la sorgente più recente (rango minore)
+        PriorityQueue<int[]> heap = new PriorityQueue<>((a, b) -> {
+            int cmp = compareIds(newestFirst.get(a[0]).id(), newestFirst.get(b[0]).id());
+            return cmp != 0 ? cmp : Integer.compare(a[0], b[0]);
+        });
+        for (int rank = 0; rank < newestFirst.size(); rank++) {
+            if (newestFirst.get(rank).next()) {
+                heap.add(new int[] {rank});
+            }
+        }
+        return new Cursor() {
+            private Cursor current;
+            private int[] currentSlot;
+            
+            @Override
+            public boolean next() throws IOException {
+                if (currentSlot != null) {
+                    String previous = current.id();
+                    advance(currentSlot);
+                    // Le versioni più vecchie dello stesso ID vengono scartate
+                    while (!heap.isEmpty() && newestFirst.get(heap.peek()[0]).id().equals(previous)) {
+                        advance(heap.poll());
+                    }
+                }
+                currentSlot = heap.poll();
+                current = currentSlot != null ? newestFirst.get(currentSlot[0]) : null;
+                return current != null;
+            }
+            
+            private void advance(int[] slot) throws IOException {
+                if (newestFirst.get(slot[0]).next()) {
+                    heap.add(slot);
+                }
+            }
+            
+            @Override
+            public String id() { return current.id(); }
+            @Override
+            public boolean isTombstone() { return current.isTombstone(); }
+            
+            @Override
+            public TaskComponent component(Function<String, TaskComponent> resolver) throws IOException {
+                return current.component(resolver);
+            }
+            
+            @Override
+            public void writeTo(DataOutput out) throws IOException {
+                current.writeTo(out);
+            }
+        };
+    }
+    
+    /**
+     * Indica se l'ID potrebbe essere nel segmento, consultando solo il filtro di Bloom
+     * 
+     * @param key l'ID in UTF-8
+     * @return false se il segmento non contiene sicuramente l'ID
+     */
+    boolean mightContain(byte[] key) {
+        return bloom.mightContain(key);
+    }
+    
+    /**
+     * Elimina il file del segmento e il suo filtro. La mappatura resta valida per le letture ancora in corso.
+     */
+    void delete() {
+        try {
+            Files.deleteIfExists(path);
+            Files.deleteIfExists(BloomFilter.fileFor(path));
+        } catch (IOException e) {
+            System.err.println("⚠️  Errore eliminazione segmento: " + e.getMessage());
+        }
+    }
+    
+    Path path() { return path; }
+    int count() { return count; }
+    long sizeInBytes() { return buffer.capacity(); }
+    
+    /**
+     * Legge il filtro accanto al segmento, oppure lo ricostruisce dagli ID delle voci
+     */
+    private static BloomFilter loadFilter(Path path, ByteBuffer buffer, int count, int tableOffset,
+            double falsePositiveRate) throws IOException {
+        Path file = BloomFilter.fileFor(path);
+        if (Files.exists(file)) {
+            try {
+                return BloomFilter.read(file);
+            } catch (IOException e) {
+                System.err.println("⚠️  Filtro di Bloom non valido, ricostruzione: " + e.getMessage());
+            }
+        }
+        BloomFilter bloom = BloomFilter.create(count, falsePositiveRate);
+        for (int i = 0; i < count; i++) {
+            int offset = (int) buffer.getLong(tableOffset + i * Long.BYTES);
+            byte[] key = new byte[buffer.getInt(offset + 1)];
+            buffer.get(offset + 1 + Integer.BYTES, key);
+            bloom.add(key);
+        }
+        bloom.write(file);
+        return bloom;
+    }
+    
+    private int offsetOf(int index) {
+        return (int) buffer.getLong(tableOffset + index * Long.BYTES);
+    }
+    
+    /**
+     * Confronta l'ID di una voce con la chiave, byte per byte senza segno
+     */
+    private int compareId(int offset, byte[] key) {
+        int length = buffer.getInt(offset + 1);
+        int start = offset + 1 + Integer.BYTES;
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = Integer.compare(buffer.get(start + i) & 0xFF, key[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, key.length);
+    }
+    
+    private static int compareIds(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int ca = a.codePointAt(i);
+            int cb = b.codePointAt(j);
+            if (ca != cb) {
+                return Integer.compare(ca, cb);
+            }
+            i += Character.charCount(ca);
+            j += Character.charCount(cb);
+        }
+        return Integer.compare(a.length() - i, b.length() - j);
+    }
+}
\ No newline at end of file
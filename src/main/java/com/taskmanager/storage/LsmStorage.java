@@ -0,0 +1,958 @@
+package com.taskmanager.storage;
+
+import com.taskmanager.models.Project;
+import com.taskmanager.models.Task;
+import com.taskmanager.models.TaskComponent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Motore di persistenza log-structured (LSM), pensato per carichi con molte scritture.
+ * Le modifiche vanno in una memtable ordinata in memoria e in un write-ahead log;
+ * quando la memtable è piena diventa immutabile e un thread in background la scrive
+ * come segmento ordinato (LsmSegment), poi unisce i segmenti di dimensione simile
+ * (compattazione a livelli, tiered). Nessuna scrittura riscrive i dati già salvati.
+ * 
+ * Le letture consultano memtable, memtable in attesa di flush e segmenti dal più
+ * recente al più vecchio: la prima voce trovata vince, e una tombstone nasconde le
+ * versioni precedenti. Le scansioni complete fanno un merge ordinato di tutte le sorgenti.
+ * Prima di cercare in un segmento si consulta il suo filtro di Bloom, quindi un ID
+ * assente non costa nessuna lettura dei segmenti, salvo i falsi positivi.
+ * 
+ * Un salvataggio non legge i segmenti: il numero di componenti vivi nei segmenti
+ * si aggiorna quando una memtable diventa segmento (la compattazione non lo cambia),
+ * e size() aggiunge le sole voci delle memtable. Le eliminazioni invece cercano
+ * l'ID, perché devono dire se il componente esisteva. La memtable tiene copie dei
+ * componenti e le letture ne restituiscono altre copie, come i segmenti che
+ * decodificano un'istanza nuova a ogni lettura: una modifica sul posto arriva al
+ * motore solo con un nuovo save().
+ * 
+ * La versione dei task è salvata nelle voci (RecordCodec) e le copie in memtable
+ * hanno la loro: update() rilegge la versione corrente sotto il lock delle scritture
+ * e la confronta con quella attesa, anche dopo una riapertura.
+ * 
+ * File nella directory data/&lt;nome&gt;-lsm:
+ * <pre>
+ * wal-N.log     : write-ahead log della memtable N (una voce in Base64 per riga)
+ * segment-N.seg : segmento immutabile
+ * segment-N.bloom : filtro di Bloom sugli ID del segmento
+ * MANIFEST      : nomi dei segmenti attivi, dal più recente al più vecchio
+ * </pre>
+ * 
+ * @param directory directory di memtable log, segmenti e manifest
+ * @param state memtable attiva, memtable in flush e segmenti, sostituiti insieme
+ * @param background thread che esegue flush e compattazioni, uno alla volta
+ * @param indexes indici esterni avvisati a ogni scrittura
+ */
+public class LsmStorage implements StorageEngine {
+    public static final int DEFAULT_MEMTABLE_ENTRIES = 10_000;
+    public static final int DEFAULT_FANOUT = 4;
+    
+    private static final String MANIFEST = "MANIFEST";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String WAL_PREFIX = "wal-";
+    private static final String WAL_SUFFIX = ".log";
+    
+    private final Path directory;
+    private final StorageOptions options;
+    // Serializza le scritture e la sostituzione dello stato
+    private final Object writeLock = new Object();
+    private final ExecutorService background;
+    private final AtomicLong nextGeneration = new AtomicLong();
+    private final ComponentIndexes indexes = new ComponentIndexes();
+    private volatile State state;
+    
+    // Statistiche
+    private volatile long flushCount;
+    private volatile long compactionCount;
+    private volatile long bytesCompacted;
+    private final AtomicLong bloomSkips = new AtomicLong();
+    
+    /**
+     * Stato immutabile del motore: viene sempre sostituito per intero,
+     * così un lettore vede memtable e segmenti coerenti tra loro
+     * 
+     * @param segmentLive numero di componenti non eliminati nella vista unita dei segmenti
+     */
+    private record State(Memtable active, List<Memtable> flushing, List<LsmSegment> segments, int segmentLive) {
+    }
+    
+    /**
+     * Memtable ordinata per ID con il suo write-ahead log
+     */
+    private static final class Memtable {
+        private final ConcurrentSkipListMap<String, LsmEntry> entries = new ConcurrentSkipListMap<>(LsmSegment.ID_ORDER);
+        private final TaskLog wal;
+        
+        Memtable(TaskLog wal) {
+            this.wal = wal;
+        }
+        
+        LsmSegment.Cursor cursor() {
+            Iterator<LsmEntry> iterator = entries.values().iterator();
+            return new LsmSegment.Cursor() {
+                private LsmEntry current;
+                
+                @Override
+                public boolean next() {
+                    current = iterator.hasNext() ? iterator.next() : null;
+                    return current != null;
+                }
+                
+                @Override
+                public String id() { return current.id(); }
+                @Override
+                public boolean isTombstone() { return current.isTombstone(); }
+                @Override
+                public TaskComponent component(Function<String, TaskComponent> resolver) { return detach(current.component()); }
+                
+                @Override
+                public void writeTo(DataOutput out) throws IOException {
+                    LsmSegment.writeEntry(out, current.id(), current.component());
+                }
+            };
+        }
+    }
+    
+    /**
+     * Costruttore con opzioni di default
+     * 
+     * @param fileName nome del file dati, da cui deriva la directory del motore
+     */
+    public LsmStorage(String fileName) {
+        this(fileName, StorageOptions.defaults());
+    }
+    
+    /**
+     * Costruttore: apre i segmenti del manifest e riesegue i write-ahead log rimasti
+     * 
+     * @param fileName nome del file dati, da cui deriva la directory del motore
+     * @param options dimensione della memtable, fanout della compattazione e politica di fsync
+     */
+    public LsmStorage(String fileName, StorageOptions options) {
+        this.options = options;
+        int dot = fileName.lastIndexOf('.');
+        this.directory = Paths.get("data", (dot > 0 ? fileName.substring(0, dot) : fileName) + "-lsm");
+        this.background = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "storage-lsm");
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        List<LsmSegment> segments = List.of();
+        List<Path> logs = List.of();
+        try {
+            Files.createDirectories(directory);
+            segments = openSegments();
+            logs = listFiles(WAL_PREFIX, WAL_SUFFIX);
+        } catch (IOException e) {
+            System.err.println("⚠️  Errore durante il caricamento: " + e.getMessage());
+        }
+        this.state = new State(new Memtable(null), List.of(), segments, countLive(segments));
+        recoverLogs(logs);
+        this.state = new State(newMemtable(), state.flushing(), state.segments(), state.segmentLive());
+        System.out.println("✅ Storage LSM aperto: " + state.segments().size() + " segmenti, "
+                + size() + " componenti");
+    }
+    
+    /**
+     * Salva un componente nella memtable e nel write-ahead log
+     * 
+     * @param component il componente da salvare
+     */
+    @Override
+    public void save(TaskComponent component) {
+        if (component == null) {
+            throw new IllegalArgumentException("Il componente non può essere null");
+        }
+        write(List.of(new LsmEntry(component.getId(), detach(component))));
+    }
+    
+    /**
+     * Trova un componente consultando memtable e segmenti, dal più recente al più vecchio
+     * 
+     * @param id l'ID da cercare
+     * @return il componente se trovato, altrimenti null
+     */
+    @Override
+    public TaskComponent findById(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            return null;
+        }
+        State current = state;
+        LsmEntry entry = findInMemtables(current, id);
+        if (entry != null) {
+            return detach(entry.component());
+        }
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        for (LsmSegment segment : current.segments()) {
+            if (!segment.mightContain(key)) {
+                bloomSkips.incrementAndGet();
+                continue;
+            }
+            int index = segment.indexOf(key);
+            if (index >= 0) {
+                try {
+                    return segment.decode(index, this::findById);
+                } catch (IOException e) {
+                    System.err.println("⚠️  Errore lettura segmento: " + e.getMessage());
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Modifica un task con controllo ottimistico della versione: la modifica avviene su
+     * una copia fuori dal lock, che entra in memtable solo se sotto il lock delle
+     * scritture il task esiste ancora alla versione attesa
+     * 
+     * @param id ID del task
+     * @param expectedVersion la versione letta prima della modifica
+     * @param mutator la modifica, applicata a una copia del task
+     * @return il task aggiornato, o null se non esiste
+     * @throws ConcurrentModificationException se il task è cambiato o è stato eliminato dopo la lettura
+     */
+    @Override
+    public Task update(String id, long expectedVersion, Consumer<? super Task> mutator) {
+        if (mutator == null) {
+            throw new IllegalArgumentException("La modifica non può essere null");
+        }
+        if (!(findById(id) instanceof Task current)) {
+            return null;
+        }
+        if (current.getVersion() != expectedVersion) {
+            throw versionConflict(id, expectedVersion);
+        }
+        Task updated = current.copy();
+        mutator.accept(updated);
+        if (updated.getVersion() == expectedVersion) {
+            return current; // Nessun setter chiamato, non c'è niente da scrivere
+        }
+        BooleanSupplier unchanged = () -> findById(id) instanceof Task stored && stored.getVersion() == expectedVersion;
+        if (write(List.of(new LsmEntry(id, detach(updated))), unchanged) == 0) {
+            throw versionConflict(id, expectedVersion);
+        }
+        return updated;
+    }
+    
+    /**
+     * Le versioni sono salvate nelle voci
+     * 
+     * @return sempre true
+     */
+    @Override
+    public boolean supportsVersionedUpdate() {
+        return true;
+    }
+    
+    /**
+     * Elimina un componente scrivendo una tombstone
+     * 
+     * @param id ID del componente da eliminare
+     * @return true se eliminato, false se non trovato
+     */
+    @Override
+    public boolean delete(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            return false;
+        }
+        return write(List.of(new LsmEntry(id, null))) > 0;
+    }
+    
+    /**
+     * Salva più componenti con un solo commit del write-ahead log
+     * 
+     * @param components i componenti da salvare
+     */
+    @Override
+    public void saveAll(Collection<? extends TaskComponent> components) {
+        if (components == null) {
+            throw new IllegalArgumentException("Il componente non può essere null");
+        }
+        List<LsmEntry> entries = new ArrayList<>(components.size());
+        for (TaskComponent component : components) {
+            if (component == null) {
+                throw new IllegalArgumentException("Il componente non può essere null");
+            }
+            entries.add(new LsmEntry(component.getId(), detach(component)));
+        }
+        if (!entries.isEmpty()) {
+            write(entries);
+        }
+    }
+    
+    /**
+     * Elimina più componenti con un solo commit del write-ahead log
+     * 
+     * @param ids gli ID dei componenti da eliminare
+     * @return numero di componenti eliminati
+     */
+    @Override
+    public int deleteAll(Collection<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        List<LsmEntry> entries = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            if (id != null) {
+                entries.add(new LsmEntry(id, null));
+            }
+        }
+        return write(entries);
+    }
+    
+    /**
+     * Restituisce tutti i componenti con un merge ordinato per ID di memtable e segmenti
+     * 
+     * @return lista di tutti i componenti
+     */
+    @Override
+    public List<TaskComponent> findAll() {
+        List<TaskComponent> result = new ArrayList<>();
+        Map<String, TaskComponent> seen = new HashMap<>();
+        // I componenti di un progetto già letti nella scansione vengono riusati
+        Function<String, TaskComponent> resolver = id -> seen.containsKey(id) ? seen.get(id) : findById(id);
+        try {
+            LsmSegment.Cursor merged = LsmSegment.merge(cursors(state));
+            while (merged.next()) {
+                if (!merged.isTombstone()) {
+                    TaskComponent component = merged.component(resolver);
+                    seen.put(component.getId(), component);
+                    result.add(component);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("⚠️  Errore lettura segmento: " + e.getMessage());
+        }
+        return result;
+    }
+    
+    /**
+     * Restituisce il numero di componenti non eliminati: quelli dei segmenti,
+     * corretti con le voci delle memtable che aggiungono o tolgono un ID.
+     * Costa una ricerca nei segmenti (di solito fermata dal filtro di Bloom)
+     * per ogni voce in memtable, non una scansione.
+     * 
+     * @return numero di componenti
+     */
+    @Override
+    public int size() {
+        State current = state;
+        int count = current.segmentLive();
+        Set<String> seen = new HashSet<>();
+        count += liveDelta(current.active(), current.segments(), seen);
+        for (Memtable memtable : current.flushing()) {
+            count += liveDelta(memtable, current.segments(), seen);
+        }
+        return count;
+    }
+    
+    /**
+     * Elimina tutti i componenti, insieme a segmenti e write-ahead log
+     */
+    @Override
+    public void clear() {
+        awaitBackground();
+        synchronized (writeLock) {
+            State current = state;
+            closeLog(current.active(), true);
+            current.flushing().forEach(memtable -> closeLog(memtable, true));
+            current.segments().forEach(LsmSegment::delete);
+            try {
+                writeManifest(List.of());
+            } catch (IOException e) {
+                System.err.println("⚠️  Errore scrittura manifest: " + e.getMessage());
+            }
+            state = new State(newMemtable(), List.of(), List.of(), 0);
+            indexes.cleared();
+        }
+    }
+    
+    /**
+     * Registra un indice esterno e gli passa tutti i componenti con una scansione completa.
+     * Le scritture restano bloccate durante la scansione, così nessuna modifica va persa.
+     * 
+     * @param index l'indice da tenere aggiornato
+     */
+    @Override
+    public void addIndex(ComponentIndex index) {
+        synchronized (writeLock) {
+            indexes.add(index);
+            findAll().forEach(index::update);
+        }
+    }
+    
+    /**
+     * Attende che il write-ahead log sia su disco
+     */
+    @Override
+    public void flush() {
+        State current = state;
+        try {
+            current.active().wal.flush();
+            for (Memtable memtable : current.flushing()) {
+                if (memtable.wal != null) {
+                    memtable.wal.flush();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("❌ Errore durante la scrittura del log: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Stampa statistiche dello storage
+     */
+    @Override
+    public void printStats() {
+        State current = state;
+        long segmentBytes = current.segments().stream().mapToLong(LsmSegment::sizeInBytes).sum();
+        int flushing = current.flushing().stream().mapToInt(memtable -> memtable.entries.size()).sum();
+        System.out.println("📊 STATISTICHE LSM STORAGE:");
+        System.out.println("  Totale componenti: " + size());
+        System.out.println("  Directory: " + directory);
+        System.out.println("  Memtable: " + current.active().entries.size() + " voci"
+                + " (" + flushing + " in attesa di flush)");
+        System.out.println("  Segmenti: " + current.segments().size() + " (" + segmentBytes + " byte)");
+        System.out.println("  Flush: " + flushCount);
+        System.out.println("  Compattazioni: " + compactionCount + " (" + bytesCompacted + " byte riscritti)");
+        System.out.println("  Filtri di Bloom: " + bloomSkips.get() + " ricerche nei segmenti evitate"
+                + " (falsi positivi al " + (options.getBloomFalsePositiveRate() * 100) + "%)");
+    }
+    
+    /**
+     * Completa flush e compattazioni in corso e chiude i write-ahead log.
+     * La memtable non viene scritta: alla riapertura si riparte dal suo log.
+     */
+    @Override
+    public void close() {
+        background.shutdown();
+        try {
+            background.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (writeLock) {
+            State current = state;
+            closeLog(current.active(), false);
+            current.flushing().forEach(memtable -> closeLog(memtable, false));
+        }
+    }
+    
+    /**
+     * Restituisce il numero di segmenti su disco
+     * 
+     * @return numero di segmenti
+     */
+    public int getSegmentCount() {
+        return state.segments().size();
+    }
+    
+    public long getFlushCount() { return flushCount; }
+    public long getCompactionCount() { return compactionCount; }
+    public long getBloomSkips() { return bloomSkips.get(); }
+    
+    /**
+     * Applica le voci a memtable e write-ahead log. Le tombstone di componenti
+     * non presenti vengono ignorate; i salvataggi non leggono i segmenti.
+     * 
+     * @param entries le voci da applicare, in ordine
+     * @return numero di voci applicate
+     */
+    private int write(List<LsmEntry> entries) {
+        return write(entries, () -> true);
+    }
+    
+    /**
+     * Applica le voci come write(), ma solo se la condizione, valutata sotto il lock
+     * delle scritture, è vera
+     * 
+     * @param entries le voci da applicare, in ordine
+     * @param precondition condizione sullo stato corrente
+     * @return numero di voci applicate, zero se la condizione è falsa
+     */
+    private int write(List<LsmEntry> entries, BooleanSupplier precondition) {
+        List<String> records = new ArrayList<>(entries.size());
+        for (LsmEntry entry : entries) {
+            records.add(encode(entry));
+        }
+        
+        TaskLog wal;
+        long seq = 0;
+        int applied = 0;
+        synchronized (writeLock) {
+            if (!precondition.getAsBoolean()) {
+                return 0;
+            }
+            Memtable active = state.active();
+            for (int i = 0; i < entries.size(); i++) {
+                LsmEntry entry = entries.get(i);
+                if (entry.isTombstone() && !contains(entry.id())) {
+                    continue;
+                }
+                active.entries.put(entry.id(), entry);
+                seq = active.wal.append(records.get(i));
+                applied++;
+                if (entry.isTombstone()) {
+                    indexes.removed(entry.id());
+                } else {
+                    indexes.updated(entry.component());
+                }
+            }
+            wal = active.wal;
+            if (active.entries.size() >= options.getLsmMemtableEntries()) {
+                rotate();
+            }
+        }
+        // Il commit avviene fuori dal lock: le scritture concorrenti finiscono nello stesso batch
+        if (seq > 0) {
+            try {
+                wal.commit(seq);
+            } catch (IOException e) {
+                System.err.println("❌ Errore durante la scrittura del log: " + e.getMessage());
+            }
+        }
+        return applied;
+    }
+    
+    /**
+     * Rende immutabile la memtable attiva e ne pianifica il flush. Va chiamato con writeLock.
+     */
+    private void rotate() {
+        State current = state;
+        List<Memtable> flushing = new ArrayList<>(current.flushing().size() + 1);
+        flushing.add(current.active());
+        flushing.addAll(current.flushing());
+        state = new State(newMemtable(), List.copyOf(flushing), current.segments(), current.segmentLive());
+        Memtable full = current.active();
+        background.execute(() -> flushMemtable(full));
+    }
+    
+    /**
+     * Scrive una memtable immutabile come nuovo segmento e cancella il suo log.
+     * Eseguito dal thread in background, in ordine di rotazione.
+     * 
+     * @param memtable la memtable da scrivere
+     */
+    private void flushMemtable(Memtable memtable) {
+        try {
+            List<LsmSegment> segments = state.segments();
+            // Senza segmenti più vecchi le tombstone non hanno nulla da nascondere
+            LsmSegment segment = LsmSegment.write(newSegmentPath(), List.of(memtable.cursor()), segments.isEmpty(),
+                    options.getBloomFalsePositiveRate());
+            List<LsmSegment> updated = new ArrayList<>(segments.size() + 1);
+            updated.add(segment);
+            updated.addAll(segments);
+            int delta = liveDelta(memtable, segments, new HashSet<>());
+            if (!publish(segments, updated, memtable, delta)) {
+                segment.delete();
+                return;
+            }
+            closeLog(memtable, true);
+            flushCount++;
+            compactIfNeeded();
+        } catch (IOException e) {
+            System.err.println("❌ Errore durante il flush della memtable: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Unisce i segmenti consecutivi dello stesso livello finché ce ne sono almeno fanout.
+     * Il livello di un segmento cresce di uno ogni volta che il numero di voci si moltiplica per fanout.
+     * 
+     * @throws IOException se la scrittura del segmento unito fallisce
+     */
+    private void compactIfNeeded() throws IOException {
+        int fanout = options.getLsmFanout();
+        while (true) {
+            List<LsmSegment> segments = state.segments();
+            int start = 0;
+            int end = 0;
+            for (int i = 1; i <= segments.size(); i++) {
+                if (i == segments.size() || tier(segments.get(i)) != tier(segments.get(start))) {
+                    if (i - start >= fanout) {
+                        end = i;
+                        break;
+                    }
+                    start = i;
+                }
+            }
+            if (end == 0) {
+                return;
+            }
+            
+            List<LsmSegment> victims = segments.subList(start, end);
+            List<LsmSegment.Cursor> cursors = new ArrayList<>(victims.size());
+            for (LsmSegment victim : victims) {
+                cursors.add(victim.cursor());
+            }
+            // Le tombstone si possono scartare solo se il merge include il segmento più vecchio
+            LsmSegment merged = LsmSegment.write(newSegmentPath(), cursors, end == segments.size(),
+                    options.getBloomFalsePositiveRate());
+            List<LsmSegment> updated = new ArrayList<>(segments.subList(0, start));
+            updated.add(merged);
+            updated.addAll(segments.subList(end, segments.size()));
+            // Unire segmenti consecutivi non cambia la vista unita: i vivi restano gli stessi
+            if (!publish(segments, updated, null, 0)) {
+                merged.delete();
+                return;
+            }
+            long rewritten = 0;
+            for (LsmSegment victim : victims) {
+                rewritten += victim.sizeInBytes();
+                victim.delete();
+            }
+            bytesCompacted += rewritten;
+            compactionCount++;
+        }
+    }
+    
+    private int tier(LsmSegment segment) {
+        int tier = 0;
+        long limit = (long) options.getLsmMemtableEntries() * options.getLsmFanout();
+        while (segment.count() >= limit) {
+            tier++;
+            limit *= options.getLsmFanout();
+        }
+        return tier;
+    }
+    
+    /**
+     * Scrive il manifest e sostituisce la lista dei segmenti, se nel frattempo
+     * clear() non ha scartato lo stato da cui si era partiti
+     * 
+     * @param expected i segmenti letti prima del flush o della compattazione
+     * @param updated i nuovi segmenti
+     * @param flushed la memtable scritta nel segmento, null per una compattazione
+     * @param liveDelta di quanto cambiano i componenti vivi dei segmenti
+     * @return true se la nuova lista è stata pubblicata
+     * @throws IOException se la scrittura del manifest fallisce
+     */
+    private boolean publish(List<LsmSegment> expected, List<LsmSegment> updated, Memtable flushed, int liveDelta)
+            throws IOException {
+        synchronized (writeLock) {
+            State current = state;
+            if (current.segments() != expected || (flushed != null && !current.flushing().contains(flushed))) {
+                return false;
+            }
+            writeManifest(updated);
+            List<Memtable> flushing = new ArrayList<>(current.flushing());
+            flushing.remove(flushed);
+            state = new State(current.active(), List.copyOf(flushing), List.copyOf(updated),
+                    current.segmentLive() + liveDelta);
+            return true;
+        }
+    }
+    
+    /**
+     * Indica se un componente esiste, senza decodificarlo
+     */
+    private boolean contains(String id) {
+        State current = state;
+        LsmEntry entry = findInMemtables(current, id);
+        if (entry != null) {
+            return !entry.isTombstone();
+        }
+        return containsInSegments(current.segments(), id);
+    }
+    
+    /**
+     * Di quanto le voci di una memtable cambiano i componenti vivi dei segmenti sotto di essa
+     * 
+     * @param memtable la memtable
+     * @param segments i segmenti più vecchi della memtable
+     * @param seen gli ID già contati in memtable più recenti, che vengono saltati; riceve quelli della memtable
+     * @return componenti aggiunti meno componenti eliminati
+     */
+    private int liveDelta(Memtable memtable, List<LsmSegment> segments, Set<String> seen) {
+        int delta = 0;
+        for (LsmEntry entry : memtable.entries.values()) {
+            if (seen.add(entry.id())) {
+                delta += (entry.isTombstone() ? 0 : 1) - (containsInSegments(segments, entry.id()) ? 1 : 0);
+            }
+        }
+        return delta;
+    }
+    
+    /**
+     * Indica se un componente esiste nella vista unita dei segmenti
+     */
+    private boolean containsInSegments(List<LsmSegment> segments, String id) {
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        for (LsmSegment segment : segments) {
+            if (!segment.mightContain(key)) {
+                bloomSkips.incrementAndGet();
+                continue;
+            }
+            int index = segment.indexOf(key);
+            if (index >= 0) {
+                return !segment.isTombstone(index);
+            }
+        }
+        return false;
+    }
+    
+    private static LsmEntry findInMemtables(State current, String id) {
+        LsmEntry entry = current.active().entries.get(id);
+        if (entry != null) {
+            return entry;
+        }
+        for (Memtable memtable : current.flushing()) {
+            entry = memtable.entries.get(id);
+            if (entry != null) {
+                return entry;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Restituisce i cursori di tutte le sorgenti, dalla più recente alla più vecchia
+     */
+    private static List<LsmSegment.Cursor> cursors(State current) {
+        List<LsmSegment.Cursor> cursors = new ArrayList<>();
+        cursors.add(current.active().cursor());
+        for (Memtable memtable : current.flushing()) {
+            cursors.add(memtable.cursor());
+        }
+        for (LsmSegment segment : current.segments()) {
+            cursors.add(segment.cursor());
+        }
+        return cursors;
+    }
+    
+    /**
+     * Conta i componenti vivi dei segmenti con un merge completo, solo all'apertura
+     */
+    private static int countLive(List<LsmSegment> segments) {
+        int count = 0;
+        try {
+            List<LsmSegment.Cursor> cursors = new ArrayList<>(segments.size());
+            for (LsmSegment segment : segments) {
+                cursors.add(segment.cursor());
+            }
+            LsmSegment.Cursor merged = LsmSegment.merge(cursors);
+            while (merged.next()) {
+                if (!merged.isTombstone()) {
+                    count++;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("⚠️  Errore lettura segmento: " + e.getMessage());
+        }
+        return count;
+    }
+    
+    /**
+     * Apre i segmenti elencati nel manifest ed elimina i file rimasti da flush
+     * o compattazioni interrotti
+     * 
+     * @return i segmenti, dal più recente al più vecchio
+     * @throws IOException se un segmento del manifest non è leggibile
+     */
+    private List<LsmSegment> openSegments() throws IOException {
+        Path manifest = directory.resolve(MANIFEST);
+        List<String> names = Files.exists(manifest) ? Files.readAllLines(manifest, StandardCharsets.UTF_8) : List.of();
+        List<LsmSegment> segments = new ArrayList<>(names.size());
+        for (String name : names) {
+            if (!name.isBlank()) {
+                segments.add(LsmSegment.open(directory.resolve(name.trim()), options.getBloomFalsePositiveRate()));
+            }
+        }
+        for (Path file : listFiles(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            if (!names.contains(file.getFileName().toString())) {
+                Files.delete(file);
+            }
+        }
+        for (Path file : listFiles(SEGMENT_PREFIX, BloomFilter.EXTENSION)) {
+            String segmentName = file.getFileName().toString().replace(BloomFilter.EXTENSION, SEGMENT_SUFFIX);
+            if (!names.contains(segmentName)) {
+                Files.delete(file);
+            }
+        }
+        for (Path file : listFiles("", ".tmp")) {
+            Files.delete(file);
+        }
+        return segments;
+    }
+    
+    /**
+     * Riesegue i write-ahead log di una sessione precedente in una memtable
+     * e la scrive subito come segmento. Se la scrittura fallisce la memtable
+     * resta in memoria e i log restano su disco.
+     * 
+     * @param logs i log da rieseguire, dal più vecchio al più recente
+     */
+    private void recoverLogs(List<Path> logs) {
+        if (logs.isEmpty()) {
+            return;
+        }
+        Memtable recovered = state.active();
+        long records = 0;
+        for (Path path : logs) {
+            try {
+                records += new TaskLog(path).replay(record -> apply(recovered, record));
+            } catch (IOException e) {
+                System.err.println("⚠️  Errore durante la lettura del log: " + e.getMessage());
+            }
+        }
+        System.out.println("✅ Log rieseguito: " + records + " record");
+        try {
+            List<LsmSegment> segments = state.segments();
+            if (!recovered.entries.isEmpty()) {
+                List<LsmSegment> updated = new ArrayList<>(segments.size() + 1);
+                updated.add(LsmSegment.write(newSegmentPath(), List.of(recovered.cursor()), segments.isEmpty(),
+                        options.getBloomFalsePositiveRate()));
+                updated.addAll(segments);
+                int delta = liveDelta(recovered, segments, new HashSet<>());
+                writeManifest(updated);
+                state = new State(recovered, List.of(), List.copyOf(updated), state.segmentLive() + delta);
+            }
+            for (Path path : logs) {
+                Files.delete(path);
+            }
+        } catch (IOException e) {
+            System.err.println("⚠️  Errore durante il flush del log: " + e.getMessage());
+            state = new State(recovered, List.of(recovered), state.segments(), state.segmentLive());
+        }
+    }
+    
+    /**
+     * Applica alla memtable una voce del write-ahead log
+     */
+    private void apply(Memtable memtable, String record) {
+        try {
+            LsmEntry entry = LsmSegment.readEntry(ByteBuffer.wrap(Base64.getDecoder().decode(record)), this::findById);
+            memtable.entries.put(entry.id(), entry);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("⚠️  Errore parsing riga: " + record);
+        }
+    }
+    
+    private ConcurrentModificationException versionConflict(String id, long expectedVersion) {
+        return new ConcurrentModificationException("Il task " + id + " è stato modificato da un'altra operazione: versione attesa "
+                + expectedVersion + ", attuale " + (findById(id) instanceof Task task ? task.getVersion() : "eliminato"));
+    }
+    
+    /**
+     * Copia un componente, così la memtable non condivide istanze con i chiamanti:
+     * una modifica sul posto non può cambiarla senza passare dal write-ahead log
+     */
+    private static TaskComponent detach(TaskComponent component) {
+        if (component instanceof Task task) {
+            return task.copy();
+        }
+        if (component instanceof Project project) {
+            return new Project(project.getId(), project.getTitle(), project.getDescription(),
+                    project.getCreatedAt(), project.getUpdatedAt(), project.getComponents());
+        }
+        return component;
+    }
+    
+    /**
+     * Codifica una voce come riga del write-ahead log
+     */
+    private static String encode(LsmEntry entry) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            LsmSegment.writeEntry(new DataOutputStream(bytes), entry.id(), entry.component());
+            return Base64.getEncoder().encodeToString(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // Un ByteArrayOutputStream non fallisce
+        }
+    }
+    
+    private Memtable newMemtable() {
+        Path path = directory.resolve(WAL_PREFIX + nextGeneration.getAndIncrement() + WAL_SUFFIX);
+        return new Memtable(new TaskLog(path, options.getFsyncPolicy(), options.getFsyncIntervalMillis()));
+    }
+    
+    private Path newSegmentPath() {
+        return directory.resolve(SEGMENT_PREFIX + nextGeneration.getAndIncrement() + SEGMENT_SUFFIX);
+    }
+    
+    private void closeLog(Memtable memtable, boolean delete) {
+        if (memtable.wal == null) {
+            return; // Memtable ricostruita da log che restano su disco
+        }
+        try {
+            memtable.wal.close();
+            if (delete) {
+                Files.deleteIfExists(memtable.wal.getPath());
+            }
+        } catch (IOException e) {
+            System.err.println("⚠️  Errore chiusura del log: " + e.getMessage());
+        }
+    }
+    
+    private void writeManifest(List<LsmSegment> segments) throws IOException {
+        Path manifest = directory.resolve(MANIFEST);
+        Path tmp = directory.resolve(MANIFEST + ".tmp");
+        List<String> names = new ArrayList<>(segments.size());
+        for (LsmSegment segment : segments) {
+            names.add(segment.path().getFileName().toString());
+        }
+        Files.write(tmp, names, StandardCharsets.UTF_8);
+        LogCompactor.moveAtomically(tmp, manifest);
+    }
+    
+    /**
+     * Elenca i file della directory con prefisso e suffisso indicati, in ordine di generazione,
+     * e aggiorna il contatore delle generazioni
+     */
+    private List<Path> listFiles(String prefix, String suffix) throws IOException {
+        List<Path> files = new ArrayList<>();
+        Map<Path, Long> generations = new HashMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, prefix + "*" + suffix)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                files.add(file);
+                try {
+                    long generation = Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+                    generations.put(file, generation);
+                    nextGeneration.accumulateAndGet(generation + 1, Math::max);
+                } catch (NumberFormatException e) {
+                    generations.put(file, -1L);
+                }
+            }
+        }
+        files.sort(Comparator.comparing(generations::get));
+        return files;
+    }
+    
+    /**
+     * Attende la fine di flush e compattazioni già pianificati
+     */
+    void awaitBackground() {
+        try {
+            background.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RejectedExecutionException e) {
+            // Motore già chiuso: non c'è nulla da attendere
+        }
+    }
+}
\ No newline at end of file
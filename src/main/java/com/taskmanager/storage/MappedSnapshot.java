@@ -0,0 +1,332 @@
+package com.taskmanager.storage;
+
+import com.taskmanager.models.TaskComponent;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Snapshot binario a layout fisso, letto tramite memory mapping.
+ * Il file contiene un indice degli ID ordinato e a larghezza fissa, quindi
+ * all'apertura non serve analizzare alcun record: find() esegue una
+ * ricerca binaria direttamente sui byte mappati e decodifica solo il record trovato.
+ * 
+ * Layout del file:
+ * <pre>
+ * header   : magic (int) | versione (short) | larghezza slot ID (short) | numero record (int) | riservato (int)
+ * indice   : per ogni record, ordinato per ID: lunghezza ID (byte) | ID UTF-8 (31 byte) | offset record (long)
+ * record   : un record di RecordCodec per componente, i componenti di un progetto prima del progetto
+ * </pre>
+ * Accanto allo snapshot viene scritto un filtro di Bloom sugli ID, così find()
+ * scarta gli ID assenti senza toccare le pagine dell'indice.
+ * 
+ * @param buffer il contenuto del file mappato in memoria
+ * @param count numero di record nello snapshot
+ * @param bloom filtro sugli ID dello snapshot, null se il file del filtro manca
+ */
+public class MappedSnapshot {
+    private static final int MAGIC = 0x544D5331; // "TMS1"
+    private static final short VERSION = 2;
+    private static final int HEADER_BYTES = 16;
+    private static final int ID_SLOT = 32;
+    private static final int MAX_ID_BYTES = ID_SLOT - 1;
+    private static final int INDEX_ENTRY = ID_SLOT + Long.BYTES;
+    
+    private final ByteBuffer buffer;
+    private final int count;
+    private final BloomFilter bloom;
+    
+    private MappedSnapshot(ByteBuffer buffer, int count, BloomFilter bloom) {
+        this.buffer = buffer;
+        this.count = count;
+        this.bloom = bloom;
+    }
+    
+    /**
+     * Mappa in memoria uno snapshot esistente, controllando solo l'header,
+     * e legge il filtro di Bloom che lo accompagna se presente
+     * 
+     * @param path il file da aprire
+     * @return lo snapshot mappato
+     * @throws IOException se il file non è leggibile o non è uno snapshot valido
+     */
+    public static MappedSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                throw new IOException("Snapshot troppo corto: " + path);
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot troppo grande per essere mappato: " + path);
+            }
+            // La mappatura resta valida anche dopo la chiusura del canale
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("Formato snapshot non riconosciuto: " + path);
+            }
+            if (buffer.getShort(4) != VERSION || buffer.getShort(6) != ID_SLOT) {
+                throw new IOException("Versione snapshot non supportata: " + buffer.getShort(4));
+            }
+            int count = buffer.getInt(8);
+            if (count < 0 || HEADER_BYTES + (long) count * INDEX_ENTRY > size) {
+                throw new IOException("Indice dello snapshot danneggiato: " + path);
+            }
+            return new MappedSnapshot(buffer, count, readFilter(path));
+        }
+    }
+    
+    /**
+     * Scrive i componenti con un filtro di Bloom alla probabilità di falsi positivi di default
+     * 
+     * @param path il file di destinazione
+     * @param components i componenti da salvare
+     * @throws IOException se la scrittura fallisce
+     */
+    public static void write(Path path, Collection<TaskComponent> components) throws IOException {
+        write(path, components, BloomFilter.DEFAULT_FPP);
+    }
+    
+    /**
+     * Scrive i componenti su un file temporaneo e lo sostituisce al file indicato.
+     * I record vengono scritti prima, poi header e indice in testa al file.
+     * Il filtro precedente viene eliminato prima della sostituzione e quello nuovo
+     * scritto dopo: un'interruzione lascia al più uno snapshot senza filtro,
+     * mai un filtro che non corrisponde allo snapshot.
+     * 
+     * @param path il file di destinazione
+     * @param components i componenti da salvare
+     * @param falsePositiveRate probabilità di falsi positivi del filtro sugli ID
+     * @throws IOException se la scrittura fallisce
+     */
+    public static void write(Path path, Collection<TaskComponent> components, double falsePositiveRate) throws IOException {
+        List<TaskComponent> ordered = RecordCodec.dependencyOrder(components);
+        int size = ordered.size();
+        byte[][] ids = new byte[size][];
+        for (int i = 0; i < size; i++) {
+            ids[i] = ordered.get(i).getId().getBytes(StandardCharsets.UTF_8);
+            if (ids[i].length > MAX_ID_BYTES) {
+                throw new IOException("ID troppo lungo per lo snapshot: " + ordered.get(i).getId());
+            }
+        }
+        
+        int dataStart = HEADER_BYTES + size * INDEX_ENTRY;
+        long[] offsets = new long[size];
+        // Un file temporaneo per ogni scrittura, così due scritture non si troncano a vicenda
+        Path tmp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName() + ".", ".tmp");
+        try {
+            writeFile(tmp, ordered, ids, offsets, dataStart);
+            BloomFilter bloom = BloomFilter.create(size, falsePositiveRate);
+            for (byte[] id : ids) {
+                bloom.add(id);
+            }
+            Path bloomFile = BloomFilter.fileFor(path);
+            Files.deleteIfExists(bloomFile);
+            LogCompactor.moveAtomically(tmp, path);
+            bloom.write(bloomFile);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+    
+    /**
+     * Scrive record, header e indice sul file temporaneo e lo porta su disco
+     */
+    private static void writeFile(Path tmp, List<TaskComponent> ordered, byte[][] ids, long[] offsets,
+                                  int dataStart) throws IOException {
+        int size = ordered.size();
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.position(dataStart);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            for (int i = 0; i < size; i++) {
+                offsets[i] = dataStart + (long) out.size();
+                RecordCodec.encode(ordered.get(i), out);
+            }
+            out.flush();
+            
+            // L'indice deve essere ordinato come i byte confrontati da find()
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(ids[a], ids[b]));
+            
+            ByteBuffer head = ByteBuffer.allocate(dataStart);
+            head.putInt(MAGIC).putShort(VERSION).putShort((short) ID_SLOT).putInt(size).putInt(0);
+            for (int i : order) {
+                head.put((byte) ids[i].length).put(ids[i]);
+                head.position(head.position() + MAX_ID_BYTES - ids[i].length);
+                head.putLong(offsets[i]);
+            }
+            head.flip();
+            channel.position(0);
+            while (head.hasRemaining()) {
+                channel.write(head);
+            }
+            channel.force(true);
+        }
+    }
+    
+    /**
+     * Cerca un componente per ID con una ricerca binaria sull'indice mappato
+     * 
+     * @param id l'ID da cercare
+     * @param resolver risolve i componenti dei progetti
+     * @return il componente decodificato, o null se non presente
+     * @throws IOException se il record è danneggiato
+     */
+    public TaskComponent find(String id, Function<String, TaskComponent> resolver) throws IOException {
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        if (key.length > MAX_ID_BYTES || !mightContain(key)) {
+            return null;
+        }
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareId(mid, key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                // Ogni lettura usa la propria vista del buffer: le ricerche possono essere concorrenti
+                ByteBuffer record = buffer.duplicate();
+                record.position((int) buffer.getLong(HEADER_BYTES + mid * INDEX_ENTRY + ID_SLOT));
+                return RecordCodec.decode(record, resolver);
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Indica se l'ID potrebbe essere nello snapshot, consultando solo il filtro di Bloom
+     * 
+     * @param key l'ID in UTF-8
+     * @return false se l'ID non è sicuramente presente
+     */
+    boolean mightContain(byte[] key) {
+        return bloom == null || bloom.mightContain(key);
+    }
+    
+    /**
+     * Decodifica tutti i componenti nell'ordine del file, quindi i componenti
+     * di un progetto arrivano sempre prima del progetto stesso
+     * 
+     * @param resolver risolve i componenti dei progetti
+     * @param consumer chi riceve i componenti decodificati
+     * @throws IOException se un record è danneggiato
+     */
+    public void forEach(Function<String, TaskComponent> resolver, Consumer<TaskComponent> consumer) throws IOException {
+        ByteBuffer records = buffer.duplicate();
+        records.position(HEADER_BYTES + count * INDEX_ENTRY);
+        for (int i = 0; i < count; i++) {
+            consumer.accept(RecordCodec.decode(records, resolver));
+        }
+    }
+    
+    /**
+     * Restituisce gli ID che seguono afterId nell'ordine dell'indice, senza decodificare i record
+     * 
+     * @param afterId l'ultimo ID già visto, null per partire dal primo
+     * @param limit numero massimo di ID restituiti
+     * @return gli ID trovati
+     */
+    public List<String> idsAfter(String afterId, int limit) {
+        int first = afterId == null ? 0 : firstAfter(afterId.getBytes(StandardCharsets.UTF_8));
+        List<String> ids = new ArrayList<>(Math.max(0, Math.min(limit, count - first)));
+        for (int entry = first; entry < count && ids.size() < limit; entry++) {
+            ids.add(idAt(entry));
+        }
+        return ids;
+    }
+    
+    /**
+     * Scorre gli ID nell'ordine dell'indice; ogni ID viene letto solo quando lo stream lo raggiunge
+     * 
+     * @return lo stream degli ID
+     */
+    public Stream<String> ids() {
+        return IntStream.range(0, count).mapToObj(this::idAt);
+    }
+    
+    /**
+     * Restituisce il numero di componenti nello snapshot
+     * 
+     * @return numero di record
+     */
+    public int size() {
+        return count;
+    }
+    
+    /**
+     * Legge il filtro accanto allo snapshot; senza filtro find() usa solo la ricerca binaria
+     */
+    private static BloomFilter readFilter(Path path) {
+        Path file = BloomFilter.fileFor(path);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            return BloomFilter.read(file);
+        } catch (IOException e) {
+            System.err.println("⚠️  Errore lettura filtro di Bloom: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Cerca con una ricerca binaria la prima voce dell'indice con ID maggiore della chiave
+     */
+    private int firstAfter(byte[] key) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareId(mid, key) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    /**
+     * Legge l'ID di una voce dell'indice con letture assolute, sicure tra thread diversi
+     */
+    private String idAt(int entry) {
+        int base = HEADER_BYTES + entry * INDEX_ENTRY;
+        byte[] id = new byte[buffer.get(base) & 0xFF];
+        buffer.get(base + 1, id);
+        return new String(id, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Confronta l'ID di una voce dell'indice con la chiave, byte per byte senza segno
+     */
+    private int compareId(int entry, byte[] key) {
+        int base = HEADER_BYTES + entry * INDEX_ENTRY;
+        int length = buffer.get(base) & 0xFF;
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = Integer.compare(buffer.get(base + 1 + i) & 0xFF, key[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, key.length);
+    }
+}
\ No newline at end of file
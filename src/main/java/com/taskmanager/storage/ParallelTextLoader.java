@@ -0,0 +1,163 @@
+package com.taskmanager.storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Caricamento parallelo di un file di testo a righe.
+ * Il file viene diviso in intervalli di byte allineati all'inizio di una riga
+ * e ogni intervallo viene mappato in memoria e analizzato da un task di un ForkJoinPool.
+ * Le righe arrivano al consumer da più thread e senza un ordine garantito,
+ * quindi il consumer deve essere thread-safe (es. scrivere in una ConcurrentHashMap).
+ */
+public final class ParallelTextLoader {
+    // Sotto questa dimensione un intervallo non vale il costo di un task
+    static final long MIN_CHUNK_BYTES = 1024 * 1024;
+    // Limite di una singola mappatura
+    private static final long MAX_CHUNK_BYTES = 256L * 1024 * 1024;
+    // Più intervalli che thread, così il work stealing bilancia righe di lunghezza diversa
+    private static final int CHUNKS_PER_THREAD = 4;
+    
+    private ParallelTextLoader() {
+    }
+    
+    /**
+     * Legge tutte le righe del file in parallelo
+     * 
+     * @param file il file da leggere
+     * @param lineConsumer chi riceve ogni riga, senza terminatore
+     * @param pool il pool su cui eseguire i task
+     * @return numero di righe lette
+     * @throws IOException se la lettura fallisce
+     */
+    public static long load(Path file, Consumer<String> lineConsumer, ForkJoinPool pool) throws IOException {
+        return load(file, lineConsumer, pool, MIN_CHUNK_BYTES);
+    }
+    
+    static long load(Path file, Consumer<String> lineConsumer, ForkJoinPool pool, long minChunkBytes)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long chunks = Math.max((size + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES,
+                    Math.min((long) pool.getParallelism() * CHUNKS_PER_THREAD, size / minChunkBytes));
+            long[] bounds = new long[(int) Math.max(chunks, 1) + 1];
+            for (int i = 1; i < bounds.length - 1; i++) {
+                long nominal = size * i / (bounds.length - 1);
+                bounds[i] = Math.max(bounds[i - 1], startOfNextLine(channel, nominal, size));
+            }
+            bounds[bounds.length - 1] = size;
+            
+            LongAdder lines = new LongAdder();
+            ChunkTask root = new ChunkTask(channel, bounds, 0, bounds.length - 1, lineConsumer, lines);
+            try {
+                if (bounds.length == 2) {
+                    root.compute(); // File piccolo: nessun task
+                } else {
+                    pool.invoke(root);
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            return lines.sum();
+        }
+    }
+    
+    /**
+     * Restituisce la posizione del primo byte dopo il prossimo '\n'.
+     * Funziona anche in UTF-8: il byte '\n' non compare mai dentro un carattere multibyte.
+     */
+    private static long startOfNextLine(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+    
+    /**
+     * Divide ricorsivamente gli intervalli finché ne resta uno per task
+     */
+    private static final class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        
+        private final FileChannel channel;
+        private final long[] bounds;
+        private final int from;
+        private final int to;
+        private final Consumer<String> lineConsumer;
+        private final LongAdder lines;
+        
+        ChunkTask(FileChannel channel, long[] bounds, int from, int to,
+                  Consumer<String> lineConsumer, LongAdder lines) {
+            this.channel = channel;
+            this.bounds = bounds;
+            this.from = from;
+            this.to = to;
+            this.lineConsumer = lineConsumer;
+            this.lines = lines;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ChunkTask(channel, bounds, from, mid, lineConsumer, lines),
+                          new ChunkTask(channel, bounds, mid, to, lineConsumer, lines));
+                return;
+            }
+            long start = bounds[from];
+            long end = bounds[to];
+            if (end <= start) {
+                return;
+            }
+            try {
+                parse(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        
+        private void parse(ByteBuffer bytes) throws IOException {
+            CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            CharBuffer chars = decoder.decode(bytes);
+            int lineStart = 0;
+            int length = chars.length();
+            long count = 0;
+            for (int i = 0; i <= length; i++) {
+                if (i == length || chars.get(i) == '\n') {
+                    int lineEnd = i > lineStart && chars.get(i - 1) == '\r' ? i - 1 : i;
+                    if (i < length || lineEnd > lineStart) {
+                        lineConsumer.accept(chars.subSequence(lineStart, lineEnd).toString());
+                        count++;
+                    }
+                    lineStart = i + 1;
+                }
+            }
+            lines.add(count);
+        }
+    }
+}
\ No newline at end of file
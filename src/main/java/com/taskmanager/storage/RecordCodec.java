@@ -0,0 +1,235 @@
+package com.taskmanager.storage;
+
+import com.taskmanager.models.Project;
+import com.taskmanager.models.Task;
+import com.taskmanager.models.TaskComponent;
+import com.taskmanager.models.TaskPriority;
+import com.taskmanager.models.TaskStatus;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Codifica binaria, senza perdita di dati e con versione, di Task e Project.
+ * Stato e priorità sono salvati come ordinali, le date come nanosecondi
+ * dall'epoch UTC; le stringhe come lunghezza UTF-8 seguita dai byte.
+ * 
+ * Layout di un record (versione 2):
+ * <pre>
+ * versione (byte) | tipo (byte) | id | titolo | descrizione | creazione (long) | aggiornamento (long)
+ * Task    : stato (byte) | priorità (byte) | versione del task (long)
+ * Project : numero componenti (int) | id di ogni componente
+ * </pre>
+ * I record della versione 1 non hanno la versione del task, che viene letta come zero.
+ * Le stringhe sono codificate come lunghezza (int, -1 se null) seguita dai byte UTF-8;
+ * le date null come Long.MIN_VALUE, stato e priorità null come -1.
+ */
+public final class RecordCodec {
+    public static final byte VERSION = 2;
+    
+    private static final byte TYPE_TASK = 1;
+    private static final byte TYPE_PROJECT = 2;
+    private static final long NULL_TIME = Long.MIN_VALUE;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    
+    // Letti una volta sola: values() crea un nuovo array ad ogni chiamata
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+    private static final TaskPriority[] PRIORITIES = TaskPriority.values();
+    
+    private RecordCodec() {
+    }
+    
+    /**
+     * Scrive un componente nel formato binario corrente
+     * 
+     * @param component il Task o Project da codificare
+     * @param out destinazione dei byte
+     * @throws IOException se la scrittura fallisce
+     */
+    public static void encode(TaskComponent component, DataOutput out) throws IOException {
+        if (component instanceof Task task) {
+            writeHeader(out, TYPE_TASK, task.getId(), task.getTitle(), task.getDescription(),
+                    task.getCreatedAt(), task.getUpdatedAt());
+            out.writeByte(ordinal(task.getStatus()));
+            out.writeByte(ordinal(task.getPriority()));
+            out.writeLong(task.getVersion());
+        } else if (component instanceof Project project) {
+            writeHeader(out, TYPE_PROJECT, project.getId(), project.getTitle(), project.getDescription(),
+                    project.getCreatedAt(), project.getUpdatedAt());
+            List<TaskComponent> children = project.getComponents();
+            out.writeInt(children.size());
+            for (TaskComponent child : children) {
+                writeString(out, child.getId());
+            }
+        } else {
+            throw new IllegalArgumentException("Tipo di componente non supportato: " + component.getClass().getSimpleName());
+        }
+    }
+    
+    /**
+     * Legge un componente a partire dalla posizione corrente del buffer
+     * e sposta la posizione alla fine del record
+     * 
+     * @param in buffer posizionato all'inizio del record
+     * @param resolver restituisce i componenti di un progetto dato il loro ID (null se non trovati)
+     * @return il componente ricostruito
+     * @throws IOException se il record ha una versione, un tipo, uno stato o una priorità sconosciuti
+     */
+    public static TaskComponent decode(ByteBuffer in, Function<String, TaskComponent> resolver) throws IOException {
+        byte version = in.get();
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Versione record non supportata: " + version);
+        }
+        byte type = in.get();
+        String id = readString(in);
+        String title = readString(in);
+        String description = readString(in);
+        LocalDateTime createdAt = fromEpochNanos(in.getLong());
+        LocalDateTime updatedAt = fromEpochNanos(in.getLong());
+        
+        switch (type) {
+            case TYPE_TASK -> {
+                TaskStatus status = constant(STATUSES, in.get(), "Stato");
+                TaskPriority priority = constant(PRIORITIES, in.get(), "Priorità");
+                long taskVersion = version >= 2 ? in.getLong() : 0;
+                return new Task(id, title, description, status, priority, createdAt, updatedAt, taskVersion);
+            }
+            case TYPE_PROJECT -> {
+                int count = in.getInt();
+                List<TaskComponent> components = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    // I componenti non più presenti vengono scartati
+                    TaskComponent child = resolver.apply(readString(in));
+                    if (child != null) {
+                        components.add(child);
+                    }
+                }
+                return new Project(id, title, description, createdAt, updatedAt, components);
+            }
+            default -> throw new IOException("Tipo di record sconosciuto: " + type);
+        }
+    }
+    
+    private static int ordinal(Enum<?> value) {
+        return value != null ? value.ordinal() : -1;
+    }
+    
+    /**
+     * Restituisce la costante con l'ordinale letto, null per -1
+     * 
+     * @throws IOException se l'ordinale non corrisponde a nessuna costante (record corrotto o più recente)
+     */
+    private static <E extends Enum<E>> E constant(E[] values, byte ordinal, String name) throws IOException {
+        if (ordinal == -1) {
+            return null;
+        }
+        if (ordinal < 0 || ordinal >= values.length) {
+            throw new IOException(name + " sconosciuto nel record: " + ordinal);
+        }
+        return values[ordinal];
+    }
+    
+    private static void writeHeader(DataOutput out, byte type, String id, String title, String description,
+                                    LocalDateTime createdAt, LocalDateTime updatedAt) throws IOException {
+        out.writeByte(VERSION);
+        out.writeByte(type);
+        writeString(out, id);
+        writeString(out, title);
+        writeString(out, description);
+        out.writeLong(toEpochNanos(createdAt));
+        out.writeLong(toEpochNanos(updatedAt));
+    }
+    
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+    
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value;
+        if (in.hasArray()) {
+            value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        } else {
+            byte[] bytes = new byte[length];
+            in.get(in.position(), bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        in.position(in.position() + length);
+        return value;
+    }
+    
+    /**
+     * Ordina i componenti in modo che quelli contenuti in un progetto precedano il progetto
+     * 
+     * @param components i componenti da ordinare
+     * @return i componenti in ordine di dipendenza
+     */
+    static List<TaskComponent> dependencyOrder(Collection<TaskComponent> components) {
+        Map<String, TaskComponent> byId = new LinkedHashMap<>();
+        for (TaskComponent component : components) {
+            byId.put(component.getId(), component);
+        }
+        List<TaskComponent> ordered = new ArrayList<>(byId.size());
+        Set<String> visited = new HashSet<>();
+        for (TaskComponent component : byId.values()) {
+            visit(component.getId(), byId, visited, ordered);
+        }
+        return ordered;
+    }
+    
+    private static void visit(String id, Map<String, TaskComponent> byId, Set<String> visited,
+                              List<TaskComponent> ordered) {
+        TaskComponent component = byId.get(id);
+        if (component == null || !visited.add(id)) {
+            return;
+        }
+        if (component instanceof Project project) {
+            for (TaskComponent child : project.getComponents()) {
+                visit(child.getId(), byId, visited, ordered);
+            }
+        }
+        ordered.add(component);
+    }
+    
+    /**
+     * Converte una data in nanosecondi dall'epoch UTC
+     * 
+     * @param time la data, può essere null
+     * @return i nanosecondi, Long.MIN_VALUE se la data è null
+     */
+    static long toEpochNanos(LocalDateTime time) {
+        if (time == null) {
+            return NULL_TIME;
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * NANOS_PER_SECOND + time.getNano();
+    }
+    
+    /**
+     * Converte nanosecondi dall'epoch UTC in una data
+     * 
+     * @param nanos i nanosecondi, Long.MIN_VALUE per null
+     * @return la data corrispondente
+     */
+    static LocalDateTime fromEpochNanos(long nanos) {
+        if (nanos == NULL_TIME) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, NANOS_PER_SECOND),
+                (int) Math.floorMod(nanos, NANOS_PER_SECOND), ZoneOffset.UTC);
+    }
+}
\ No newline at end of file
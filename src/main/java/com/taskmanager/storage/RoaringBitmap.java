@@ -0,0 +1,437 @@
+package com.taskmanager.storage;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Bitmap compressa di interi non negativi, organizzata come una Roaring bitmap.
+ * I valori sono divisi in blocchi di 65536 secondo i 16 bit alti; ogni blocco è
+ * un contenitore a sé: un array ordinato dei 16 bit bassi finché il blocco è rado
+ * (fino a 4096 valori, 8 KiB al massimo) oppure una bitmap di 1024 long quando è denso.
+ * AND e OR lavorano contenitore per contenitore, e la cardinalità è la somma di
+ * quelle dei contenitori, che ognuno tiene aggiornata.
+ * 
+ * Non è thread-safe: chi la condivide deve sincronizzare gli accessi.
+ * 
+ * @param keys i 16 bit alti di ogni contenitore, in ordine crescente
+ * @param containers i contenitori, nello stesso ordine delle chiavi
+ * @param size numero di contenitori usati
+ */
+final class RoaringBitmap {
+    /** Oltre questo numero di valori un contenitore array diventa una bitmap */
+    private static final int ARRAY_LIMIT = 4096;
+    
+    private char[] keys = new char[4];
+    private Container[] containers = new Container[4];
+    private int size;
+    
+    /**
+     * Aggiunge un valore
+     * 
+     * @param value il valore, non negativo
+     */
+    void add(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("La bitmap contiene solo valori non negativi");
+        }
+        char high = (char) (value >>> 16);
+        int index = find(high);
+        if (index < 0) {
+            index = -index - 1;
+            insert(index, high, new ArrayContainer());
+        }
+        containers[index] = containers[index].add((char) value);
+    }
+    
+    /**
+     * Toglie un valore
+     * 
+     * @param value il valore
+     * @return true se il valore era presente
+     */
+    boolean remove(int value) {
+        int index = value < 0 ? -1 : find((char) (value >>> 16));
+        if (index < 0) {
+            return false;
+        }
+        Container container = containers[index];
+        int before = container.cardinality();
+        container = container.remove((char) value);
+        if (container.cardinality() == 0) {
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+            containers[--size] = null;
+        } else {
+            containers[index] = container;
+        }
+        return container.cardinality() < before;
+    }
+    
+    /**
+     * Indica se un valore è presente
+     * 
+     * @param value il valore
+     * @return true se presente
+     */
+    boolean contains(int value) {
+        int index = value < 0 ? -1 : find((char) (value >>> 16));
+        return index >= 0 && containers[index].contains((char) value);
+    }
+    
+    /**
+     * Restituisce il numero di valori, sommando le cardinalità dei contenitori
+     * 
+     * @return numero di valori
+     */
+    int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+    
+    boolean isEmpty() { return size == 0; }
+    
+    /**
+     * Toglie tutti i valori
+     */
+    void clear() {
+        keys = new char[4];
+        containers = new Container[4];
+        size = 0;
+    }
+    
+    /**
+     * Intersezione con un'altra bitmap
+     * 
+     * @param other l'altra bitmap
+     * @return una nuova bitmap con i valori presenti in entrambe
+     */
+    RoaringBitmap and(RoaringBitmap other) {
+        RoaringBitmap result = new RoaringBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Container container = containers[i].and(other.containers[j]);
+                if (container.cardinality() > 0) {
+                    result.insert(result.size, keys[i], container);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Unione con un'altra bitmap
+     * 
+     * @param other l'altra bitmap
+     * @return una nuova bitmap con i valori presenti in almeno una delle due
+     */
+    RoaringBitmap or(RoaringBitmap other) {
+        RoaringBitmap result = new RoaringBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+                result.insert(result.size, keys[i], containers[i].copy());
+                i++;
+            } else if (i == size || keys[i] > other.keys[j]) {
+                result.insert(result.size, other.keys[j], other.containers[j].copy());
+                j++;
+            } else {
+                result.insert(result.size, keys[i], containers[i].or(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Passa tutti i valori al consumer, in ordine crescente
+     * 
+     * @param consumer chi riceve i valori
+     */
+    void forEach(IntConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, consumer);
+        }
+    }
+    
+    /**
+     * Ricerca binaria della chiave tra i contenitori
+     * 
+     * @return l'indice, oppure -(punto di inserimento) - 1
+     */
+    private int find(char key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+    
+    private void insert(int index, char key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+    
+    /**
+     * Insieme dei 16 bit bassi dei valori di un blocco. Le operazioni che cambiano
+     * la densità restituiscono il contenitore del tipo adatto, che può essere un altro oggetto.
+     */
+    private interface Container {
+        Container add(char value);
+        
+        Container remove(char value);
+        
+        boolean contains(char value);
+        
+        int cardinality();
+        
+        Container and(Container other);
+        
+        Container or(Container other);
+        
+        void forEach(int base, IntConsumer consumer);
+        
+        Container copy();
+    }
+    
+    /**
+     * Contenitore rado: array ordinato di valori
+     */
+    private static final class ArrayContainer implements Container {
+        private char[] values;
+        private int cardinality;
+        
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+        
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+        
+        @Override
+        public Container add(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_LIMIT) {
+                return toBitmap().add(value);
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_LIMIT, Math.max(4, cardinality * 2)));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = value;
+            cardinality++;
+            return this;
+        }
+        
+        @Override
+        public Container remove(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+                cardinality--;
+            }
+            return this;
+        }
+        
+        @Override
+        public boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+        
+        @Override
+        public int cardinality() { return cardinality; }
+        
+        @Override
+        public Container and(Container other) {
+            char[] result = new char[cardinality];
+            int count = 0;
+            if (other instanceof ArrayContainer array) {
+                int i = 0;
+                int j = 0;
+                while (i < cardinality && j < array.cardinality) {
+                    if (values[i] < array.values[j]) {
+                        i++;
+                    } else if (values[i] > array.values[j]) {
+                        j++;
+                    } else {
+                        result[count++] = values[i];
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(values[i])) {
+                        result[count++] = values[i];
+                    }
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+        
+        @Override
+        public Container or(Container other) {
+            if (!(other instanceof ArrayContainer array)) {
+                return other.or(this);
+            }
+            char[] result = new char[cardinality + array.cardinality];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < cardinality || j < array.cardinality) {
+                if (j == array.cardinality || (i < cardinality && values[i] < array.values[j])) {
+                    result[count++] = values[i++];
+                } else if (i == cardinality || values[i] > array.values[j]) {
+                    result[count++] = array.values[j++];
+                } else {
+                    result[count++] = values[i];
+                    i++;
+                    j++;
+                }
+            }
+            ArrayContainer merged = new ArrayContainer(result, count);
+            return count > ARRAY_LIMIT ? merged.toBitmap() : merged;
+        }
+        
+        @Override
+        public void forEach(int base, IntConsumer consumer) {
+            for (int i = 0; i < cardinality; i++) {
+                consumer.accept(base | values[i]);
+            }
+        }
+        
+        @Override
+        public Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(4, cardinality)), cardinality);
+        }
+        
+        private BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < cardinality; i++) {
+                bitmap.add(values[i]);
+            }
+            return bitmap;
+        }
+    }
+    
+    /**
+     * Contenitore denso: un bit per ognuno dei 65536 valori del blocco
+     */
+    private static final class BitmapContainer implements Container {
+        private final long[] words;
+        private int cardinality;
+        
+        BitmapContainer() {
+            this(new long[1024], 0);
+        }
+        
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+        
+        @Override
+        public Container add(char value) {
+            long bit = 1L << value;
+            if ((words[value >>> 6] & bit) == 0) {
+                words[value >>> 6] |= bit;
+                cardinality++;
+            }
+            return this;
+        }
+        
+        @Override
+        public Container remove(char value) {
+            long bit = 1L << value;
+            if ((words[value >>> 6] & bit) != 0) {
+                words[value >>> 6] &= ~bit;
+                cardinality--;
+            }
+            // Si torna all'array solo sotto metà del limite, per non convertire a ogni operazione sul confine
+            return cardinality <= ARRAY_LIMIT / 2 ? toArray() : this;
+        }
+        
+        @Override
+        public boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+        
+        @Override
+        public int cardinality() { return cardinality; }
+        
+        @Override
+        public Container and(Container other) {
+            if (!(other instanceof BitmapContainer bitmap)) {
+                return other.and(this);
+            }
+            long[] result = new long[words.length];
+            int count = 0;
+            for (int i = 0; i < words.length; i++) {
+                result[i] = words[i] & bitmap.words[i];
+                count += Long.bitCount(result[i]);
+            }
+            BitmapContainer intersection = new BitmapContainer(result, count);
+            return count <= ARRAY_LIMIT ? intersection.toArray() : intersection;
+        }
+        
+        @Override
+        public Container or(Container other) {
+            if (other instanceof BitmapContainer bitmap) {
+                long[] result = new long[words.length];
+                int count = 0;
+                for (int i = 0; i < words.length; i++) {
+                    result[i] = words[i] | bitmap.words[i];
+                    count += Long.bitCount(result[i]);
+                }
+                return new BitmapContainer(result, count);
+            }
+            Container union = copy();
+            other.forEach(0, value -> union.add((char) value));
+            return union;
+        }
+        
+        @Override
+        public void forEach(int base, IntConsumer consumer) {
+            for (int i = 0; i < words.length; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    consumer.accept(base | (i << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+        
+        @Override
+        public Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+        
+        private ArrayContainer toArray() {
+            char[] values = new char[Math.max(4, cardinality)];
+            int[] count = {0};
+            forEach(0, value -> values[count[0]++] = (char) value);
+            return new ArrayContainer(values, cardinality);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,330 @@
+package com.taskmanager.storage;
+
+import com.taskmanager.models.Project;
+import com.taskmanager.models.Task;
+import com.taskmanager.models.TaskComponent;
+import com.taskmanager.models.TaskPriority;
+import com.taskmanager.models.TaskStatus;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Interfaccia comune dei motori di persistenza.
+ * Il service layer usa solo questa interfaccia, quindi motori diversi si possono
+ * scegliere da configurazione (storage.engine) e confrontare sullo stesso carico.
+ * I motori si registrano in StorageEngines.
+ */
+public interface StorageEngine extends AutoCloseable {
+    
+    /**
+     * Salva o sostituisce un componente
+     * 
+     * @param component il componente da salvare
+     */
+    void save(TaskComponent component);
+    
+    /**
+     * Trova un componente per ID
+     * 
+     * @param id l'ID da cercare
+     * @return il componente, o null se non trovato
+     */
+    TaskComponent findById(String id);
+    
+    /**
+     * Elimina un componente
+     * 
+     * @param id ID del componente da eliminare
+     * @return true se eliminato, false se non trovato
+     */
+    boolean delete(String id);
+    
+    /**
+     * Restituisce tutti i componenti
+     * 
+     * @return lista di tutti i componenti
+     */
+    List<TaskComponent> findAll();
+    
+    /**
+     * Restituisce il numero di componenti salvati
+     * 
+     * @return numero di componenti
+     */
+    int size();
+    
+    /**
+     * Svuota il contenuto in memoria
+     */
+    void clear();
+    
+    /**
+     * Trova tutti i Task
+     * 
+     * @return lista di tutti i Task
+     */
+    default List<Task> findAllTasks() {
+        return findAll().stream()
+                .filter(Task.class::isInstance)
+                .map(Task.class::cast)
+                .toList();
+    }
+    
+    /**
+     * Scorre i task con uno stream. Di default lo stream parte da findAllTasks();
+     * i motori che ne sono capaci producono i task mentre lo stream li consuma,
+     * così chi si ferma dopo pochi task non paga la copia di tutti.
+     * 
+     * @return lo stream dei task, in un ordine qualsiasi
+     */
+    default Stream<Task> streamTasks() {
+        return findAllTasks().stream();
+    }
+    
+    /**
+     * Restituisce una pagina di task in ordine di ID: i primi limit task con ID
+     * maggiore di afterId. La pagina successiva si chiede con l'ID dell'ultimo task
+     * ricevuto, quindi le pagine restano coerenti anche se nel frattempo si aggiungono
+     * o tolgono task. Di default ordina tutti i task.
+     * 
+     * @param afterId l'ID dell'ultimo task della pagina precedente, null per la prima pagina
+     * @param limit numero massimo di task restituiti
+     * @return i task della pagina, vuota dopo l'ultima
+     */
+    default List<Task> page(String afterId, int limit) {
+        return streamTasks()
+                .filter(task -> afterId == null || task.getId().compareTo(afterId) > 0)
+                .sorted(Comparator.comparing(Task::getId))
+                .limit(Math.max(0, limit))
+                .toList();
+    }
+    
+    /**
+     * Trova tutti i Project
+     * 
+     * @return lista di tutti i Project
+     */
+    default List<Project> findAllProjects() {
+        return findAll().stream()
+                .filter(Project.class::isInstance)
+                .map(Project.class::cast)
+                .toList();
+    }
+    
+    /**
+     * Trova i task con uno stato. Di default scorre tutti i task;
+     * i motori con un indice secondario lo fanno in tempo proporzionale al risultato.
+     * 
+     * @param status lo stato cercato
+     * @return i task con quello stato
+     */
+    default List<Task> findTasksByStatus(TaskStatus status) {
+        return findAllTasks().stream()
+                .filter(task -> task.getStatus() == status)
+                .toList();
+    }
+    
+    /**
+     * Trova i task con una priorità. Di default scorre tutti i task.
+     * 
+     * @param priority la priorità cercata
+     * @return i task con quella priorità
+     */
+    default List<Task> findTasksByPriority(TaskPriority priority) {
+        return findAllTasks().stream()
+                .filter(task -> task.getPriority() == priority)
+                .toList();
+    }
+    
+    /**
+     * Trova i task con uno degli stati e una delle priorità indicate. Di default scorre tutti i task.
+     * 
+     * @param statuses gli stati ammessi, null o vuoto per tutti
+     * @param priorities le priorità ammesse, null o vuoto per tutte
+     * @return i task che soddisfano il filtro
+     */
+    default List<Task> findTasks(Collection<TaskStatus> statuses, Collection<TaskPriority> priorities) {
+        return findAllTasks().stream()
+                .filter(task -> TaskAttributeIndex.matches(task, statuses, priorities))
+                .toList();
+    }
+    
+    /**
+     * Conta i task per stato. Di default scorre tutti i task.
+     * 
+     * @return numero di task per ogni stato, zero compreso
+     */
+    default Map<TaskStatus, Integer> countTasksByStatus() {
+        Map<TaskStatus, Integer> counts = new EnumMap<>(TaskStatus.class);
+        for (TaskStatus status : TaskStatus.values()) {
+            counts.put(status, 0);
+        }
+        for (Task task : findAllTasks()) {
+            if (task.getStatus() != null) {
+                counts.merge(task.getStatus(), 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+    
+    /**
+     * Conta i task per priorità. Di default scorre tutti i task.
+     * 
+     * @return numero di task per ogni priorità, zero compreso
+     */
+    default Map<TaskPriority, Integer> countTasksByPriority() {
+        Map<TaskPriority, Integer> counts = new EnumMap<>(TaskPriority.class);
+        for (TaskPriority priority : TaskPriority.values()) {
+            counts.put(priority, 0);
+        }
+        for (Task task : findAllTasks()) {
+            if (task.getPriority() != null) {
+                counts.merge(task.getPriority(), 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+    
+    /**
+     * Trova gli ID che iniziano con un prefisso, in ordine alfabetico.
+     * Di default scorre tutti i componenti.
+     * 
+     * @param prefix il prefisso
+     * @param limit numero massimo di ID restituiti
+     * @return gli ID trovati, al più limit
+     */
+    default List<String> findIdsByPrefix(String prefix, int limit) {
+        return findAll().stream()
+                .map(TaskComponent::getId)
+                .filter(id -> id.startsWith(prefix))
+                .sorted()
+                .limit(Math.max(0, limit))
+                .toList();
+    }
+    
+    /**
+     * Salva più componenti. I motori che lo supportano li rendono persistenti con una sola scrittura.
+     * 
+     * @param components i componenti da salvare
+     */
+    default void saveAll(Collection<? extends TaskComponent> components) {
+        for (TaskComponent component : components) {
+            save(component);
+        }
+    }
+    
+    /**
+     * Elimina più componenti. I motori che lo supportano lo fanno con una sola scrittura.
+     * 
+     * @param ids gli ID dei componenti da eliminare
+     * @return numero di componenti eliminati
+     */
+    default int deleteAll(Collection<String> ids) {
+        int deleted = 0;
+        for (String id : ids) {
+            if (delete(id)) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+    
+    /**
+     * Modifica un task solo se è ancora alla versione letta dal chiamante, così due
+     * aggiornamenti concorrenti dello stesso task non si sovrascrivono in silenzio.
+     * Di default non è supportato: serve un motore che tenga le versioni dei task
+     * (vedi supportsVersionedUpdate()).
+     * 
+     * @param id ID del task
+     * @param expectedVersion la versione letta prima della modifica (Task.getVersion())
+     * @param mutator la modifica, applicata a una copia del task
+     * @return il task aggiornato, o null se non esiste
+     * @throws java.util.ConcurrentModificationException se il task è cambiato dopo la lettura
+     * @throws UnsupportedOperationException se il motore non tiene le versioni
+     */
+    default Task update(String id, long expectedVersion, Consumer<? super Task> mutator) {
+        throw new UnsupportedOperationException("Il motore " + getClass().getSimpleName() + " non supporta aggiornamenti con versione");
+    }
+    
+    /**
+     * Indica se update() esegue un vero compare-and-set sulla versione. I chiamanti
+     * lo controllano prima di usare update(), invece di intercettarne l'eccezione.
+     * 
+     * @return true se il motore tiene le versioni dei task
+     */
+    default boolean supportsVersionedUpdate() {
+        return false;
+    }
+    
+    /**
+     * Indica se il motore salva da solo, entro un tempo limitato, le modifiche fatte
+     * con i setter sui task che ha restituito. Se è false bisogna salvarli di nuovo con save().
+     * 
+     * @return true se il motore segue le modifiche sul posto
+     */
+    default boolean tracksChanges() {
+        return false;
+    }
+    
+    /**
+     * Modifica tutti i task che soddisfano un filtro e li salva con saveAll().
+     * Di default le modifiche avvengono su copie, senza controllo di versione;
+     * i motori che tengono le versioni usano lo stesso compare-and-set di update().
+     * 
+     * @param filter i task da modificare
+     * @param mutator la modifica, applicata a una copia di ogni task
+     * @return i task aggiornati
+     */
+    default List<Task> updateWhere(Predicate<? super Task> filter, Consumer<? super Task> mutator) {
+        List<Task> updated = new ArrayList<>();
+        for (Task task : findAllTasks()) {
+            if (filter.test(task)) {
+                Task copy = task.copy();
+                mutator.accept(copy);
+                updated.add(copy);
+            }
+        }
+        saveAll(updated);
+        return updated;
+    }
+    
+    /**
+     * Registra un indice esterno: riceve subito i componenti già salvati
+     * e poi ogni modifica. Di default non è supportato.
+     * 
+     * @param index l'indice da tenere aggiornato
+     * @throws UnsupportedOperationException se il motore non avvisa gli indici
+     */
+    default void addIndex(ComponentIndex index) {
+        throw new UnsupportedOperationException("Il motore " + getClass().getSimpleName() + " non supporta indici esterni");
+    }
+    
+    /**
+     * Attende che tutte le modifiche fatte finora siano su disco
+     */
+    default void flush() {
+    }
+    
+    /**
+     * Stampa statistiche del motore
+     */
+    default void printStats() {
+        System.out.println("📊 STATISTICHE STORAGE:");
+        System.out.println("  Totale componenti: " + size());
+    }
+    
+    /**
+     * Scrive le modifiche in sospeso e rilascia le risorse
+     */
+    @Override
+    default void close() {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,120 @@
+package com.taskmanager.storage;
+
+import com.taskmanager.config.AppConfig;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro dei motori di persistenza disponibili, selezionati per nome
+ * con la proprietà storage.engine.
+ * 
+ * @param auto modalità e formato presi da storage.mode e dall'estensione di storage.file
+ * @param text file di testo riscritto ad ogni modifica
+ * @param json file JSON riscritto ad ogni modifica
+ * @param log log append-only con compattazione
+ * @param mmap snapshot binario mappato in memoria
+ * @param lsm memtable e segmenti ordinati con compattazione in background
+ * @param btree file di record con indice B+tree su disco
+ */
+public final class StorageEngines {
+    
+    /**
+     * Crea un motore a partire dal nome del file e dalle opzioni
+     */
+    @FunctionalInterface
+    public interface Factory {
+        StorageEngine create(String fileName, StorageOptions options);
+    }
+    
+    public static final String DEFAULT_ENGINE = "auto";
+    
+    private static final Map<String, Factory> FACTORIES = new ConcurrentHashMap<>();
+    
+    static {
+        register("auto", TaskStorage::new);
+        register("text", (fileName, options) ->
+                new TaskStorage(withExtension(fileName, ".txt"), options.withMode(StorageMode.SNAPSHOT)));
+        register("json", (fileName, options) ->
+                new TaskStorage(withExtension(fileName, ".json"), options.withMode(StorageMode.SNAPSHOT)));
+        register("log", (fileName, options) -> new TaskStorage(fileName, options.withMode(StorageMode.APPEND_LOG)));
+        register("mmap", (fileName, options) -> new TaskStorage(fileName, options.withMode(StorageMode.MAPPED)));
+        register("lsm", LsmStorage::new);
+        register("btree", BTreeStorage::new);
+    }
+    
+    private StorageEngines() {
+    }
+    
+    /**
+     * Registra un motore, sostituendo un eventuale motore con lo stesso nome
+     * 
+     * @param name nome usato in storage.engine
+     * @param factory chi crea il motore
+     */
+    public static void register(String name, Factory factory) {
+        if (name == null || name.trim().isEmpty() || factory == null) {
+            throw new IllegalArgumentException("Nome e factory del motore sono obbligatori");
+        }
+        FACTORIES.put(name.trim().toLowerCase(), factory);
+    }
+    
+    /**
+     * Crea il motore con il nome indicato
+     * 
+     * @param name nome del motore
+     * @param fileName nome del file dati
+     * @param options opzioni dello storage
+     * @return il motore creato
+     * @throws IllegalArgumentException se il motore non è registrato
+     */
+    public static StorageEngine create(String name, String fileName, StorageOptions options) {
+        Factory factory = name != null ? FACTORIES.get(name.trim().toLowerCase()) : null;
+        if (factory == null) {
+            throw new IllegalArgumentException("Motore di storage sconosciuto: " + name + " (disponibili: " + names() + ")");
+        }
+        return factory.create(fileName, options);
+    }
+    
+    /**
+     * Crea il motore indicato da storage.engine, con il file e le opzioni della configurazione.
+     * Se il motore non è registrato usa quello di default. Con storage.cache.maxEntries
+     * maggiore di zero i motori su disco vengono messi dietro una cache limitata;
+     * TaskStorage tiene già tutti i componenti in memoria e non ne ha bisogno.
+     * 
+     * @param config la configurazione dell'applicazione
+     * @return il motore creato
+     */
+    public static StorageEngine fromConfig(AppConfig config) {
+        String name = config.getProperty("storage.engine", DEFAULT_ENGINE);
+        String fileName = config.getProperty("storage.file", "tasks.json");
+        StorageOptions options = StorageOptions.fromConfig(config);
+        StorageEngine engine;
+        try {
+            engine = create(name, fileName, options);
+        } catch (IllegalArgumentException e) {
+            System.err.println("⚠️  " + e.getMessage() + ", uso " + DEFAULT_ENGINE);
+            engine = create(DEFAULT_ENGINE, fileName, options);
+        }
+        if (options.getCacheMaxEntries() > 0 && !(engine instanceof TaskStorage)) {
+            engine = new CachingStorageEngine(engine, options.getCacheMaxEntries());
+        }
+        return engine;
+    }
+    
+    /**
+     * Restituisce i nomi dei motori registrati
+     * 
+     * @return nomi in ordine alfabetico
+     */
+    public static Set<String> names() {
+        return new TreeSet<>(FACTORIES.keySet());
+    }
+    
+    private static String withExtension(String fileName, String extension) {
+        int dot = fileName.lastIndexOf('.');
+        return (dot > 0 ? fileName.substring(0, dot) : fileName) + extension;
+    }
+}
\ No newline at end of file
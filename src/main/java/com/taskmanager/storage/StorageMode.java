@@ -0,0 +1,42 @@
+package com.taskmanager.storage;
+
+/**
+ * Modalità di persistenza di TaskStorage.
+ * 
+ * @param SNAPSHOT riscrive l'intero file ad ogni modifica
+ * @param APPEND_LOG aggiunge un solo record in coda al log ad ogni modifica
+ * @param MAPPED snapshot binario mappato in memoria, i task vengono decodificati su richiesta
+ * @param configName nome usato nella proprietà storage.mode
+ */
+public enum StorageMode {
+    SNAPSHOT("snapshot"),
+    APPEND_LOG("log"),
+    MAPPED("mmap");
+    
+    private final String configName;
+    
+    StorageMode(String configName) {
+        this.configName = configName;
+    }
+    
+    public String getConfigName() {
+        return configName;
+    }
+    
+    /**
+     * Converte il valore della configurazione nella modalità corrispondente
+     * 
+     * @param value valore della proprietà storage.mode
+     * @return la modalità, SNAPSHOT se il valore non è riconosciuto
+     */
+    public static StorageMode fromConfig(String value) {
+        if (value != null) {
+            for (StorageMode mode : values()) {
+                if (mode.configName.equalsIgnoreCase(value.trim())) {
+                    return mode;
+                }
+            }
+        }
+        return SNAPSHOT;
+    }
+}
\ No newline at end of file
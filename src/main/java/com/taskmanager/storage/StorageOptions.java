@@ -0,0 +1,173 @@
+package com.taskmanager.storage;
+
+import com.taskmanager.config.AppConfig;
+
+/**
+ * Opzioni di configurazione di TaskStorage.
+ * Si costruisce passo dopo passo con i metodi with...() oppure a partire da AppConfig.
+ * 
+ * @param mode modalità di persistenza
+ * @param fsyncPolicy politica di sincronizzazione del log
+ * @param fsyncIntervalMillis intervallo di flush per la politica INTERVAL e ritardo massimo
+ *        prima che TaskStorage salvi i task modificati sul posto
+ * @param compactionMinLogBytes dimensione minima del log prima di compattare
+ * @param compactionRatio rapporto minimo log/file dati prima di compattare
+ * @param writeBehindCapacity capacità della coda write-behind (0 = disattivato)
+ * @param lsmMemtableEntries voci della memtable prima del flush, solo per il motore LSM
+ * @param lsmFanout segmenti dello stesso livello da unire in una compattazione LSM
+ * @param bufferPoolPages pagine dell'indice tenute in memoria dal motore B+tree
+ * @param cacheMaxEntries componenti nella cache davanti ai motori su disco (0 = nessuna cache)
+ * @param bloomFalsePositiveRate probabilità di falsi positivi dei filtri di Bloom scritti accanto ai file dati
+ */
+public class StorageOptions {
+    private StorageMode mode = StorageMode.SNAPSHOT;
+    private FsyncPolicy fsyncPolicy = FsyncPolicy.OS;
+    private long fsyncIntervalMillis = 100;
+    private long compactionMinLogBytes = LogCompactor.DEFAULT_MIN_LOG_BYTES;
+    private double compactionRatio = LogCompactor.DEFAULT_RATIO;
+    private int writeBehindCapacity = 0;
+    private int lsmMemtableEntries = LsmStorage.DEFAULT_MEMTABLE_ENTRIES;
+    private int lsmFanout = LsmStorage.DEFAULT_FANOUT;
+    private int bufferPoolPages = BTreeIndex.DEFAULT_POOL_PAGES;
+    private int cacheMaxEntries = 0;
+    private double bloomFalsePositiveRate = BloomFilter.DEFAULT_FPP;
+    
+    /**
+     * Opzioni di default: snapshot, fsync lasciato al sistema operativo, scrittura sincrona
+     * 
+     * @return nuove opzioni di default
+     */
+    public static StorageOptions defaults() {
+        return new StorageOptions();
+    }
+    
+    /**
+     * Legge le opzioni dalle proprietà storage.* della configurazione
+     * 
+     * @param config la configurazione dell'applicazione
+     * @return le opzioni lette
+     */
+    public static StorageOptions fromConfig(AppConfig config) {
+        StorageOptions options = new StorageOptions()
+                .withMode(StorageMode.fromConfig(config.getProperty("storage.mode", "snapshot")))
+                .withFsync(FsyncPolicy.fromConfig(config.getProperty("storage.fsync", "os")),
+                        config.getLongProperty("storage.fsync.intervalMs", 100))
+                .withCompaction(
+                        config.getLongProperty("storage.compaction.minLogBytes", LogCompactor.DEFAULT_MIN_LOG_BYTES),
+                        config.getDoubleProperty("storage.compaction.ratio", LogCompactor.DEFAULT_RATIO))
+                .withLsm((int) config.getLongProperty("storage.lsm.memtableEntries", LsmStorage.DEFAULT_MEMTABLE_ENTRIES),
+                        (int) config.getLongProperty("storage.lsm.fanout", LsmStorage.DEFAULT_FANOUT))
+                .withBufferPool((int) config.getLongProperty("storage.btree.poolPages", BTreeIndex.DEFAULT_POOL_PAGES))
+                .withCache((int) config.getLongProperty("storage.cache.maxEntries", 0))
+                .withBloomFilter(config.getDoubleProperty("storage.bloom.fpp", BloomFilter.DEFAULT_FPP));
+        if (Boolean.parseBoolean(config.getProperty("storage.writeBehind", "false"))) {
+            options.withWriteBehind((int) config.getLongProperty("storage.writeBehind.capacity",
+                    WriteBehindQueue.DEFAULT_CAPACITY));
+        }
+        return options;
+    }
+    
+    public StorageOptions withMode(StorageMode mode) {
+        this.mode = mode;
+        return this;
+    }
+    
+    public StorageOptions withFsync(FsyncPolicy fsyncPolicy, long fsyncIntervalMillis) {
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+        return this;
+    }
+    
+    public StorageOptions withCompaction(long minLogBytes, double ratio) {
+        this.compactionMinLogBytes = minLogBytes;
+        this.compactionRatio = ratio;
+        return this;
+    }
+    
+    /**
+     * Attiva la persistenza write-behind
+     * 
+     * @param capacity numero massimo di modifiche in attesa prima di bloccare i chiamanti
+     * @return queste opzioni per concatenare le chiamate
+     */
+    public StorageOptions withWriteBehind(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("La capacità della coda deve essere positiva");
+        }
+        this.writeBehindCapacity = capacity;
+        return this;
+    }
+    
+    /**
+     * Imposta dimensione della memtable e fanout della compattazione del motore LSM
+     * 
+     * @param memtableEntries voci della memtable prima di scriverla come segmento
+     * @param fanout numero di segmenti dello stesso livello da unire (almeno 2)
+     * @return queste opzioni per concatenare le chiamate
+     */
+    public StorageOptions withLsm(int memtableEntries, int fanout) {
+        if (memtableEntries <= 0 || fanout < 2) {
+            throw new IllegalArgumentException("Memtable LSM deve essere positiva e fanout almeno 2");
+        }
+        this.lsmMemtableEntries = memtableEntries;
+        this.lsmFanout = fanout;
+        return this;
+    }
+    
+    /**
+     * Imposta quante pagine dell'indice il motore B+tree tiene in memoria
+     * 
+     * @param pages numero di pagine da 4 KiB (almeno 4)
+     * @return queste opzioni per concatenare le chiamate
+     */
+    public StorageOptions withBufferPool(int pages) {
+        if (pages < 4) {
+            throw new IllegalArgumentException("Il buffer pool deve contenere almeno 4 pagine");
+        }
+        this.bufferPoolPages = pages;
+        return this;
+    }
+    
+    /**
+     * Imposta la dimensione della cache davanti ai motori che tengono i dati su disco
+     * 
+     * @param maxEntries numero massimo di componenti in cache, 0 per non usarla
+     * @return queste opzioni per concatenare le chiamate
+     */
+    public StorageOptions withCache(int maxEntries) {
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException("La dimensione della cache non può essere negativa");
+        }
+        this.cacheMaxEntries = maxEntries;
+        return this;
+    }
+    
+    /**
+     * Imposta la probabilità di falsi positivi dei filtri di Bloom sugli ID.
+     * Valori più bassi evitano più letture inutili ma occupano più bit per ID
+     * (circa 9.6 bit con 0.01, 14.4 con 0.001).
+     * 
+     * @param falsePositiveRate probabilità tra 0 e 1 esclusi
+     * @return queste opzioni per concatenare le chiamate
+     */
+    public StorageOptions withBloomFilter(double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("La probabilità di falsi positivi deve essere tra 0 e 1");
+        }
+        this.bloomFalsePositiveRate = falsePositiveRate;
+        return this;
+    }
+    
+    public StorageMode getMode() { return mode; }
+    public FsyncPolicy getFsyncPolicy() { return fsyncPolicy; }
+    public long getFsyncIntervalMillis() { return fsyncIntervalMillis; }
+    public long getCompactionMinLogBytes() { return compactionMinLogBytes; }
+    public double getCompactionRatio() { return compactionRatio; }
+    public int getWriteBehindCapacity() { return writeBehindCapacity; }
+    public boolean isWriteBehind() { return writeBehindCapacity > 0; }
+    public int getLsmMemtableEntries() { return lsmMemtableEntries; }
+    public int getLsmFanout() { return lsmFanout; }
+    public int getBufferPoolPages() { return bufferPoolPages; }
+    public int getCacheMaxEntries() { return cacheMaxEntries; }
+    public double getBloomFalsePositiveRate() { return bloomFalsePositiveRate; }
+}
\ No newline at end of file
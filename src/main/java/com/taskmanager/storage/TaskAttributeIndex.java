@@ -0,0 +1,204 @@
+package com.taskmanager.storage;
+
+import com.taskmanager.models.Task;
+import com.taskmanager.models.TaskComponent;
+import com.taskmanager.models.TaskPriority;
+import com.taskmanager.models.TaskStatus;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Indici secondari dei task per stato e per priorità.
+ * Ogni task riceve un ordinale interno denso (gli ordinali dei task eliminati
+ * vengono riusati) e ogni valore dell'enum ha una RoaringBitmap degli ordinali
+ * dei task con quel valore. Un filtro su più valori e più attributi è un OR
+ * delle bitmap di ogni attributo seguito da un AND tra attributi, e costa quanto
+ * il numero di task trovati, non quanto il numero di task salvati. I conteggi
+ * per valore vengono dalle cardinalità delle bitmap.
+ * 
+ * L'indice ricorda con quali valori ha registrato ogni ID: un task modificato
+ * sul posto e poi salvato di nuovo viene spostato dalla vecchia bitmap alla nuova.
+ * Tutti i metodi sono sincronizzati: le operazioni sono brevi e non fanno I/O.
+ * 
+ * @param byStatus ordinali dei task per stato
+ * @param byPriority ordinali dei task per priorità
+ * @param all ordinali di tutti i task indicizzati
+ * @param indexed ordinale, stato e priorità con cui ogni ID è registrato
+ * @param ids ID per ordinale, null per gli ordinali liberi
+ * @param freeOrdinals ordinali liberati dalle eliminazioni
+ */
+final class TaskAttributeIndex {
+    private final Map<TaskStatus, RoaringBitmap> byStatus = new EnumMap<>(TaskStatus.class);
+    private final Map<TaskPriority, RoaringBitmap> byPriority = new EnumMap<>(TaskPriority.class);
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final Map<String, Entry> indexed = new HashMap<>();
+    private final List<String> ids = new ArrayList<>();
+    private final ArrayDeque<Integer> freeOrdinals = new ArrayDeque<>();
+    
+    private record Entry(int ordinal, TaskStatus status, TaskPriority priority) {}
+    
+    TaskAttributeIndex() {
+        for (TaskStatus status : TaskStatus.values()) {
+            byStatus.put(status, new RoaringBitmap());
+        }
+        for (TaskPriority priority : TaskPriority.values()) {
+            byPriority.put(priority, new RoaringBitmap());
+        }
+    }
+    
+    /**
+     * Registra un componente con i suoi valori attuali. I progetti non sono indicizzati.
+     * 
+     * @param component il componente appena salvato
+     */
+    synchronized void update(TaskComponent component) {
+        if (!(component instanceof Task task)) {
+            remove(component.getId());
+            return;
+        }
+        Entry previous = indexed.get(task.getId());
+        if (previous != null && previous.status() == task.getStatus() && previous.priority() == task.getPriority()) {
+            return;
+        }
+        int ordinal;
+        if (previous != null) {
+            ordinal = previous.ordinal();
+            unlink(previous);
+        } else {
+            ordinal = allocate(task.getId());
+        }
+        Entry entry = new Entry(ordinal, task.getStatus(), task.getPriority());
+        indexed.put(task.getId(), entry);
+        if (entry.status() != null) {
+            byStatus.get(entry.status()).add(ordinal);
+        }
+        if (entry.priority() != null) {
+            byPriority.get(entry.priority()).add(ordinal);
+        }
+    }
+    
+    /**
+     * Toglie un ID dall'indice e ne libera l'ordinale
+     * 
+     * @param id l'ID del componente eliminato
+     */
+    synchronized void remove(String id) {
+        Entry previous = indexed.remove(id);
+        if (previous != null) {
+            unlink(previous);
+            all.remove(previous.ordinal());
+            ids.set(previous.ordinal(), null);
+            freeOrdinals.push(previous.ordinal());
+        }
+    }
+    
+    /**
+     * Svuota l'indice
+     */
+    synchronized void clear() {
+        indexed.clear();
+        ids.clear();
+        freeOrdinals.clear();
+        all.clear();
+        byStatus.values().forEach(RoaringBitmap::clear);
+        byPriority.values().forEach(RoaringBitmap::clear);
+    }
+    
+    /**
+     * Trova gli ID dei task che hanno uno degli stati e una delle priorità indicate
+     * 
+     * @param statuses gli stati ammessi, null o vuoto per non filtrare sullo stato
+     * @param priorities le priorità ammesse, null o vuoto per non filtrare sulla priorità
+     * @return gli ID trovati, in ordine di ordinale
+     */
+    synchronized List<String> query(Collection<TaskStatus> statuses, Collection<TaskPriority> priorities) {
+        RoaringBitmap result = all;
+        if (statuses != null && !statuses.isEmpty()) {
+            result = result.and(union(byStatus, statuses));
+        }
+        if (priorities != null && !priorities.isEmpty()) {
+            result = result.and(union(byPriority, priorities));
+        }
+        List<String> found = new ArrayList<>(result.cardinality());
+        result.forEach(ordinal -> found.add(ids.get(ordinal)));
+        return found;
+    }
+    
+    /**
+     * Conta i task per stato, dalle cardinalità delle bitmap
+     * 
+     * @return numero di task per ogni stato
+     */
+    synchronized Map<TaskStatus, Integer> countByStatus() {
+        Map<TaskStatus, Integer> counts = new EnumMap<>(TaskStatus.class);
+        byStatus.forEach((status, bitmap) -> counts.put(status, bitmap.cardinality()));
+        return counts;
+    }
+    
+    /**
+     * Conta i task per priorità, dalle cardinalità delle bitmap
+     * 
+     * @return numero di task per ogni priorità
+     */
+    synchronized Map<TaskPriority, Integer> countByPriority() {
+        Map<TaskPriority, Integer> counts = new EnumMap<>(TaskPriority.class);
+        byPriority.forEach((priority, bitmap) -> counts.put(priority, bitmap.cardinality()));
+        return counts;
+    }
+    
+    synchronized int size() { return indexed.size(); }
+    
+    /**
+     * Indica se un task ha uno degli stati e una delle priorità indicate,
+     * con le stesse regole di query()
+     * 
+     * @param task il task da controllare
+     * @param statuses gli stati ammessi, null o vuoto per tutti
+     * @param priorities le priorità ammesse, null o vuoto per tutte
+     * @return true se il task soddisfa il filtro
+     */
+    static boolean matches(Task task, Collection<TaskStatus> statuses, Collection<TaskPriority> priorities) {
+        return (statuses == null || statuses.isEmpty() || (task.getStatus() != null && statuses.contains(task.getStatus())))
+                && (priorities == null || priorities.isEmpty()
+                        || (task.getPriority() != null && priorities.contains(task.getPriority())));
+    }
+    
+    private int allocate(String id) {
+        Integer free = freeOrdinals.poll();
+        int ordinal;
+        if (free != null) {
+            ordinal = free;
+            ids.set(ordinal, id);
+        } else {
+            ordinal = ids.size();
+            ids.add(id);
+        }
+        all.add(ordinal);
+        return ordinal;
+    }
+    
+    private void unlink(Entry entry) {
+        if (entry.status() != null) {
+            byStatus.get(entry.status()).remove(entry.ordinal());
+        }
+        if (entry.priority() != null) {
+            byPriority.get(entry.priority()).remove(entry.ordinal());
+        }
+    }
+    
+    private static <E extends Enum<E>> RoaringBitmap union(Map<E, RoaringBitmap> bitmaps, Collection<E> values) {
+        RoaringBitmap union = new RoaringBitmap();
+        for (E value : values) {
+            if (value != null) {
+                union = union.or(bitmaps.get(value));
+            }
+        }
+        return union;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,327 @@
+package com.taskmanager.storage;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Log append-only dei record dello storage.
+ * Ogni modifica aggiunge una sola riga in coda al file, quindi il costo
+ * di una scrittura non dipende dal numero di task salvati.
+ *
+ * Le scritture usano il group commit: append() mette il record in un buffer
+ * e commit() lo porta su disco. Chi arriva mentre un altro thread sta scrivendo
+ * trova il proprio record già incluso nel batch successivo, così più modifiche
+ * concorrenti condividono una sola write e un solo FileChannel.force().
+ * Se la scrittura di un batch fallisce, il file viene riportato alla lunghezza
+ * precedente e i record tornano in testa al buffer: nessuno li vede come scritti
+ * e il commit successivo li riprova. Se nemmeno il ripristino riesce, il log
+ * resta in errore e ogni commit successivo lancia l'eccezione.
+ *
+ * @param path percorso del file di log
+ * @param fsyncPolicy quando forzare i dati su disco
+ * @param channel canale aperto in append, riusato tra le scritture
+ * @param pending buffer dei record non ancora scritti
+ * @param appendedSeq numero di sequenza dell'ultimo record accodato
+ * @param durableSeq numero di sequenza dell'ultimo record scritto
+ */
+public class TaskLog implements Closeable {
+    private final Path path;
+    private final FsyncPolicy fsyncPolicy;
+    // Lock del leader che scrive il batch; va sempre preso prima del monitor del log
+    private final Object commitLock = new Object();
+    private final ScheduledExecutorService flusher;
+
+    private FileChannel channel;
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private ByteArrayOutputStream spare = new ByteArrayOutputStream();
+    private long appendedSeq;
+    private volatile long durableSeq;
+    private IOException failure;
+    private long recordCount;
+    private long sizeInBytes;
+
+    // Statistiche del group commit
+    private volatile long batchCount;
+    private volatile long forceCount;
+
+    /**
+     * Costruttore con politica di default (OS)
+     *
+     * @param path percorso del file di log
+     */
+    public TaskLog(Path path) {
+        this(path, FsyncPolicy.OS, 0);
+    }
+
+    /**
+     * Costruttore
+     *
+     * @param path percorso del file di log
+     * @param fsyncPolicy politica di sincronizzazione su disco
+     * @param fsyncIntervalMillis intervallo di flush per la politica INTERVAL
+     */
+    public TaskLog(Path path, FsyncPolicy fsyncPolicy, long fsyncIntervalMillis) {
+        this.path = path;
+        this.fsyncPolicy = fsyncPolicy;
+        this.sizeInBytes = fileSize();
+        if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+            if (fsyncIntervalMillis <= 0) {
+                throw new IllegalArgumentException("L'intervallo di fsync deve essere positivo");
+            }
+            this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "storage-fsync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flushQuietly,
+                    fsyncIntervalMillis, fsyncIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.flusher = null;
+        }
+    }
+
+    /**
+     * Accoda un record nel buffer del log, senza scriverlo su disco
+     *
+     * @param record la riga da aggiungere (senza terminatore)
+     * @return numero di sequenza da passare a commit()
+     */
+    public synchronized long append(String record) {
+        byte[] bytes = (record + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+        pending.write(bytes, 0, bytes.length);
+        sizeInBytes += bytes.length;
+        recordCount++;
+        return ++appendedSeq;
+    }
+
+    /**
+     * Rende il record persistente secondo la politica di fsync.
+     * Con INTERVAL ritorna subito: il record verrà scritto dal thread di flush.
+     *
+     * @param seq numero di sequenza restituito da append()
+     * @throws IOException se la scrittura fallisce
+     */
+    public void commit(long seq) throws IOException {
+        if (fsyncPolicy != FsyncPolicy.INTERVAL) {
+            writeBatch(seq, fsyncPolicy == FsyncPolicy.ALWAYS);
+        }
+    }
+
+    /**
+     * Scrive e forza su disco tutti i record accodati finora
+     *
+     * @throws IOException se la scrittura fallisce
+     */
+    public void flush() throws IOException {
+        long seq;
+        synchronized (this) {
+            seq = appendedSeq;
+        }
+        writeBatch(seq, fsyncPolicy != FsyncPolicy.OS);
+    }
+
+    /**
+     * Scrive il batch corrente se il record seq non è ancora su disco
+     *
+     * @param seq numero di sequenza da rendere persistente
+     * @param force true per chiamare FileChannel.force()
+     * @throws IOException se la scrittura fallisce
+     */
+    private void writeBatch(long seq, boolean force) throws IOException {
+        if (durableSeq >= seq) {
+            return;
+        }
+        synchronized (commitLock) {
+            if (durableSeq >= seq) {
+                return; // Un altro thread ha già scritto il nostro record
+            }
+            if (failure != null) {
+                throw new IOException("Log non più scrivibile: " + path, failure);
+            }
+            ByteArrayOutputStream batch;
+            long upTo;
+            synchronized (this) {
+                // Il canale si apre prima di prendere il batch: se fallisce i record restano nel buffer
+                if (channel == null) {
+                    channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                            StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                }
+                batch = pending;
+                pending = spare;
+                upTo = appendedSeq;
+            }
+            long start = -1;
+            try {
+                start = channel.size();
+                batch.writeTo(Channels.newOutputStream(channel));
+                if (force) {
+                    channel.force(false);
+                    forceCount++;
+                }
+                batchCount++;
+            } catch (IOException | RuntimeException e) {
+                restore(batch, start, e);
+                throw e;
+            }
+            batch.reset();
+            spare = batch;
+            durableSeq = upTo;
+        }
+    }
+
+    /**
+     * Rimette un batch non scritto davanti ai record accodati nel frattempo e
+     * toglie dal file l'eventuale parte scritta, così il batch si può riscrivere intero
+     *
+     * @param batch il batch fallito
+     * @param start la lunghezza del file prima del batch, -1 se sconosciuta
+     * @param cause l'errore della scrittura
+     */
+    private void restore(ByteArrayOutputStream batch, long start, Exception cause) {
+        synchronized (this) {
+            batch.writeBytes(pending.toByteArray());
+            pending.reset();
+            spare = pending;
+            pending = batch;
+        }
+        try {
+            if (start < 0) {
+                throw new IOException("Lunghezza del log sconosciuta");
+            }
+            channel.truncate(start);
+        } catch (IOException e) {
+            failure = cause instanceof IOException io ? io : new IOException(cause);
+            failure.addSuppressed(e);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            System.err.println("⚠️  Errore flush del log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rilegge il log dall'inizio passando ogni record al consumer
+     *
+     * @param handler il consumer che applica i record
+     * @return numero di record letti
+     * @throws IOException se la lettura fallisce
+     */
+    public synchronized long replay(Consumer<String> handler) throws IOException {
+        long count = 0;
+        if (Files.exists(path)) {
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.isEmpty()) {
+                        handler.accept(line);
+                        count++;
+                    }
+                }
+            }
+        }
+        recordCount = count;
+        sizeInBytes = fileSize();
+        return count;
+    }
+
+    /**
+     * Sposta i record correnti in un file archivio e ricomincia con un log vuoto.
+     * Se l'archivio esiste già (compattazione precedente non conclusa)
+     * i record vengono accodati per non perderli.
+     *
+     * @param archive il file in cui spostare i record
+     * @throws IOException se lo spostamento fallisce
+     */
+    public void rotate(Path archive) throws IOException {
+        synchronized (commitLock) {
+            synchronized (this) {
+                writeBatch(appendedSeq, fsyncPolicy != FsyncPolicy.OS);
+                closeChannel();
+                if (Files.exists(path)) {
+                    if (Files.exists(archive)) {
+                        try (FileChannel source = FileChannel.open(path, StandardOpenOption.READ);
+                             FileChannel target = FileChannel.open(archive, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                            long position = 0;
+                            long size = source.size();
+                            while (position < size) {
+                                position += source.transferTo(position, size - position, target);
+                            }
+                        }
+                        Files.delete(path);
+                    } else {
+                        Files.move(path, archive);
+                    }
+                }
+                recordCount = 0;
+                sizeInBytes = 0;
+            }
+        }
+    }
+
+    /**
+     * Restituisce il numero di record nel log
+     *
+     * @return numero di record
+     */
+    public synchronized long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Restituisce la dimensione del log in byte, inclusi i record non ancora scritti
+     *
+     * @return dimensione del log
+     */
+    public synchronized long sizeInBytes() {
+        return sizeInBytes;
+    }
+
+    private long fileSize() {
+        try {
+            return Files.exists(path) ? Files.size(path) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    public Path getPath() { return path; }
+    public FsyncPolicy getFsyncPolicy() { return fsyncPolicy; }
+    public long getBatchCount() { return batchCount; }
+    public long getForceCount() { return forceCount; }
+
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * Scrive i record rimasti nel buffer e chiude il file
+     *
+     * @throws IOException se la scrittura fallisce
+     */
+    @Override
+    public void close() throws IOException {
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        synchronized (commitLock) {
+            flush();
+            synchronized (this) {
+                closeChannel();
+            }
+        }
+    }
+}
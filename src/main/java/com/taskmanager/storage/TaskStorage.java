@@ -1,24 +1,80 @@
 package com.taskmanager.storage;
 
+import com.taskmanager.models.ChangeListener;
 import com.taskmanager.models.Task;
 import com.taskmanager.models.Project;
 import com.taskmanager.models.TaskComponent;
+import com.taskmanager.models.TaskPriority;
+import com.taskmanager.models.TaskStatus;
 
 import java.io.*;
 import java.nio.file.*;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  * Classe per salvare e caricare i dati.
  * 
  * @param fileName nome del file in cui salvare i dati
- * @param cache mappa thread-safe per la cache in memoria
+ * @param mode modalità di persistenza (snapshot o log append-only)
+ * @param bloomFalsePositiveRate probabilità di falsi positivi del filtro sugli ID dello snapshot MAPPED
+ * @param cache mappa thread-safe per la cache in memoria, a chiavi primitive per gli ID numerici
+ * @param attributeIndex bitmap dei task in cache per stato e priorità
+ * @param indexes indici esterni avvisati a ogni modifica della cache
+ * @param idTrie radix trie degli ID in cache, per risolvere i prefissi
+ * @param dirty ID dei componenti modificati sul posto e non ancora salvati di nuovo
+ * @param dirtyFlush salvataggio in background dei componenti modificati sul posto, avviato a DIRTY_BATCH_SIZE
+ * @param dirtyFlusher salva ogni intervallo di fsync le modifiche sul posto rimaste sotto DIRTY_BATCH_SIZE, null se l'intervallo non è positivo
+ * @param log log append-only, presente solo in modalità APPEND_LOG
+ * @param compactor compattazione in background del log, solo in modalità APPEND_LOG
+ * @param writeBehind coda di scrittura asincrona, presente solo se attivata nelle opzioni
+ * @param fileLock serializza le riscritture complete del file dati
+ * @param snapshot snapshot binario mappato, solo in modalità MAPPED finché non viene caricato per intero
  */
-public class TaskStorage {
+public class TaskStorage implements StorageEngine {
+    private static final String DELETE_RECORD = "DELETE";
+    // Modifiche sul posto accumulate prima di scriverle tutte insieme
+    private static final int DIRTY_BATCH_SIZE = 64;
+    
     private final String fileName;
-    // Mappa thread-safe per cache in memoria
-    private final Map<String, TaskComponent> cache = new ConcurrentHashMap<>();
+    private final StorageMode mode;
+    private final double bloomFalsePositiveRate;
+    // Mappa thread-safe per cache in memoria, con chiavi long per gli ID di IdGenerator
+    private final ComponentCache cache = new ComponentCache();
+    private final TaskAttributeIndex attributeIndex = new TaskAttributeIndex();
+    private final ComponentIndexes indexes = new ComponentIndexes();
+    private final IdTrie idTrie = new IdTrie();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean dirtyFlushScheduled = new AtomicBoolean();
+    private volatile CompletableFuture<Void> dirtyFlush = CompletableFuture.completedFuture(null);
+    private final ScheduledExecutorService dirtyFlusher;
+    private final ChangeListener changeListener = this::markDirty;
+    
+    /**
+     * Una copia aggiornata da mettere in cache al posto di expected, se è ancora alla versione attesa
+     */
+    private record Replacement(Task updated, Task expected, long expectedVersion) {}
+    private final TaskLog log;
+    private final LogCompactor compactor;
+    private final WriteBehindQueue writeBehind;
+    // Mantiene lo stesso ordine tra cache e coda write-behind
+    private final Object writeOrder = new Object();
+    private final Object fileLock = new Object();
+    private volatile MappedSnapshot snapshot;
+    private final Object snapshotLock = new Object();
     
     /**
      * Costruttore
@@ -26,7 +82,29 @@ public class TaskStorage {
      * @param fileName nome del file per salvare i dati
      */
     public TaskStorage(String fileName) {
+        this(fileName, StorageMode.SNAPSHOT);
+    }
+    
+    /**
+     * Costruttore con modalità di persistenza
+     * 
+     * @param fileName nome del file per salvare i dati
+     * @param mode modalità di persistenza
+     */
+    public TaskStorage(String fileName, StorageMode mode) {
+        this(fileName, StorageOptions.defaults().withMode(mode));
+    }
+    
+    /**
+     * Costruttore con opzioni complete
+     * 
+     * @param fileName nome del file per salvare i dati
+     * @param options modalità, politica di fsync, compattazione e write-behind
+     */
+    public TaskStorage(String fileName, StorageOptions options) {
         this.fileName = fileName;
+        this.mode = options.getMode();
+        this.bloomFalsePositiveRate = options.getBloomFalsePositiveRate();
         
         // Crea la directory se non esiste
         try {
@@ -38,7 +116,45 @@ public class TaskStorage {
             System.err.println("⚠️  Errore creazione directory: " + e.getMessage());
         }
         
-        loadFromFile();
+        this.log = mode == StorageMode.APPEND_LOG
+                ? new TaskLog(Paths.get("data", baseName() + ".log"),
+                        options.getFsyncPolicy(), options.getFsyncIntervalMillis())
+                : null;
+        this.compactor = log != null
+                ? new LogCompactor(log, dataFile(), this::writeSnapshot)
+                : null;
+        if (compactor != null) {
+            compactor.setThresholds(options.getCompactionMinLogBytes(), options.getCompactionRatio());
+        }
+        
+        if (mode == StorageMode.MAPPED) {
+            openSnapshot();
+        } else {
+            loadFromFile();
+        }
+        if (log != null) {
+            // Un log archiviato esiste solo se una compattazione non si è conclusa
+            replayLog(new TaskLog(compactor.archivedLog()));
+            replayLog(log);
+        }
+        
+        // Avviata dopo il caricamento, così il thread non vede una cache parziale
+        this.writeBehind = options.isWriteBehind()
+                ? new WriteBehindQueue(options.getWriteBehindCapacity(), this::persistBatch)
+                : null;
+        
+        // Le modifiche sul posto sotto DIRTY_BATCH_SIZE arrivano su disco entro un intervallo di fsync
+        long interval = options.getFsyncIntervalMillis();
+        if (interval > 0) {
+            this.dirtyFlusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "storage-dirty-flush");
+                thread.setDaemon(true);
+                return thread;
+            });
+            dirtyFlusher.scheduleWithFixedDelay(this::persistChangesQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            this.dirtyFlusher = null;
+        }
     }
     
     /**
@@ -46,12 +162,213 @@ public class TaskStorage {
      * 
      * @param component il componente da salvare
      */
+    @Override
     public void save(TaskComponent component) {
         if (component == null) {
             throw new IllegalArgumentException("Il componente non può essere null");
         }
-        cache.put(component.getId(), component);
-        saveToFile();
+        // Tolto prima di leggere i campi: una modifica successiva lo segna di nuovo
+        dirty.remove(component.getId());
+        write(component, () -> {
+            cachePut(component);
+            return true;
+        });
+    }
+    
+    /**
+     * Modifica un task con controllo ottimistico della versione. La modifica avviene
+     * su una copia, fuori da ogni lock; la copia prende il posto del task in cache con
+     * un compare-and-set sul solo ID, quindi aggiornamenti di task diversi procedono
+     * in parallelo e due aggiornamenti dello stesso task non si sovrascrivono.
+     * 
+     * @param id ID del task
+     * @param expectedVersion la versione letta prima della modifica
+     * @param mutator la modifica, applicata a una copia del task
+     * @return il task aggiornato, o null se non esiste
+     * @throws ConcurrentModificationException se il task è cambiato o è stato eliminato dopo la lettura
+     */
+    @Override
+    public Task update(String id, long expectedVersion, Consumer<? super Task> mutator) {
+        if (mutator == null) {
+            throw new IllegalArgumentException("La modifica non può essere null");
+        }
+        if (!(findById(id) instanceof Task current)) {
+            return null;
+        }
+        if (current.getVersion() != expectedVersion) {
+            throw versionConflict(id, expectedVersion);
+        }
+        Task updated = current.copy();
+        mutator.accept(updated);
+        if (updated.getVersion() == expectedVersion) {
+            return current; // Nessun setter chiamato, non c'è niente da scrivere
+        }
+        if (!write(updated, () -> cacheReplace(updated, current, expectedVersion))) {
+            throw versionConflict(id, expectedVersion);
+        }
+        return updated;
+    }
+    
+    /**
+     * Le versioni sono quelle delle istanze in cache
+     * 
+     * @return sempre true
+     */
+    @Override
+    public boolean supportsVersionedUpdate() {
+        return true;
+    }
+    
+    /**
+     * Modifica tutti i task che soddisfano un filtro con una sola scrittura. Ogni task
+     * passa dallo stesso compare-and-set di update(): un task cambiato da un altro thread
+     * tra la lettura e la scrittura viene riletto e, se soddisfa ancora il filtro,
+     * modificato di nuovo, così nessun aggiornamento concorrente viene perso.
+     * 
+     * @param filter i task da modificare
+     * @param mutator la modifica, applicata a una copia di ogni task
+     * @return i task aggiornati
+     */
+    @Override
+    public List<Task> updateWhere(Predicate<? super Task> filter, Consumer<? super Task> mutator) {
+        if (filter == null || mutator == null) {
+            throw new IllegalArgumentException("Filtro e modifica non possono essere null");
+        }
+        List<Task> updated = new ArrayList<>();
+        List<Task> candidates = findAllTasks();
+        while (!candidates.isEmpty()) {
+            List<Replacement> replacements = new ArrayList<>();
+            for (Task current : candidates) {
+                if (filter.test(current)) {
+                    Task copy = current.copy();
+                    long version = copy.getVersion();
+                    mutator.accept(copy);
+                    if (copy.getVersion() != version) {
+                        replacements.add(new Replacement(copy, current, version));
+                    }
+                }
+            }
+            List<Replacement> conflicts = writeReplacements(replacements, updated);
+            candidates = new ArrayList<>(conflicts.size());
+            for (Replacement conflict : conflicts) {
+                if (cache.get(conflict.expected().getId()) instanceof Task current) {
+                    candidates.add(current);
+                }
+            }
+        }
+        return updated;
+    }
+    
+    /**
+     * Mette in cache le copie aggiornate con il compare-and-set e scrive quelle
+     * entrate con una sola riscrittura o un solo commit del log
+     * 
+     * @param replacements le copie da mettere in cache
+     * @param written riceve le copie entrate in cache
+     * @return le sostituzioni fallite perché il task era cambiato nel frattempo
+     */
+    private List<Replacement> writeReplacements(List<Replacement> replacements, List<Task> written) {
+        List<Replacement> conflicts = new ArrayList<>();
+        if (replacements.isEmpty()) {
+            return conflicts;
+        }
+        materializeSnapshot();
+        
+        if (writeBehind != null) {
+            synchronized (writeOrder) {
+                for (Replacement replacement : replacements) {
+                    if (cacheReplace(replacement.updated(), replacement.expected(), replacement.expectedVersion())) {
+                        written.add(replacement.updated());
+                        writeBehind.enqueue(log != null ? formatTask(replacement.updated()) : null);
+                    } else {
+                        conflicts.add(replacement);
+                    }
+                }
+            }
+            return conflicts;
+        }
+        if (log == null) {
+            for (Replacement replacement : replacements) {
+                if (cacheReplace(replacement.updated(), replacement.expected(), replacement.expectedVersion())) {
+                    written.add(replacement.updated());
+                } else {
+                    conflicts.add(replacement);
+                }
+            }
+            if (conflicts.size() < replacements.size()) {
+                saveToFile();
+            }
+            return conflicts;
+        }
+        
+        long seq = 0;
+        synchronized (log) {
+            for (Replacement replacement : replacements) {
+                if (cacheReplace(replacement.updated(), replacement.expected(), replacement.expectedVersion())) {
+                    written.add(replacement.updated());
+                    seq = log.append(formatTask(replacement.updated()));
+                } else {
+                    conflicts.add(replacement);
+                }
+            }
+        }
+        if (seq > 0) {
+            commitLog(seq);
+            compactor.maybeCompact(cache);
+        }
+        return conflicts;
+    }
+    
+    /**
+     * Mette un componente in cache con cacheUpdate e lo scrive su disco
+     * nello stesso ordine in cui i thread hanno aggiornato la cache
+     * 
+     * @param component il componente da scrivere
+     * @param cacheUpdate aggiorna la cache; se restituisce false non viene scritto nulla
+     * @return il risultato di cacheUpdate
+     */
+    private boolean write(TaskComponent component, BooleanSupplier cacheUpdate) {
+        materializeSnapshot();
+        String record = log != null && component instanceof Task task ? formatTask(task) : null;
+        
+        if (writeBehind != null) {
+            // La cache è aggiornata subito, il disco dal thread write-behind
+            synchronized (writeOrder) {
+                if (!cacheUpdate.getAsBoolean()) {
+                    return false;
+                }
+                writeBehind.enqueue(record);
+            }
+            return true;
+        }
+        if (log == null) {
+            if (!cacheUpdate.getAsBoolean()) {
+                return false;
+            }
+            saveToFile();
+            return true;
+        }
+        
+        // Cache e log aggiornati insieme, così il taglio della compattazione resta coerente
+        long seq = 0;
+        synchronized (log) {
+            if (!cacheUpdate.getAsBoolean()) {
+                return false;
+            }
+            if (record != null) {
+                seq = log.append(record);
+            }
+        }
+        // Il commit avviene fuori dal lock: i thread concorrenti finiscono nello stesso batch
+        commitLog(seq);
+        compactor.maybeCompact(cache);
+        return true;
+    }
+    
+    private ConcurrentModificationException versionConflict(String id, long expectedVersion) {
+        TaskComponent now = cache.get(id);
+        return new ConcurrentModificationException("Il task " + id + " è stato modificato da un'altra operazione: versione attesa "
+                + expectedVersion + ", attuale " + (now instanceof Task task ? task.getVersion() : "eliminato"));
     }
     
     /**
@@ -60,11 +377,16 @@ public class TaskStorage {
      * @param id l'ID da cercare
      * @return il componente se trovato, altrimenti null
      */
+    @Override
     public TaskComponent findById(String id) {
         if (id == null || id.trim().isEmpty()) {
             return null;
         }
-        return cache.get(id);
+        TaskComponent component = cache.get(id);
+        if (component == null && snapshot != null) {
+            component = loadFromSnapshot(id);
+        }
+        return component;
     }
     
     /**
@@ -72,7 +394,9 @@ public class TaskStorage {
      * 
      * @return lista di tutti i componenti
      */
+    @Override
     public List<TaskComponent> findAll() {
+        materializeSnapshot();
         return new ArrayList<>(cache.values());
     }
     
@@ -81,86 +405,846 @@ public class TaskStorage {
      * 
      * @return lista di tutti i Task
      */
+    @Override
     public List<Task> findAllTasks() {
+        materializeSnapshot();
         return cache.values().stream()  // Stream API
                 .filter(c -> c instanceof Task)  // Lambda expression
                 .map(c -> (Task) c)  // Cast
                 .toList();  // Java 16+ toList()
     }
     
+    /**
+     * Scorre i task della cache senza copiarli tutti in una lista.
+     * Con lo snapshot mappato scorre l'indice degli ID e decodifica solo i record
+     * raggiunti dallo stream; se nel frattempo lo snapshot viene caricato per intero,
+     * gli ID successivi si leggono dalla cache.
+     * 
+     * @return lo stream dei task
+     */
+    @Override
+    public Stream<Task> streamTasks() {
+        MappedSnapshot current = snapshot;
+        if (current != null) {
+            return current.ids()
+                    .map(this::findById)
+                    .filter(Task.class::isInstance)
+                    .map(Task.class::cast);
+        }
+        return cache.streamValues()
+                .filter(Task.class::isInstance)
+                .map(Task.class::cast);
+    }
+    
+    /**
+     * Restituisce una pagina di task in ordine di ID, scorrendo il trie degli ID
+     * da afterId in poi. I progetti vengono saltati, chiedendo al trie altri ID
+     * finché la pagina non è piena. Con lo snapshot mappato gli ID vengono
+     * dall'indice ordinato del file e si decodificano solo i task della pagina.
+     * 
+     * @param afterId l'ID dell'ultimo task della pagina precedente, null per la prima pagina
+     * @param limit numero massimo di task restituiti
+     * @return i task della pagina
+     */
+    @Override
+    public List<Task> page(String afterId, int limit) {
+        MappedSnapshot current = snapshot;
+        if (current != null) {
+            List<Task> page = pageFromSnapshot(current, afterId, limit);
+            // Ogni scrittura carica prima lo snapshot per intero: se è ancora lo stesso, la pagina è aggiornata
+            if (snapshot == current) {
+                return page;
+            }
+        }
+        materializeSnapshot();
+        List<Task> page = new ArrayList<>();
+        String cursor = afterId;
+        while (page.size() < limit) {
+            List<String> ids = idTrie.findAfter(cursor, limit - page.size());
+            if (ids.isEmpty()) {
+                break;
+            }
+            for (String id : ids) {
+                if (cache.get(id) instanceof Task task) {
+                    page.add(task);
+                }
+            }
+            cursor = ids.get(ids.size() - 1);
+        }
+        return page;
+    }
+    
+    /**
+     * Compone una pagina dall'indice dello snapshot mappato. Finché lo snapshot è
+     * mappato la cache contiene solo componenti già decodificati dallo snapshot,
+     * quindi si prende dalla cache ciò che c'è e si decodifica il resto.
+     * 
+     * @param current lo snapshot mappato
+     * @param afterId l'ID dell'ultimo task della pagina precedente, null per la prima pagina
+     * @param limit numero massimo di task restituiti
+     * @return i task della pagina
+     */
+    private List<Task> pageFromSnapshot(MappedSnapshot current, String afterId, int limit) {
+        List<Task> page = new ArrayList<>();
+        String cursor = afterId;
+        while (page.size() < limit) {
+            List<String> ids = current.idsAfter(cursor, limit - page.size());
+            if (ids.isEmpty()) {
+                break;
+            }
+            for (String id : ids) {
+                if (findById(id) instanceof Task task) {
+                    page.add(task);
+                }
+            }
+            cursor = ids.get(ids.size() - 1);
+        }
+        return page;
+    }
+    
     /**
      * Trova tutti i Project
      * 
      * @return lista di tutti i Project
      */
+    @Override
     public List<Project> findAllProjects() {
+        materializeSnapshot();
         return cache.values().stream()
                 .filter(Project.class::isInstance)  // Method reference
                 .map(Project.class::cast)
                 .toList();
     }
     
+    /**
+     * Trova i task con uno stato usando l'indice secondario, senza scorrere la cache
+     * 
+     * @param status lo stato cercato
+     * @return i task con quello stato
+     */
+    @Override
+    public List<Task> findTasksByStatus(TaskStatus status) {
+        return findTasks(EnumSet.of(status), null);
+    }
+    
+    /**
+     * Trova i task con una priorità usando l'indice secondario, senza scorrere la cache
+     * 
+     * @param priority la priorità cercata
+     * @return i task con quella priorità
+     */
+    @Override
+    public List<Task> findTasksByPriority(TaskPriority priority) {
+        return findTasks(null, EnumSet.of(priority));
+    }
+    
+    /**
+     * Trova i task con uno degli stati e una delle priorità indicate,
+     * con un OR delle bitmap di ogni attributo e un AND tra gli attributi
+     * 
+     * @param statuses gli stati ammessi, null o vuoto per tutti
+     * @param priorities le priorità ammesse, null o vuoto per tutte
+     * @return i task che soddisfano il filtro
+     */
+    @Override
+    public List<Task> findTasks(Collection<TaskStatus> statuses, Collection<TaskPriority> priorities) {
+        materializeSnapshot();
+        return resolveIndexed(attributeIndex.query(statuses, priorities),
+                task -> TaskAttributeIndex.matches(task, statuses, priorities));
+    }
+    
+    /**
+     * Conta i task per stato dalle cardinalità delle bitmap, senza scorrere la cache
+     * 
+     * @return numero di task per ogni stato
+     */
+    @Override
+    public Map<TaskStatus, Integer> countTasksByStatus() {
+        materializeSnapshot();
+        return attributeIndex.countByStatus();
+    }
+    
+    /**
+     * Conta i task per priorità dalle cardinalità delle bitmap, senza scorrere la cache
+     * 
+     * @return numero di task per ogni priorità
+     */
+    @Override
+    public Map<TaskPriority, Integer> countTasksByPriority() {
+        materializeSnapshot();
+        return attributeIndex.countByPriority();
+    }
+    
+    /**
+     * Trova gli ID con un prefisso nel radix trie, con un costo che dipende dal
+     * prefisso e dagli ID trovati, non dal numero di componenti
+     * 
+     * @param prefix il prefisso
+     * @param limit numero massimo di ID restituiti
+     * @return gli ID trovati, in ordine alfabetico
+     */
+    @Override
+    public List<String> findIdsByPrefix(String prefix, int limit) {
+        if (prefix == null) {
+            return List.of();
+        }
+        materializeSnapshot();
+        return idTrie.findByPrefix(prefix, limit);
+    }
+    
     /**
      * Elimina un componente
      * 
      * @param id ID del componente da eliminare
      * @return true se eliminato, false se non trovato
      */
+    @Override
     public boolean delete(String id) {
         if (id == null || id.trim().isEmpty()) {
             return false;
         }
+        materializeSnapshot();
+        
+        if (writeBehind != null) {
+            synchronized (writeOrder) {
+                if (cacheRemove(id) == null) {
+                    return false;
+                }
+                writeBehind.enqueue(log != null ? DELETE_RECORD + "|" + id : null);
+                return true;
+            }
+        }
+        if (log == null) {
+            boolean removed = cacheRemove(id) != null;
+            if (removed) {
+                saveToFile();
+            }
+            return removed;
+        }
         
-        boolean removed = cache.remove(id) != null;
+        long seq = 0;
+        synchronized (log) {
+            if (cacheRemove(id) != null) {
+                seq = log.append(DELETE_RECORD + "|" + id);
+            }
+        }
+        boolean removed = seq > 0;
         if (removed) {
-            saveToFile();
+            commitLog(seq);
+            compactor.maybeCompact(cache);
         }
         return removed;
     }
     
     /**
-     * Salva tutto su file di testo semplice
+     * Salva più componenti con una sola scrittura: una riscrittura del file
+     * in modalità snapshot, un solo commit del log in modalità APPEND_LOG
+     * 
+     * @param components i componenti da salvare
+     */
+    @Override
+    public void saveAll(Collection<? extends TaskComponent> components) {
+        if (components == null) {
+            throw new IllegalArgumentException("Il componente non può essere null");
+        }
+        for (TaskComponent component : components) {
+            if (component == null) {
+                throw new IllegalArgumentException("Il componente non può essere null");
+            }
+        }
+        if (components.isEmpty()) {
+            return;
+        }
+        for (TaskComponent component : components) {
+            dirty.remove(component.getId());
+        }
+        materializeSnapshot();
+        
+        if (writeBehind != null) {
+            synchronized (writeOrder) {
+                for (TaskComponent component : components) {
+                    cachePut(component);
+                    writeBehind.enqueue(log != null && component instanceof Task task ? formatTask(task) : null);
+                }
+            }
+            return;
+        }
+        if (log == null) {
+            for (TaskComponent component : components) {
+                cachePut(component);
+            }
+            saveToFile();
+            return;
+        }
+        
+        long seq = 0;
+        synchronized (log) {
+            for (TaskComponent component : components) {
+                cachePut(component);
+                if (component instanceof Task task) {
+                    seq = log.append(formatTask(task));
+                }
+            }
+        }
+        commitLog(seq);
+        compactor.maybeCompact(cache);
+    }
+    
+    /**
+     * Elimina più componenti con una sola scrittura
+     * 
+     * @param ids gli ID dei componenti da eliminare
+     * @return numero di componenti eliminati
+     */
+    @Override
+    public int deleteAll(Collection<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        materializeSnapshot();
+        
+        int deleted = 0;
+        if (writeBehind != null) {
+            synchronized (writeOrder) {
+                for (String id : ids) {
+                    if (id != null && cacheRemove(id) != null) {
+                        writeBehind.enqueue(log != null ? DELETE_RECORD + "|" + id : null);
+                        deleted++;
+                    }
+                }
+            }
+            return deleted;
+        }
+        if (log == null) {
+            for (String id : ids) {
+                if (id != null && cacheRemove(id) != null) {
+                    deleted++;
+                }
+            }
+            if (deleted > 0) {
+                saveToFile();
+            }
+            return deleted;
+        }
+        
+        long seq = 0;
+        synchronized (log) {
+            for (String id : ids) {
+                if (id != null && cacheRemove(id) != null) {
+                    seq = log.append(DELETE_RECORD + "|" + id);
+                    deleted++;
+                }
+            }
+        }
+        if (deleted > 0) {
+            commitLog(seq);
+            compactor.maybeCompact(cache);
+        }
+        return deleted;
+    }
+    
+    /**
+     * Salva tutto su file, di testo o binario a seconda della modalità.
+     * La cache viene letta sotto il lock del file: chi riscrive per ultimo
+     * vede tutte le modifiche già in cache, quindi un thread in ritardo non
+     * può sovrascrivere il file con una vista più vecchia.
      */
     private void saveToFile() {
         try {
-            Path filePath = Paths.get("data", fileName.replace(".json", ".txt"));
-            try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(filePath))) {
-                writer.println("# Task Manager Data File");
-                writer.println("# Generato il: " + new Date());
-                writer.println();
-                
-                for (TaskComponent component : cache.values()) {
-                    if (component instanceof Task task) {
-                        writer.printf("TASK|%s|%s|%s|%s|%s%n", 
-                            task.getId(), 
-                            task.getTitle().replace("|", "\\|"), 
-                            task.getDescription() != null ? task.getDescription().replace("|", "\\|") : "",
-                            task.getStatus(),
-                            task.getPriority()
-                        );
+            synchronized (fileLock) {
+                writeDataFile(cache.values());
+            }
+        } catch (IOException e) {
+            System.err.println("❌ Errore durante il salvataggio: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Scrive un batch di modifiche dal thread write-behind.
+     * In modalità snapshot basta una sola riscrittura per tutto il batch.
+     * 
+     * @param records i record di log del batch (null per le modifiche senza record)
+     * @throws IOException se la scrittura fallisce
+     */
+    private void persistBatch(List<String> records) throws IOException {
+        if (log == null) {
+            synchronized (fileLock) {
+                writeDataFile(cache.values());
+            }
+            return;
+        }
+        long seq = 0;
+        for (String record : records) {
+            if (record != null) {
+                seq = log.append(record);
+            }
+        }
+        if (seq > 0) {
+            log.commit(seq);
+            compactor.maybeCompact(cache);
+        }
+    }
+    
+    /**
+     * Riscrive il file dati nel formato della modalità corrente
+     * 
+     * @param components i componenti da salvare
+     * @throws IOException se la scrittura fallisce
+     */
+    private void writeDataFile(Collection<TaskComponent> components) throws IOException {
+        synchronized (fileLock) {
+            if (mode == StorageMode.MAPPED) {
+                MappedSnapshot.write(snapshotFile(), components, bloomFalsePositiveRate);
+            } else {
+                writeSnapshot(dataFile(), components);
+            }
+        }
+    }
+    
+    /**
+     * Scrive i componenti su un file, in JSON o testo secondo l'estensione del file dati.
+     * Il file viene sostituito con una rename da un file temporaneo proprio di
+     * questa scrittura; le riscritture dello stesso storage sono serializzate.
+     * 
+     * @param filePath il file da scrivere
+     * @param components i componenti da salvare
+     * @throws IOException se la scrittura fallisce
+     */
+    private void writeSnapshot(Path filePath, Collection<TaskComponent> components) throws IOException {
+        synchronized (fileLock) {
+            if (isJson()) {
+                JsonTaskFile.write(filePath, components);
+                return;
+            }
+            Path tmp = Files.createTempFile(filePath.toAbsolutePath().getParent(), filePath.getFileName() + ".", ".tmp");
+            try {
+                try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(tmp))) {
+                    writer.println("# Task Manager Data File");
+                    writer.println("# Generato il: " + new Date());
+                    writer.println();
+                    
+                    for (TaskComponent component : components) {
+                        if (component instanceof Task task) {
+                            writer.println(formatTask(task));
+                        }
                     }
                 }
+                LogCompactor.moveAtomically(tmp, filePath);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        }
+    }
+    
+    /**
+     * Formatta un task come riga del file di testo.
+     * Stato e priorità sono scritti con il nome della costante, le date come nanosecondi dall'epoch,
+     * così la riga si rilegge senza perdere dati.
+     * 
+     * @param task il task da formattare
+     * @return la riga corrispondente
+     */
+    private static String formatTask(Task task) {
+        StringBuilder line = new StringBuilder(64).append("TASK|");
+        appendEscaped(line, task.getId()).append('|');
+        appendEscaped(line, task.getTitle()).append('|');
+        appendEscaped(line, task.getDescription() != null ? task.getDescription() : "").append('|');
+        line.append(task.getStatus().name()).append('|')
+            .append(task.getPriority().name()).append('|')
+            .append(RecordCodec.toEpochNanos(task.getCreatedAt())).append('|')
+            .append(RecordCodec.toEpochNanos(task.getUpdatedAt()));
+        return line.toString();
+    }
+    
+    /**
+     * Aggiunge un campo facendo l'escape di separatori, backslash e a capo
+     * 
+     * @param line la riga in costruzione
+     * @param value il valore del campo
+     * @return la riga, per concatenare le chiamate
+     */
+    private static StringBuilder appendEscaped(StringBuilder line, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '|', '\\' -> line.append('\\').append(c);
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                default -> line.append(c);
             }
+        }
+        return line;
+    }
+    
+    /**
+     * Rende persistente un record del log secondo la politica di fsync
+     * 
+     * @param seq numero di sequenza del record, 0 se non c'è nulla da scrivere
+     */
+    private void commitLog(long seq) {
+        if (seq == 0) {
+            return;
+        }
+        try {
+            log.commit(seq);
         } catch (IOException e) {
-            System.err.println("❌ Errore durante il salvataggio: " + e.getMessage());
+            System.err.println("❌ Errore durante la scrittura del log: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Rilegge un log e applica i record alla cache, dopo il file dati
+     * 
+     * @param source il log da rileggere
+     */
+    private void replayLog(TaskLog source) {
+        try {
+            long records = source.replay(this::applyLogRecord);
+            if (records > 0) {
+                System.out.println("✅ Log rieseguito: " + records + " record");
+            }
+        } catch (IOException e) {
+            System.err.println("⚠️  Errore durante la lettura del log: " + e.getMessage());
         }
     }
     
     /**
-     * Carica i dati dal file di testo
+     * Registra un indice esterno e gli passa i componenti già in cache.
+     * Ogni componente passa da computeIfPresent, quindi una modifica concorrente
+     * dello stesso ID arriva all'indice dopo la versione caricata qui e non prima.
+     * 
+     * @param index l'indice da tenere aggiornato
+     */
+    @Override
+    public void addIndex(ComponentIndex index) {
+        materializeSnapshot();
+        indexes.add(index);
+        for (String id : cache.keySet()) {
+            cache.computeIfPresent(id, (key, component) -> {
+                index.update(component);
+                return component;
+            });
+        }
+    }
+    
+    /**
+     * Mette un componente in cache e aggiorna l'indice secondario.
+     * compute() serializza gli aggiornamenti dello stesso ID, quindi cache e indice restano allineati.
+     * 
+     * @param component il componente da mettere in cache
+     */
+    private void cachePut(TaskComponent component) {
+        cache.compute(component.getId(), (id, previous) -> {
+            if (previous == null) {
+                idTrie.add(id);
+            } else if (previous != component) {
+                previous.setChangeListener(null); // L'istanza sostituita non è più quella da salvare
+            }
+            component.setChangeListener(changeListener);
+            attributeIndex.update(component);
+            indexes.updated(component);
+            return component;
+        });
+    }
+    
+    /**
+     * Sostituisce in cache un task con la sua copia aggiornata, solo se in cache
+     * c'è ancora la stessa istanza alla versione attesa
+     * 
+     * @param updated la copia aggiornata
+     * @param expected l'istanza da cui è stata fatta la copia
+     * @param expectedVersion la versione di expected al momento della copia
+     * @return true se la copia è entrata in cache
+     */
+    private boolean cacheReplace(Task updated, Task expected, long expectedVersion) {
+        boolean[] replaced = new boolean[1];
+        cache.computeIfPresent(updated.getId(), (id, current) -> {
+            // Una modifica sul posto di expected dopo la copia ne cambia la versione
+            if (current != expected || expected.getVersion() != expectedVersion) {
+                return current;
+            }
+            expected.setChangeListener(null);
+            updated.setChangeListener(changeListener);
+            dirty.remove(id);
+            attributeIndex.update(updated);
+            indexes.updated(updated);
+            replaced[0] = true;
+            return updated;
+        });
+        return replaced[0];
+    }
+    
+    /**
+     * Mette un componente in cache durante il caricamento parallelo, senza toccare
+     * gli indici: toccano solo il segmento della cache, quindi i thread non si attendono
+     * 
+     * @param component il componente letto
+     */
+    private void cacheLoad(TaskComponent component) {
+        component.setChangeListener(changeListener);
+        TaskComponent previous = cache.put(component.getId(), component);
+        if (previous != null && previous != component) {
+            previous.setChangeListener(null);
+        }
+    }
+    
+    /**
+     * Riempie gli indici con i componenti in cache, dopo un caricamento fatto con cacheLoad()
+     */
+    private void rebuildIndexes() {
+        cache.forEach((id, component) -> {
+            idTrie.add(id);
+            attributeIndex.update(component);
+            indexes.updated(component);
+        });
+    }
+    
+    /**
+     * Mette un componente in cache solo se l'ID non c'è già
+     * 
+     * @param component il componente letto dallo snapshot
+     * @return il componente in cache per quell'ID
+     */
+    private TaskComponent cacheIfAbsent(TaskComponent component) {
+        return cache.computeIfAbsent(component.getId(), id -> {
+            idTrie.add(id);
+            component.setChangeListener(changeListener);
+            attributeIndex.update(component);
+            indexes.updated(component);
+            return component;
+        });
+    }
+    
+    /**
+     * Toglie un componente dalla cache e dall'indice secondario
+     * 
+     * @param id l'ID del componente
+     * @return il componente tolto, o null se non c'era
+     */
+    private TaskComponent cacheRemove(String id) {
+        TaskComponent[] removed = new TaskComponent[1];
+        cache.computeIfPresent(id, (key, previous) -> {
+            idTrie.remove(key);
+            attributeIndex.remove(key);
+            indexes.removed(key);
+            dirty.remove(key);
+            previous.setChangeListener(null);
+            removed[0] = previous;
+            return null;
+        });
+        return removed[0];
+    }
+    
+    /**
+     * Segna come da salvare un componente modificato sul posto e aggiorna subito gli indici,
+     * così le ricerche vedono il valore nuovo anche prima che arrivi su disco.
+     * Raggiunto DIRTY_BATCH_SIZE, le modifiche accumulate vengono scritte insieme
+     * fuori dal thread del setter: con il write-behind basta accodarle, altrimenti
+     * la scrittura (riscrittura del file o commit del log) parte in background.
+     * Sotto quella soglia le salva dirtyFlusher entro un intervallo di fsync.
+     * 
+     * @param component il componente modificato
+     */
+    private void markDirty(TaskComponent component) {
+        String id = component.getId();
+        // Un componente tolto o sostituito in cache non conta più: conta solo quello in cache
+        TaskComponent cached = cache.computeIfPresent(id, (key, current) -> {
+            attributeIndex.update(current);
+            indexes.updated(current);
+            return current;
+        });
+        if (cached == null || !dirty.add(id) || dirty.size() < DIRTY_BATCH_SIZE) {
+            return;
+        }
+        if (writeBehind != null) {
+            persistChanges();
+        } else if (dirtyFlushScheduled.compareAndSet(false, true)) {
+            dirtyFlush = CompletableFuture.runAsync(() -> {
+                // Le modifiche arrivate durante la scrittura possono avviarne un'altra
+                dirtyFlushScheduled.set(false);
+                persistChanges();
+            }, ForkJoinPool.commonPool());
+        }
+    }
+    
+    /**
+     * Attende la fine del salvataggio in background avviato da markDirty
+     */
+    private void awaitDirtyFlush() {
+        try {
+            dirtyFlush.join();
+        } catch (CompletionException e) {
+            System.err.println("❌ Errore durante il salvataggio delle modifiche: " + e.getCause().getMessage());
+        }
+    }
+    
+    /**
+     * Salva i componenti modificati sul posto dall'ultima volta, con una sola
+     * scrittura: in modalità APPEND_LOG vengono aggiunti al log solo i record cambiati
+     * 
+     * @return numero di componenti salvati
+     */
+    public int persistChanges() {
+        List<TaskComponent> changed = new ArrayList<>();
+        for (String id : dirty) {
+            TaskComponent component = cache.get(id);
+            // remove() decide quale thread salva l'ID, se più thread svuotano l'insieme insieme
+            if (dirty.remove(id) && component != null) {
+                changed.add(component);
+            }
+        }
+        saveAll(changed);
+        return changed.size();
+    }
+    
+    /**
+     * Salva le modifiche sul posto dal thread dirtyFlusher.
+     * Un errore non deve fermare i salvataggi dei giri successivi.
+     */
+    private void persistChangesQuietly() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        try {
+            persistChanges();
+        } catch (RuntimeException e) {
+            System.err.println("❌ Errore durante il salvataggio delle modifiche: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Segue le modifiche sul posto dei task in cache e le salva da solo
+     * 
+     * @return sempre true
+     */
+    @Override
+    public boolean tracksChanges() {
+        return true;
+    }
+    
+    /**
+     * Restituisce il numero di componenti modificati sul posto e non ancora salvati
+     * 
+     * @return numero di componenti da salvare
+     */
+    public int getDirtyCount() {
+        return dirty.size();
+    }
+    
+    /**
+     * Risolve gli ID di un indice nei task in cache. Un task modificato sul posto
+     * tra la lettura dell'indice e questa è ancora registrato con i valori vecchi:
+     * il controllo sul valore attuale lo esclude dal risultato.
+     * 
+     * @param ids gli ID trovati nell'indice
+     * @param matches condizione sul valore attuale del task
+     * @return i task che soddisfano la condizione
+     */
+    private List<Task> resolveIndexed(List<String> ids, Predicate<Task> matches) {
+        List<Task> tasks = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            if (cache.get(id) instanceof Task task && matches.test(task)) {
+                tasks.add(task);
+            }
+        }
+        return tasks;
+    }
+    
+    /**
+     * Applica un record del log alla cache
+     * 
+     * @param record il record da applicare
+     */
+    private void applyLogRecord(String record) {
+        if (record.startsWith(DELETE_RECORD + "|")) {
+            cacheRemove(record.substring(DELETE_RECORD.length() + 1));
+        } else {
+            parseLine(record);
+        }
+    }
+    
+    /**
+     * Restituisce il percorso del file dati, in JSON o testo secondo l'estensione
+     * 
+     * @return percorso del file dati
+     */
+    private Path dataFile() {
+        return Paths.get("data", fileName);
+    }
+    
+    /**
+     * Restituisce il percorso del file di testo usato dalle versioni precedenti per i file .json
+     * 
+     * @return percorso del vecchio file di testo
+     */
+    private Path legacyTextFile() {
+        return Paths.get("data", baseName() + ".txt");
+    }
+    
+    /**
+     * Indica se il file dati è in formato JSON
+     * 
+     * @return true se il nome del file termina con .json
+     */
+    private boolean isJson() {
+        return fileName.toLowerCase().endsWith(".json");
+    }
+    
+    /**
+     * Restituisce il percorso dello snapshot binario della modalità MAPPED
+     * 
+     * @return percorso del file .snap
+     */
+    private Path snapshotFile() {
+        return Paths.get("data", baseName() + ".snap");
+    }
+    
+    /**
+     * Restituisce il nome del file senza estensione
+     * 
+     * @return nome base del file
+     */
+    private String baseName() {
+        int dot = fileName.lastIndexOf('.');
+        return dot > 0 ? fileName.substring(0, dot) : fileName;
+    }
+    
+    /**
+     * Carica i dati dal file, JSON o di testo
      */
     private void loadFromFile() {
         try {
-            Path filePath = Paths.get("data", fileName.replace(".json", ".txt"));
+            Path filePath = dataFile();
+            boolean json = isJson();
+            boolean migrate = json && needsMigration(filePath);
+            if (migrate) {
+                // Le versioni precedenti salvavano i file .json come testo: si riparte da lì
+                filePath = legacyTextFile();
+                json = false;
+            }
             if (Files.exists(filePath)) {
                 cache.clear();
-                try (BufferedReader reader = Files.newBufferedReader(filePath)) {
-                    String line;
-                    while ((line = reader.readLine()) != null) {
+                idTrie.clear();
+                attributeIndex.clear();
+                indexes.cleared();
+                if (json) {
+                    JsonTaskFile.read(filePath, cache::get, this::cachePut);
+                } else {
+                    // Le righe sono indipendenti: si analizzano in parallelo direttamente nella cache.
+                    // Gli indici hanno un lock unico, quindi si riempiono dopo con una sola passata
+                    ParallelTextLoader.load(filePath, line -> {
                         if (!line.startsWith("#") && !line.trim().isEmpty()) {
-                            parseLine(line);
+                            Task task = parseTask(line);
+                            if (task != null) {
+                                cacheLoad(task);
+                            }
                         }
-                    }
+                    }, ForkJoinPool.commonPool());
+                    rebuildIndexes();
+                }
+                if (migrate) {
+                    writeSnapshot(dataFile(), cache.values());
+                    System.out.println("🔄 Dati migrati da " + filePath.getFileName() + " a " + fileName);
                 }
                 System.out.println("✅ Dati caricati dal file: " + fileName);
             } else {
@@ -172,23 +1256,173 @@ public class TaskStorage {
     }
     
     /**
-     * Analizza una riga del file e crea l'oggetto corrispondente
+     * Indica se il file JSON va ricreato dal vecchio file di testo: quando il testo
+     * esiste e il JSON manca, non è nel formato corrente (per esempio un file di una
+     * versione precedente rimasto accanto ai dati veri) o è più vecchio del testo
+     * 
+     * @param jsonFile il file JSON
+     * @return true se i dati vanno letti dal file di testo
+     * @throws IOException se le date dei file non sono leggibili
+     */
+    private boolean needsMigration(Path jsonFile) throws IOException {
+        Path textFile = legacyTextFile();
+        if (!Files.exists(textFile)) {
+            return false;
+        }
+        return !Files.exists(jsonFile)
+                || !JsonTaskFile.isCurrentFormat(jsonFile)
+                || Files.getLastModifiedTime(jsonFile).compareTo(Files.getLastModifiedTime(textFile)) < 0;
+    }
+    
+    /**
+     * Mappa in memoria lo snapshot binario senza decodificare i task.
+     * Se lo snapshot non esiste ancora si parte dal file dati.
+     */
+    private void openSnapshot() {
+        Path path = snapshotFile();
+        if (!Files.exists(path)) {
+            loadFromFile();
+            return;
+        }
+        try {
+            snapshot = MappedSnapshot.open(path);
+            System.out.println("✅ Snapshot mappato: " + snapshot.size() + " task");
+        } catch (IOException e) {
+            System.err.println("⚠️  Errore durante il caricamento: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Decodifica un task dallo snapshot mappato e lo mette in cache,
+     * così le chiamate successive restituiscono la stessa istanza
+     * 
+     * @param id l'ID da cercare
+     * @return il componente, o null se non presente
+     */
+    private TaskComponent loadFromSnapshot(String id) {
+        MappedSnapshot current = snapshot;
+        TaskComponent component = null;
+        if (current != null) {
+            try {
+                // I componenti di un progetto vengono caricati a loro volta su richiesta
+                component = current.find(id, this::findById);
+            } catch (IOException e) {
+                System.err.println("⚠️  Errore lettura snapshot: " + e.getMessage());
+            }
+        }
+        if (component == null) {
+            return cache.get(id);
+        }
+        synchronized (snapshotLock) {
+            if (snapshot != current) {
+                // Lo snapshot è stato caricato per intero nel frattempo e la cache è la fonte corretta
+                return cache.get(id);
+            }
+            return cacheIfAbsent(component);
+        }
+    }
+    
+    /**
+     * Decodifica in cache tutti i componenti dello snapshot ancora non caricati.
+     * Serve prima di ogni scrittura e di ogni scansione completa.
+     */
+    private void materializeSnapshot() {
+        if (snapshot == null) {
+            return;
+        }
+        synchronized (snapshotLock) {
+            MappedSnapshot current = snapshot;
+            if (current != null) {
+                try {
+                    current.forEach(cache::get, this::cacheIfAbsent);
+                } catch (IOException e) {
+                    System.err.println("⚠️  Errore lettura snapshot: " + e.getMessage());
+                }
+                snapshot = null;
+            }
+        }
+    }
+    
+    /**
+     * Analizza una riga del file e crea l'oggetto corrispondente.
+     * Accetta anche le righe dei file precedenti, con i nomi localizzati e senza date.
      * 
      * @param line la riga da analizzare
      */
     private void parseLine(String line) {
+        Task task = parseTask(line);
+        if (task != null) {
+            cachePut(task);
+        }
+    }
+    
+    /**
+     * Crea il task di una riga del file, senza metterlo in cache
+     * 
+     * @param line la riga da analizzare
+     * @return il task, o null se la riga non è un task valido
+     */
+    private Task parseTask(String line) {
         try {
-            String[] parts = line.split("\\|");
-            if (parts.length >= 5 && "TASK".equals(parts[0])) {
-                Task task = new Task(
-                    parts[2].replace("\\|", "|"), // title
-                    parts[3].replace("\\|", "|")  // description
+            List<String> parts = splitLine(line);
+            if (parts.size() >= 5 && "TASK".equals(parts.get(0))) {
+                LocalDateTime now = LocalDateTime.now();
+                return new Task(
+                    parts.get(1),
+                    parts.get(2), // title
+                    parts.get(3), // description
+                    parseEnum(TaskStatus.class, parts.get(4), TaskStatus.TODO),
+                    parts.size() > 5 ? parseEnum(TaskPriority.class, parts.get(5), TaskPriority.MEDIUM) : TaskPriority.MEDIUM,
+                    parts.size() > 6 ? RecordCodec.fromEpochNanos(Long.parseLong(parts.get(6))) : now,
+                    parts.size() > 7 ? RecordCodec.fromEpochNanos(Long.parseLong(parts.get(7))) : now
                 );
-                cache.put(parts[1], task);
             }
         } catch (Exception e) {
             System.err.println("⚠️  Errore parsing riga: " + line);
         }
+        return null;
+    }
+    
+    /**
+     * Divide una riga nei suoi campi senza espressioni regolari, togliendo l'escape
+     * 
+     * @param line la riga da dividere
+     * @return i campi della riga
+     */
+    private static List<String> splitLine(String line) {
+        List<String> fields = new ArrayList<>(8);
+        StringBuilder field = new StringBuilder();
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\\' && i + 1 < line.length()) {
+                char next = line.charAt(++i);
+                field.append(next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else if (c == '|') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+    
+    /**
+     * Converte il nome di una costante, o il suo nome localizzato dei file precedenti, nell'enum
+     * 
+     * @param type la classe dell'enum
+     * @param value il valore letto dal file
+     * @param fallback il valore da usare se non riconosciuto
+     * @return la costante corrispondente
+     */
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, E fallback) {
+        for (E constant : type.getEnumConstants()) {
+            if (constant.name().equals(value) || constant.toString().equals(value)) {
+                return constant;
+            }
+        }
+        return fallback;
     }
     
     /**
@@ -196,25 +1430,169 @@ public class TaskStorage {
      * 
      * @return numero di elementi
      */
+    @Override
     public int size() {
-        return cache.size();
+        // Finché lo snapshot è mappato la cache contiene solo task già presenti nello snapshot
+        MappedSnapshot current = snapshot;
+        return current != null ? current.size() : cache.size();
     }
-
+    
     /**
      * Stampa statistiche dello storage
      */
+    @Override
     public void printStats() {
         System.out.println("📊 STATISTICHE TASK STORAGE:");
         System.out.println("  Totale componenti: " + size());
         System.out.println("  Task: " + findAllTasks().size());
         System.out.println("  Progetti: " + findAllProjects().size());
         System.out.println("  File: " + fileName);
+        System.out.println("  Modalità: " + mode.getConfigName());
+        System.out.println("  Modifiche da salvare: " + dirty.size());
+        if (log != null) {
+            System.out.println("  Record nel log: " + log.getRecordCount());
+            System.out.println("  Dimensione log: " + log.sizeInBytes() + " byte");
+            System.out.println("  Fsync: " + log.getFsyncPolicy().getConfigName()
+                    + " (" + log.getBatchCount() + " batch, " + log.getForceCount() + " force)");
+            System.out.println("  Compattazioni: " + compactor.getCompactionCount());
+            System.out.println("  Ultima compattazione: " + compactor.getLastDurationMillis() + " ms");
+            System.out.println("  Byte recuperati: " + compactor.getTotalBytesReclaimed());
+        }
+        if (writeBehind != null) {
+            System.out.println("  Write-behind: " + writeBehind.getPendingCount() + " in attesa su "
+                    + writeBehind.getCapacity() + " (" + writeBehind.getBatchCount() + " batch, "
+                    + writeBehind.getFailedBatches() + " falliti)");
+        }
+    }
+    
+    /**
+     * Salva le modifiche fatte sul posto e attende che tutte le modifiche fatte finora siano su disco
+     */
+    @Override
+    public void flush() {
+        persistChanges();
+        awaitDirtyFlush();
+        try {
+            if (!awaitDurable(Long.MAX_VALUE, TimeUnit.NANOSECONDS) && writeBehind != null
+                    && writeBehind.getLastFailure() != null) {
+                System.err.println("❌ Modifiche non ancora su disco, la scrittura verrà riprovata: "
+                        + writeBehind.getLastFailure().getMessage());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Attende, al massimo per il timeout indicato, che tutte le modifiche
+     * fatte finora siano scritte e forzate su disco. Restituisce subito false
+     * se l'ultima scrittura del write-behind è fallita.
+     * 
+     * @param timeout tempo massimo di attesa
+     * @param unit unità del timeout
+     * @return true se le modifiche sono durevoli entro il timeout
+     * @throws InterruptedException se il thread viene interrotto
+     */
+    public boolean awaitDurable(long timeout, TimeUnit unit) throws InterruptedException {
+        if (writeBehind != null && !writeBehind.awaitPersisted(timeout, unit)) {
+            return false;
+        }
+        if (log != null) {
+            try {
+                log.flush();
+            } catch (IOException e) {
+                System.err.println("❌ Errore flush del log: " + e.getMessage());
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Imposta le soglie della compattazione automatica (solo in modalità APPEND_LOG)
+     * 
+     * @param minLogBytes dimensione minima del log in byte
+     * @param ratio rapporto minimo tra dimensione del log e del file dati
+     */
+    public void configureCompaction(long minLogBytes, double ratio) {
+        if (compactor != null) {
+            compactor.setThresholds(minLogBytes, ratio);
+        }
+    }
+    
+    /**
+     * Avvia subito una compattazione in background (solo in modalità APPEND_LOG)
+     * 
+     * @return future completato a fine compattazione
+     */
+    public Future<?> compact() {
+        if (compactor == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return compactor.compact(cache);
+    }
+    
+    /**
+     * Restituisce la modalità di persistenza
+     * 
+     * @return la modalità corrente
+     */
+    public StorageMode getMode() {
+        return mode;
+    }
+    
+    /**
+     * Indica se i task si leggono ancora dallo snapshot mappato, senza averlo caricato per intero
+     * 
+     * @return true se lo snapshot è mappato
+     */
+    boolean isSnapshotMapped() {
+        return snapshot != null;
     }
     
     /**
      * Svuota la cache
      */
+    @Override
     public void clear() {
-        cache.clear();
+        synchronized (snapshotLock) {
+            snapshot = null;
+            cache.clear();
+            idTrie.clear();
+            attributeIndex.clear();
+            indexes.cleared();
+            dirty.clear();
+        }
+    }
+    
+    /**
+     * Salva le modifiche fatte sul posto, scrive quelle ancora in coda e chiude le risorse aperte
+     */
+    @Override
+    public void close() {
+        if (dirtyFlusher != null) {
+            dirtyFlusher.shutdown();
+            try {
+                // Un salvataggio periodico in corso finisce prima che log e coda vengano chiusi
+                dirtyFlusher.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        persistChanges();
+        awaitDirtyFlush();
+        if (writeBehind != null) {
+            writeBehind.close();
+        }
+        if (compactor != null) {
+            compactor.close();
+        }
+        if (log != null) {
+            try {
+                log.close();
+            } catch (IOException e) {
+                System.err.println("⚠️  Errore chiusura log: " + e.getMessage());
+            }
+        }
     }
 }
\ No newline at end of file
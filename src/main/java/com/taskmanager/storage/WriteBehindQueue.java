@@ -0,0 +1,233 @@
+package com.taskmanager.storage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coda write-behind: le modifiche vengono accodate e un thread dedicato
+ * le porta su disco a batch. Quando la coda è piena enqueue() blocca
+ * il chiamante finché il thread di scrittura non libera spazio (backpressure).
+ * 
+ * Un batch che fallisce non conta come scritto: il thread lo riprova con
+ * attese crescenti finché non riesce, e intanto awaitPersisted() restituisce
+ * false invece di attendere. Solo alla chiusura, dopo CLOSE_RETRIES tentativi,
+ * il batch viene abbandonato con un messaggio di errore.
+ * 
+ * @param queue coda limitata delle modifiche in attesa
+ * @param writer chi scrive un batch di record su disco
+ * @param submittedSeq numero di sequenza dell'ultima modifica accodata
+ * @param persistedSeq numero di sequenza dell'ultima modifica scritta
+ */
+public class WriteBehindQueue implements AutoCloseable {
+    
+    /**
+     * Scrive un batch di record. I record null indicano modifiche senza
+     * record di log (es. in modalità snapshot basta riscrivere il file una volta).
+     * Dopo un errore lo stesso batch viene passato di nuovo, quindi riscriverlo
+     * non deve cambiare il risultato.
+     */
+    @FunctionalInterface
+    public interface BatchWriter {
+        void write(List<String> records) throws IOException;
+    }
+    
+    public static final int DEFAULT_CAPACITY = 10_000;
+    private static final int MAX_BATCH = 1_000;
+    private static final long RETRY_DELAY_MILLIS = 50;
+    private static final long MAX_RETRY_DELAY_MILLIS = 5_000;
+    private static final int CLOSE_RETRIES = 3;
+    
+    private record Mutation(long seq, String record) { }
+    private static final Mutation STOP = new Mutation(-1, null);
+    
+    private final BlockingQueue<Mutation> queue;
+    private final BatchWriter writer;
+    private final Thread thread;
+    // Assegna i numeri di sequenza nello stesso ordine della coda
+    private final Object submitLock = new Object();
+    private final Object progress = new Object();
+    
+    // Scritto sotto submitLock, letto senza lock per non attendere chi è bloccato in put()
+    private volatile long submittedSeq;
+    private long persistedSeq;
+    private volatile boolean closed;
+    // L'errore dell'ultimo tentativo, null dopo un batch riuscito
+    private volatile Exception failure;
+    
+    // Statistiche
+    private volatile long batchCount;
+    private volatile long failedBatches;
+    
+    /**
+     * Costruttore: avvia il thread di scrittura
+     * 
+     * @param capacity numero massimo di modifiche in attesa
+     * @param writer chi scrive i batch su disco
+     */
+    public WriteBehindQueue(int capacity, BatchWriter writer) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writer = writer;
+        this.thread = new Thread(this::run, "storage-write-behind");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+    
+    /**
+     * Accoda una modifica, bloccando se la coda è piena
+     * 
+     * @param record il record di log, o null se non serve
+     * @return numero di sequenza della modifica
+     */
+    public long enqueue(String record) {
+        synchronized (submitLock) {
+            if (closed) {
+                throw new IllegalStateException("Lo storage è stato chiuso");
+            }
+            long seq = submittedSeq + 1;
+            try {
+                queue.put(new Mutation(seq, record));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrotto in attesa di spazio nella coda", e);
+            }
+            submittedSeq = seq;
+            return seq;
+        }
+    }
+    
+    /**
+     * Loop del thread di scrittura
+     */
+    private void run() {
+        List<Mutation> batch = new ArrayList<>();
+        List<String> records = new ArrayList<>();
+        long lastSeq = 0;
+        int attempts = 0;
+        boolean stop = false;
+        while (!stop || !records.isEmpty()) {
+            if (records.isEmpty()) {
+                try {
+                    batch.add(queue.take());
+                } catch (InterruptedException e) {
+                    break;
+                }
+                queue.drainTo(batch, MAX_BATCH - 1);
+                for (Mutation mutation : batch) {
+                    if (mutation == STOP) {
+                        stop = true;
+                    } else {
+                        records.add(mutation.record());
+                        lastSeq = mutation.seq();
+                    }
+                }
+                batch.clear();
+                if (records.isEmpty()) {
+                    continue;
+                }
+            }
+            try {
+                writer.write(records);
+                batchCount++;
+                attempts = 0;
+                synchronized (progress) {
+                    failure = null;
+                    persistedSeq = lastSeq;
+                    progress.notifyAll();
+                }
+                records.clear();
+            } catch (Exception e) {
+                failedBatches++;
+                attempts++;
+                System.err.println("❌ Errore scrittura write-behind (tentativo " + attempts + "): " + e.getMessage());
+                synchronized (progress) {
+                    failure = e;
+                    progress.notifyAll();
+                }
+                if (closed && attempts >= CLOSE_RETRIES) {
+                    System.err.println("❌ Write-behind chiuso: " + records.size() + " modifiche non scritte");
+                    records.clear();
+                    attempts = 0;
+                    continue;
+                }
+                try {
+                    Thread.sleep(Math.min(MAX_RETRY_DELAY_MILLIS, RETRY_DELAY_MILLIS << Math.min(attempts - 1, 10)));
+                } catch (InterruptedException interrupted) {
+                    break;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Attende che tutte le modifiche accodate finora siano state scritte.
+     * Se l'ultimo tentativo di scrittura è fallito non attende: le modifiche
+     * restano da riprovare e getLastFailure() dice perché.
+     * 
+     * @param timeout tempo massimo di attesa
+     * @param unit unità del timeout
+     * @return true se le modifiche sono state scritte entro il timeout
+     * @throws InterruptedException se il thread viene interrotto
+     */
+    public boolean awaitPersisted(long timeout, TimeUnit unit) throws InterruptedException {
+        long target = submittedSeq;
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (progress) {
+            while (persistedSeq < target) {
+                if (failure != null) {
+                    return false;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(progress, remaining);
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Restituisce il numero di modifiche in attesa di scrittura
+     * 
+     * @return modifiche accodate e non ancora scritte
+     */
+    public long getPendingCount() {
+        long submitted = submittedSeq;
+        synchronized (progress) {
+            return submitted - persistedSeq;
+        }
+    }
+    
+    public int getCapacity() { return queue.remainingCapacity() + queue.size(); }
+    public long getBatchCount() { return batchCount; }
+    public long getFailedBatches() { return failedBatches; }
+    public Exception getLastFailure() { return failure; }
+    
+    /**
+     * Smette di accettare modifiche, scrive quelle in coda e ferma il thread
+     */
+    @Override
+    public void close() {
+        synchronized (submitLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                queue.put(STOP);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                thread.interrupt();
+            }
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,102 @@
+package com.taskmanager.models;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Test per IdGenerator - ID ordinati nel tempo.
+ */
+@DisplayName("Test per IdGenerator - Generatore di ID")
+class IdGeneratorTest {
+    
+    private static final Instant NOW = Instant.parse("2025-06-01T12:00:00Z");
+    
+    @Test
+    @DisplayName("Dovrebbe generare ID crescenti anche con il clock fermo o all'indietro")
+    void shouldStayMonotonic() {
+        IdGenerator generator = new IdGenerator(7, Clock.fixed(NOW, ZoneOffset.UTC));
+        long previous = -1;
+        for (int i = 0; i < 10_000; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous, "Sequenza esaurita o clock fermo: si passa al millisecondo dopo");
+            assertEquals(7, IdGenerator.nodeOf(id));
+            previous = id;
+        }
+        assertEquals(NOW.plusMillis(2), IdGenerator.timestampOf(previous), "10000 ID in tre millisecondi da 4096");
+        
+        IdGenerator backwards = new IdGenerator(1, Clock.fixed(NOW.minusSeconds(60), ZoneOffset.UTC));
+        long first = generator.nextId();
+        assertTrue(first > previous);
+        assertTrue(backwards.nextId() < first, "Generatori diversi partono ciascuno dal proprio clock");
+        assertThrows(IllegalArgumentException.class, () -> new IdGenerator(IdGenerator.MAX_NODE + 1));
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe convertire gli ID in stringhe ordinate come i numeri")
+    void shouldRoundTripSortableStrings() {
+        IdGenerator generator = new IdGenerator(0);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            ids.add(generator.next());
+        }
+        List<String> sorted = new ArrayList<>(ids);
+        sorted.sort(null);
+        assertEquals(ids, sorted);
+        for (String id : ids) {
+            assertEquals(IdGenerator.STRING_LENGTH, id.length());
+            assertEquals(id, IdGenerator.format(IdGenerator.parse(id)));
+        }
+        assertEquals(Long.MAX_VALUE, IdGenerator.parse(IdGenerator.format(Long.MAX_VALUE)));
+        assertEquals(IdGenerator.parse(ids.get(0)), IdGenerator.parse(ids.get(0).toUpperCase()));
+        assertFalse(IdGenerator.isValid("a1b2c3d4"), "Gli ID esadecimali di 8 caratteri non sono nel nuovo formato");
+        assertFalse(IdGenerator.isValid("zzzzzzzzzzzzz"));
+        assertFalse(IdGenerator.isValid("0000000000ilu"));
+        assertEquals(IdGenerator.parse(ids.get(0)), IdGenerator.tryParse(ids.get(0)));
+        assertEquals(-1, IdGenerator.tryParse(ids.get(0).toUpperCase()), "tryParse accetta solo la forma canonica");
+        assertEquals(-1, IdGenerator.tryParse("a1b2c3d4"));
+        assertEquals(-1, IdGenerator.tryParse(null));
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe permettere scansioni per data di creazione")
+    void shouldBoundCreationTimeRanges() {
+        IdGenerator generator = new IdGenerator(3, Clock.fixed(NOW, ZoneOffset.UTC));
+        String id = generator.next();
+        assertTrue(IdGenerator.lowerBound(NOW).compareTo(id) <= 0);
+        assertTrue(IdGenerator.lowerBound(NOW.plusMillis(1)).compareTo(id) > 0);
+        assertTrue(IdGenerator.lowerBound(NOW.minusSeconds(1)).compareTo(id) < 0);
+        assertEquals(NOW, IdGenerator.timestampOf(IdGenerator.parse(id)));
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe generare ID unici da più thread e più nodi")
+    void shouldBeUniqueAcrossThreadsAndNodes() throws InterruptedException {
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        Clock clock = Clock.fixed(NOW, ZoneOffset.UTC);
+        IdGenerator[] generators = {new IdGenerator(1, clock), new IdGenerator(2, clock)};
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            IdGenerator generator = generators[t % 2];
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    ids.add(generator.nextId());
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(80_000, ids.size());
+    }
+}
\ No newline at end of file
@@ -140,4 +140,26 @@ class SecureTaskManagerTest {
         // Verifica che addTask sia stato chiamato per ogni utente valido
         verify(mockTaskManager, times(validUsers.length)).addTask(testTask);
     }
+    
+    @Test
+    @DisplayName("Dovrebbe inoltrare le operazioni batch con un solo controllo")
+    void shouldForwardBatchOperations() {
+        secureProxy = new SecureTaskManager(mockTaskManager, "utente.valido");
+        List<Task> tasks = List.of(testTask, new Task("Secondo", null));
+        secureProxy.addTasks(tasks);
+        verify(mockTaskManager, times(1)).addTasks(tasks);
+        verify(mockTaskManager, never()).addTask(any());
+        
+        when(mockTaskManager.deleteTasks(List.of("1", "2"))).thenReturn(2);
+        assertEquals(2, secureProxy.deleteTasks(List.of("1", "2")));
+        when(mockTaskManager.updateWhere(any(), any())).thenReturn(1);
+        assertEquals(1, secureProxy.updateWhere(task -> true, task -> task.setTitle("x")));
+        
+        secureProxy = new SecureTaskManager(mockTaskManager, null);
+        assertThrows(SecurityException.class, () -> secureProxy.addTasks(tasks));
+        assertEquals(0, secureProxy.deleteTasks(List.of("1")));
+        assertThrows(SecurityException.class, () -> secureProxy.updateWhere(task -> true, task -> {}));
+        verify(mockTaskManager, times(1)).addTasks(any());
+        verify(mockTaskManager, times(1)).deleteTasks(any());
+    }
 }
\ No newline at end of file
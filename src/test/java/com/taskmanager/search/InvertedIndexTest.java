@@ -0,0 +1,82 @@
+package com.taskmanager.search;
+
+import com.taskmanager.models.Project;
+import com.taskmanager.models.Task;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+/**
+ * Test per InvertedIndex - Indice full-text con ranking BM25.
+ */
+@DisplayName("Test per InvertedIndex - Ricerca full-text")
+class InvertedIndexTest {
+    
+    private InvertedIndex index;
+    private Task report;
+    private Task meeting;
+    private Task bug;
+    
+    @BeforeEach
+    void setUp() {
+        index = new InvertedIndex();
+        report = new Task("Report mensile", "Preparare il report delle vendite");
+        meeting = new Task("Riunione di team", "Discutere il report trimestrale");
+        bug = new Task("Correggere bug login", "Il login fallisce con password lunghe");
+        index.update(report);
+        index.update(meeting);
+        index.update(bug);
+    }
+    
+    private List<String> ids(String query) {
+        return index.search(query, 10).stream().map(SearchResult::id).toList();
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe ordinare i risultati per pertinenza")
+    void shouldRankByRelevance() {
+        assertEquals(List.of(report.getId(), meeting.getId()), ids("reports"),
+                "Il termine nel titolo e ripetuto pesa di più");
+        assertEquals(List.of(bug.getId()), ids("LOGIN"));
+        assertEquals(List.of(report.getId()), ids("vendite mensili"));
+        assertTrue(ids("inesistente").isEmpty());
+        assertEquals(1, index.search("report", 1).size(), "Solo i primi k risultati");
+        assertThrows(IllegalArgumentException.class, () -> index.search("report", 0));
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe aggiornare l'indice a ogni modifica")
+    void shouldUpdateIncrementally() {
+        bug.setTitle("Correggere report di errore");
+        index.update(bug);
+        assertFalse(ids("password").isEmpty(), "La descrizione resta indicizzata");
+        assertTrue(ids("report").contains(bug.getId()));
+        
+        index.remove(report.getId());
+        assertFalse(ids("report").contains(report.getId()));
+        assertEquals(2, index.size());
+        
+        index.update(new Project("Report annuale", "Progetto"));
+        assertEquals(2, index.size(), "I progetti non sono indicizzati");
+        
+        index.clear();
+        assertTrue(ids("report").isEmpty());
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe restare coerente dopo molte sostituzioni ed eliminazioni")
+    void shouldCompactAfterManyDeletes() {
+        for (int i = 0; i < 5_000; i++) {
+            Task task = new Task("Temporaneo " + i, "da eliminare");
+            index.update(task);
+            index.remove(task.getId());
+        }
+        assertTrue(ids("temporaneo").isEmpty());
+        assertEquals(3, index.size());
+        assertEquals(List.of(bug.getId()), ids("password"));
+        assertEquals(List.of(report.getId(), meeting.getId()), ids("report"));
+    }
+}
\ No newline at end of file
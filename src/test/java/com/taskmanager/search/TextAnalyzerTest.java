@@ -0,0 +1,34 @@
+package com.taskmanager.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+/**
+ * Test per TextAnalyzer - Tokenizzazione per la ricerca full-text.
+ */
+@DisplayName("Test per TextAnalyzer - Analisi del testo")
+class TextAnalyzerTest {
+    
+    @Test
+    @DisplayName("Dovrebbe togliere accenti, punteggiatura e parole vuote")
+    void shouldNormalizeAndDropStopwords() {
+        assertEquals(List.of("attivit", "utent", "urgent"),
+                TextAnalyzer.analyze("Le attività dell'utente: URGENTE!"));
+        assertEquals(List.of("fix", "login", "bug"), TextAnalyzer.analyze("Fix the login bug"));
+        assertTrue(TextAnalyzer.analyze(null).isEmpty());
+        assertTrue(TextAnalyzer.analyze("  , . ").isEmpty());
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe ridurre singolari e plurali allo stesso termine")
+    void shouldStemPlurals() {
+        assertEquals(TextAnalyzer.analyze("report"), TextAnalyzer.analyze("reports"));
+        assertEquals(TextAnalyzer.analyze("bozza"), TextAnalyzer.analyze("bozze"));
+        assertEquals(TextAnalyzer.analyze("task"), TextAnalyzer.analyze("tasks"));
+        assertEquals(List.of("class"), TextAnalyzer.analyze("class"), "La doppia s non è un plurale");
+        assertEquals(List.of("api", "v2"), TextAnalyzer.analyze("API v2"), "Le parole corte restano intere");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,84 @@
+package com.taskmanager.search;
+
+import com.taskmanager.models.Task;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+/**
+ * Test per TitleIndex - Ricerca per titolo con trigrammi.
+ */
+@DisplayName("Test per TitleIndex - Ricerca approssimata sui titoli")
+class TitleIndexTest {
+    
+    private TitleIndex index;
+    private Task report;
+    private Task meeting;
+    private Task release;
+    
+    @BeforeEach
+    void setUp() {
+        index = new TitleIndex();
+        report = new Task("Report mensile vendite", null);
+        meeting = new Task("Riunione sul report", null);
+        release = new Task("Rilascio versione 2.0", null);
+        index.update(report);
+        index.update(meeting);
+        index.update(release);
+    }
+    
+    private List<String> ids(String query) {
+        return index.search(query, 10).stream().map(TitleIndex.Match::id).toList();
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe trovare i titoli mentre si scrive")
+    void shouldMatchPrefixes() {
+        assertEquals(List.of(report.getId(), meeting.getId()), ids("rep"),
+                "Prima la parola all'inizio del titolo");
+        assertEquals(List.of(release.getId()), ids("RILASCIO vers"));
+        assertEquals(List.of(report.getId()), ids("mensile v"));
+        assertTrue(ids("xyz").isEmpty());
+        assertTrue(ids("  ").isEmpty());
+        assertEquals(1, index.search("r", 1).size());
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe tollerare errori di battitura")
+    void shouldTolerateTypos() {
+        assertEquals(List.of(report.getId(), meeting.getId()), ids("reprot"));
+        assertEquals(List.of(meeting.getId()), ids("riunoine"));
+        assertEquals(List.of(release.getId()), ids("rilacsio versoine"));
+        List<TitleIndex.Match> matches = index.search("mensle", 10);
+        assertEquals(1, matches.get(0).distance());
+        assertEquals("report mensile vendite".indexOf("mensile"), matches.get(0).position());
+        assertEquals(0, TitleIndex.prefixDistance("rep", "report", 0, 0));
+        assertEquals(1, TitleIndex.prefixDistance("rpeort", "report", 0, 2), "Uno scambio è un solo errore");
+        assertEquals(2, TitleIndex.prefixDistance("rpeotr", "report", 0, 2));
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe aggiornare l'indice a ogni modifica")
+    void shouldUpdateIncrementally() {
+        report.setTitle("Bilancio annuale");
+        index.update(report);
+        assertEquals(List.of(meeting.getId()), ids("report"));
+        assertEquals(List.of(report.getId()), ids("bilanc"));
+        
+        for (int i = 0; i < 3_000; i++) {
+            Task task = new Task("Temporaneo " + i, null);
+            index.update(task);
+            index.remove(task.getId());
+        }
+        index.remove(meeting.getId());
+        assertTrue(ids("report").isEmpty());
+        assertTrue(ids("temporaneo").isEmpty());
+        assertEquals(2, index.size());
+        
+        index.clear();
+        assertTrue(ids("bilancio").isEmpty());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.taskmanager.services;
+
+import com.taskmanager.models.Task;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test per AsyncTaskManager - Facciata asincrona.
+ */
+@DisplayName("Test per AsyncTaskManager - Facciata asincrona")
+class AsyncTaskManagerTest {
+    
+    @Test
+    @DisplayName("Dovrebbe completare molte richieste senza superare il limite di concorrenza")
+    void shouldBoundConcurrencyTowardDelegate() throws Exception {
+        TaskManager delegate = mock(TaskManager.class);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        Task task = new Task("Lento", null);
+        when(delegate.findTaskById(anyString())).thenAnswer(invocation -> {
+            assertTrue(Thread.currentThread().isVirtual(), "Ogni operazione gira su un virtual thread");
+            int now = running.incrementAndGet();
+            peak.accumulateAndGet(now, Math::max);
+            Thread.sleep(1); // Simula l'I/O dello storage
+            running.decrementAndGet();
+            return task;
+        });
+        
+        AsyncTaskManager async = new AsyncTaskManager(delegate, 8);
+        List<CompletableFuture<Task>> futures = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            futures.add(async.findTaskById("id" + i));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+        for (CompletableFuture<Task> future : futures) {
+            assertSame(task, future.join());
+        }
+        assertTrue(peak.get() <= 8, "Mai più di 8 operazioni insieme sul delegate: " + peak.get());
+        assertEquals(8, async.getMaxConcurrency());
+        
+        async.close();
+        verify(delegate).close();
+        assertThrows(ExecutionException.class, () -> async.findTaskById("dopo").get(), "Dopo close() non accetta altro");
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe completare il future con l'eccezione del delegate")
+    void shouldPropagateDelegateExceptions() {
+        TaskManager delegate = mock(TaskManager.class);
+        when(delegate.updateTask(eq("x"), eq(3L), any())).thenThrow(new ConcurrentModificationException("conflitto"));
+        AsyncTaskManager async = new AsyncTaskManager(delegate);
+        
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> async.updateTask("x", 3, task -> {}).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(ConcurrentModificationException.class, error.getCause());
+        assertThrows(IllegalArgumentException.class, () -> new AsyncTaskManager(delegate, 0));
+        async.close();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,98 @@
+package com.taskmanager.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Test per BTreeIndex - Indice B+tree su disco con buffer pool.
+ */
+@DisplayName("Test per BTreeIndex - Indice B+tree")
+class BTreeIndexTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    private static String key(int i) {
+        return String.format("task-%06d", i);
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe ritrovare molte chiavi con un buffer pool piccolo")
+    void shouldFindKeysWithSmallBufferPool() throws IOException {
+        try (BTreeIndex index = new BTreeIndex(tempDir.resolve("test.btree"), 4)) {
+            // Inserimento in ordine sparso, per dividere pagine in punti diversi
+            for (int i = 0; i < 20_000; i++) {
+                int k = (i * 7919) % 20_000;
+                index.put(key(k), k);
+            }
+            assertEquals(20_000, index.size());
+            assertTrue(index.getPageCount() > 50, "Le chiavi occupano molte pagine");
+            assertTrue(index.getPageWrites() > 0, "Le pagine escono dal pool");
+            for (int i = 0; i < 20_000; i += 97) {
+                assertEquals(i, index.get(key(i)));
+            }
+            assertEquals(-1, index.get("inesistente"));
+            
+            index.put(key(5), 42);
+            assertEquals(42, index.get(key(5)));
+            assertEquals(20_000, index.size(), "Una sostituzione non aggiunge chiavi");
+        }
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe scorrere un intervallo di chiavi in ordine")
+    void shouldScanRangeInOrder() throws IOException {
+        try (BTreeIndex index = new BTreeIndex(tempDir.resolve("test.btree"), 8)) {
+            for (int i = 2_999; i >= 0; i--) {
+                index.put(key(i), i);
+            }
+            assertTrue(index.remove(key(1_500)));
+            assertFalse(index.remove(key(1_500)));
+            
+            List<Long> values = new ArrayList<>();
+            index.scan(key(1_000), key(2_000), (id, value) -> values.add(value));
+            assertEquals(999, values.size());
+            assertEquals(1_000L, values.get(0));
+            assertEquals(1_999L, values.get(values.size() - 1));
+            for (int i = 1; i < values.size(); i++) {
+                assertTrue(values.get(i) > values.get(i - 1));
+            }
+            
+            List<String> firstTen = new ArrayList<>();
+            index.scan(null, null, (id, value) -> firstTen.add(id) && firstTen.size() < 10);
+            assertEquals(key(0), firstTen.get(0));
+            assertEquals(10, firstTen.size());
+        }
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe riaprire solo un indice chiuso correttamente")
+    void shouldReopenOnlyCheckpointedIndex() throws IOException {
+        Path file = tempDir.resolve("test.btree");
+        try (BTreeIndex index = new BTreeIndex(file, 4)) {
+            for (int i = 0; i < 5_000; i++) {
+                index.put(key(i), i);
+            }
+            index.checkpoint(1234);
+        }
+        try (BTreeIndex reopened = new BTreeIndex(file, 4)) {
+            assertFalse(reopened.isRecovered());
+            assertEquals(5_000, reopened.size());
+            assertEquals(1234, reopened.getIndexedBytes());
+            assertEquals(4_321, reopened.get(key(4_321)));
+            // Modifica senza checkpoint: alla riapertura l'indice va ricostruito
+            reopened.put(key(5_000), 5_000);
+        }
+        try (BTreeIndex crashed = new BTreeIndex(file, 4)) {
+            assertTrue(crashed.isRecovered());
+            assertEquals(0, crashed.size());
+        }
+    }
+}
\ No newline at end of file
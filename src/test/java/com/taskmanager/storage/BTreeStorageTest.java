@@ -0,0 +1,165 @@
+package com.taskmanager.storage;
+
+import com.taskmanager.models.Project;
+import com.taskmanager.models.Task;
+import com.taskmanager.models.TaskComponent;
+import com.taskmanager.models.TaskPriority;
+import com.taskmanager.models.TaskStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test per BTreeStorage - File di record con indice B+tree.
+ */
+@DisplayName("Test per BTreeStorage - Motore B+tree")
+class BTreeStorageTest {
+    
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(Paths.get("data", "btree-test.records"));
+        Files.deleteIfExists(Paths.get("data", "btree-test.btree"));
+    }
+    
+    private static Task task(int i) {
+        LocalDateTime now = LocalDateTime.now();
+        return new Task(String.format("id-%05d", i), "Task " + i, null,
+                TaskStatus.TODO, TaskPriority.MEDIUM, now, now);
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe salvare, eliminare e riaprire i componenti")
+    void shouldPersistAcrossReopen() {
+        BTreeStorage storage = (BTreeStorage) StorageEngines.create("btree", "btree-test.json",
+                StorageOptions.defaults().withBufferPool(4));
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            tasks.add(task(i));
+        }
+        storage.saveAll(tasks);
+        Task updated = tasks.get(7);
+        updated.setPriority(TaskPriority.HIGH);
+        storage.save(updated);
+        assertTrue(storage.delete(tasks.get(8).getId()));
+        assertFalse(storage.delete(tasks.get(8).getId()));
+        storage.close();
+        
+        BTreeStorage reopened = new BTreeStorage("btree-test.json", StorageOptions.defaults().withBufferPool(4));
+        assertEquals(1_999, reopened.size());
+        assertEquals(TaskPriority.HIGH, ((Task) reopened.findById(tasks.get(7).getId())).getPriority());
+        assertNull(reopened.findById(tasks.get(8).getId()));
+        assertEquals(1_999, reopened.findAll().size());
+        reopened.close();
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe restituire un intervallo di ID in ordine")
+    void shouldFindRange() {
+        BTreeStorage storage = new BTreeStorage("btree-test.json");
+        for (int i = 99; i >= 0; i--) {
+            storage.save(task(i));
+        }
+        List<TaskComponent> range = storage.findRange("id-00010", "id-00020");
+        assertEquals(10, range.size());
+        assertEquals("id-00010", range.get(0).getId());
+        assertEquals("id-00019", range.get(9).getId());
+        assertEquals(List.of("id-00050", "id-00051"), storage.findIdsByPrefix("id-0005", 2));
+        assertEquals(List.of("id-00099"), storage.findIdsByPrefix("id-00099", 10));
+        assertTrue(storage.findIdsByPrefix("id-1", 10).isEmpty());
+        
+        storage.save(new Project("id-00021", "Progetto", null, LocalDateTime.now(), LocalDateTime.now(), List.of()));
+        List<Task> page = storage.page("id-00019", 3);
+        assertEquals(List.of("id-00020", "id-00022", "id-00023"), page.stream().map(Task::getId).toList());
+        assertEquals(List.of("id-00099"), storage.page("id-00098", 5).stream().map(Task::getId).toList());
+        assertEquals("id-00000", storage.page(null, 1).get(0).getId());
+        storage.close();
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe servire letture concorrenti mentre un altro thread scrive")
+    void shouldReadConcurrentlyWithWrites() throws Exception {
+        BTreeStorage storage = new BTreeStorage("btree-test.json", StorageOptions.defaults().withBufferPool(4));
+        for (int i = 0; i < 500; i++) {
+            storage.save(task(i));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?> writer = executor.submit(() -> {
+                for (int i = 500; i < 1_000; i++) {
+                    storage.save(task(i));
+                }
+            });
+            List<Future<Integer>> readers = new ArrayList<>();
+            for (int r = 0; r < 3; r++) {
+                readers.add(executor.submit(() -> {
+                    int found = 0;
+                    for (int i = 0; i < 500; i++) {
+                        if (storage.findById(task(i).getId()) != null) {
+                            found++;
+                        }
+                    }
+                    return found + storage.page(null, 10).size() - 10;
+                }));
+            }
+            writer.get(30, TimeUnit.SECONDS);
+            for (Future<Integer> reader : readers) {
+                assertEquals(500, reader.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1_000, storage.size());
+        assertEquals(1_000, storage.findAll().size());
+        storage.close();
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe rispettare la politica di fsync a intervalli")
+    void shouldHonourIntervalFsync() {
+        assertThrows(IllegalArgumentException.class, () -> new BTreeStorage("btree-test.json",
+                StorageOptions.defaults().withFsync(FsyncPolicy.INTERVAL, 0)));
+        
+        BTreeStorage storage = new BTreeStorage("btree-test.json",
+                StorageOptions.defaults().withFsync(FsyncPolicy.INTERVAL, 10));
+        storage.save(task(1));
+        assertTrue(Thread.getAllStackTraces().keySet().stream().anyMatch(thread -> thread.getName().equals("btree-fsync")),
+                "Con INTERVAL un thread forza i record su disco");
+        storage.close();
+        
+        BTreeStorage reopened = new BTreeStorage("btree-test.json");
+        assertNotNull(reopened.findById(task(1).getId()));
+        reopened.close();
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe ricostruire l'indice dopo una chiusura mancata")
+    void shouldRebuildIndexAfterCrash() {
+        BTreeStorage storage = new BTreeStorage("btree-test.json");
+        Project project = new Project("Progetto", null);
+        Task child = task(1);
+        project.addComponent(child);
+        storage.saveAll(List.of(child, project, task(2)));
+        storage.delete(task(2).getId());
+        // Nessun close(): l'indice su disco resta segnato come non chiuso
+        
+        BTreeStorage recovered = new BTreeStorage("btree-test.json");
+        assertEquals(2, recovered.size());
+        Project loaded = (Project) recovered.findById(project.getId());
+        assertEquals(child.getId(), loaded.getComponents().get(0).getId());
+        assertNull(recovered.findById(task(2).getId()));
+        recovered.close();
+        storage.close();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.taskmanager.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Test per BloomFilter - Filtro sugli ID dei file dati.
+ */
+@DisplayName("Test per BloomFilter - Filtro di Bloom")
+class BloomFilterTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    @DisplayName("Dovrebbe riconoscere tutte le chiavi aggiunte con pochi falsi positivi")
+    void shouldRespectFalsePositiveRate() {
+        BloomFilter bloom = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            bloom.add("task-" + i);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(bloom.mightContain("task-" + i), "Nessun falso negativo");
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (bloom.mightContain("assente-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, "Falsi positivi vicini all'1%: " + falsePositives);
+        assertEquals(7, bloom.getHashCount());
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe rileggere dal file lo stesso filtro")
+    void shouldRoundTripThroughFile() throws IOException {
+        BloomFilter bloom = BloomFilter.create(1_000, 0.001);
+        for (int i = 0; i < 1_000; i++) {
+            bloom.add("id-" + i);
+        }
+        Path file = tempDir.resolve("segment-1.bloom");
+        bloom.write(file);
+        
+        BloomFilter read = BloomFilter.read(file);
+        assertEquals(bloom.getBitCount(), read.getBitCount());
+        assertEquals(bloom.getHashCount(), read.getHashCount());
+        for (int i = 0; i < 2_000; i++) {
+            assertEquals(bloom.mightContain("id-" + i), read.mightContain("id-" + i));
+        }
+        
+        Files.write(file, new byte[] {1, 2, 3});
+        assertThrows(IOException.class, () -> BloomFilter.read(file));
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(10, 1.0));
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe mettere il filtro accanto al file dati")
+    void shouldPlaceFilterBesideDataFile() {
+        assertEquals(Paths.get("data", "segment-3.bloom"), BloomFilter.fileFor(Paths.get("data", "segment-3.seg")));
+        assertEquals(Paths.get("data", "tasks.bloom"), BloomFilter.fileFor(Paths.get("data", "tasks.snap")));
+    }
+}
\ No newline at end of file
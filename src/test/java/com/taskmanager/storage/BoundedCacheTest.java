@@ -0,0 +1,72 @@
+package com.taskmanager.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test per BoundedCache - Cache limitata W-TinyLFU.
+ */
+@DisplayName("Test per BoundedCache - Cache W-TinyLFU")
+class BoundedCacheTest {
+    
+    @Test
+    @DisplayName("Non dovrebbe mai superare la dimensione massima")
+    void shouldStayWithinMaximumSize() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(100);
+        for (int i = 0; i < 10_000; i++) {
+            cache.put(i, "v" + i);
+            assertTrue(cache.size() <= 100);
+        }
+        assertEquals(100, cache.size());
+        assertEquals(9_900, cache.getEvictions());
+    }
+    
+    @Test
+    @DisplayName("Le voci più usate dovrebbero sopravvivere a una scansione")
+    void shouldKeepHotEntriesDuringScan() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(100);
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                if (cache.get(i) == null) {
+                    cache.put(i, "caldo" + i);
+                }
+            }
+        }
+        // Migliaia di chiavi lette una volta sola, mentre le voci calde continuano a essere usate
+        for (int i = 1_000; i < 6_000; i++) {
+            cache.put(i, "freddo" + i);
+            if (i % 500 == 0) {
+                for (int hot = 0; hot < 50; hot++) {
+                    cache.get(hot);
+                }
+            }
+        }
+        
+        int survivors = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.get(i) != null) {
+                survivors++;
+            }
+        }
+        assertEquals(50, survivors, "La scansione non deve espellere le voci frequenti");
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe contare hit e miss e gestire le invalidazioni")
+    void shouldTrackStatistics() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10);
+        assertNull(cache.get("a"));
+        cache.put("a", "1");
+        assertEquals("1", cache.get("a"));
+        cache.put("a", "2");
+        assertEquals("2", cache.get("a"));
+        cache.invalidate("a");
+        assertNull(cache.get("a"));
+        
+        assertEquals(2, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(50.0, cache.getHitRate(), 0.001);
+        assertThrows(IllegalArgumentException.class, () -> new BoundedCache<String, String>(0));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.taskmanager.storage;
+
+import com.taskmanager.models.Task;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Test per CachingStorageEngine - Cache davanti ai motori su disco.
+ */
+@DisplayName("Test per CachingStorageEngine - Cache dei Motori")
+class CachingStorageEngineTest {
+    
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(Paths.get("data", "cache-test.records"));
+        Files.deleteIfExists(Paths.get("data", "cache-test.btree"));
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe servire dalla cache le letture ripetute")
+    void shouldServeRepeatedReadsFromCache() {
+        CachingStorageEngine engine = new CachingStorageEngine(new BTreeStorage("cache-test.json"), 10);
+        Task task = new Task("In cache", null);
+        engine.save(task);
+        
+        Task first = (Task) engine.findById(task.getId());
+        assertSame(first, engine.findById(task.getId()), "La seconda lettura arriva dalla cache");
+        assertEquals(1, engine.getCache().getHits());
+        assertEquals(1, engine.getCache().getMisses());
+        assertNull(engine.findById("inesistente"));
+        engine.close();
+    }
+    
+    @Test
+    @DisplayName("Le scritture dovrebbero invalidare la cache")
+    void shouldInvalidateOnWrites() {
+        CachingStorageEngine engine = new CachingStorageEngine(new BTreeStorage("cache-test.json"), 10);
+        Task task = new Task("Prima", null);
+        engine.save(task);
+        engine.findById(task.getId());
+        
+        task.setTitle("Dopo");
+        engine.saveAll(List.of(task));
+        assertEquals("Dopo", engine.findById(task.getId()).getTitle());
+        
+        assertTrue(engine.delete(task.getId()));
+        assertNull(engine.findById(task.getId()));
+        assertEquals(0, engine.getCache().size());
+        engine.close();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.taskmanager.storage;
+
+import com.taskmanager.models.IdGenerator;
+import com.taskmanager.models.Task;
+import com.taskmanager.models.TaskComponent;
+import com.taskmanager.models.TaskPriority;
+import com.taskmanager.models.TaskStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Test per ComponentCache - Cache dei componenti con ID nuovi e vecchi.
+ */
+@DisplayName("Test per ComponentCache - Cache dei componenti")
+class ComponentCacheTest {
+    
+    @Test
+    @DisplayName("Dovrebbe gestire insieme ID di IdGenerator e ID esadecimali")
+    void shouldMixGeneratedAndLegacyIds() {
+        ComponentCache cache = new ComponentCache();
+        Task current = new Task("Nuovo", "");
+        Task legacy = new Task("a1b2c3d4", "Vecchio", "", TaskStatus.TODO, TaskPriority.MEDIUM, null, null);
+        String upper = current.getId().toUpperCase();
+        
+        assertNull(cache.put(current.getId(), current));
+        assertNull(cache.put(legacy.getId(), legacy));
+        assertNull(cache.put(upper, legacy), "Le maiuscole non sono canoniche e vanno tra gli ID vecchi");
+        assertEquals(3, cache.size());
+        assertSame(current, cache.get(current.getId()));
+        assertSame(legacy, cache.get("a1b2c3d4"));
+        assertSame(legacy, cache.get(upper));
+        assertNull(cache.get(42));
+        assertEquals(Set.of(current.getId(), "a1b2c3d4", upper), cache.keySet());
+        
+        assertSame(current, cache.computeIfAbsent(current.getId(), id -> legacy));
+        assertNull(cache.computeIfPresent(IdGenerator.getDefault().next(), (id, value) -> legacy));
+        assertNull(cache.compute(current.getId(), (id, value) -> null));
+        assertFalse(cache.containsKey(current.getId()));
+        assertSame(legacy, cache.remove(upper));
+        
+        for (Map.Entry<String, TaskComponent> entry : cache.entrySet()) {
+            assertEquals(entry.getKey(), entry.getValue().getId());
+        }
+        cache.clear();
+        assertTrue(cache.isEmpty());
+    }
+}
\ No newline at end of file
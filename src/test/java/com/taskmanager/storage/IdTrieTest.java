@@ -0,0 +1,96 @@
+package com.taskmanager.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Test per IdTrie - Radix trie degli ID.
+ */
+@DisplayName("Test per IdTrie - Prefissi degli ID")
+class IdTrieTest {
+    
+    @Test
+    @DisplayName("Dovrebbe spezzare e riunire gli archi mantenendo i conteggi")
+    void shouldSplitAndMergeEdges() {
+        IdTrie trie = new IdTrie();
+        assertTrue(trie.add("abcd"));
+        assertTrue(trie.add("abef"));
+        assertTrue(trie.add("ab"));
+        assertFalse(trie.add("abcd"));
+        
+        assertEquals(3, trie.countByPrefix("ab"));
+        assertEquals(1, trie.countByPrefix("abc"));
+        assertEquals(0, trie.countByPrefix("abx"));
+        assertEquals(List.of("ab", "abcd", "abef"), trie.findByPrefix("a", 10));
+        assertEquals(List.of("abcd"), trie.findByPrefix("abc", 10));
+        assertTrue(trie.contains("ab"));
+        assertFalse(trie.contains("a"));
+        
+        assertTrue(trie.remove("ab"));
+        assertFalse(trie.remove("ab"));
+        assertTrue(trie.remove("abef"));
+        assertEquals(List.of("abcd"), trie.findByPrefix("ab", 10));
+        assertEquals(1, trie.size());
+        trie.clear();
+        assertEquals(0, trie.countByPrefix(""));
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe dare gli stessi risultati di un TreeSet con ID casuali")
+    void shouldMatchTreeSetWithRandomIds() {
+        IdTrie trie = new IdTrie();
+        TreeSet<String> expected = new TreeSet<>();
+        Random random = new Random(42);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            String id = UUID.randomUUID().toString().substring(0, 1 + random.nextInt(8));
+            ids.add(id);
+            assertEquals(expected.add(id), trie.add(id));
+        }
+        for (int i = 0; i < 2_500; i++) {
+            String id = ids.get(random.nextInt(ids.size()));
+            assertEquals(expected.remove(id), trie.remove(id));
+        }
+        assertEquals(expected.size(), trie.size());
+        for (String prefix : List.of("", "a", "0f", "7c1", "ffff")) {
+            List<String> matching = expected.subSet(prefix, prefix + Character.MAX_VALUE).stream().toList();
+            assertEquals(matching.size(), trie.countByPrefix(prefix), prefix);
+            assertEquals(matching.subList(0, Math.min(20, matching.size())), trie.findByPrefix(prefix, 20), prefix);
+        }
+        for (String id : expected) {
+            assertTrue(trie.contains(id));
+        }
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe scorrere tutti gli ID a pagine in ordine")
+    void shouldPageAfterId() {
+        IdTrie trie = new IdTrie();
+        TreeSet<String> expected = new TreeSet<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 3_000; i++) {
+            String id = UUID.randomUUID().toString().substring(0, 1 + random.nextInt(8));
+            expected.add(id);
+            trie.add(id);
+        }
+        for (String after : List.of("0", "7c1", "abcdef", "f", "zzz")) {
+            List<String> greater = expected.tailSet(after, false).stream().limit(25).toList();
+            assertEquals(greater, trie.findAfter(after, 25), after);
+        }
+        List<String> paged = new ArrayList<>();
+        List<String> page = trie.findAfter(null, 100);
+        while (!page.isEmpty()) {
+            paged.addAll(page);
+            page = trie.findAfter(page.get(page.size() - 1), 100);
+        }
+        assertEquals(List.copyOf(expected), paged);
+        assertTrue(trie.findAfter(null, 0).isEmpty());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,148 @@
+package com.taskmanager.storage;
+
+import com.taskmanager.models.Project;
+import com.taskmanager.models.Task;
+import com.taskmanager.models.TaskComponent;
+import com.taskmanager.models.TaskPriority;
+import com.taskmanager.models.TaskStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Test per JsonTaskFile - Persistenza JSON in streaming.
+ */
+@DisplayName("Test per JsonTaskFile - JSON Streaming")
+class JsonTaskFileTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(Paths.get("data", "json-test.json"));
+        Files.deleteIfExists(Paths.get("data", "json-test.txt"));
+    }
+    
+    private static Map<String, TaskComponent> readAll(Path file) throws IOException {
+        Map<String, TaskComponent> loaded = new HashMap<>();
+        JsonTaskFile.read(file, loaded::get, component -> loaded.put(component.getId(), component));
+        return loaded;
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe rileggere task e progetti senza perdere dati")
+    void shouldRoundTripTasksAndProjects() throws IOException {
+        Task task = new Task("Task \"JSON\"", "Descrizione\ncon a capo");
+        task.setStatus(TaskStatus.IN_PROGRESS);
+        task.setPriority(TaskPriority.HIGH);
+        Project project = new Project("Progetto", null);
+        project.addComponent(task);
+        Path file = tempDir.resolve("tasks.json");
+        
+        JsonTaskFile.write(file, List.of(project, task));
+        Map<String, TaskComponent> loaded = readAll(file);
+        
+        Task found = (Task) loaded.get(task.getId());
+        assertEquals(task.getTitle(), found.getTitle());
+        assertEquals(task.getDescription(), found.getDescription());
+        assertEquals(TaskStatus.IN_PROGRESS, found.getStatus());
+        assertEquals(TaskPriority.HIGH, found.getPriority());
+        assertEquals(task.getCreatedAt(), found.getCreatedAt());
+        assertEquals(task.getUpdatedAt(), found.getUpdatedAt());
+        Project foundProject = (Project) loaded.get(project.getId());
+        assertSame(found, foundProject.getComponents().get(0));
+        assertNull(foundProject.getDescription());
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe leggere il formato dei file esistenti e ignorare i campi sconosciuti")
+    void shouldReadExistingFormat() throws IOException {
+        Path file = tempDir.resolve("tasks.json");
+        Files.writeString(file, """
+            [ {
+              "id" : "7e56b27d",
+              "title" : "Task Ricercabile",
+              "description" : null,
+              "status" : "DONE",
+              "priority" : "CRITICAL",
+              "createdAt" : "2025-06-28T10:16:25.298455",
+              "updatedAt" : "2025-06-28T10:16:25.29847",
+              "tags" : { "nuovo" : [ 1, 2 ] },
+              "leaf" : true
+            } ]
+            """);
+        
+        Task task = (Task) readAll(file).get("7e56b27d");
+        
+        assertEquals("Task Ricercabile", task.getTitle());
+        assertEquals(TaskStatus.DONE, task.getStatus());
+        assertEquals(TaskPriority.CRITICAL, task.getPriority());
+        assertEquals(LocalDateTime.parse("2025-06-28T10:16:25.298455"), task.getCreatedAt());
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe scrivere il formato con la versione senza lasciare file temporanei")
+    void shouldWriteVersionedFormatAtomically() throws IOException {
+        Path file = tempDir.resolve("tasks.json");
+        Files.writeString(file, "vecchio contenuto");
+        
+        JsonTaskFile.write(file, List.of(new Task("Task", null)));
+        
+        assertTrue(JsonTaskFile.isCurrentFormat(file));
+        assertEquals(1, readAll(file).size());
+        try (var files = Files.list(tempDir)) {
+            assertEquals(List.of(file), files.toList());
+        }
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe rifiutare un file che non contiene un array")
+    void shouldRejectNonArray() throws IOException {
+        Path file = tempDir.resolve("tasks.json");
+        Files.writeString(file, "{ \"id\" : \"x\" }");
+        
+        assertThrows(IOException.class, () -> readAll(file));
+    }
+    
+    @Test
+    @DisplayName("TaskStorage dovrebbe usare il JSON per i file .json")
+    void shouldSelectJsonByExtension() throws IOException {
+        Files.writeString(Paths.get("data", "json-test.txt"), "TASK|legacy01|Vecchio task||TODO|LOW");
+        
+        TaskStorage storage = new TaskStorage("json-test.json");
+        assertNotNull(storage.findById("legacy01"), "Il vecchio file di testo deve essere migrato");
+        storage.save(new Task("Nuovo", null));
+        
+        assertTrue(JsonTaskFile.isCurrentFormat(Paths.get("data", "json-test.json")));
+        assertEquals(2, new TaskStorage("json-test.json").size());
+    }
+    
+    @Test
+    @DisplayName("Un JSON di una versione precedente non dovrebbe nascondere il file di testo")
+    void shouldMigrateTextOverStaleJson() throws IOException {
+        Files.writeString(Paths.get("data", "json-test.json"), """
+            [ { "id" : "stale001", "title" : "Vecchio JSON", "leaf" : true } ]
+            """);
+        Files.writeString(Paths.get("data", "json-test.txt"), "TASK|legacy01|Dati veri||TODO|LOW");
+        
+        TaskStorage storage = new TaskStorage("json-test.json");
+        assertNotNull(storage.findById("legacy01"));
+        assertNull(storage.findById("stale001"));
+        assertTrue(JsonTaskFile.isCurrentFormat(Paths.get("data", "json-test.json")));
+        
+        storage.save(new Task("Nuovo", null));
+        assertEquals(2, new TaskStorage("json-test.json").size(), "Dopo la migrazione si legge il JSON");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,144 @@
+package com.taskmanager.storage;
+
+import com.taskmanager.models.Task;
+import com.taskmanager.models.TaskComponent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Test per LogCompactor - Compattazione del log in background.
+ */
+@DisplayName("Test per LogCompactor - Compattazione")
+class LogCompactorTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    private TaskLog log;
+    private Path snapshotFile;
+    private LogCompactor compactor;
+    private Map<String, TaskComponent> cache;
+    
+    @BeforeEach
+    void setUp() {
+        log = new TaskLog(tempDir.resolve("tasks.log"));
+        snapshotFile = tempDir.resolve("tasks.txt");
+        cache = new ConcurrentHashMap<>();
+        // Snapshot minimale: un id per riga
+        compactor = new LogCompactor(log, snapshotFile, (target, components) ->
+            Files.write(target, components.stream().map(TaskComponent::getId).collect(Collectors.toList())));
+    }
+    
+    @AfterEach
+    void tearDown() throws Exception {
+        compactor.close();
+        log.close();
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe scrivere lo snapshot e svuotare il log")
+    void shouldWriteSnapshotAndTruncateLog() throws Exception {
+        Task task = new Task("Task", "Descrizione");
+        cache.put(task.getId(), task);
+        for (int i = 0; i < 10; i++) {
+            log.commit(log.append("TASK|" + task.getId() + "|Task|Descrizione|Da fare|Media"));
+        }
+        long logBytes = log.sizeInBytes();
+        
+        compactor.compact(cache).get(5, TimeUnit.SECONDS);
+        
+        assertEquals(List.of(task.getId()), Files.readAllLines(snapshotFile));
+        assertEquals(0, log.sizeInBytes(), "Il log dovrebbe essere vuoto dopo la compattazione");
+        assertFalse(Files.exists(compactor.archivedLog()), "Il log archiviato dovrebbe essere eliminato");
+        assertEquals(1, compactor.getCompactionCount());
+        assertTrue(compactor.getTotalBytesReclaimed() > 0 && compactor.getTotalBytesReclaimed() <= logBytes);
+    }
+    
+    @Test
+    @DisplayName("Le scritture dopo il taglio dovrebbero restare nel nuovo log")
+    void shouldKeepWritesAfterCut() throws Exception {
+        log.append("TASK|a1|Primo||Da fare|Media");
+        compactor.compact(cache).get(5, TimeUnit.SECONDS);
+        log.commit(log.append("TASK|b2|Secondo||Da fare|Media"));
+        
+        List<String> records = new ArrayList<>();
+        log.replay(records::add);
+        assertEquals(List.of("TASK|b2|Secondo||Da fare|Media"), records);
+    }
+    
+    @Test
+    @DisplayName("Avviare la compattazione non dovrebbe attendere il taglio del log")
+    void shouldNotRotateOnCallerThread() throws Exception {
+        Task task = new Task("Task", "Descrizione");
+        cache.put(task.getId(), task);
+        log.commit(log.append("TASK|" + task.getId() + "|Task|Descrizione|Da fare|Media"));
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread writer = new Thread(() -> {
+            // Tiene occupato il log come una scrittura in corso
+            synchronized (log) {
+                held.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        writer.start();
+        held.await();
+        
+        Future<?> compaction;
+        try {
+            compaction = assertTimeoutPreemptively(Duration.ofSeconds(2), () -> compactor.compact(cache));
+        } finally {
+            release.countDown();
+        }
+        compaction.get(5, TimeUnit.SECONDS);
+        writer.join();
+        
+        assertEquals(List.of(task.getId()), Files.readAllLines(snapshotFile));
+        assertEquals(0, log.sizeInBytes());
+    }
+    
+    @Test
+    @DisplayName("Non dovrebbe compattare sotto le soglie")
+    void shouldRespectThresholds() throws Exception {
+        compactor.setThresholds(1024, 1.0);
+        log.append("TASK|a1|Primo||Da fare|Media");
+        
+        compactor.maybeCompact(cache);
+        
+        assertFalse(Files.exists(snapshotFile));
+        assertEquals(0, compactor.getCompactionCount());
+        assertThrows(IllegalArgumentException.class, () -> compactor.setThresholds(-1, 1.0));
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe accodare al log archiviato rimasto da una compattazione fallita")
+    void shouldAppendToLeftoverArchive() throws Exception {
+        Files.writeString(compactor.archivedLog(), "TASK|old|Vecchio||Da fare|Media" + System.lineSeparator());
+        log.commit(log.append("TASK|new|Nuovo||Da fare|Media"));
+        log.rotate(compactor.archivedLog());
+        
+        List<String> records = new ArrayList<>();
+        new TaskLog(compactor.archivedLog()).replay(records::add);
+        assertEquals(List.of("TASK|old|Vecchio||Da fare|Media", "TASK|new|Nuovo||Da fare|Media"), records);
+    }
+}
\ No newline at end of file
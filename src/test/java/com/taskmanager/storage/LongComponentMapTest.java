@@ -0,0 +1,92 @@
+package com.taskmanager.storage;
+
+import com.taskmanager.models.Task;
+import com.taskmanager.models.TaskComponent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Test per LongComponentMap - Mappa concorrente con chiavi long.
+ */
+@DisplayName("Test per LongComponentMap - Chiavi long")
+class LongComponentMapTest {
+    
+    @Test
+    @DisplayName("Dovrebbe comportarsi come una HashMap con collisioni, eliminazioni e crescita")
+    void shouldMatchHashMap() {
+        LongComponentMap map = new LongComponentMap();
+        Map<Long, TaskComponent> expected = new HashMap<>();
+        TaskComponent[] tasks = new TaskComponent[8];
+        for (int i = 0; i < tasks.length; i++) {
+            tasks[i] = new Task("Task " + i, "");
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            // Poche chiavi, anche 0 e negative, così gli stessi slot vengono riempiti e svuotati spesso
+            long key = random.nextInt(5_000) - 100;
+            if (random.nextInt(3) == 0) {
+                assertSame(expected.remove(key), map.remove(key));
+            } else {
+                TaskComponent task = tasks[random.nextInt(tasks.length)];
+                assertSame(expected.put(key, task), map.put(key, task));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (long key = -100; key < 4_900; key++) {
+            assertSame(expected.get(key), map.get(key));
+        }
+        Map<Long, TaskComponent> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(expected, visited);
+        
+        assertNull(map.compute(-100, (key, current) -> null));
+        assertSame(tasks[0], map.compute(Long.MAX_VALUE, (key, current) -> current == null ? tasks[0] : null));
+        assertSame(tasks[0], map.get(Long.MAX_VALUE));
+        map.clear();
+        assertEquals(0, map.size());
+        assertNull(map.get(Long.MAX_VALUE));
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe restare consistente con letture e scritture da più thread")
+    void shouldStayConsistentUnderConcurrency() throws InterruptedException {
+        LongComponentMap map = new LongComponentMap();
+        TaskComponent task = new Task("Condiviso", "");
+        List<Throwable> errors = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            long base = t * 1_000_000L;
+            Thread thread = new Thread(() -> {
+                try {
+                    for (long key = base; key < base + 20_000; key++) {
+                        map.put(key, task);
+                        assertSame(task, map.get(key));
+                        if (key % 2 == 0) {
+                            assertSame(task, map.remove(key));
+                            assertNull(map.get(key));
+                        }
+                    }
+                } catch (Throwable e) {
+                    synchronized (errors) {
+                        errors.add(e);
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(List.of(), errors);
+        assertEquals(40_000, map.size());
+        assertEquals(40_000, map.values().size());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,213 @@
+package com.taskmanager.storage;
+
+import com.taskmanager.models.Project;
+import com.taskmanager.models.Task;
+import com.taskmanager.models.TaskComponent;
+import com.taskmanager.models.TaskStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Test per LsmStorage - Memtable, segmenti e compattazione.
+ */
+@DisplayName("Test per LsmStorage - Motore LSM")
+class LsmStorageTest {
+    
+    private static final Path DIRECTORY = Paths.get("data", "lsm-test-lsm");
+    
+    @AfterEach
+    void tearDown() throws IOException {
+        if (Files.exists(DIRECTORY)) {
+            try (Stream<Path> files = Files.walk(DIRECTORY)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+    
+    private static StorageOptions smallMemtable() {
+        return StorageOptions.defaults().withLsm(10, 2);
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe rileggere il write-ahead log alla riapertura")
+    void shouldRecoverFromWriteAheadLog() {
+        LsmStorage storage = new LsmStorage("lsm-test.json");
+        Task kept = new Task("Da tenere", "Descrizione");
+        Task removed = new Task("Da eliminare", null);
+        storage.save(kept);
+        storage.save(removed);
+        assertTrue(storage.delete(removed.getId()));
+        assertFalse(storage.delete(removed.getId()), "Una seconda eliminazione non trova nulla");
+        storage.close();
+        
+        LsmStorage reopened = new LsmStorage("lsm-test.json");
+        assertEquals(1, reopened.size());
+        assertEquals("Descrizione", ((Task) reopened.findById(kept.getId())).getDescription());
+        assertNull(reopened.findById(removed.getId()));
+        assertEquals(1, reopened.getSegmentCount(), "Il log rieseguito diventa un segmento");
+        reopened.close();
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe scrivere segmenti e compattarli in background")
+    void shouldFlushAndCompactSegments() {
+        LsmStorage storage = new LsmStorage("lsm-test.json", smallMemtable());
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tasks.add(new Task("Task " + i, null));
+            storage.save(tasks.get(i));
+        }
+        for (int i = 0; i < 100; i += 2) {
+            Task updated = tasks.get(i);
+            updated.setStatus(TaskStatus.DONE);
+            storage.save(updated);
+        }
+        assertEquals(25, storage.deleteAll(tasks.subList(0, 50).stream()
+                .filter(task -> task.getStatus() != TaskStatus.DONE).map(Task::getId).toList()));
+        storage.awaitBackground();
+        
+        assertTrue(storage.getFlushCount() >= 15);
+        assertTrue(storage.getCompactionCount() > 0);
+        assertTrue(storage.getSegmentCount() < storage.getFlushCount(), "La compattazione riduce i segmenti");
+        assertEquals(75, storage.size());
+        
+        List<TaskComponent> all = storage.findAll();
+        assertEquals(75, all.size());
+        List<String> ids = all.stream().map(TaskComponent::getId).toList();
+        assertEquals(ids.stream().sorted().toList(), ids, "La scansione è un merge ordinato per ID");
+        assertEquals(TaskStatus.DONE, ((Task) storage.findById(tasks.get(10).getId())).getStatus());
+        assertNull(storage.findById(tasks.get(11).getId()));
+        storage.close();
+        
+        LsmStorage reopened = new LsmStorage("lsm-test.json", smallMemtable());
+        assertEquals(75, reopened.size());
+        assertEquals(TaskStatus.DONE, ((Task) reopened.findById(tasks.get(98).getId())).getStatus());
+        assertNull(reopened.findById(tasks.get(1).getId()));
+        reopened.close();
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe salvare i progetti con i loro componenti")
+    void shouldPersistProjects() {
+        LsmStorage storage = new LsmStorage("lsm-test.json", smallMemtable());
+        Project project = new Project("Progetto", null);
+        Task child = new Task("Figlio", null);
+        project.addComponent(child);
+        storage.saveAll(List.of(child, project));
+        storage.close();
+        
+        LsmStorage reopened = new LsmStorage("lsm-test.json", smallMemtable());
+        Project loaded = (Project) reopened.findById(project.getId());
+        assertEquals(1, loaded.getComponents().size());
+        assertEquals(child.getId(), loaded.getComponents().get(0).getId());
+        assertEquals(1, reopened.findAllProjects().size());
+        reopened.close();
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe tenere in memtable una copia del componente salvato")
+    void shouldNotShareInstancesWithCallers() {
+        LsmStorage storage = new LsmStorage("lsm-test.json", smallMemtable());
+        Task task = new Task("Originale", null);
+        storage.save(task);
+        task.setTitle("Modificato senza save");
+        assertEquals("Originale", storage.findById(task.getId()).getTitle());
+        
+        Task read = (Task) storage.findById(task.getId());
+        read.setStatus(TaskStatus.DONE);
+        assertNotEquals(TaskStatus.DONE, ((Task) storage.findById(task.getId())).getStatus());
+        storage.close();
+        
+        LsmStorage reopened = new LsmStorage("lsm-test.json", smallMemtable());
+        assertEquals("Originale", reopened.findById(task.getId()).getTitle());
+        reopened.close();
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe contare i componenti vivi tra memtable, flush e sovrascritture")
+    void shouldCountLiveAcrossFlushes() {
+        LsmStorage storage = new LsmStorage("lsm-test.json", smallMemtable());
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            tasks.add(new Task("Task " + i, null));
+            storage.save(tasks.get(i));
+        }
+        for (int round = 0; round < 3; round++) {
+            for (Task task : tasks) {
+                storage.save(task);
+            }
+        }
+        assertEquals(40, storage.size(), "Le sovrascritture non cambiano il conteggio");
+        assertTrue(storage.delete(tasks.get(0).getId()));
+        storage.save(tasks.get(0));
+        assertTrue(storage.delete(tasks.get(1).getId()));
+        storage.awaitBackground();
+        assertEquals(39, storage.size());
+        assertEquals(39, storage.findAll().size());
+        storage.close();
+        
+        LsmStorage reopened = new LsmStorage("lsm-test.json", smallMemtable());
+        assertEquals(39, reopened.size());
+        reopened.close();
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe svuotare memtable e segmenti")
+    void shouldClearEverything() {
+        LsmStorage storage = (LsmStorage) StorageEngines.create("lsm", "lsm-test.json", smallMemtable());
+        for (int i = 0; i < 30; i++) {
+            storage.save(new Task("Task " + i, null));
+        }
+        storage.clear();
+        assertEquals(0, storage.size());
+        assertTrue(storage.findAll().isEmpty());
+        storage.close();
+        
+        LsmStorage reopened = new LsmStorage("lsm-test.json", smallMemtable());
+        assertEquals(0, reopened.size());
+        reopened.close();
+    }    
+    @Test
+    @DisplayName("Dovrebbe saltare i segmenti con il filtro di Bloom e ricostruire un filtro mancante")
+    void shouldSkipSegmentsWithBloomFilter() throws IOException {
+        LsmStorage storage = new LsmStorage("lsm-test.json", smallMemtable().withLsm(10, 100));
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            tasks.add(new Task("Task " + i, null));
+            storage.save(tasks.get(i));
+        }
+        storage.awaitBackground();
+        int segments = storage.getSegmentCount();
+        assertTrue(segments >= 4);
+        for (int i = 0; i < 100; i++) {
+            assertNull(storage.findById("assente-" + i));
+        }
+        assertTrue(storage.getBloomSkips() > segments * 90L, "Quasi tutti i segmenti vengono saltati");
+        storage.close();
+        
+        Path bloom;
+        try (Stream<Path> files = Files.list(DIRECTORY)) {
+            bloom = files.filter(file -> file.toString().endsWith(".bloom")).findFirst().orElseThrow();
+        }
+        Files.delete(bloom);
+        LsmStorage reopened = new LsmStorage("lsm-test.json", smallMemtable().withLsm(10, 100));
+        assertTrue(Files.exists(bloom), "Il filtro mancante viene ricostruito");
+        for (Task task : tasks) {
+            assertNotNull(reopened.findById(task.getId()));
+        }
+        reopened.close();
+    }
+}
\ No newline at end of file
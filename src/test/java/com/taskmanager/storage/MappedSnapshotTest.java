@@ -0,0 +1,177 @@
+package com.taskmanager.storage;
+
+import com.taskmanager.models.Project;
+import com.taskmanager.models.Task;
+import com.taskmanager.models.TaskComponent;
+import com.taskmanager.models.TaskPriority;
+import com.taskmanager.models.TaskStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Test per MappedSnapshot - Snapshot binario mappato in memoria.
+ */
+@DisplayName("Test per MappedSnapshot - Memory Mapping")
+class MappedSnapshotTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(Paths.get("data", "mmap-test.snap"));
+        Files.deleteIfExists(Paths.get("data", "mmap-test.bloom"));
+        Files.deleteIfExists(Paths.get("data", "mmap-test.txt"));
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe ritrovare i task con tutti i campi")
+    void shouldFindTasksWithAllFields() throws IOException {
+        Task task = new Task("Task mappato", "Descrizione");
+        task.setStatus(TaskStatus.IN_PROGRESS);
+        task.setPriority(TaskPriority.CRITICAL);
+        Task withoutDescription = new Task("Senza descrizione", null);
+        Path file = tempDir.resolve("tasks.snap");
+        
+        MappedSnapshot.write(file, List.of(task, withoutDescription));
+        MappedSnapshot snapshot = MappedSnapshot.open(file);
+        
+        assertEquals(2, snapshot.size());
+        Task found = (Task) snapshot.find(task.getId(), id -> null);
+        assertNotNull(found);
+        assertEquals(task.getId(), found.getId());
+        assertEquals("Task mappato", found.getTitle());
+        assertEquals("Descrizione", found.getDescription());
+        assertEquals(TaskStatus.IN_PROGRESS, found.getStatus());
+        assertEquals(TaskPriority.CRITICAL, found.getPriority());
+        assertEquals(task.getCreatedAt(), found.getCreatedAt());
+        assertEquals(task.getUpdatedAt(), found.getUpdatedAt());
+        assertNull(((Task) snapshot.find(withoutDescription.getId(), id -> null)).getDescription());
+        assertNull(snapshot.find("inesistente", id -> null));
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe salvare i progetti dopo i loro componenti")
+    void shouldWriteProjectsAfterComponents() throws IOException {
+        Task task = new Task("Componente", null);
+        Project project = new Project("Progetto", "Con un task");
+        project.addComponent(task);
+        Path file = tempDir.resolve("tasks.snap");
+        
+        // Il progetto viene passato per primo, ma deve essere scritto dopo il task
+        MappedSnapshot.write(file, List.of(project, task));
+        MappedSnapshot snapshot = MappedSnapshot.open(file);
+        
+        Map<String, TaskComponent> loaded = new HashMap<>();
+        snapshot.forEach(loaded::get, component -> loaded.put(component.getId(), component));
+        Project reloaded = (Project) loaded.get(project.getId());
+        assertEquals(1, reloaded.getComponents().size());
+        assertSame(loaded.get(task.getId()), reloaded.getComponents().get(0));
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe trovare ogni ID con la ricerca binaria")
+    void shouldFindEveryIdWithBinarySearch() throws IOException {
+        List<TaskComponent> tasks = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            tasks.add(new Task("Task " + i, "Descrizione " + i));
+        }
+        Path file = tempDir.resolve("tasks.snap");
+        MappedSnapshot.write(file, tasks);
+        MappedSnapshot snapshot = MappedSnapshot.open(file);
+        
+        for (TaskComponent task : tasks) {
+            assertEquals(task.getTitle(), snapshot.find(task.getId(), id -> null).getTitle());
+        }
+        List<TaskComponent> all = new ArrayList<>();
+        snapshot.forEach(id -> null, all::add);
+        assertEquals(500, all.size());
+        
+        List<String> sorted = tasks.stream().map(TaskComponent::getId).sorted().toList();
+        assertEquals(sorted, snapshot.ids().toList());
+        assertEquals(sorted.subList(0, 10), snapshot.idsAfter(null, 10));
+        assertEquals(sorted.subList(101, 111), snapshot.idsAfter(sorted.get(100), 10));
+        assertEquals(sorted.subList(101, 111), snapshot.idsAfter(sorted.get(100) + "-", 10),
+                "Un cursore assente riparte dall'ID successivo");
+        assertTrue(snapshot.idsAfter(sorted.get(499), 10).isEmpty());
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe rifiutare un file che non è uno snapshot")
+    void shouldRejectInvalidFile() throws IOException {
+        Path file = tempDir.resolve("tasks.snap");
+        Files.writeString(file, "# Task Manager Data File\nTASK|x|y");
+        
+        assertThrows(IOException.class, () -> MappedSnapshot.open(file));
+    }
+    
+    @Test
+    @DisplayName("TaskStorage dovrebbe ricaricare lo snapshot su richiesta")
+    void shouldReloadStorageLazily() {
+        TaskStorage storage = new TaskStorage("mmap-test.json", StorageMode.MAPPED);
+        storage.clear();
+        Task task = new Task("Persistente", "Sopravvive al riavvio");
+        task.setStatus(TaskStatus.DONE);
+        storage.save(task);
+        storage.save(new Task("Altro", null));
+        storage.close();
+        
+        TaskStorage reopened = new TaskStorage("mmap-test.json", StorageMode.MAPPED);
+        assertEquals(2, reopened.size());
+        TaskComponent found = reopened.findById(task.getId());
+        assertNotNull(found);
+        assertSame(found, reopened.findById(task.getId()), "Lo stesso task deve restituire la stessa istanza");
+        assertEquals(TaskStatus.DONE, found.getStatus());
+        assertTrue(Files.exists(Paths.get("data", "mmap-test.bloom")), "Il filtro di Bloom accompagna lo snapshot");
+        assertNull(reopened.findById("inesistente"));
+        
+        assertTrue(reopened.delete(task.getId()));
+        assertNull(reopened.findById(task.getId()));
+        assertEquals(1, reopened.findAllTasks().size());
+        reopened.close();
+    }
+    
+    @Test
+    @DisplayName("TaskStorage dovrebbe scorrere lo snapshot a pagine senza caricarlo per intero")
+    void shouldPageMappedSnapshotLazily() {
+        TaskStorage storage = new TaskStorage("mmap-test.json", StorageMode.MAPPED);
+        storage.clear();
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tasks.add(new Task("Task " + i, null));
+        }
+        storage.saveAll(tasks);
+        storage.save(new Project("Progetto", null));
+        storage.close();
+        List<String> expected = tasks.stream().map(Task::getId).sorted().toList();
+        
+        TaskStorage reopened = new TaskStorage("mmap-test.json", StorageMode.MAPPED);
+        TaskComponent cached = reopened.findById(expected.get(1));
+        List<Task> page = reopened.page(null, 10);
+        assertEquals(expected.subList(0, 10), page.stream().map(Task::getId).toList());
+        assertSame(cached, page.get(1), "I task già decodificati vengono presi dalla cache");
+        assertEquals(expected.subList(10, 20),
+                reopened.page(expected.get(9), 10).stream().map(Task::getId).toList());
+        assertEquals(expected.subList(0, 5), reopened.streamTasks().limit(5).map(Task::getId).toList());
+        assertTrue(reopened.isSnapshotMapped(), "Pagine e stream non caricano tutto lo snapshot");
+        
+        assertTrue(reopened.delete(expected.get(10)));
+        assertFalse(reopened.isSnapshotMapped());
+        assertEquals(expected.subList(11, 21),
+                reopened.page(expected.get(9), 10).stream().map(Task::getId).toList());
+        assertEquals(99, reopened.streamTasks().count());
+        reopened.close();
+    }
+}
\ No newline at end of file
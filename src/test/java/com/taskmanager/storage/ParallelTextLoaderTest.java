@@ -0,0 +1,71 @@
+package com.taskmanager.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Test per ParallelTextLoader - Caricamento parallelo a intervalli.
+ */
+@DisplayName("Test per ParallelTextLoader - Caricamento Parallelo")
+class ParallelTextLoaderTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    @DisplayName("Dovrebbe leggere ogni riga una sola volta")
+    void shouldReadEveryLineExactlyOnce() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            lines.add("TASK|" + i + "|Titolo è à " + "x".repeat(i % 50));
+        }
+        Path file = tempDir.resolve("tasks.txt");
+        Files.write(file, lines);
+        
+        Map<String, Integer> seen = new ConcurrentHashMap<>();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        // Intervalli minuscoli per forzare molti tagli, anche a metà riga
+        long count = ParallelTextLoader.load(file, line -> seen.merge(line, 1, Integer::sum), pool, 100);
+        pool.shutdown();
+        
+        assertEquals(5_000, count);
+        assertEquals(5_000, seen.size());
+        assertTrue(seen.values().stream().allMatch(n -> n == 1));
+        assertTrue(seen.containsKey(lines.get(4_999)));
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe gestire CRLF e l'ultima riga senza a capo")
+    void shouldHandleLineTerminators() throws IOException {
+        Path file = tempDir.resolve("tasks.txt");
+        Files.writeString(file, "prima\r\nseconda\n\nultima");
+        
+        Queue<String> lines = new ConcurrentLinkedQueue<>();
+        long count = ParallelTextLoader.load(file, lines::add, ForkJoinPool.commonPool(), 4);
+        
+        assertEquals(4, count);
+        assertTrue(lines.containsAll(List.of("prima", "seconda", "", "ultima")));
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe gestire un file vuoto")
+    void shouldHandleEmptyFile() throws IOException {
+        Path file = tempDir.resolve("tasks.txt");
+        Files.createFile(file);
+        
+        assertEquals(0, ParallelTextLoader.load(file, line -> fail("Nessuna riga attesa"), ForkJoinPool.commonPool()));
+    }
+}
\ No newline at end of file
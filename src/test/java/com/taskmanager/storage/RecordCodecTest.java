@@ -0,0 +1,111 @@
+package com.taskmanager.storage;
+
+import com.taskmanager.models.Project;
+import com.taskmanager.models.Task;
+import com.taskmanager.models.TaskComponent;
+import com.taskmanager.models.TaskPriority;
+import com.taskmanager.models.TaskStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Test per RecordCodec - Codifica binaria dei componenti.
+ */
+@DisplayName("Test per RecordCodec - Codifica binaria")
+class RecordCodecTest {
+    
+    private static ByteBuffer encode(TaskComponent... components) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (TaskComponent component : components) {
+            RecordCodec.encode(component, out);
+        }
+        return ByteBuffer.wrap(bytes.toByteArray());
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe ricostruire un task senza perdere dati")
+    void shouldRoundTripTask() throws IOException {
+        Task task = new Task("Titolo àèì | con pipe", null);
+        task.setStatus(TaskStatus.CANCELLED);
+        task.setPriority(TaskPriority.LOW);
+        
+        Task decoded = (Task) RecordCodec.decode(encode(task), id -> null);
+        
+        assertEquals(task.getId(), decoded.getId());
+        assertEquals(task.getTitle(), decoded.getTitle());
+        assertNull(decoded.getDescription());
+        assertEquals(TaskStatus.CANCELLED, decoded.getStatus());
+        assertEquals(TaskPriority.LOW, decoded.getPriority());
+        assertEquals(task.getCreatedAt(), decoded.getCreatedAt());
+        assertEquals(task.getUpdatedAt(), decoded.getUpdatedAt());
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe ricostruire un progetto con i suoi componenti")
+    void shouldRoundTripProject() throws IOException {
+        Task task = new Task("Task", "Nel progetto");
+        Task removed = new Task("Rimosso", null);
+        Project project = new Project("Progetto", "Descrizione");
+        project.addComponent(task);
+        project.addComponent(removed);
+        
+        ByteBuffer buffer = encode(task, project);
+        TaskComponent decodedTask = RecordCodec.decode(buffer, id -> null);
+        Map<String, TaskComponent> known = Map.of(decodedTask.getId(), decodedTask);
+        Project decoded = (Project) RecordCodec.decode(buffer, known::get);
+        
+        assertEquals(project.getId(), decoded.getId());
+        assertEquals("Descrizione", decoded.getDescription());
+        assertEquals(project.getUpdatedAt(), decoded.getUpdatedAt());
+        assertEquals(List.of(decodedTask), decoded.getComponents(), "I componenti non trovati vengono scartati");
+        assertFalse(buffer.hasRemaining());
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe conservare date nulle e precedenti al 1970")
+    void shouldHandleNullAndOldTimestamps() throws IOException {
+        LocalDateTime old = LocalDateTime.of(1969, 12, 31, 23, 59, 59, 123_456_789);
+        Task task = new Task("id-1", "Vecchio", "", TaskStatus.TODO, TaskPriority.MEDIUM, old, null);
+        
+        Task decoded = (Task) RecordCodec.decode(encode(task), id -> null);
+        
+        assertEquals(old, decoded.getCreatedAt());
+        assertNull(decoded.getUpdatedAt());
+        assertEquals("", decoded.getDescription());
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe conservare stato e priorità nulli e rifiutare ordinali sconosciuti")
+    void shouldHandleNullAndUnknownConstants() throws IOException {
+        Task task = new Task("Senza stato", null);
+        task.setStatus(null);
+        task.setPriority(null);
+        
+        ByteBuffer buffer = encode(task);
+        Task decoded = (Task) RecordCodec.decode(buffer, id -> null);
+        assertNull(decoded.getStatus());
+        assertNull(decoded.getPriority());
+        
+        buffer.put(buffer.limit() - 10, (byte) TaskStatus.values().length);
+        assertThrows(IOException.class, () -> RecordCodec.decode(buffer.rewind(), id -> null));
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe rifiutare una versione sconosciuta")
+    void shouldRejectUnknownVersion() throws IOException {
+        ByteBuffer buffer = encode(new Task("Task", null));
+        buffer.put(0, (byte) (RecordCodec.VERSION + 1));
+        
+        assertThrows(IOException.class, () -> RecordCodec.decode(buffer, id -> null));
+    }
+}
\ No newline at end of file
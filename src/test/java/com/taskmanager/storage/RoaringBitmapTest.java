@@ -0,0 +1,98 @@
+package com.taskmanager.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Test per RoaringBitmap - Bitmap compressa degli ordinali.
+ */
+@DisplayName("Test per RoaringBitmap - Bitmap compressa")
+class RoaringBitmapTest {
+    
+    /**
+     * Riempie una bitmap e un BitSet di riferimento con gli stessi valori
+     */
+    private static RoaringBitmap fill(BitSet expected, Random random, int count, int bound) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (int i = 0; i < count; i++) {
+            int value = random.nextInt(bound);
+            bitmap.add(value);
+            expected.set(value);
+        }
+        return bitmap;
+    }
+    
+    private static void assertSameValues(BitSet expected, RoaringBitmap bitmap) {
+        assertEquals(expected.cardinality(), bitmap.cardinality());
+        List<Integer> values = new ArrayList<>();
+        bitmap.forEach(values::add);
+        assertEquals(expected.stream().boxed().toList(), values);
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe aggiungere e togliere valori passando da array a bitmap")
+    void shouldConvertBetweenContainers() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        BitSet expected = new BitSet();
+        // Un blocco denso (più di 4096 valori) e uno rado
+        for (int i = 0; i < 10_000; i++) {
+            bitmap.add(i);
+            expected.set(i);
+        }
+        bitmap.add(200_000);
+        expected.set(200_000);
+        bitmap.add(5);
+        assertSameValues(expected, bitmap);
+        assertTrue(bitmap.contains(9_999));
+        assertFalse(bitmap.contains(10_000));
+        
+        for (int i = 0; i < 10_000; i += 2) {
+            assertTrue(bitmap.remove(i));
+            expected.clear(i);
+        }
+        assertFalse(bitmap.remove(0));
+        assertFalse(bitmap.remove(-1));
+        assertSameValues(expected, bitmap);
+        
+        for (int i = 1; i < 10_000; i += 2) {
+            bitmap.remove(i);
+        }
+        bitmap.remove(200_000);
+        assertTrue(bitmap.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> bitmap.add(-1));
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe calcolare AND e OR come un BitSet")
+    void shouldMatchBitSetForAndOr() {
+        Random random = new Random(42);
+        // Combinazioni di blocchi radi e densi
+        int[][] shapes = {{2_000, 300_000}, {60_000, 70_000}, {100_000, 1 << 17}};
+        for (int[] a : shapes) {
+            for (int[] b : shapes) {
+                BitSet expectedA = new BitSet();
+                BitSet expectedB = new BitSet();
+                RoaringBitmap left = fill(expectedA, random, a[0], a[1]);
+                RoaringBitmap right = fill(expectedB, random, b[0], b[1]);
+                
+                BitSet and = (BitSet) expectedA.clone();
+                and.and(expectedB);
+                assertSameValues(and, left.and(right));
+                
+                BitSet or = (BitSet) expectedA.clone();
+                or.or(expectedB);
+                assertSameValues(or, left.or(right));
+                
+                // Gli operandi non vengono modificati
+                assertSameValues(expectedA, left);
+                assertSameValues(expectedB, right);
+            }
+        }
+    }
+}
\ No newline at end of file
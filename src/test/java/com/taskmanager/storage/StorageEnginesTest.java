@@ -0,0 +1,195 @@
+package com.taskmanager.storage;
+
+import com.taskmanager.models.Task;
+import com.taskmanager.models.TaskComponent;
+import com.taskmanager.services.SimpleTaskManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Test per StorageEngines - Selezione del motore di persistenza.
+ */
+@DisplayName("Test per StorageEngines - Motori di Storage")
+class StorageEnginesTest {
+    
+    @AfterEach
+    void tearDown() throws IOException {
+        for (String extension : List.of(".txt", ".json", ".log", ".snap")) {
+            Files.deleteIfExists(Paths.get("data", "engine-test" + extension));
+        }
+    }
+    
+    /**
+     * Motore minimo in memoria: basta implementare i metodi astratti
+     */
+    private static class InMemoryEngine implements StorageEngine {
+        private final Map<String, TaskComponent> components = new LinkedHashMap<>();
+        
+        @Override
+        public void save(TaskComponent component) { components.put(component.getId(), component); }
+        @Override
+        public TaskComponent findById(String id) { return components.get(id); }
+        @Override
+        public boolean delete(String id) { return components.remove(id) != null; }
+        @Override
+        public List<TaskComponent> findAll() { return new ArrayList<>(components.values()); }
+        @Override
+        public int size() { return components.size(); }
+        @Override
+        public void clear() { components.clear(); }
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe creare i motori registrati per nome")
+    void shouldCreateEnginesByName() {
+        assertTrue(StorageEngines.names().containsAll(List.of("auto", "text", "json", "log", "mmap")));
+        
+        StorageEngine log = StorageEngines.create("LOG", "engine-test.json", StorageOptions.defaults());
+        assertEquals(StorageMode.APPEND_LOG, ((TaskStorage) log).getMode());
+        log.close();
+        
+        StorageEngine text = StorageEngines.create("text", "engine-test.json", StorageOptions.defaults());
+        text.save(new Task("Testo", null));
+        assertTrue(Files.exists(Paths.get("data", "engine-test.txt")));
+        assertFalse(Files.exists(Paths.get("data", "engine-test.json")));
+        text.close();
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe rifiutare un motore sconosciuto")
+    void shouldRejectUnknownEngine() {
+        assertThrows(IllegalArgumentException.class,
+                () -> StorageEngines.create("inesistente", "engine-test.json", StorageOptions.defaults()));
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe usare un motore registrato dal service layer")
+    void shouldPlugCustomEngineIntoService() {
+        StorageEngines.register("memoria", (fileName, options) -> new InMemoryEngine());
+        StorageEngine engine = StorageEngines.create("memoria", "engine-test.json", StorageOptions.defaults());
+        SimpleTaskManager manager = new SimpleTaskManager(engine);
+        
+        Task task = new Task("In memoria", null);
+        manager.addTask(task);
+        
+        assertSame(task, manager.findTaskById(task.getId()));
+        assertEquals(1, engine.findAllTasks().size(), "findAllTasks() ha un'implementazione di default");
+        assertEquals(1, engine.deleteAll(List.of(task.getId(), "inesistente")));
+        assertEquals(0, manager.getTaskCount());
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe rifiutare un aggiornamento superato anche con i motori B+tree e LSM")
+    void shouldCompareVersionsOnDiskEngines() throws IOException {
+        List<Supplier<StorageEngine>> engines = List.of(() -> new BTreeStorage("cas-test.json"),
+                () -> new CachingStorageEngine(new LsmStorage("cas-test.json"), 100));
+        try {
+            for (Supplier<StorageEngine> factory : engines) {
+                StorageEngine engine = factory.get();
+                SimpleTaskManager manager = new SimpleTaskManager(engine);
+                Task task = new Task("Contatore", "0");
+                manager.addTask(task);
+                String id = task.getId();
+                long read = manager.findTaskById(id).getVersion();
+                
+                manager.updateTask(id, read, current -> current.setDescription("1"));
+                assertThrows(ConcurrentModificationException.class,
+                        () -> manager.updateTask(id, read, current -> current.setDescription("sovrascritto")),
+                        "Il secondo aggiornamento dalla stessa lettura deve fallire");
+                Task current = manager.findTaskById(id);
+                assertEquals("1", current.getDescription());
+                manager.updateTask(id, current.getVersion(), latest -> latest.setDescription("2"));
+                assertEquals("2", manager.findTaskById(id).getDescription());
+                
+                AtomicInteger calls = new AtomicInteger();
+                long version = manager.findTaskById(id).getVersion();
+                assertThrows(IllegalStateException.class, () -> manager.updateTask(id, version, latest -> {
+                    calls.incrementAndGet();
+                    throw new IllegalStateException("Errore nella modifica");
+                }));
+                assertEquals(1, calls.get(), "Un errore della modifica non la fa rieseguire");
+                engine.close();
+                
+                StorageEngine reopened = factory.get();
+                SimpleTaskManager restarted = new SimpleTaskManager(reopened);
+                assertEquals(version, restarted.findTaskById(id).getVersion(),
+                        "La versione deve sopravvivere al riavvio");
+                assertThrows(ConcurrentModificationException.class,
+                        () -> restarted.updateTask(id, read, latest -> latest.setDescription("vecchio")));
+                restarted.updateTask(id, version, latest -> latest.setDescription("3"));
+                assertEquals("3", restarted.findTaskById(id).getDescription());
+                reopened.close();
+            }
+        } finally {
+            Files.deleteIfExists(Paths.get("data", "cas-test.records"));
+            Files.deleteIfExists(Paths.get("data", "cas-test.btree"));
+            Path lsmDirectory = Paths.get("data", "cas-test-lsm");
+            if (Files.exists(lsmDirectory)) {
+                try (Stream<Path> files = Files.walk(lsmDirectory)) {
+                    for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                        Files.delete(file);
+                    }
+                }
+            }
+        }
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe rifiutare le ricerche senza reindicizzare se il motore non accetta indici")
+    void shouldRememberUnsupportedIndexes() {
+        AtomicInteger scans = new AtomicInteger();
+        StorageEngine engine = new InMemoryEngine() {
+            @Override
+            public List<TaskComponent> findAll() {
+                scans.incrementAndGet();
+                return super.findAll();
+            }
+        };
+        SimpleTaskManager manager = new SimpleTaskManager(engine);
+        manager.addTask(new Task("Report trimestrale", null));
+        
+        for (int i = 0; i < 3; i++) {
+            assertThrows(UnsupportedOperationException.class, () -> manager.searchTasks("report", 10));
+            assertThrows(UnsupportedOperationException.class, () -> manager.findTasksByTitle("rep", 10));
+        }
+        assertEquals(0, scans.get(), "Nessuna ricerca scorre tutti i task");
+    }
+    
+    @Test
+    @DisplayName("Le operazioni batch dovrebbero sopravvivere al riavvio")
+    void shouldBatchLogWrites() {
+        TaskStorage storage = new TaskStorage("engine-test.json", StorageMode.APPEND_LOG);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            tasks.add(new Task("Batch " + i, null));
+        }
+        
+        storage.saveAll(tasks);
+        assertEquals(20, storage.size());
+        assertEquals(10, storage.deleteAll(tasks.subList(0, 10).stream().map(Task::getId).toList()));
+        storage.close();
+        
+        TaskStorage reopened = new TaskStorage("engine-test.json", StorageMode.APPEND_LOG);
+        assertEquals(10, reopened.size());
+        assertNotNull(reopened.findById(tasks.get(15).getId()));
+        assertThrows(IllegalArgumentException.class, () -> reopened.saveAll(Arrays.asList(tasks.get(0), null)));
+        reopened.close();
+    }
+}
\ No newline at end of file
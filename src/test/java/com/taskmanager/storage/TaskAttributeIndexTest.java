@@ -0,0 +1,88 @@
+package com.taskmanager.storage;
+
+import com.taskmanager.models.Project;
+import com.taskmanager.models.Task;
+import com.taskmanager.models.TaskPriority;
+import com.taskmanager.models.TaskStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Test per TaskAttributeIndex - Bitmap per stato e priorità.
+ */
+@DisplayName("Test per TaskAttributeIndex - Indici secondari")
+class TaskAttributeIndexTest {
+    
+    @Test
+    @DisplayName("Dovrebbe spostare un task tra le bitmap quando cambiano i valori")
+    void shouldMoveTaskBetweenBitmaps() {
+        TaskAttributeIndex index = new TaskAttributeIndex();
+        Task task = new Task("Task", null);
+        index.update(task);
+        assertEquals(List.of(task.getId()), index.query(EnumSet.of(TaskStatus.TODO), null));
+        assertEquals(List.of(task.getId()), index.query(null, EnumSet.of(TaskPriority.MEDIUM)));
+        
+        // Stessa istanza modificata sul posto: l'indice ricorda i valori registrati
+        task.setStatus(TaskStatus.IN_PROGRESS);
+        task.setPriority(TaskPriority.HIGH);
+        index.update(task);
+        assertTrue(index.query(EnumSet.of(TaskStatus.TODO), null).isEmpty());
+        assertTrue(index.query(null, EnumSet.of(TaskPriority.MEDIUM)).isEmpty());
+        assertEquals(List.of(task.getId()), index.query(EnumSet.of(TaskStatus.IN_PROGRESS), EnumSet.of(TaskPriority.HIGH)));
+        assertEquals(1, index.size());
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe ignorare i progetti e riusare gli ordinali degli ID eliminati")
+    void shouldIgnoreProjectsAndReuseOrdinals() {
+        TaskAttributeIndex index = new TaskAttributeIndex();
+        Task task = new Task("Task", null);
+        index.update(task);
+        index.update(new Project("Progetto", null));
+        assertEquals(1, index.size());
+        
+        index.remove(task.getId());
+        index.remove("inesistente");
+        assertEquals(0, index.size());
+        assertTrue(index.query(null, null).isEmpty());
+        
+        Task other = new Task("Altro", null);
+        index.update(other);
+        assertEquals(List.of(other.getId()), index.query(null, null));
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe combinare stati e priorità e contare per valore")
+    void shouldCombineAttributesAndCount() {
+        TaskAttributeIndex index = new TaskAttributeIndex();
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            Task task = new Task("Task " + i, null);
+            task.setStatus(TaskStatus.values()[i % TaskStatus.values().length]);
+            task.setPriority(TaskPriority.values()[(i / 7) % TaskPriority.values().length]);
+            tasks.add(task);
+            index.update(task);
+        }
+        Set<TaskStatus> statuses = EnumSet.of(TaskStatus.TODO, TaskStatus.IN_PROGRESS);
+        Set<TaskPriority> priorities = EnumSet.of(TaskPriority.HIGH, TaskPriority.CRITICAL);
+        Set<String> expected = new HashSet<>();
+        for (Task task : tasks) {
+            if (TaskAttributeIndex.matches(task, statuses, priorities)) {
+                expected.add(task.getId());
+            }
+        }
+        List<String> found = index.query(statuses, priorities);
+        assertEquals(expected.size(), found.size());
+        assertEquals(expected, new HashSet<>(found));
+        
+        assertEquals(5_000, index.countByStatus().get(TaskStatus.DONE));
+        assertEquals(20_000, index.countByPriority().values().stream().mapToInt(Integer::intValue).sum());
+    }
+}
\ No newline at end of file
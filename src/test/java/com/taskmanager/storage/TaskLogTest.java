@@ -0,0 +1,126 @@
+package com.taskmanager.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Test per TaskLog - Log append-only.
+ */
+@DisplayName("Test per TaskLog - Log Append-Only")
+class TaskLogTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    @DisplayName("Dovrebbe aggiungere record in coda e rileggerli in ordine")
+    void shouldAppendAndReplayInOrder() throws IOException {
+        Path file = tempDir.resolve("tasks.log");
+        try (TaskLog log = new TaskLog(file)) {
+            log.append("TASK|a1|Primo||Da fare|Media");
+            log.append("TASK|b2|Secondo||Da fare|Media");
+            log.append("DELETE|a1");
+            assertEquals(3, log.getRecordCount());
+        }
+        
+        List<String> records = new ArrayList<>();
+        TaskLog reopened = new TaskLog(file);
+        long count = reopened.replay(records::add);
+        
+        assertEquals(3, count);
+        assertEquals(List.of("TASK|a1|Primo||Da fare|Media", "TASK|b2|Secondo||Da fare|Media", "DELETE|a1"), records);
+    }
+    
+    @Test
+    @DisplayName("Ogni scrittura dovrebbe solo aggiungere byte al file")
+    void shouldOnlyGrowFile() throws IOException {
+        Path file = tempDir.resolve("tasks.log");
+        try (TaskLog log = new TaskLog(file)) {
+            log.commit(log.append("TASK|a1|Primo||Da fare|Media"));
+            long firstSize = Files.size(file);
+            log.commit(log.append("TASK|b2|Secondo||Da fare|Media"));
+            
+            assertTrue(Files.size(file) > firstSize);
+            assertTrue(Files.readString(file).startsWith("TASK|a1"), "Il primo record non dovrebbe essere riscritto");
+        }
+    }
+    
+    @Test
+    @DisplayName("Un batch fallito non dovrebbe risultare scritto né andare perso")
+    void shouldKeepRecordsOfFailedBatch() throws IOException {
+        Path file = tempDir.resolve("tasks.log");
+        Files.createDirectory(file); // Aprire il log in scrittura fallisce
+        try (TaskLog log = new TaskLog(file)) {
+            long first = log.append("TASK|a1|Primo||Da fare|Media");
+            assertThrows(IOException.class, () -> log.commit(first));
+            
+            Files.delete(file);
+            long second = log.append("TASK|b2|Secondo||Da fare|Media");
+            log.commit(second);
+        }
+        
+        List<String> records = new ArrayList<>();
+        new TaskLog(file).replay(records::add);
+        assertEquals(List.of("TASK|a1|Primo||Da fare|Media", "TASK|b2|Secondo||Da fare|Media"), records);
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe scrivere più record accodati con un solo batch e un solo force")
+    void shouldGroupCommitPendingRecords() throws IOException {
+        try (TaskLog log = new TaskLog(tempDir.resolve("tasks.log"), FsyncPolicy.ALWAYS, 0)) {
+            long first = log.append("TASK|a1|Primo||Da fare|Media");
+            log.append("TASK|b2|Secondo||Da fare|Media");
+            long last = log.append("TASK|c3|Terzo||Da fare|Media");
+            
+            log.commit(last);
+            log.commit(first); // Già incluso nel batch precedente
+            
+            assertEquals(1, log.getBatchCount());
+            assertEquals(1, log.getForceCount());
+            assertEquals(3, Files.readAllLines(log.getPath()).size());
+        }
+    }
+    
+    @Test
+    @DisplayName("Con la politica OS non dovrebbe chiamare force")
+    void shouldNotForceWithOsPolicy() throws IOException {
+        try (TaskLog log = new TaskLog(tempDir.resolve("tasks.log"))) {
+            log.commit(log.append("TASK|a1|Primo||Da fare|Media"));
+            
+            assertEquals(1, log.getBatchCount());
+            assertEquals(0, log.getForceCount());
+        }
+    }
+    
+    @Test
+    @DisplayName("Con la politica INTERVAL il commit non dovrebbe scrivere subito")
+    void shouldDeferWritesWithIntervalPolicy() throws IOException {
+        Path file = tempDir.resolve("tasks.log");
+        try (TaskLog log = new TaskLog(file, FsyncPolicy.INTERVAL, 60_000)) {
+            log.commit(log.append("TASK|a1|Primo||Da fare|Media"));
+            assertFalse(Files.exists(file), "Il record dovrebbe essere ancora nel buffer");
+            
+            log.flush();
+            assertEquals(1, Files.readAllLines(file).size());
+            assertEquals(1, log.getForceCount());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new TaskLog(file, FsyncPolicy.INTERVAL, 0));
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe gestire un log inesistente")
+    void shouldHandleMissingLog() throws IOException {
+        TaskLog log = new TaskLog(tempDir.resolve("assente.log"));
+        
+        assertEquals(0, log.replay(record -> fail("Nessun record atteso")));
+        assertEquals(0, log.sizeInBytes());
+    }
+}
\ No newline at end of file
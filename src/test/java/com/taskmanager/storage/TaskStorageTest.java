@@ -3,12 +3,32 @@ package com.taskmanager.storage;
 import com.taskmanager.models.Task;
 import com.taskmanager.models.Project;
 import com.taskmanager.models.TaskComponent;
+import com.taskmanager.models.TaskPriority;
+import com.taskmanager.models.TaskStatus;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.DisplayName;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
 /**
  * Test per TaskStorage - Persistenza in memoria (versione semplificata).
  */
@@ -129,7 +149,7 @@ class TaskStorageTest {
         storage.save(testProject);
         
         // Test che printStats() non lanci eccezioni
-        assertDoesNotThrow(() -> storage.printStats(), 
+        assertDoesNotThrow(() -> storage.printStats(),
                           "printStats() non dovrebbe lanciare eccezioni");
         
         // Verifica che le statistiche siano corrette
@@ -207,4 +227,325 @@ class TaskStorageTest {
             fail("Il componente recuperato dovrebbe essere un Task");
         }
     }
+    
+    @Test
+    @DisplayName("Dovrebbe rileggere dal file ID, stato, priorità e date")
+    void shouldReloadTasksWithoutLosingData() throws IOException {
+        TaskStorage textStorage = new TaskStorage("reload-test.txt");
+        textStorage.clear();
+        Task task = new Task("Titolo | con separatore", "Riga 1\nRiga 2 \\ fine");
+        task.setStatus(TaskStatus.DONE);
+        task.setPriority(TaskPriority.HIGH);
+        textStorage.save(task);
+        
+        TaskStorage reloaded = new TaskStorage("reload-test.txt");
+        Task found = (Task) reloaded.findById(task.getId());
+        Files.deleteIfExists(Paths.get("data", "reload-test.txt"));
+        
+        assertNotNull(found, "L'ID deve restare lo stesso dopo il caricamento");
+        assertEquals(task.getTitle(), found.getTitle());
+        assertEquals(task.getDescription(), found.getDescription());
+        assertEquals(TaskStatus.DONE, found.getStatus());
+        assertEquals(TaskPriority.HIGH, found.getPriority());
+        assertEquals(task.getCreatedAt(), found.getCreatedAt());
+        assertEquals(task.getUpdatedAt(), found.getUpdatedAt());
+        assertEquals(List.of(found), reloaded.findTasksByStatus(TaskStatus.DONE), "Gli indici si riempiono dopo il caricamento");
+        assertEquals(List.of(task.getId()), reloaded.findIdsByPrefix(task.getId().substring(0, 6), 10));
+    }
+    @Test
+    @DisplayName("Dovrebbe filtrare per stato e priorità con gli indici secondari")
+    void shouldFilterByStatusAndPriorityWithIndexes() {
+        Task other = new Task("Altro", null);
+        storage.save(testTask);
+        storage.save(other);
+        storage.save(testProject);
+        assertEquals(2, storage.findTasksByStatus(TaskStatus.TODO).size());
+        assertEquals(2, storage.findTasksByPriority(TaskPriority.MEDIUM).size());
+        
+        testTask.setStatus(TaskStatus.DONE);
+        testTask.setPriority(TaskPriority.CRITICAL);
+        assertEquals(1, storage.findTasksByStatus(TaskStatus.TODO).size(), "Un task modificato sul posto non resta nel vecchio stato");
+        storage.save(testTask);
+        assertEquals(List.of(testTask), storage.findTasksByStatus(TaskStatus.DONE));
+        assertEquals(List.of(testTask), storage.findTasksByPriority(TaskPriority.CRITICAL));
+        assertEquals(List.of(other), storage.findTasksByPriority(TaskPriority.MEDIUM));
+        assertEquals(List.of(testTask), storage.findTasks(EnumSet.of(TaskStatus.TODO, TaskStatus.DONE),
+                EnumSet.of(TaskPriority.HIGH, TaskPriority.CRITICAL)));
+        assertEquals(1, storage.countTasksByStatus().get(TaskStatus.DONE));
+        
+        storage.delete(other.getId());
+        assertTrue(storage.findTasksByStatus(TaskStatus.TODO).isEmpty());
+        storage.clear();
+        assertTrue(storage.findTasksByStatus(TaskStatus.DONE).isEmpty());
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe tenere aggiornato un indice esterno registrato con addIndex")
+    void shouldNotifyRegisteredIndexes() {
+        storage.save(testTask);
+        Map<String, TaskComponent> indexed = new HashMap<>();
+        storage.addIndex(new ComponentIndex() {
+            @Override
+            public void update(TaskComponent component) { indexed.put(component.getId(), component); }
+            
+            @Override
+            public void remove(String id) { indexed.remove(id); }
+            
+            @Override
+            public void clear() { indexed.clear(); }
+        });
+        assertEquals(Set.of(testTask.getId()), indexed.keySet(), "I componenti già salvati arrivano alla registrazione");
+        
+        storage.save(testProject);
+        assertSame(testProject, indexed.get(testProject.getId()));
+        storage.delete(testTask.getId());
+        assertEquals(Set.of(testProject.getId()), indexed.keySet());
+        storage.clear();
+        assertTrue(indexed.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> storage.addIndex(null));
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe risolvere i prefissi degli ID con il radix trie")
+    void shouldFindIdsByPrefix() {
+        Task first = new Task("abc00001", "Primo", null, TaskStatus.TODO, TaskPriority.LOW, null, null);
+        Task second = new Task("abc00002", "Secondo", null, TaskStatus.TODO, TaskPriority.LOW, null, null);
+        Task other = new Task("abd00001", "Altro", null, TaskStatus.TODO, TaskPriority.LOW, null, null);
+        storage.save(second);
+        storage.save(first);
+        storage.save(other);
+        
+        assertEquals(List.of("abc00001", "abc00002"), storage.findIdsByPrefix("abc", 10));
+        assertEquals(List.of("abd00001"), storage.findIdsByPrefix("abd", 10), "Prefisso univoco");
+        assertEquals(List.of("abc00001"), storage.findIdsByPrefix("ab", 1));
+        assertTrue(storage.findIdsByPrefix("x", 10).isEmpty());
+        
+        storage.delete("abc00002");
+        assertEquals(List.of("abc00001"), storage.findIdsByPrefix("abc", 10));
+        storage.clear();
+        assertTrue(storage.findIdsByPrefix("", 10).isEmpty());
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe salvare nel log solo i task modificati sul posto")
+    void shouldPersistInPlaceChanges() throws IOException {
+        // Intervallo lungo: qui le modifiche si salvano solo a mano
+        TaskStorage logStorage = new TaskStorage("dirty-test.json", StorageOptions.defaults()
+                .withMode(StorageMode.APPEND_LOG).withFsync(FsyncPolicy.OS, 60_000));
+        Task changed = new Task("Da modificare", null);
+        Task untouched = new Task("Invariato", null);
+        logStorage.saveAll(List.of(changed, untouched));
+        
+        changed.setStatus(TaskStatus.DONE);
+        changed.setPriority(TaskPriority.HIGH);
+        new Task("Mai salvato", null).setStatus(TaskStatus.DONE);
+        assertEquals(1, logStorage.getDirtyCount(), "Due modifiche allo stesso task, un solo record da scrivere");
+        assertEquals(List.of(changed), logStorage.findTasksByStatus(TaskStatus.DONE), "Gli indici vedono subito la modifica");
+        
+        assertEquals(1, logStorage.persistChanges());
+        assertEquals(0, logStorage.getDirtyCount());
+        assertEquals(0, logStorage.persistChanges());
+        untouched.setTitle("Modificato prima della chiusura");
+        logStorage.close();
+        
+        TaskStorage reopened = new TaskStorage("dirty-test.json", StorageMode.APPEND_LOG);
+        Task found = (Task) reopened.findById(changed.getId());
+        assertEquals(TaskStatus.DONE, found.getStatus());
+        assertEquals(TaskPriority.HIGH, found.getPriority());
+        assertEquals("Modificato prima della chiusura", reopened.findById(untouched.getId()).getTitle());
+        
+        reopened.delete(found.getId());
+        found.setStatus(TaskStatus.CANCELLED);
+        assertEquals(0, reopened.getDirtyCount(), "Un task eliminato non viene più seguito");
+        reopened.close();
+        for (String extension : List.of(".json", ".log")) {
+            Files.deleteIfExists(Paths.get("data", "dirty-test" + extension));
+        }
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe salvare in background le modifiche sul posto oltre la soglia")
+    void shouldFlushDirtyBatchInBackground() throws Exception {
+        // Intervallo lungo, così a salvare è la soglia e non il timer
+        TaskStorage dirtyStorage = new TaskStorage("dirty-batch-test.json",
+                StorageOptions.defaults().withFsync(FsyncPolicy.OS, 60_000));
+        dirtyStorage.clear();
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            tasks.add(new Task("Task " + i, null));
+        }
+        dirtyStorage.saveAll(tasks);
+        for (Task task : tasks) {
+            task.setStatus(TaskStatus.DONE);
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (dirtyStorage.getDirtyCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, dirtyStorage.getDirtyCount(), "La soglia avvia il salvataggio senza flush()");
+        dirtyStorage.flush();
+        
+        TaskStorage reloaded = new TaskStorage("dirty-batch-test.json");
+        int done = reloaded.findTasksByStatus(TaskStatus.DONE).size();
+        Files.deleteIfExists(Paths.get("data", "dirty-batch-test.json"));
+        assertEquals(64, done);
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe salvare le modifiche sul posto entro l'intervallo di fsync")
+    void shouldFlushDirtyChangesAfterInterval() throws Exception {
+        TaskStorage dirtyStorage = new TaskStorage("dirty-timer-test.json",
+                StorageOptions.defaults().withFsync(FsyncPolicy.OS, 20));
+        dirtyStorage.clear();
+        Task task = new Task("Modificato una volta", null);
+        dirtyStorage.save(task);
+        assertTrue(dirtyStorage.tracksChanges());
+        
+        task.setStatus(TaskStatus.DONE);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (dirtyStorage.getDirtyCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, dirtyStorage.getDirtyCount(), "Una sola modifica arriva su disco senza flush()");
+        
+        TaskStorage reloaded = new TaskStorage("dirty-timer-test.json");
+        TaskStatus status = reloaded.findById(task.getId()).getStatus();
+        dirtyStorage.close();
+        reloaded.close();
+        Files.deleteIfExists(Paths.get("data", "dirty-timer-test.json"));
+        assertEquals(TaskStatus.DONE, status);
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe rifiutare un aggiornamento basato su una versione superata")
+    void shouldRejectStaleUpdates() {
+        storage.save(testTask);
+        long version = testTask.getVersion();
+        
+        Task updated = storage.update(testTask.getId(), version, task -> task.setStatus(TaskStatus.DONE));
+        assertNotSame(testTask, updated, "La modifica avviene su una copia");
+        assertEquals(TaskStatus.TODO, testTask.getStatus());
+        assertSame(updated, storage.findById(testTask.getId()));
+        assertEquals(version + 1, updated.getVersion());
+        assertEquals(List.of(updated), storage.findTasksByStatus(TaskStatus.DONE));
+        
+        assertThrows(ConcurrentModificationException.class,
+                () -> storage.update(testTask.getId(), version, task -> task.setPriority(TaskPriority.HIGH)));
+        updated.setTitle("Modificato sul posto");
+        assertThrows(ConcurrentModificationException.class,
+                () -> storage.update(testTask.getId(), version + 1, task -> task.setPriority(TaskPriority.HIGH)));
+        assertEquals(TaskPriority.MEDIUM, ((Task) storage.findById(testTask.getId())).getPriority());
+        assertNull(storage.update("inesistente", 0, task -> task.setTitle("x")));
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe non perdere aggiornamenti concorrenti dello stesso task")
+    void shouldNotLoseConcurrentUpdates() throws InterruptedException {
+        Task counter = new Task("Contatore", "0");
+        storage.save(counter);
+        int threads = 4;
+        int updatesPerThread = 250;
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                for (int i = 0; i < updatesPerThread; i++) {
+                    while (true) {
+                        Task current = (Task) storage.findById(counter.getId());
+                        try {
+                            storage.update(current.getId(), current.getVersion(), task ->
+                                    task.setDescription(String.valueOf(Integer.parseInt(task.getDescription()) + 1)));
+                            break;
+                        } catch (ConcurrentModificationException e) {
+                            conflicts.incrementAndGet();
+                        }
+                    }
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        Task result = (Task) storage.findById(counter.getId());
+        assertEquals(String.valueOf(threads * updatesPerThread), result.getDescription(),
+                "Ogni aggiornamento riuscito parte dal valore lasciato dal precedente (conflitti: " + conflicts + ")");
+        assertEquals(threads * updatesPerThread, result.getVersion());
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe non perdere salvataggi concorrenti nelle riscritture del file")
+    void shouldSerializeConcurrentRewrites() throws Exception {
+        for (String fileName : List.of("concurrent-test.json", "concurrent-test.txt")) {
+            TaskStorage shared = new TaskStorage(fileName);
+            shared.clear();
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < 200; i++) {
+                    Task task = new Task("Task " + i, null);
+                    futures.add(executor.submit(() -> shared.save(task)));
+                }
+                for (Future<?> future : futures) {
+                    future.get(30, TimeUnit.SECONDS);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+            
+            TaskStorage reloaded = new TaskStorage(fileName);
+            int reloadedSize = reloaded.size();
+            Files.deleteIfExists(Paths.get("data", fileName));
+            assertEquals(200, reloadedSize, "L'ultima riscrittura contiene tutti i task: " + fileName);
+            try (Stream<Path> files = Files.list(Paths.get("data"))) {
+                assertTrue(files.noneMatch(file -> file.getFileName().toString().startsWith(fileName + ".")),
+                        "Nessun file temporaneo rimasto");
+            }
+        }
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe modificare in blocco solo i task che soddisfano il filtro")
+    void shouldUpdateWhere() {
+        Task done = new Task("Già fatto", null);
+        done.setStatus(TaskStatus.DONE);
+        storage.saveAll(List.of(testTask, done, testProject));
+        
+        List<Task> updated = storage.updateWhere(task -> task.getStatus() == TaskStatus.TODO,
+                task -> task.setPriority(TaskPriority.CRITICAL));
+        assertEquals(1, updated.size());
+        assertSame(updated.get(0), storage.findById(testTask.getId()));
+        assertEquals(TaskPriority.MEDIUM, testTask.getPriority(), "La modifica avviene su una copia");
+        assertEquals(List.of(updated.get(0)), storage.findTasksByPriority(TaskPriority.CRITICAL));
+        assertEquals(TaskPriority.MEDIUM, ((Task) storage.findById(done.getId())).getPriority());
+        
+        assertTrue(storage.updateWhere(task -> true, task -> {}).isEmpty(), "Senza modifiche non si scrive nulla");
+        assertThrows(IllegalArgumentException.class, () -> storage.updateWhere(null, task -> {}));
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe scorrere i task a pagine e con uno stream")
+    void shouldPageAndStreamTasks() {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            tasks.add(new Task("Task " + i, null));
+        }
+        storage.saveAll(tasks);
+        storage.save(testProject);
+        
+        List<String> expected = tasks.stream().map(Task::getId).sorted().toList();
+        List<String> paged = new ArrayList<>();
+        List<Task> page = storage.page(null, 40);
+        while (!page.isEmpty()) {
+            assertTrue(page.size() <= 40);
+            page.forEach(task -> paged.add(task.getId()));
+            page = storage.page(page.get(page.size() - 1).getId(), 40);
+        }
+        assertEquals(expected, paged, "Le pagine saltano i progetti e seguono l'ordine degli ID");
+        
+        assertEquals(250, storage.streamTasks().count());
+        assertEquals(5, storage.streamTasks().limit(5).count());
+        assertEquals(250, storage.streamTasks().parallel().map(Task::getId).distinct().count());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,120 @@
+package com.taskmanager.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test per WriteBehindQueue - Persistenza asincrona.
+ */
+@DisplayName("Test per WriteBehindQueue - Write-Behind")
+class WriteBehindQueueTest {
+    
+    @Test
+    @DisplayName("Dovrebbe scrivere tutti i record in ordine")
+    void shouldWriteAllRecordsInOrder() throws InterruptedException {
+        List<String> written = Collections.synchronizedList(new ArrayList<>());
+        WriteBehindQueue queue = new WriteBehindQueue(100, written::addAll);
+        
+        for (int i = 0; i < 50; i++) {
+            queue.enqueue("R" + i);
+        }
+        
+        assertTrue(queue.awaitPersisted(5, TimeUnit.SECONDS));
+        assertEquals(50, written.size());
+        assertEquals("R0", written.get(0));
+        assertEquals("R49", written.get(49));
+        assertEquals(0, queue.getPendingCount());
+        queue.close();
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe bloccare i chiamanti quando la coda è piena")
+    void shouldApplyBackpressure() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        WriteBehindQueue queue = new WriteBehindQueue(1, records -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        
+        queue.enqueue("R1"); // Preso dal thread di scrittura, che resta bloccato
+        Thread.sleep(100);
+        queue.enqueue("R2"); // Occupa l'unico posto in coda
+        
+        Thread producer = new Thread(() -> queue.enqueue("R3"));
+        producer.start();
+        producer.join(200);
+        assertTrue(producer.isAlive(), "Il produttore dovrebbe attendere spazio nella coda");
+        assertFalse(queue.awaitPersisted(50, TimeUnit.MILLISECONDS));
+        
+        release.countDown();
+        producer.join(5000);
+        assertFalse(producer.isAlive());
+        assertTrue(queue.awaitPersisted(5, TimeUnit.SECONDS));
+        queue.close();
+    }
+    
+    @Test
+    @DisplayName("La chiusura dovrebbe scrivere i record in coda")
+    void shouldDrainOnClose() {
+        List<String> written = Collections.synchronizedList(new ArrayList<>());
+        WriteBehindQueue queue = new WriteBehindQueue(1000, written::addAll);
+        for (int i = 0; i < 500; i++) {
+            queue.enqueue("R" + i);
+        }
+        
+        queue.close();
+        
+        assertEquals(500, written.size());
+        assertThrows(IllegalStateException.class, () -> queue.enqueue("dopo"));
+    }
+    
+    @Test
+    @DisplayName("Un errore di scrittura non dovrebbe bloccare chi attende né risultare scritto")
+    void shouldReportWriteFailure() throws InterruptedException {
+        WriteBehindQueue queue = new WriteBehindQueue(10, records -> {
+            throw new java.io.IOException("disco pieno");
+        });
+        queue.enqueue("R1");
+        
+        assertFalse(queue.awaitPersisted(5, TimeUnit.SECONDS));
+        assertEquals("disco pieno", queue.getLastFailure().getMessage());
+        assertEquals(1, queue.getPendingCount());
+        queue.close();
+        assertTrue(queue.getFailedBatches() >= 1);
+    }
+    
+    @Test
+    @DisplayName("Dovrebbe riprovare un batch fallito finché non viene scritto")
+    void shouldRetryFailedBatch() throws InterruptedException {
+        List<String> written = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger calls = new AtomicInteger();
+        WriteBehindQueue queue = new WriteBehindQueue(10, records -> {
+            if (calls.incrementAndGet() <= 2) {
+                throw new java.io.IOException("disco pieno");
+            }
+            written.addAll(records);
+        });
+        queue.enqueue("R1");
+        queue.enqueue("R2");
+        
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!queue.awaitPersisted(100, TimeUnit.MILLISECONDS) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, queue.getPendingCount());
+        assertNull(queue.getLastFailure());
+        assertEquals(List.of("R1", "R2"), written.subList(written.size() - 2, written.size()));
+        queue.close();
+    }
+}
\ No newline at end of file